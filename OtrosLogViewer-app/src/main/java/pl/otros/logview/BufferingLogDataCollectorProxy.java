@@ -17,76 +17,160 @@ package pl.otros.logview;
 
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.DataConfiguration;
+import org.apache.commons.configuration.event.ConfigurationEvent;
+import org.apache.commons.configuration.event.ConfigurationListener;
+import org.apache.commons.configuration.event.EventSource;
 import pl.otros.logview.gui.ConfKeys;
-import pl.otros.logview.reader.ProxyLogDataCollector;
-
-import javax.swing.*;
-
+import pl.otros.logview.gui.LogDataTableModel;
+import pl.otros.logview.util.MpscQueue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * Collects events from many reader threads and passes them in batches to delegate in EDT. Readers put events into
+ * lock free queue and wake up draining thread only if it is waiting, so readers never contend on a monitor.
+ */
 public class BufferingLogDataCollectorProxy implements LogDataCollector, Stoppable {
 
+  private static final Logger LOGGER = Logger.getLogger(BufferingLogDataCollectorProxy.class.getName());
+
   private LogDataCollector delegate;
-  private ProxyLogDataCollector proxyLogDataCollector;
+  private CoalescingUpdateScheduler updateScheduler;
+  private final MpscQueue<LogData[]> queue = new MpscQueue<LogData[]>();
+  private final Thread drainer;
+  private volatile boolean drainerWaiting;
   private volatile boolean stop;
   private DataConfiguration configuration;
-
+  private EventSource configurationEventSource;
+  private ConfigurationListener playListener;
+  /**
+   * Reused between drains, holds batches polled from queue
+   */
+  private final List<LogData[]> drainedBatches = new ArrayList<LogData[]>();
+
+  /**
+   * @param sleepTime maximum time of waiting for events before checking if tailing was resumed
+   */
   public BufferingLogDataCollectorProxy(LogDataCollector delegate, final long sleepTime, Configuration configuration) {
     super();
     this.delegate = delegate;
     this.configuration = new DataConfiguration(configuration);
-    proxyLogDataCollector = new ProxyLogDataCollector();
+    updateScheduler = new CoalescingUpdateScheduler(delegate,
+        this.configuration.getInt(ConfKeys.TAILING_PANEL_MAX_UPDATES_PER_SECOND, CoalescingUpdateScheduler.DEFAULT_MAX_UPDATES_PER_SECOND));
     Runnable r = new Runnable() {
 
       @Override
       public void run() {
+        long sleepNanos = TimeUnit.MILLISECONDS.toNanos(sleepTime);
         while (!stop) {
-          if (BufferingLogDataCollectorProxy.this.configuration.getBoolean(ConfKeys.TAILING_PANEL_PLAY)) {
-            synchronized (BufferingLogDataCollectorProxy.this) {
-              LogData[] logData = proxyLogDataCollector.getLogData();
-              if (logData.length > 0) {
-                proxyLogDataCollector = new ProxyLogDataCollector();
-                addToDelegateInEDT(logData);
-              }
-            }
+          boolean play = BufferingLogDataCollectorProxy.this.configuration.getBoolean(ConfKeys.TAILING_PANEL_PLAY);
+          if (play && !queue.isEmpty()) {
+            drain();
+            continue;
           }
-
-          try {
-            Thread.sleep(sleepTime);
-          } catch (InterruptedException ignore) {
+          drainerWaiting = true;
+          if (!play || queue.isEmpty()) {
+            LockSupport.parkNanos(BufferingLogDataCollectorProxy.this, sleepNanos);
           }
-
+          drainerWaiting = false;
         }
-
       }
     };
-    Thread t = new Thread(r, "BufferingLogDataCollectorProxy");
-    t.setDaemon(true);
-    t.start();
+    drainer = new Thread(r, "BufferingLogDataCollectorProxy");
+    drainer.setDaemon(true);
+    drainer.start();
+    if (configuration instanceof EventSource) {
+      playListener = new ConfigurationListener() {
+        @Override
+        public void configurationChanged(ConfigurationEvent event) {
+          if (!event.isBeforeUpdate() && ConfKeys.TAILING_PANEL_PLAY.equals(event.getPropertyName())) {
+            wakeUpDrainer();
+          }
+        }
+      };
+      configurationEventSource = (EventSource) configuration;
+      configurationEventSource.addConfigurationListener(playListener);
+    }
+  }
+
+  private void drain() {
+    int size = 0;
+    LogData[] batch;
+    while ((batch = queue.poll()) != null) {
+      drainedBatches.add(batch);
+      size += batch.length;
+    }
+    if (drainedBatches.isEmpty()) {
+      return;
+    }
+    LogData[] logData;
+    if (drainedBatches.size() == 1) {
+      logData = drainedBatches.get(0);
+    } else {
+      logData = new LogData[size];
+      int position = 0;
+      for (LogData[] drained : drainedBatches) {
+        System.arraycopy(drained, 0, logData, position, drained.length);
+        position += drained.length;
+      }
+    }
+    drainedBatches.clear();
+    if (delegate instanceof LogDataTableModel) {
+      ((LogDataTableModel) delegate).markIncoming(logData);
+    }
+    addToDelegateInEDT(logData);
+  }
+
+  private void wakeUpDrainer() {
+    if (drainerWaiting) {
+      LockSupport.unpark(drainer);
+    }
   }
 
   protected void addToDelegateInEDT(final LogData[] logData) {
-    SwingUtilities.invokeLater(new Runnable() {
+    updateScheduler.add(logData);
+  }
 
-      @Override
-      public void run() {
-        BufferingLogDataCollectorProxy.this.delegate.add(logData);
-      }
-    });
+  public CoalescingUpdateScheduler getUpdateScheduler() {
+    return updateScheduler;
   }
 
   @Override
-  public synchronized void add(LogData... logDatas) {
-    proxyLogDataCollector.add(logDatas);
+  public void add(LogData... logDatas) {
+    if (logDatas.length == 0) {
+      return;
+    }
+    // array is queued without copying, importers pass new array in every call
+    queue.offer(logDatas);
+    wakeUpDrainer();
   }
 
+  /**
+   * @return events which are not passed to delegate yet
+   */
   @Override
-  public synchronized LogData[] getLogData() {
-    return proxyLogDataCollector.getLogData();
+  public LogData[] getLogData() {
+    List<LogData> result = new ArrayList<LogData>();
+    for (LogData[] batch : queue.snapshot()) {
+      result.addAll(Arrays.asList(batch));
+    }
+    return result.toArray(new LogData[result.size()]);
   }
 
   @Override
   public void stop() {
     stop = true;
-
+    LockSupport.unpark(drainer);
+    if (configurationEventSource != null) {
+      configurationEventSource.removeConfigurationListener(playListener);
+    }
+    LOGGER.info(String.format("Stopped, %d batches of events added in %d table updates, %d batches merged, %d updates delayed by slow EDT",
+        updateScheduler.getBatches(), updateScheduler.getUpdates(), updateScheduler.getMergedBatches(), updateScheduler.getDelayedUpdates()));
   }
 
   @Override
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import pl.otros.logview.reader.ImportMetrics;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Passes events to {@link LogDataCollector} in EDT, merging batches into at most one
+ * {@link LogDataCollector#add(LogData...)} call (and one table event) per frame.
+ * <p/>
+ * Only one update is queued in EDT at a time. Batches which arrive when EDT is busy are merged into next update
+ * instead of queueing more repaints. Frame is stretched when adding events takes more than half of frame time, so
+ * EDT is not saturated by tailing.
+ */
+public class CoalescingUpdateScheduler {
+
+  private static final Logger LOGGER = Logger.getLogger(CoalescingUpdateScheduler.class.getName());
+
+  public static final int DEFAULT_MAX_UPDATES_PER_SECOND = 10;
+  private static final long MAX_FRAME_MILLIS = 1000;
+
+  private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("CoalescingUpdateScheduler-%d").setDaemon(true).build());
+
+  private final LogDataCollector delegate;
+  private final long frameMillis;
+  private final Object lock = new Object();
+
+  private List<LogData[]> pending = new ArrayList<LogData[]>();
+  private boolean updateScheduled;
+  private long nextUpdateTime;
+
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong updates = new AtomicLong();
+  private final AtomicLong mergedBatches = new AtomicLong();
+  private final AtomicLong delayedUpdates = new AtomicLong();
+  /**
+   * Metrics of sources which events are added by this scheduler, kept weakly so closed sources are not retained
+   */
+  private final Set<ImportMetrics> storeMetrics = Collections.newSetFromMap(new WeakHashMap<ImportMetrics, Boolean>());
+
+  public CoalescingUpdateScheduler(LogDataCollector delegate, int maxUpdatesPerSecond) {
+    this.delegate = delegate;
+    this.frameMillis = 1000 / Math.max(1, maxUpdatesPerSecond);
+  }
+
+  /**
+   * Schedules adding events to delegate. Can be called from any thread.
+   */
+  public void add(LogData[] logData) {
+    if (logData.length == 0) {
+      return;
+    }
+    batches.incrementAndGet();
+    long delay;
+    synchronized (lock) {
+      pending.add(logData);
+      if (updateScheduled) {
+        mergedBatches.incrementAndGet();
+        return;
+      }
+      updateScheduled = true;
+      delay = nextUpdateTime - System.currentTimeMillis();
+    }
+    if (delay > 0) {
+      TIMER.schedule(new Runnable() {
+        @Override
+        public void run() {
+          SwingUtilities.invokeLater(updateTask);
+        }
+      }, delay, TimeUnit.MILLISECONDS);
+    } else {
+      SwingUtilities.invokeLater(updateTask);
+    }
+  }
+
+  /**
+   * Records time of every update as {@link ImportMetrics.Stage#STORE} of source. Sources sharing scheduler record the
+   * same updates, because their events are inserted together.
+   */
+  public void addStoreMetrics(ImportMetrics metrics) {
+    synchronized (storeMetrics) {
+      storeMetrics.add(metrics);
+    }
+  }
+
+  private final Runnable updateTask = new Runnable() {
+    @Override
+    public void run() {
+      update();
+    }
+  };
+
+  /**
+   * Adds all pending batches in one call, have to be called in EDT
+   */
+  void update() {
+    List<LogData[]> toAdd;
+    synchronized (lock) {
+      toAdd = pending;
+      pending = new ArrayList<LogData[]>();
+      updateScheduled = false;
+    }
+    if (toAdd.isEmpty()) {
+      return;
+    }
+    long start = System.currentTimeMillis();
+    long startNanos = System.nanoTime();
+    delegate.add(merge(toAdd));
+    recordStoreTime(System.nanoTime() - startNanos);
+    updates.incrementAndGet();
+    long duration = System.currentTimeMillis() - start;
+    long frame = Math.min(MAX_FRAME_MILLIS, Math.max(frameMillis, 2 * duration));
+    if (frame > frameMillis) {
+      delayedUpdates.incrementAndGet();
+      LOGGER.fine(String.format("Adding %d batches took %dms, next update in %dms", toAdd.size(), duration, frame));
+    }
+    synchronized (lock) {
+      nextUpdateTime = start + frame;
+    }
+  }
+
+  private void recordStoreTime(long nanos) {
+    synchronized (storeMetrics) {
+      for (ImportMetrics metrics : storeMetrics) {
+        metrics.record(ImportMetrics.Stage.STORE, nanos);
+      }
+    }
+  }
+
+  private static LogData[] merge(List<LogData[]> batches) {
+    if (batches.size() == 1) {
+      return batches.get(0);
+    }
+    int size = 0;
+    for (LogData[] batch : batches) {
+      size += batch.length;
+    }
+    LogData[] result = new LogData[size];
+    int position = 0;
+    for (LogData[] batch : batches) {
+      System.arraycopy(batch, 0, result, position, batch.length);
+      position += batch.length;
+    }
+    return result;
+  }
+
+  /**
+   * @return number of batches passed to {@link #add(LogData[])}
+   */
+  public long getBatches() {
+    return batches.get();
+  }
+
+  /**
+   * @return number of updates done in EDT
+   */
+  public long getUpdates() {
+    return updates.get();
+  }
+
+  /**
+   * @return number of batches merged into already scheduled update, each one is a skipped repaint
+   */
+  public long getMergedBatches() {
+    return mergedBatches.get();
+  }
+
+  /**
+   * @return number of updates after which next update was delayed because EDT was too slow
+   */
+  public long getDelayedUpdates() {
+    return delayedUpdates.get();
+  }
+}
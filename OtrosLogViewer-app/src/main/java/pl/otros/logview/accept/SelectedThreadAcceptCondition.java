@@ -18,6 +18,8 @@ package pl.otros.logview.accept;
 import com.google.common.base.Joiner;
 import pl.otros.logview.LogData;
 import pl.otros.logview.gui.LogDataTableModel;
+import pl.otros.logview.store.index.IdSelection;
+import pl.otros.logview.store.index.IndexedField;
 
 import javax.swing.*;
 import java.util.Set;
@@ -26,6 +28,7 @@ import java.util.TreeSet;
 public class SelectedThreadAcceptCondition extends SelectionAwareAcceptCondition {
 
     protected Set<String> threads;
+    protected IdSelection threadIds;
 
     public SelectedThreadAcceptCondition(JTable jTable, LogDataTableModel dataTableModel) {
         super(jTable, dataTableModel);
@@ -40,6 +43,10 @@ public class SelectedThreadAcceptCondition extends SelectionAwareAcceptCondition
 
     @Override
     public boolean accept(LogData data) {
+        IdSelection ids = threadIds;
+        if (ids != null && ids.covers(data.getId())) {
+            return ids.contains(data.getId());
+        }
         return threads.contains(data.getThread());
     }
 
@@ -51,6 +58,7 @@ public class SelectedThreadAcceptCondition extends SelectionAwareAcceptCondition
             LogData logData = dataTableModel.getLogData(jTable.convertRowIndexToModel(i));
             threads.add(logData.getThread());
         }
+        threadIds = dataTableModel.getIndexes().get(IndexedField.THREAD).select(threads);
 
         description = threads.size()+" threads: " + Joiner.on(", ").join(threads);
         name = description;
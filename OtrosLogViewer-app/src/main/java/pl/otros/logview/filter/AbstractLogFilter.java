@@ -39,7 +39,7 @@ public abstract class AbstractLogFilter implements LogFilter {
 
   @Override
   public void init(Properties properties, LogDataTableModel logDataTableModel) {
-
+    this.collector = logDataTableModel;
   }
 
   @Override
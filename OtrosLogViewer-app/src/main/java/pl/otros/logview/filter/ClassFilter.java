@@ -20,9 +20,14 @@ import pl.otros.logview.LogData;
 import pl.otros.logview.gui.Icons;
 import pl.otros.logview.gui.LogDataTableModel;
 import pl.otros.logview.gui.PopupListener;
+import pl.otros.logview.store.index.IdSelection;
+import pl.otros.logview.store.index.IndexedField;
+import pl.otros.logview.store.index.PackageTree;
+import pl.otros.logview.store.index.PrefixTrie;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.DefaultTreeCellRenderer;
 import javax.swing.tree.TreePath;
 import java.awt.*;
@@ -34,10 +39,12 @@ public class ClassFilter extends AbstractLogFilter {
 
     private JTree tree;
     private DefaultMutableTreeNode rootNode;
-    private HashMap<Clazz, DefaultMutableTreeNode> clazzNodeMap;
     private HashSet<String> ignoreList = new HashSet<String>();
     private HashSet<String> focusList = new HashSet<String>();
     private Mode mode = Mode.IGNORE_MODE;
+    private IdSelection matchingIds;
+    private PrefixTrie ignorePrefixes = new PrefixTrie();
+    private PrefixTrie focusPrefixes = new PrefixTrie();
 
     private enum Mode {
         IGNORE_MODE, FOCUS_MODE
@@ -50,23 +57,15 @@ public class ClassFilter extends AbstractLogFilter {
     @Override
     public boolean accept(LogData logData, int row) {
         String clazz = logData.getClazz();
+        IdSelection ids = matchingIds;
         boolean result = true;
-        if (mode == Mode.IGNORE_MODE) {
-            result = true;
-            for (String c : ignoreList) {
-                if (clazz.startsWith(c)) {
-                    result = false;
-                    break;
-                }
-            }
-        } else if (mode == Mode.FOCUS_MODE && focusList.size() > 0) {
-            result = false;
-            for (String c : focusList) {
-                if (clazz.startsWith(c)) {
-                    result = true;
-                    break;
-                }
-            }
+        if (ids != null && ids.covers(logData.getId())) {
+            boolean matches = ids.contains(logData.getId());
+            result = mode == Mode.IGNORE_MODE ? !matches : matches;
+        } else if (mode == Mode.IGNORE_MODE) {
+            result = !ignorePrefixes.matches(clazz);
+        } else if (mode == Mode.FOCUS_MODE && !focusPrefixes.isEmpty()) {
+            result = focusPrefixes.matches(clazz);
         }
         return result;
     }
@@ -100,12 +99,24 @@ public class ClassFilter extends AbstractLogFilter {
     public void ignoreClass(String... classes) {
         Collections.addAll(ignoreList, classes);
         mode = Mode.IGNORE_MODE;
-        listener.valueChanged();
+        filterValueChanged();
     }
 
     public void focusOn(String... classes) {
         Collections.addAll(focusList, classes);
         mode = Mode.FOCUS_MODE;
+        filterValueChanged();
+    }
+
+    private void filterValueChanged() {
+        ignorePrefixes = new PrefixTrie(ignoreList);
+        focusPrefixes = new PrefixTrie(focusList);
+        HashSet<String> prefixes = mode == Mode.IGNORE_MODE ? ignoreList : focusList;
+        if (collector != null && prefixes.size() > 0) {
+            matchingIds = collector.getIndexes().get(IndexedField.CLASS).selectWithPrefix(prefixes);
+        } else {
+            matchingIds = null;
+        }
         listener.valueChanged();
     }
 
@@ -113,9 +124,6 @@ public class ClassFilter extends AbstractLogFilter {
         rootNode = new DefaultMutableTreeNode(new Clazz("root"));
         tree = new JTree(rootNode);
         tree.setCellRenderer(new TreeRenderer());
-
-        clazzNodeMap = new HashMap<Clazz, DefaultMutableTreeNode>();
-        clazzNodeMap.put(new Clazz("root"), rootNode);
         initPopup();
     }
 
@@ -147,69 +155,42 @@ public class ClassFilter extends AbstractLogFilter {
     }
 
     private void reloadClasses() {
-        LogData[] ld = collector.getLogData();
+        PackageTree.Node classTree = collector.getIndexes().getClassTree().copy();
+        rootNode.removeAllChildren();
+        addChildNodes(rootNode, classTree);
+        rootNode.setUserObject(new Clazz("root", classTree.getCount()));
+        ((DefaultTreeModel) tree.getModel()).reload();
 
-        Set<String> classesSet = new TreeSet<String>();
-        for (LogData aLd : ld) {
-            classesSet.add(aLd.getClazz());
-        }
-
-        // prepare packages nodes
-        TreeSet<String> packages = new TreeSet<String>();
-        for (String string : classesSet) {
-            Clazz clazz = new Clazz(string);
-            String pack = clazz.pack;
-            int start = 0;
-            while (start < pack.length()) {
-                int idx = pack.indexOf('.', start + 1);
-                if (idx < 0) {
-                    idx = pack.length();
-                }
-                String upClazz = pack.substring(0, idx);
-                packages.add(upClazz);
-                start = idx;
-            }
-        }
+        tree.expandPath(new TreePath(rootNode));
+        tree.repaint();
+    }
 
-        // Create packages tree
-        for (String string : packages) {
-            Clazz clazz = new Clazz(string);
-            DefaultMutableTreeNode newNode = new DefaultMutableTreeNode(clazz);
-            DefaultMutableTreeNode parentNode;
-            if (clazzNodeMap.containsKey(new Clazz(clazz.pack))) {
-                parentNode = clazzNodeMap.get(new Clazz(clazz.pack));
-            } else {
-                parentNode = rootNode;
+    private void addChildNodes(DefaultMutableTreeNode parentNode, PackageTree.Node packageNode) {
+        // packages first, then classes
+        for (PackageTree.Node child : packageNode.getChildren()) {
+            if (!child.isLeaf()) {
+                DefaultMutableTreeNode newNode = new DefaultMutableTreeNode(new Clazz(child.getFullName(), child.getCount()));
+                parentNode.add(newNode);
+                addChildNodes(newNode, child);
             }
-            clazzNodeMap.put(clazz, newNode);
-            parentNode.add(newNode);
         }
-
-        // Create classes leafs
-        for (String string : classesSet) {
-            Clazz clazz = new Clazz(string);
-            DefaultMutableTreeNode newNode = new DefaultMutableTreeNode(clazz);
-            DefaultMutableTreeNode parentNode;
-            Clazz packetClazz = new Clazz(clazz.pack);
-            if (clazzNodeMap.containsKey(packetClazz)) {
-                parentNode = clazzNodeMap.get(packetClazz);
-            } else {
-                parentNode = new DefaultMutableTreeNode(packetClazz);
-                rootNode.add(parentNode);
-                clazzNodeMap.put(packetClazz, parentNode);
+        for (PackageTree.Node child : packageNode.getChildren()) {
+            if (child.isLeaf()) {
+                parentNode.add(new DefaultMutableTreeNode(new Clazz(child.getFullName(), child.getCount())));
             }
-            parentNode.add(newNode);
-            clazzNodeMap.put(clazz, newNode);
         }
-
-        tree.expandPath(new TreePath(rootNode));
-        tree.repaint();
     }
 
     private static class Clazz implements Comparable<Clazz> {
 
         private String pack;
         private String clazz;
+        private int count = -1;
+
+        public Clazz(String packageClazz, int count) {
+            this(packageClazz);
+            this.count = count;
+        }
 
         public Clazz(String packageClazz) {
             if (packageClazz.length() == 0) {
@@ -259,6 +240,10 @@ public class ClassFilter extends AbstractLogFilter {
             }
         }
 
+        public int getCount() {
+            return count;
+        }
+
         public String toFullString() {
             if (pack != null && pack.length() > 0) {
                 return pack + '.' + clazz;
@@ -287,7 +272,7 @@ public class ClassFilter extends AbstractLogFilter {
                 list.add(userObject.toFullString());
             }
             ClassFilter.this.mode = mode;
-            listener.valueChanged();
+            filterValueChanged();
         }
 
     }
@@ -309,7 +294,7 @@ public class ClassFilter extends AbstractLogFilter {
                 Clazz userObject = (Clazz) node.getUserObject();
                 list.remove(userObject.toFullString());
             }
-            listener.valueChanged();
+            filterValueChanged();
         }
 
     }
@@ -328,7 +313,7 @@ public class ClassFilter extends AbstractLogFilter {
             for (HashSet<String> l : lists) {
                 l.clear();
             }
-            listener.valueChanged();
+            filterValueChanged();
             tree.repaint();
         }
 
@@ -391,6 +376,9 @@ public class ClassFilter extends AbstractLogFilter {
             } else {
                 icon = packageClosedIcon;
             }
+            if (clazz.getCount() >= 0) {
+                l.setText(clazz.toString() + " (" + clazz.getCount() + ")");
+            }
             Font newFont = font.deriveFont(style);
             parent.setFont(newFont);
             l.setIcon(icon);
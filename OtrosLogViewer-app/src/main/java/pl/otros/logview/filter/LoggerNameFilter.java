@@ -16,6 +16,11 @@
 package pl.otros.logview.filter;
 
 import pl.otros.logview.LogData;
+import pl.otros.logview.store.index.FieldIndex;
+import pl.otros.logview.store.index.IdSelection;
+import pl.otros.logview.store.index.IndexedField;
+
+import java.util.Collections;
 
 public class LoggerNameFilter extends AbstractStringBasedFilter {
 
@@ -23,6 +28,7 @@ public class LoggerNameFilter extends AbstractStringBasedFilter {
   private static final String DESCRIPTION = "Filtering events based on a Logger name.";
   private static final String LABEL_TEXT = "Enter text";
   private String condition = "";
+  private IdSelection matchingIds;
 
   public LoggerNameFilter() {
     super(NAME, DESCRIPTION, LABEL_TEXT);
@@ -35,6 +41,10 @@ public class LoggerNameFilter extends AbstractStringBasedFilter {
       return false;
     } else if (condition.length() == 0) {
       return true;
+    }
+    IdSelection ids = matchingIds;
+    if (ids != null && ids.covers(logData.getId())) {
+      return ids.contains(logData.getId());
     } else if (isIgnoreCase()) {
       loggerName = loggerName.toLowerCase();
     }
@@ -44,6 +54,11 @@ public class LoggerNameFilter extends AbstractStringBasedFilter {
   @Override
   protected void performPreFiltering() {
     condition = isIgnoreCase() ? getFilteringText().toLowerCase() : getFilteringText();
+    matchingIds = null;
+    if (collector != null && condition.length() > 0) {
+      FieldIndex index = collector.getIndexes().get(IndexedField.LOGGER_NAME);
+      matchingIds = isIgnoreCase() ? index.selectIgnoreCase(condition) : index.select(Collections.singleton(condition));
+    }
   }
 
   public void setLoggerNameFilterAndGuiChange(String loggerName) {
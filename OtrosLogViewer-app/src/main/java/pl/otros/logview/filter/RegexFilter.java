@@ -16,6 +16,7 @@
 package pl.otros.logview.filter;
 
 import pl.otros.logview.LogData;
+import pl.otros.logview.store.index.IdSelection;
 
 import java.awt.*;
 import java.util.regex.Pattern;
@@ -30,6 +31,7 @@ public class RegexFilter extends AbstractStringBasedFilter {
   String condition = "";
   private Pattern pattern = Pattern.compile("");
   private boolean patternOk = true;
+  private IdSelection candidates;
 
   public RegexFilter() {
     super(NANE, DESCRIPTION, LABEL_TEXT);
@@ -45,6 +47,7 @@ public class RegexFilter extends AbstractStringBasedFilter {
       condition = condition.substring(0, condition.length() - 2);
     }
     patternOk = false;
+    candidates = null;
     int flags = 0;
     if (isIgnoreCase()) {
       flags = Pattern.CASE_INSENSITIVE;
@@ -52,6 +55,9 @@ public class RegexFilter extends AbstractStringBasedFilter {
     try {
       pattern = Pattern.compile(condition, flags);
       patternOk = true;
+      if (collector != null && condition.length() > 0) {
+        candidates = collector.getIndexes().selectMessagesMatching(condition);
+      }
     } catch (PatternSyntaxException e) {
       textField.setBackground(Color.RED);
     }
@@ -61,6 +67,10 @@ public class RegexFilter extends AbstractStringBasedFilter {
   @Override
   public boolean accept(LogData logData, int row) {
     if (patternOk && condition.length() > 0) {
+      IdSelection ids = candidates;
+      if (ids != null && ids.excludes(logData.getId())) {
+        return false;
+      }
       return pattern.matcher(logData.getMessage()).find();
     }
     return condition.length() == 0 || !patternOk;
@@ -16,6 +16,7 @@
 package pl.otros.logview.filter;
 
 import pl.otros.logview.LogData;
+import pl.otros.logview.store.index.IdSelection;
 
 public class StringContainsFilter extends AbstractStringBasedFilter {
 
@@ -23,6 +24,7 @@ public class StringContainsFilter extends AbstractStringBasedFilter {
   private static final String DESCRIPTION = "Filtering events based on a matching string in log message.";
   private static final String LABLE_TEXT = "Enter text";
   private String condition = "";
+  private IdSelection candidates;
 
   public StringContainsFilter() {
     super(NAME, DESCRIPTION, LABLE_TEXT);
@@ -30,14 +32,22 @@ public class StringContainsFilter extends AbstractStringBasedFilter {
 
   @Override
   public boolean accept(LogData logData, int row) {
+    if (condition.length() == 0) {
+      return true;
+    }
+    IdSelection ids = candidates;
+    if (ids != null && ids.excludes(logData.getId())) {
+      return false;
+    }
     String message = isIgnoreCase() ? logData.getMessage().toLowerCase() : logData.getMessage();
-    return condition.length() == 0 || message.contains(condition);
+    return message.contains(condition);
   }
 
   @Override
   protected void performPreFiltering() {
     condition = isIgnoreCase() ? getFilteringText().toLowerCase() : getFilteringText();
-
+    // index is case insensitive, for case sensitive filtering it still gives superset of matching events
+    candidates = collector != null && condition.length() > 0 ? collector.getIndexes().selectMessagesContaining(condition) : null;
   }
 
 }
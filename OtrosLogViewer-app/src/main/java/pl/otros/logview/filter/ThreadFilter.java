@@ -20,6 +20,8 @@ import org.apache.commons.lang.ArrayUtils;
 import org.jdesktop.swingx.JXHyperlink;
 import pl.otros.logview.LogData;
 import pl.otros.logview.gui.LogDataTableModel;
+import pl.otros.logview.store.index.IdSelection;
+import pl.otros.logview.store.index.IndexedField;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
@@ -34,6 +36,7 @@ public class ThreadFilter extends AbstractLogFilter {
   private static final String DESCRIPTION = "Filtering events based on a thread.";
   private JList jList;
   private Set<String> selectedThread;
+  private IdSelection selectedThreadIds;
   private JPanel panel;
   private final DefaultListModel listModel;
 
@@ -52,6 +55,7 @@ public class ThreadFilter extends AbstractLogFilter {
           for (Object selectedValue : selectedValues) {
             selectedThread.add((String) selectedValue);
           }
+          updateSelectedThreadIds();
           listener.valueChanged();
         }
       }
@@ -85,9 +89,18 @@ public class ThreadFilter extends AbstractLogFilter {
 
   private void clearSelection() {
     selectedThread.clear();
+    selectedThreadIds = null;
     jList.clearSelection();
   }
 
+  private void updateSelectedThreadIds() {
+    if (collector != null && selectedThread.size() > 0) {
+      selectedThreadIds = collector.getIndexes().get(IndexedField.THREAD).select(selectedThread);
+    } else {
+      selectedThreadIds = null;
+    }
+  }
+
   private void invertSelection() {
     int[] selectedIndices = jList.getSelectedIndices();
     ArrayList<Integer> inverted = new ArrayList<Integer>();
@@ -108,7 +121,14 @@ public class ThreadFilter extends AbstractLogFilter {
 
   @Override
   public boolean accept(LogData logData, int row) {
-    return (selectedThread.size() == 0 || selectedThread.contains(logData.getThread()));
+    if (selectedThread.size() == 0) {
+      return true;
+    }
+    IdSelection ids = selectedThreadIds;
+    if (ids != null && ids.covers(logData.getId())) {
+      return ids.contains(logData.getId());
+    }
+    return selectedThread.contains(logData.getThread());
   }
 
   @Override
@@ -130,15 +150,19 @@ public class ThreadFilter extends AbstractLogFilter {
   }
 
   private void reloadThreads() {
-    LogData[] ld = collector.getLogData();
     TreeSet<String> sortedThreads = new TreeSet<String>(new Comparator<String>() {
       @Override
       public int compare(String arg0, String arg1) {
         return arg0.compareToIgnoreCase(arg1);
       }
     });
-    for (LogData logData : ld) {
-      sortedThreads.add(logData.getThread());
+    List<String> indexedThreads = collector.getIndexes().get(IndexedField.THREAD).getValues();
+    if (indexedThreads != null) {
+      sortedThreads.addAll(indexedThreads);
+    } else {
+      for (LogData logData : collector.getLogData()) {
+        sortedThreads.add(logData.getThread());
+      }
     }
     for (String sortedThread : sortedThreads) {
       if (!listModel.contains(sortedThread)) {
@@ -19,6 +19,7 @@ public class ConfKeys {
 
   public static final String TAILING_PANEL_PLAY = "gui.tailingview.play";
   public static final String TAILING_PANEL_FOLLOW = "gui.tailingview.follow";
+  public static final String TAILING_PANEL_MAX_UPDATES_PER_SECOND = "gui.tailingview.maxUpdatesPerSecond";
 
   public static final String LOAD_EXPERIMENTAL_FEATURES = "loadExperimentalFeatures";
   public static final String VERSION_CHECK_ON_STARTUP = "updateCheck.checkNewVersionOnStart";
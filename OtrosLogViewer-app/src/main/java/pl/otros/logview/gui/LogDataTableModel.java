@@ -22,25 +22,31 @@ import pl.otros.logview.LogDataCollector;
 import pl.otros.logview.MarkerColors;
 import pl.otros.logview.Note;
 import pl.otros.logview.accept.AcceptCondition;
+import pl.otros.logview.gui.markers.AutomaticMarker;
+import pl.otros.logview.gui.markers.MarkerEngine;
 import pl.otros.logview.gui.note.NotableTableModel;
 import pl.otros.logview.gui.note.NoteEvent;
 import pl.otros.logview.gui.note.NoteEvent.EventType;
 import pl.otros.logview.gui.note.NoteObserver;
+import pl.otros.logview.gui.renderers.RenderedValueCache;
 import pl.otros.logview.gui.table.TableColumns;
 import pl.otros.logview.store.CachedLogStore;
 import pl.otros.logview.store.LogDataStore;
 import pl.otros.logview.store.MemoryLogDataStore;
 import pl.otros.logview.store.SynchronizedLogDataStore;
 import pl.otros.logview.store.file.FileLogDataStore;
+import pl.otros.logview.store.index.LogDataIndexes;
 
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.AbstractTableModel;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -58,12 +64,24 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
   private static final Note EMPTY_NOTE = new Note("");
   private Set<NoteObserver> noteObservers;
   private LogDataStore logDataStore;
+  private volatile MarkerEngine incomingMarkerEngine;
+  private static final int MAX_CLASS_WRAPPERS = 10000;
+  private static final int RENDERED_VALUES_CACHE_SIZE = 4096;
+
   private Map<String, ClassWrapper> classWrapperCache;
+  private RenderedValueCache<TimeDelta> timeDeltaCache = new RenderedValueCache<TimeDelta>(RENDERED_VALUES_CACHE_SIZE);
+  private RenderedValueCache<String> propertiesCache = new RenderedValueCache<String>(RENDERED_VALUES_CACHE_SIZE);
+  private RowSnapshotCache rowSnapshots;
 
   private int maximumMessageLength = 2000;
 
   public LogDataTableModel() {
-    classWrapperCache = new HashMap<String, ClassWrapper>(100);
+    classWrapperCache = new LinkedHashMap<String, ClassWrapper>(100, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, ClassWrapper> eldest) {
+        return size() > MAX_CLASS_WRAPPERS;
+      }
+    };
 
     String cached = System.getProperty("cacheEvents");
     if (StringUtils.equalsIgnoreCase(cached, "true")) {
@@ -75,11 +93,14 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
       }
     }
 
+    // only events from file have to be prefetched, memory store is fast enough
+    boolean prefetchRows = logDataStore != null;
     if (logDataStore == null) {
       logDataStore = new MemoryLogDataStore();
     }
 
     logDataStore = new SynchronizedLogDataStore(logDataStore);
+    rowSnapshots = new RowSnapshotCache(logDataStore, getColumnCount(), prefetchRows);
 
     EMPTY_LOG_DATA.setId(Integer.MAX_VALUE);
     EMPTY_LOG_DATA.setDate(new Date(0));
@@ -101,7 +122,17 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
   }
 
   public Object getValueAt(int rowIndex, int columnIndex) {
-    LogData ld = getLogData(rowIndex);
+    if (rowIndex < 0 || rowIndex >= logDataStore.getCount()) {
+      return getValue(EMPTY_LOG_DATA, rowIndex, columnIndex);
+    }
+    RowSnapshotCache.RowSnapshot snapshot = rowSnapshots.get(rowIndex);
+    if (!snapshot.isComputed(columnIndex)) {
+      snapshot.setValue(columnIndex, getValue(snapshot.getLogData(), rowIndex, columnIndex));
+    }
+    return snapshot.getValue(columnIndex);
+  }
+
+  private Object getValue(LogData ld, int rowIndex, int columnIndex) {
     if (ld == null) {
       System.err.println("LogDataTableModel.getValueAt() null form row " + rowIndex);
       dumpInfo();
@@ -116,7 +147,12 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
         result = ld.getDate();
         break;
       case DELTA:
-        result = new TimeDelta(ld.getDate());
+        TimeDelta timeDelta = timeDeltaCache.get(ld.getId());
+        if (timeDelta == null) {
+          timeDelta = new TimeDelta(ld.getDate());
+          timeDeltaCache.put(ld.getId(), timeDelta);
+        }
+        result = timeDelta;
         break;
       case LEVEL:
         result = ld.getLevel();
@@ -126,10 +162,7 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
         break;
       case CLASS:
         String clazz = ld.getClazz();
-        if (!classWrapperCache.containsKey(clazz)) {
-          classWrapperCache.put(clazz, new ClassWrapper(clazz));
-        }
-        result = classWrapperCache.get(clazz);
+        result = getClassWrapper(clazz);
         break;
       case METHOD:
         result = StringUtils.left(ld.getMethod(), maximumMessageLength);
@@ -156,14 +189,16 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
         result = ld.getNDC();
         break;
       case PROPERTIES:
-        result = getProperties(ld);
+        String properties = propertiesCache.get(ld.getId());
+        if (properties == null) {
+          properties = getProperties(ld);
+          propertiesCache.put(ld.getId(), properties);
+        }
+        result = properties;
         break;
       case LOGGER_NAME:
         final String loggerName = ld.getLoggerName();
-        if (!classWrapperCache.containsKey(loggerName)) {
-          classWrapperCache.put(loggerName, new ClassWrapper(loggerName));
-        }
-        result = classWrapperCache.get(loggerName);
+        result = getClassWrapper(loggerName);
         break;
       case LOG_SOURCE:
         result = ld.getLogSource();
@@ -174,6 +209,15 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
     return result;
   }
 
+  private ClassWrapper getClassWrapper(String className) {
+    ClassWrapper classWrapper = classWrapperCache.get(className);
+    if (classWrapper == null) {
+      classWrapper = new ClassWrapper(className);
+      classWrapperCache.put(className, classWrapper);
+    }
+    return classWrapper;
+  }
+
   private String getProperties(LogData ld) {
     if (ld.getProperties() != null && ld.getProperties().size() > 0) {
       return Joiner.on(", ").withKeyValueSeparator("=").join(ld.getProperties());
@@ -181,6 +225,12 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
     return EMPTY_STRING;
   }
 
+  @Override
+  public void fireTableChanged(TableModelEvent e) {
+    rowSnapshots.invalidate();
+    super.fireTableChanged(e);
+  }
+
   public boolean isCellEditable(int rowIndex, int columnIndex) {
     if (columnIndex == TableColumns.MARK.getColumn() || columnIndex == TableColumns.NOTE.getColumn()) {
       return true;
@@ -214,6 +264,30 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
     fireTableRowsInserted(rowToNotify, rowToNotify);
   }
 
+  /**
+   * Sets markers used to mark events before they are added to table, null disables marking.
+   */
+  public void setIncomingMarkerEngine(MarkerEngine incomingMarkerEngine) {
+    this.incomingMarkerEngine = incomingMarkerEngine;
+  }
+
+  /**
+   * Marks events with markers for incoming events. Called by import pipeline outside of EDT, before events are added.
+   */
+  public void markIncoming(LogData... logDatas) {
+    MarkerEngine engine = incomingMarkerEngine;
+    if (engine == null) {
+      return;
+    }
+    for (LogData logData : logDatas) {
+      List<AutomaticMarker> markers = engine.findMarkers(logData);
+      if (!markers.isEmpty()) {
+        logData.setMarked(true);
+        logData.setMarkerColors(markers.get(markers.size() - 1).getColors());
+      }
+    }
+  }
+
   private void addLogDataToTable(LogData logData) {
     logDataStore.add(logData);
   }
@@ -300,6 +374,10 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
     return logDataStore.getLogData();
   }
 
+  public Integer getLogDataIdInRow(int row) {
+    return logDataStore.getLogDataIdInRow(row);
+  }
+
   @Override
   public void setValueAt(Object value, int rowIndex, int columnIndex) {
     if (columnIndex == TableColumns.MARK.getColumn()) {
@@ -423,6 +501,7 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
 
   public void restoreFromMemento(Memento memento) {
     logDataStore.clear();
+    clearRenderedValues();
     logDataStore.setLimit(memento.dataLimit);
 
     logDataStore.add(memento.list.toArray(new LogData[memento.list.size()]));
@@ -460,6 +539,7 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
   @Override
   public Note removeNote(int row, boolean notify) {
     Note n = logDataStore.removeNote(row);
+    rowSnapshots.invalidate();
     if (notify) {
       NoteEvent event = new NoteEvent(EventType.REMOVE, this, n, row);
       notifyAllNoteObservers(event);
@@ -470,14 +550,24 @@ public class LogDataTableModel extends AbstractTableModel implements LogDataColl
   @Override
   public int clear() {
     int clear = logDataStore.clear();
+    clearRenderedValues();
     fireTableDataChanged();
     return clear;
   }
 
+  private void clearRenderedValues() {
+    timeDeltaCache.clear();
+    propertiesCache.clear();
+  }
+
   public LogDataStore getLogDataStore() {
     return logDataStore;
   }
 
+  public LogDataIndexes getIndexes() {
+    return logDataStore.getIndexes();
+  }
+
   public static class Memento implements Serializable {
 
     private static final long serialVersionUID = 1L;
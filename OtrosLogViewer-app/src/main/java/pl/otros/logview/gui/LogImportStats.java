@@ -15,6 +15,10 @@
  ******************************************************************************/
 package pl.otros.logview.gui;
 
+import pl.otros.logview.reader.ImportMetrics;
+import pl.otros.logview.reader.ReadingSource;
+import pl.otros.logview.util.LatencyHistogram;
+
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
 import java.text.DateFormat;
@@ -41,6 +45,11 @@ public class LogImportStats extends AbstractTableModel {
   private float speedKbPerSecond;
   private Date eta = new Date();
   private String[] rowsNames = new String[] { "File", "Downloaded", "ETA", "Time left", "Speed [kb/s]" };
+  private static final String[] METRICS_ROWS_NAMES = new String[] { "Lines/s", "Events/s", "Events", "Parse failures",
+      "Read [\u00b5s mean / p99]", "Parse [\u00b5s mean / p99]", "Store [\u00b5s mean / p99]", "Queue depth", "Dropped",
+      "Lag [bytes]" };
+  private static final int METRICS_ROW = 5;
+  private ReadingSource readingSource;
 
   public LogImportStats(String fileName) {
     super();
@@ -68,6 +77,9 @@ public class LogImportStats extends AbstractTableModel {
     if (columnIndex == 0) {
       return rowsNames[rowIndex];
     }
+    if (rowIndex >= METRICS_ROW) {
+      return getMetricsValue(rowIndex - METRICS_ROW);
+    }
     Object value = "?";
     switch (rowIndex) {
       case 0:
@@ -90,6 +102,69 @@ public class LogImportStats extends AbstractTableModel {
     return value;
   }
 
+  private Object getMetricsValue(int metric) {
+    ImportMetrics metrics = readingSource.getMetrics();
+    switch (metric) {
+      case 0:
+        return speedFormat.format(readingSource.getLinesPerSecond());
+      case 1:
+        return speedFormat.format(readingSource.getEventsPerSecond());
+      case 2:
+        return downloadedFormat.format(readingSource.getEventsRead());
+      case 3:
+        return downloadedFormat.format(metrics.getParseFailures());
+      case 4:
+        return formatLatency(metrics.getHistogram(ImportMetrics.Stage.READ));
+      case 5:
+        return formatLatency(metrics.getHistogram(ImportMetrics.Stage.PARSE));
+      case 6:
+        return formatLatency(metrics.getHistogram(ImportMetrics.Stage.STORE));
+      case 7:
+        return downloadedFormat.format(metrics.getQueueDepth());
+      case 8:
+        return downloadedFormat.format(metrics.getDropped());
+      case 9:
+        return downloadedFormat.format(readingSource.getLagBytes());
+      default:
+        return "?";
+    }
+  }
+
+  private String formatLatency(LatencyHistogram histogram) {
+    return speedFormat.format(histogram.getMeanNanos() / 1000) + " / " + speedFormat.format(histogram.getPercentileNanos(99) / 1000d);
+  }
+
+  /**
+   * Shows import metrics of source below download statistics.
+   */
+  public void setReadingSource(final ReadingSource readingSource) {
+    SwingUtilities.invokeLater(new Runnable() {
+
+      @Override
+      public void run() {
+        LogImportStats.this.readingSource = readingSource;
+        String[] names = new String[METRICS_ROW + METRICS_ROWS_NAMES.length];
+        System.arraycopy(rowsNames, 0, names, 0, METRICS_ROW);
+        System.arraycopy(METRICS_ROWS_NAMES, 0, names, METRICS_ROW, METRICS_ROWS_NAMES.length);
+        rowsNames = names;
+        fireTableDataChanged();
+      }
+    });
+  }
+
+  /**
+   * Repaints table with current import metrics.
+   */
+  public void refresh() {
+    SwingUtilities.invokeLater(new Runnable() {
+
+      @Override
+      public void run() {
+        fireTableRowsUpdated(0, getRowCount() - 1);
+      }
+    });
+  }
+
   public void updateStats(long date, long loaded, long max) {
     try {
       this.max = max;
@@ -104,13 +179,7 @@ public class LogImportStats extends AbstractTableModel {
     } catch (Exception e) {
       // LOGGER.severe("GOD, why? " + e.getMessage());
     }
-    SwingUtilities.invokeLater(new Runnable() {
-
-      @Override
-      public void run() {
-        fireTableRowsUpdated(0, getRowCount());
-      }
-    });
+    refresh();
   }
 
   private void updateEtaAndSpeed() {
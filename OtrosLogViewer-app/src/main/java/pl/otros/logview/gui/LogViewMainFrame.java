@@ -54,6 +54,8 @@ import pl.otros.logview.gui.actions.OpenPreferencesAction;
 import pl.otros.logview.gui.actions.SaveLogInvestigationAction;
 import pl.otros.logview.gui.actions.SearchByLevel;
 import pl.otros.logview.gui.actions.ShowLoadedPlugins;
+import pl.otros.logview.gui.actions.ShowPluginStatistics;
+import pl.otros.logview.gui.actions.ShowReadingSources;
 import pl.otros.logview.gui.actions.ShowLog4jPatternParserEditor;
 import pl.otros.logview.gui.actions.ShowMarkersEditor;
 import pl.otros.logview.gui.actions.ShowMessageColorizerEditor;
@@ -96,7 +98,7 @@ import pl.otros.logview.pluginable.PluginableElementEventListener;
 import pl.otros.logview.pluginable.PluginableElementsContainer;
 import pl.otros.logview.pluginable.PluginablePluginAdapter;
 import pl.otros.logview.pluginsimpl.PluginContextImpl;
-import pl.otros.logview.reader.SocketLogReader;
+import pl.otros.logview.reader.NetworkLogReader;
 import pl.otros.logview.singleinstance.SingleInstanceRequestResponseDelegate;
 import pl.otros.swing.config.OtrosConfiguration;
 import pl.otros.swing.rulerbar.OtrosJTextWithRulerScrollPane;
@@ -790,13 +792,15 @@ public class LogViewMainFrame extends JFrame {
     toolsMenu.setMnemonic(KeyEvent.VK_T);
     JMenuItem closeAll = new JMenuItem(new CloseAllTabsAction(otrosApplication));
     enableDisableComponetsForTabs.addComponet(closeAll);
-    ArrayList<SocketLogReader> logReaders = new ArrayList<SocketLogReader>();
+    ArrayList<NetworkLogReader> logReaders = new ArrayList<NetworkLogReader>();
     toolsMenu.add(new JMenuItem(new StartSocketListener(otrosApplication, logReaders)));
     toolsMenu.add(new JMenuItem(new StopAllSocketListeners(otrosApplication, logReaders)));
     toolsMenu.add(new ShowMarkersEditor(otrosApplication));
     toolsMenu.add(new ShowLog4jPatternParserEditor(otrosApplication));
     toolsMenu.add(new ShowMessageColorizerEditor(otrosApplication));
     toolsMenu.add(new ShowLoadedPlugins(otrosApplication));
+    toolsMenu.add(new ShowPluginStatistics(otrosApplication));
+    toolsMenu.add(new ShowReadingSources(otrosApplication));
     toolsMenu.add(new ShowOlvLogs(otrosApplication));
     toolsMenu.add(new OpenPreferencesAction(otrosApplication));
     toolsMenu.add(closeAll);
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.gui;
+
+import pl.otros.logview.reader.ReadingScheduler;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * Diagnostics view of all tailed files and socket connections: lag and throughput per source.
+ */
+public class ReadingSourcesPanel extends JPanel {
+
+  private static final int REFRESH_INTERVAL = 2000;
+
+  private final ReadingScheduler readingScheduler;
+  private final ReadingSourcesTableModel tableModel;
+  private final Timer refreshTimer;
+
+  public ReadingSourcesPanel(ReadingScheduler readingScheduler) {
+    super(new BorderLayout());
+    this.readingScheduler = readingScheduler;
+    tableModel = new ReadingSourcesTableModel();
+    JTable table = new JTable(tableModel);
+
+    JToolBar toolBar = new JToolBar();
+    toolBar.setFloatable(false);
+    JButton refreshButton = new JButton("Refresh", Icons.ARROW_REPEAT);
+    refreshButton.addActionListener(new ActionListener() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        refresh();
+      }
+    });
+    toolBar.add(refreshButton);
+
+    add(toolBar, BorderLayout.NORTH);
+    add(new JScrollPane(table), BorderLayout.CENTER);
+
+    refreshTimer = new Timer(REFRESH_INTERVAL, new ActionListener() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        refresh();
+      }
+    });
+  }
+
+  public void refresh() {
+    tableModel.setSources(readingScheduler.getSources());
+  }
+
+  @Override
+  public void addNotify() {
+    super.addNotify();
+    refresh();
+    refreshTimer.start();
+  }
+
+  @Override
+  public void removeNotify() {
+    refreshTimer.stop();
+    super.removeNotify();
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.gui;
+
+import pl.otros.logview.reader.ImportMetrics;
+import pl.otros.logview.reader.ReadingSource;
+
+import javax.swing.table.AbstractTableModel;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table of sources read by {@link pl.otros.logview.reader.ReadingScheduler}.
+ */
+public class ReadingSourcesTableModel extends AbstractTableModel {
+
+  private static final String[] COLUMNS = {"Type", "Source", "State", "Read [bytes]", "Throughput [bytes/s]", "Events",
+      "Events/s", "Lines/s", "Parse failures", "Parse p99 [\u00b5s]", "Store p99 [\u00b5s]", "Queue depth",
+      "Dropped", "Last lag [bytes]", "Wake up delay [ms]", "Idle [s]", "Activations"};
+
+  private final NumberFormat rateFormat = NumberFormat.getInstance();
+  private List<ReadingSource> sources = new ArrayList<ReadingSource>();
+
+  public ReadingSourcesTableModel() {
+    rateFormat.setMaximumFractionDigits(1);
+  }
+
+  public void setSources(List<ReadingSource> sources) {
+    this.sources = sources;
+    fireTableDataChanged();
+  }
+
+  @Override
+  public int getRowCount() {
+    return sources.size();
+  }
+
+  @Override
+  public int getColumnCount() {
+    return COLUMNS.length;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return COLUMNS[column];
+  }
+
+  @Override
+  public Object getValueAt(int rowIndex, int columnIndex) {
+    ReadingSource source = sources.get(rowIndex);
+    switch (columnIndex) {
+      case 0:
+        return source.getType();
+      case 1:
+        return source.getName();
+      case 2:
+        return source.getState();
+      case 3:
+        return source.getBytesRead();
+      case 4:
+        return rateFormat.format(source.getBytesPerSecond());
+      case 5:
+        return source.getEventsRead();
+      case 6:
+        return rateFormat.format(source.getEventsPerSecond());
+      case 7:
+        return rateFormat.format(source.getLinesPerSecond());
+      case 8:
+        return source.getMetrics().getParseFailures();
+      case 9:
+        return source.getMetrics().getHistogram(ImportMetrics.Stage.PARSE).getPercentileNanos(99) / 1000;
+      case 10:
+        return source.getMetrics().getHistogram(ImportMetrics.Stage.STORE).getPercentileNanos(99) / 1000;
+      case 11:
+        return source.getMetrics().getQueueDepth();
+      case 12:
+        return source.getMetrics().getDropped();
+      case 13:
+        return source.getLagBytes();
+      case 14:
+        return source.getWakeUpDelay();
+      case 15:
+        long lastData = source.getLastDataTime() > 0 ? source.getLastDataTime() : source.getStartTime();
+        return (System.currentTimeMillis() - lastData) / 1000;
+      case 16:
+        return source.getActivations();
+      default:
+        return null;
+    }
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import pl.otros.logview.LogData;
+import pl.otros.logview.store.LogDataStore;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Snapshots of recently painted rows. JTable asks for every cell separately, snapshot let table model read
+ * {@link LogData} of row once per paint pass and compute only values of visible columns.
+ * <p/>
+ * For stores which are slow to read (file store) pages of rows around fetched row are loaded in background, so
+ * scrolling hits rows which are already loaded.
+ */
+public class RowSnapshotCache {
+
+  static final int PAGE_SIZE = 64;
+  private static final int SLOTS = 1024;
+
+  private static final ExecutorService PREFETCH_EXECUTOR;
+
+  static {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactoryBuilder().setNameFormat("RowSnapshotCache-prefetch-%d").setDaemon(true).build());
+    executor.allowCoreThreadTimeOut(true);
+    PREFETCH_EXECUTOR = executor;
+  }
+
+  private final LogDataStore logDataStore;
+  private final int columnCount;
+  private final boolean prefetch;
+  private final AtomicReferenceArray<RowSnapshot> slots = new AtomicReferenceArray<RowSnapshot>(SLOTS);
+  private final AtomicInteger generation = new AtomicInteger();
+  private final AtomicInteger pendingPrefetches = new AtomicInteger();
+
+  public RowSnapshotCache(LogDataStore logDataStore, int columnCount, boolean prefetch) {
+    this.logDataStore = logDataStore;
+    this.columnCount = columnCount;
+    this.prefetch = prefetch;
+  }
+
+  /**
+   * Returns snapshot of row, reading store only if row is not cached. Row have to be in range of store.
+   */
+  public RowSnapshot get(int row) {
+    Integer id = logDataStore.getLogDataIdInRow(row);
+    int currentGeneration = generation.get();
+    RowSnapshot snapshot = slots.get(slot(row));
+    if (snapshot != null && snapshot.row == row && snapshot.generation == currentGeneration && id != null
+        && snapshot.logData.getId() == id.intValue()) {
+      return snapshot;
+    }
+    snapshot = new RowSnapshot(row, currentGeneration, logDataStore.getLogData(row), columnCount);
+    slots.set(slot(row), snapshot);
+    if (prefetch) {
+      int page = row / PAGE_SIZE;
+      schedulePrefetch(page - 1, currentGeneration);
+      schedulePrefetch(page + 1, currentGeneration);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Drops all snapshots, have to be called when any row is changed
+   */
+  public void invalidate() {
+    generation.incrementAndGet();
+  }
+
+  private void schedulePrefetch(final int page, final int forGeneration) {
+    final int from = page * PAGE_SIZE;
+    if (page < 0 || from >= logDataStore.getCount() || isLoaded(from, forGeneration)) {
+      return;
+    }
+    // one page ahead and behind is enough, skip requests when user is scrolling faster than pages are loaded
+    if (pendingPrefetches.get() > 2) {
+      return;
+    }
+    pendingPrefetches.incrementAndGet();
+    try {
+      PREFETCH_EXECUTOR.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            prefetchPage(from, forGeneration);
+          } finally {
+            pendingPrefetches.decrementAndGet();
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      pendingPrefetches.decrementAndGet();
+    }
+  }
+
+  void prefetchPage(int from, int forGeneration) {
+    int to = Math.min(from + PAGE_SIZE, logDataStore.getCount());
+    for (int row = from; row < to && generation.get() == forGeneration; row++) {
+      if (isLoaded(row, forGeneration)) {
+        continue;
+      }
+      LogData logData;
+      try {
+        logData = logDataStore.getLogData(row);
+      } catch (RuntimeException e) {
+        // rows were removed in meantime
+        return;
+      }
+      if (logData != null) {
+        RowSnapshot snapshot = new RowSnapshot(row, forGeneration, logData, columnCount);
+        RowSnapshot current = slots.get(slot(row));
+        if (current == null || current.generation != forGeneration || current.row != row) {
+          slots.compareAndSet(slot(row), current, snapshot);
+        }
+      }
+    }
+  }
+
+  private boolean isLoaded(int row, int forGeneration) {
+    RowSnapshot snapshot = slots.get(slot(row));
+    return snapshot != null && snapshot.row == row && snapshot.generation == forGeneration;
+  }
+
+  private static int slot(int row) {
+    return row & (SLOTS - 1);
+  }
+
+  /**
+   * Event of row with lazily computed values of columns
+   */
+  public static class RowSnapshot {
+
+    private static final Object NOT_COMPUTED = new Object();
+
+    private final int row;
+    private final int generation;
+    private final LogData logData;
+    private final Object[] values;
+
+    RowSnapshot(int row, int generation, LogData logData, int columnCount) {
+      this.row = row;
+      this.generation = generation;
+      this.logData = logData;
+      this.values = new Object[columnCount];
+    }
+
+    public LogData getLogData() {
+      return logData;
+    }
+
+    public boolean isComputed(int column) {
+      return values[column] != null;
+    }
+
+    public Object getValue(int column) {
+      Object value = values[column];
+      return value == NOT_COMPUTED ? null : value;
+    }
+
+    public void setValue(int column, Object value) {
+      values[column] = value == null ? NOT_COMPUTED : value;
+    }
+  }
+}
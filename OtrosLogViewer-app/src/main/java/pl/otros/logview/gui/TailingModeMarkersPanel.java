@@ -16,8 +16,8 @@
 package pl.otros.logview.gui;
 
 import net.miginfocom.swing.MigLayout;
-import pl.otros.logview.LogData;
 import pl.otros.logview.gui.markers.AutomaticMarker;
+import pl.otros.logview.gui.markers.MarkerEngine;
 import pl.otros.logview.gui.markers.PropertyFileAbstractMarker;
 import pl.otros.logview.gui.renderers.AutomaticMarkerRenderer;
 import pl.otros.logview.pluginable.AllPluginables;
@@ -25,8 +25,6 @@ import pl.otros.logview.pluginable.PluginableElementEventListener;
 import pl.otros.logview.pluginable.PluginableElementsContainer;
 
 import javax.swing.*;
-import javax.swing.event.TableModelEvent;
-import javax.swing.event.TableModelListener;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
@@ -39,7 +37,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.TreeSet;
 
-public class TailingModeMarkersPanel extends JPanel implements PluginableElementEventListener<AutomaticMarker>, TableModelListener {
+public class TailingModeMarkersPanel extends JPanel implements PluginableElementEventListener<AutomaticMarker> {
 
   private LogDataTableModel dataTableModel;
   private JComboBox selectedGroup;
@@ -74,7 +72,6 @@ public class TailingModeMarkersPanel extends JPanel implements PluginableElement
       }
     });
 
-    logDataTableModel.addTableModelListener(this);
     markersContainser = AllPluginables.getInstance().getMarkersContainser();
     markersContainser.addListener(defaultTableModel);
     markersContainser.addListener(this);
@@ -141,28 +138,12 @@ public class TailingModeMarkersPanel extends JPanel implements PluginableElement
 
   }
 
-  @Override
-  public void tableChanged(final TableModelEvent e) {
-    final HashSet<AutomaticMarker> selected = defaultTableModel.getSelected();
-
-    if (e.getType() == TableModelEvent.INSERT) {
-      SwingUtilities.invokeLater(new Runnable() {
-
-        @Override
-        public void run() {
-          int firstRow = e.getFirstRow();
-          int lastRow = e.getLastRow();
-          for (int i = firstRow; i <= lastRow; i++) {
-            LogData logData = dataTableModel.getLogData(i);
-            for (AutomaticMarker m : selected) {
-              if (m.toMark(logData)) {
-                dataTableModel.markRows(m.getColors(), i);
-              }
-            }
-          }
-        }
-      });
-    }
+  /**
+   * Selected markers are evaluated on events before they are added to table, outside of EDT.
+   */
+  private void updateIncomingMarkers() {
+    HashSet<AutomaticMarker> selected = defaultTableModel.getSelected();
+    dataTableModel.setIncomingMarkerEngine(selected.isEmpty() ? null : new MarkerEngine(selected));
   }
 
   class MarkersRowFilter extends RowFilter<SelectedMarkersTableModel, Integer> {
@@ -212,11 +193,14 @@ public class TailingModeMarkersPanel extends JPanel implements PluginableElement
     public void setValueAt(Object aValue, int rowIndex, int columnIndex) {
       if (columnIndex == 0 && aValue instanceof Boolean) {
         Boolean isSelected = (Boolean) aValue;
-        if (isSelected) {
-          selected.add(data.get(rowIndex));
-        } else {
-          selected.remove(data.get(rowIndex));
+        synchronized (data) {
+          if (isSelected) {
+            selected.add(data.get(rowIndex));
+          } else {
+            selected.remove(data.get(rowIndex));
+          }
         }
+        updateIncomingMarkers();
       }
     }
 
@@ -253,6 +237,7 @@ public class TailingModeMarkersPanel extends JPanel implements PluginableElement
         data.remove(marker);
         selected.remove(marker);
       }
+      updateIncomingMarkers();
       fireTableDataChanged();
 
     }
@@ -267,8 +252,8 @@ public class TailingModeMarkersPanel extends JPanel implements PluginableElement
             if (m instanceof PropertyFileAbstractMarker) {
               PropertyFileAbstractMarker oldMarker = (PropertyFileAbstractMarker) m;
               if (oldMarker.getFileName().equals(changedMarker.getFileName())) {
-                if (defaultTableModel.selected.contains(changedMarker)) {
-                  defaultTableModel.selected.add(oldMarker);
+                if (defaultTableModel.selected.remove(oldMarker)) {
+                  defaultTableModel.selected.add(changedMarker);
                 }
                 defaultTableModel.data.remove(oldMarker);
                 defaultTableModel.data.add(changedMarker);
@@ -278,6 +263,7 @@ public class TailingModeMarkersPanel extends JPanel implements PluginableElement
           }
         }
       }
+      updateIncomingMarkers();
       fireTableDataChanged();
     }
 
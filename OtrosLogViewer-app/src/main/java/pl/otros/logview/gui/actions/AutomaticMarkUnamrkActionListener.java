@@ -15,14 +15,14 @@
  ******************************************************************************/
 package pl.otros.logview.gui.actions;
 
-import pl.otros.logview.LogData;
 import pl.otros.logview.gui.LogDataTableModel;
 import pl.otros.logview.gui.StatusObserver;
+import pl.otros.logview.gui.actions.search.AutomaticMarkerSearchMatcher;
+import pl.otros.logview.gui.actions.search.SearchAllWorker;
 import pl.otros.logview.gui.markers.AutomaticMarker;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
 
 public class AutomaticMarkUnamrkActionListener implements ActionListener {
 
@@ -34,6 +34,7 @@ public class AutomaticMarkUnamrkActionListener implements ActionListener {
   private boolean mode = true;
 
   private StatusObserver observer;
+  private SearchAllWorker worker;
 
   public AutomaticMarkUnamrkActionListener(LogDataTableModel dataTableModel, AutomaticMarker automaticMarker, boolean mode, StatusObserver observer) {
     super();
@@ -45,27 +46,42 @@ public class AutomaticMarkUnamrkActionListener implements ActionListener {
 
   @Override
   public void actionPerformed(ActionEvent e) {
-    int size = dataTableModel.getRowCount();
-    ArrayList<Integer> rows = new ArrayList<Integer>();
-    for (int i = 0; i < size; i++) {
-      LogData l = dataTableModel.getLogData(i);
-      if (automaticMarker.toMark(l)) {
-        rows.add(i);
-      }
+    if (worker != null && !worker.isDone()) {
+      worker.cancel(true);
+      return;
     }
-    int[] r = new int[rows.size()];
-    for (int i = 0; i < r.length; i++) {
-      r[i] = rows.get(i);
+    int[] rows = new int[dataTableModel.getRowCount()];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = i;
     }
+    final String action = mode == MODE_MARK ? "marked" : "unmarked";
+    final AutomaticMarker marker = automaticMarker;
+    final boolean markMode = mode;
+    worker = new SearchAllWorker(dataTableModel, new AutomaticMarkerSearchMatcher(marker), rows) {
+      private int count = 0;
+
+      @Override
+      protected void rowsFound(int[] rows) {
+        if (markMode == MODE_MARK) {
+          dataTableModel.markRows(marker.getColors(), rows);
+        } else {
+          dataTableModel.unmarkRows(rows);
+        }
+        count += rows.length;
+      }
 
-    if (mode == MODE_MARK) {
-      dataTableModel.markRows(automaticMarker.getColors(), r);
-
-      observer.updateStatus(r.length + " rows marked by marker \"" + automaticMarker.getName() + "\"");
-    } else {
-      dataTableModel.unmarkRows(r);
-      observer.updateStatus(r.length + " rows unmarked by marker \"" + automaticMarker.getName() + "\"");
-    }
+      @Override
+      protected void searchFinished(Throwable error) {
+        String status = count + " rows " + action + " by marker \"" + marker.getName() + "\"";
+        if (error != null) {
+          observer.updateStatus(status + ", error: " + error.getMessage(), StatusObserver.LEVEL_ERROR);
+        } else {
+          observer.updateStatus(isCancelled() ? status + ", cancelled" : status);
+        }
+      }
+    };
+    observer.updateStatus("Rows are " + action + " by marker \"" + marker.getName() + "\", click marker again to stop");
+    worker.execute();
   }
 
   public LogDataTableModel getDataTableModel() {
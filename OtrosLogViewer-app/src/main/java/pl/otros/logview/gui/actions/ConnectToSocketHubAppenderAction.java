@@ -27,6 +27,8 @@ import pl.otros.logview.gui.table.TableColumns;
 import pl.otros.logview.importer.Log4jSerilizedLogImporter;
 import pl.otros.logview.importer.LogImporter;
 import pl.otros.logview.parser.ParsingContext;
+import pl.otros.logview.reader.ReadingScheduler;
+import pl.otros.logview.reader.ReadingSource;
 
 import javax.net.SocketFactory;
 import javax.swing.*;
@@ -98,6 +100,9 @@ public class ConnectToSocketHubAppenderAction extends OtrosAction {
 
             getOtrosApplication().addClosableTab(hostPort,hostPort,Icons.PLUGIN_CONNECT,logViewPanelWrapper,true);
 
+			final ReadingScheduler readingScheduler = ReadingScheduler.getInstance();
+			final ReadingSource readingSource = readingScheduler.registerSource(hostPort, ReadingScheduler.TYPE_SOCKET);
+			readingSource.attach(parsingContext);
 			Runnable r = new Runnable() {
 
 				@Override
@@ -108,10 +113,10 @@ public class ConnectToSocketHubAppenderAction extends OtrosAction {
 					Socket s = socket;
 					while (parsingContext.isParsingInProgress()) {
 						try {
-							inputStream = s.getInputStream();
+							inputStream = readingSource.countBytes(s.getInputStream());
 							BufferedInputStream bin = new BufferedInputStream(inputStream);
 							LOGGER.info(String.format("Connect to SocketHubAppender to %s:%d", inetAddress.getHostAddress(), port2));
-							logImporter.importLogs(bin, logDataCollector, parsingContext);
+							logImporter.importLogs(bin, readingSource.countEvents(logDataCollector), parsingContext);
 							getOtrosApplication().getStatusObserver().updateStatus("Loading logs from Log4j SocketHubAppender finished", StatusObserver.LEVEL_WARNING);
 						} catch (IOException e1) {
 							LOGGER.warning(String.format("Problem with connecting to %s:%d: %s", inetAddress.getHostAddress(), port2, e1.getMessage()));
@@ -134,7 +139,7 @@ public class ConnectToSocketHubAppenderAction extends OtrosAction {
 					LOGGER.info(String.format("Importing from %s:%d is finished", inetAddress.getHostName(), port2));
 				}
 			};
-			new Thread(r, hostPort).start();
+			readingScheduler.executeBlocking(readingSource, r);
 
 		} catch (Exception e) {
 			JOptionPane.showMessageDialog((Component) arg0.getSource(), "Error importing logs from " + hostPort, "Error importing logs", JOptionPane.ERROR_MESSAGE);
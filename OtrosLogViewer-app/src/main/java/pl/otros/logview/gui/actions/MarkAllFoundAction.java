@@ -29,6 +29,7 @@ import pl.otros.logview.gui.StatusObserver;
 import pl.otros.logview.gui.actions.search.AcceptConditionSearchMatcher;
 import pl.otros.logview.gui.actions.search.RegexMatcher;
 import pl.otros.logview.gui.actions.search.SearchAction.SearchMode;
+import pl.otros.logview.gui.actions.search.SearchAllWorker;
 import pl.otros.logview.gui.actions.search.SearchMatcher;
 import pl.otros.logview.gui.actions.search.StringContainsSearchMatcher;
 
@@ -36,22 +37,29 @@ import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.util.ArrayList;
 
 public class MarkAllFoundAction extends OtrosAction implements ConfigurationListener, KeyListener {
 
+  private static final String NAME = "Mark all found";
+  private static final String CANCEL_NAME = "Stop marking";
+
   private MarkerColors markerColors = MarkerColors.Aqua;
   private SearchMode searchMode = SearchMode.STRING_CONTAINS;
+  private SearchAllWorker searchAllWorker;
 
   public MarkAllFoundAction(OtrosApplication otrosApplication) {
     super(otrosApplication);
-    this.putValue(Action.NAME, "Mark all found");
+    this.putValue(Action.NAME, NAME);
     this.putValue(Action.MNEMONIC_KEY, KeyEvent.VK_A);
     this.putValue(SMALL_ICON, Icons.AUTOMATIC_MARKERS);
   }
 
   @Override
   public void actionPerformed(ActionEvent e) {
+    if (searchAllWorker != null && !searchAllWorker.isDone()) {
+      searchAllWorker.cancel(true);
+      return;
+    }
 		JTabbedPane jTabbedPane = getOtrosApplication().getJTabbedPane();
 		LogViewPanelWrapper lvFrame = (LogViewPanelWrapper) jTabbedPane.getSelectedComponent();
     if (lvFrame == null) {
@@ -60,15 +68,18 @@ public class MarkAllFoundAction extends OtrosAction implements ConfigurationList
     JTable table = lvFrame.getLogViewPanel().getTable();
     LogDataTableModel model = lvFrame.getDataTableModel();
 		JXComboBox searchField = getOtrosApplication().getSearchField();
-		StatusObserver statusObserver = getOtrosApplication().getStatusObserver();
-		int marked = markAllFound(table, model, searchField.getSelectedItem().toString().trim(), markerColors);
-		statusObserver.updateStatus(marked + " messages marked for string \"" + searchField.getSelectedItem().toString().trim() + "\"");
+		searchAllWorker = markAllFound(table, model, searchField.getSelectedItem().toString().trim(), markerColors);
   }
 
-  public int markAllFound(JTable table, LogDataTableModel dataTableModel, String string, MarkerColors markerColors) {
+  /**
+   * Starts marking all rows matching string. Rows are marked in batches while search is running.
+   *
+   * @return started worker or null if there is nothing to search
+   */
+  public SearchAllWorker markAllFound(JTable table, final LogDataTableModel dataTableModel, String string, final MarkerColors markerColors) {
     string = string.trim().toLowerCase();
     if (string.length() == 0) {
-      return 0;
+      return null;
     }
 
     SearchMatcher searchMatcher;
@@ -79,7 +90,7 @@ public class MarkAllFoundAction extends OtrosAction implements ConfigurationList
         searchMatcher = new RegexMatcher(string);
       } catch (Exception e) {
         getOtrosApplication().getStatusObserver().updateStatus("Error in regular expression: " + e.getMessage(), StatusObserver.LEVEL_ERROR);
-        return 0;
+        return null;
       }
     } else if (SearchMode.QUERY.equals(searchMode)){
       QueryAcceptCondition acceptCondition;
@@ -88,30 +99,41 @@ public class MarkAllFoundAction extends OtrosAction implements ConfigurationList
         searchMatcher = new AcceptConditionSearchMatcher(acceptCondition);
       } catch (RuleException e) {
         getOtrosApplication().getStatusObserver().updateStatus("Wrong query rule: " + e.getMessage(), StatusObserver.LEVEL_ERROR);
-        return 0;
+        return null;
       }
     }  else {
       getOtrosApplication().getStatusObserver().updateStatus("Unknown search mode", StatusObserver.LEVEL_ERROR);
-      return 0;
+      return null;
     }
 
-    ArrayList<Integer> toMark = new ArrayList<Integer>();
-    for (int i = 0; i < table.getRowCount(); i++) {
-      int row = table.convertRowIndexToModel(i);
-      if (searchMatcher.matches(dataTableModel.getLogData(row))) {
-        toMark.add(row);
-      }
-    }
-    if (toMark.size() > 0) {
+    final String searchString = string;
+    final StatusObserver statusObserver = getOtrosApplication().getStatusObserver();
+    SearchAllWorker worker = new SearchAllWorker(dataTableModel, searchMatcher, SearchAllWorker.visibleModelRows(table)) {
+      private int marked = 0;
 
-      int[] rows = new int[toMark.size()];
-      for (int i = 0; i < rows.length; i++) {
-        rows[i] = toMark.get(i);
+      @Override
+      protected void rowsFound(int[] rows) {
+        dataTableModel.markRows(markerColors, rows);
+        marked += rows.length;
+        statusObserver.updateStatus("Marking messages for string \"" + searchString + "\", " + marked + " marked so far");
+      }
 
+      @Override
+      protected void searchFinished(Throwable error) {
+        putValue(Action.NAME, NAME);
+        if (error != null) {
+          statusObserver.updateStatus("Marking failed after " + marked + " messages marked for string \"" + searchString + "\": "
+              + error.getMessage(), StatusObserver.LEVEL_ERROR);
+        } else if (isCancelled()) {
+          statusObserver.updateStatus("Marking cancelled, " + marked + " messages marked for string \"" + searchString + "\"");
+        } else {
+          statusObserver.updateStatus(marked + " messages marked for string \"" + searchString + "\"");
+        }
       }
-      dataTableModel.markRows(markerColors, rows);
-    }
-    return toMark.size();
+    };
+    putValue(Action.NAME, CANCEL_NAME);
+    worker.execute();
+    return worker;
   }
 
   public void setSearchMode(SearchMode searchMode) {
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.actions;
+
+import pl.otros.logview.gui.Icons;
+import pl.otros.logview.gui.OtrosApplication;
+import pl.otros.logview.gui.message.update.PluginInvoker;
+import pl.otros.logview.gui.message.update.PluginStatisticsPanel;
+
+import java.awt.event.ActionEvent;
+
+public class ShowPluginStatistics extends OtrosAction {
+
+  private PluginStatisticsPanel statisticsPanel;
+
+  public ShowPluginStatistics(OtrosApplication otrosApplication) {
+    super(otrosApplication);
+    putValue(NAME, "Show formatters and colorizers statistics");
+    putValue(SHORT_DESCRIPTION, "Show processing time, timeouts and errors of message formatters and colorizers.");
+    putValue(SMALL_ICON, Icons.PLUGIN);
+  }
+
+  @Override
+  public void actionPerformed(ActionEvent arg0) {
+    if (statisticsPanel == null) {
+      statisticsPanel = new PluginStatisticsPanel(PluginInvoker.getInstance(), getOtrosApplication().getAllPluginables());
+    }
+    getOtrosApplication().addClosableTab("Plugin statistics", "Statistics of message formatters and colorizers", Icons.PLUGIN, statisticsPanel, true);
+  }
+}
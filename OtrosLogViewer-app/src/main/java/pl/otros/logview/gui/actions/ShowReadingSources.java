@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.gui.actions;
+
+import pl.otros.logview.gui.Icons;
+import pl.otros.logview.gui.OtrosApplication;
+import pl.otros.logview.gui.ReadingSourcesPanel;
+import pl.otros.logview.reader.ReadingScheduler;
+
+import java.awt.event.ActionEvent;
+
+public class ShowReadingSources extends OtrosAction {
+
+  private ReadingSourcesPanel readingSourcesPanel;
+
+  public ShowReadingSources(OtrosApplication otrosApplication) {
+    super(otrosApplication);
+    putValue(NAME, "Show tailed sources");
+    putValue(SHORT_DESCRIPTION, "Show lag and throughput of tailed files and socket connections.");
+    putValue(SMALL_ICON, Icons.TAIL);
+  }
+
+  @Override
+  public void actionPerformed(ActionEvent arg0) {
+    if (readingSourcesPanel == null) {
+      readingSourcesPanel = new ReadingSourcesPanel(ReadingScheduler.getInstance());
+    }
+    getOtrosApplication().addClosableTab("Tailed sources", "Lag and throughput of tailed sources", Icons.TAIL, readingSourcesPanel, true);
+  }
+}
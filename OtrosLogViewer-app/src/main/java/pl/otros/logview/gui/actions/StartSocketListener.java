@@ -22,6 +22,8 @@ import pl.otros.logview.gui.*;
 import pl.otros.logview.gui.table.TableColumns;
 import pl.otros.logview.importer.LogImporter;
 import pl.otros.logview.pluginable.AllPluginables;
+import pl.otros.logview.reader.DatagramLogReader;
+import pl.otros.logview.reader.NetworkLogReader;
 import pl.otros.logview.reader.SocketLogReader;
 
 import javax.swing.*;
@@ -30,12 +32,12 @@ import java.util.Collection;
 
 public class StartSocketListener extends OtrosAction {
 
-  private Collection<SocketLogReader> logReaders = null;
+  private Collection<NetworkLogReader> logReaders = null;
   private BufferingLogDataCollectorProxy logDataCollector;
 
   private LogViewPanelWrapper logViewPanelWrapper;
 
-  public StartSocketListener(OtrosApplication otrosApplication,Collection<SocketLogReader> logReaders) {
+  public StartSocketListener(OtrosApplication otrosApplication,Collection<NetworkLogReader> logReaders) {
 		super(otrosApplication);
 		this.logReaders = logReaders;
     putValue(Action.NAME, "Start socket listener");
@@ -67,14 +69,18 @@ public class StartSocketListener extends OtrosAction {
 
     getOtrosApplication().addClosableTab("Socket listener","Socket listener",Icons.PLUGIN_CONNECT,logViewPanelWrapper,true);
 
-    SocketLogReader logReader = null;
+    NetworkLogReader logReader = null;
     if (logReader == null || logReader.isClosed()) {
-      logReader = new SocketLogReader(chooseLogImporter.logImporter, logDataCollector, observer, chooseLogImporter.port);
+      if (DatagramLogReader.PROTOCOL.equals(chooseLogImporter.protocol)) {
+        logReader = new DatagramLogReader(chooseLogImporter.logImporter, logDataCollector, observer, chooseLogImporter.port);
+      } else {
+        logReader = new SocketLogReader(chooseLogImporter.logImporter, logDataCollector, observer, chooseLogImporter.port);
+      }
 
       try {
         logReader.start();
         logReaders.add(logReader);
-        observer.updateStatus(String.format("Socket opened on port %d with %s.", chooseLogImporter.port, chooseLogImporter.logImporter));
+        observer.updateStatus(String.format("%s socket opened on port %d with %s.", chooseLogImporter.protocol, chooseLogImporter.port, chooseLogImporter.logImporter));
       } catch (Exception e) {
         e.printStackTrace();
         observer.updateStatus("Failed to open listener " + e.getMessage(), StatusObserver.LEVEL_ERROR);
@@ -91,24 +97,29 @@ public class StartSocketListener extends OtrosAction {
     }
 
     JComboBox box = new JComboBox(names);
+    JComboBox<String> protocolBox = new JComboBox<String>(new String[]{SocketLogReader.PROTOCOL, DatagramLogReader.PROTOCOL});
     SpinnerNumberModel numberModel = new SpinnerNumberModel(50505, 1025, 65000, 1);
     JSpinner jSpinner = new JSpinner(numberModel);
     MigLayout migLayout = new MigLayout();
     JPanel panel = new JPanel(migLayout);
     panel.add(new JLabel("Select log importer"));
     panel.add(box, "wrap");
+    panel.add(new JLabel("Select protocol"));
+    panel.add(protocolBox, "wrap");
     panel.add(new JLabel("Select port"));
     panel.add(jSpinner, "span");
 
     if (logReaders.size() > 0) {
       panel.add(new JLabel("Opened sockets"), "wrap, growx");
-      JTable jTable = new JTable(logReaders.size(), 2);
+      JTable jTable = new JTable(logReaders.size(), 3);
       jTable.getTableHeader().getColumnModel().getColumn(0).setHeaderValue("Log importer");
-      jTable.getTableHeader().getColumnModel().getColumn(1).setHeaderValue("Port");
+      jTable.getTableHeader().getColumnModel().getColumn(1).setHeaderValue("Protocol");
+      jTable.getTableHeader().getColumnModel().getColumn(2).setHeaderValue("Port");
       int row = 0;
-      for (SocketLogReader socketLogReader : logReaders) {
+      for (NetworkLogReader socketLogReader : logReaders) {
         jTable.setValueAt(socketLogReader.getLogImporter().getName(), row, 0);
-        jTable.setValueAt(Integer.toString(socketLogReader.getPort()), row, 1);
+        jTable.setValueAt(socketLogReader.getProtocol(), row, 1);
+        jTable.setValueAt(Integer.toString(socketLogReader.getPort()), row, 2);
         row++;
       }
       JScrollPane jScrollPane = new JScrollPane(jTable);
@@ -119,17 +130,23 @@ public class StartSocketListener extends OtrosAction {
       return null;
     }
 
-    return new LogImporterAndPort(importers[box.getSelectedIndex()], numberModel.getNumber().intValue());
+    return new LogImporterAndPort(importers[box.getSelectedIndex()], numberModel.getNumber().intValue(), (String) protocolBox.getSelectedItem());
   }
 
   public static class LogImporterAndPort {
 
     private int port;
     private LogImporter logImporter;
+    private String protocol;
 
     public LogImporterAndPort(LogImporter logImporter, int port) {
+      this(logImporter, port, SocketLogReader.PROTOCOL);
+    }
+
+    public LogImporterAndPort(LogImporter logImporter, int port, String protocol) {
       this.logImporter = logImporter;
       this.port = port;
+      this.protocol = protocol;
     }
 
     public int getPort() {
@@ -140,6 +157,10 @@ public class StartSocketListener extends OtrosAction {
       return logImporter;
     }
 
+    public String getProtocol() {
+      return protocol;
+    }
+
   }
 
 }
@@ -19,7 +19,7 @@ import net.miginfocom.swing.MigLayout;
 import pl.otros.logview.gui.Icons;
 import pl.otros.logview.gui.OtrosApplication;
 import pl.otros.logview.gui.StatusObserver;
-import pl.otros.logview.reader.SocketLogReader;
+import pl.otros.logview.reader.NetworkLogReader;
 
 import javax.swing.*;
 import java.awt.*;
@@ -31,9 +31,9 @@ import java.util.logging.Logger;
 public class StopAllSocketListeners extends OtrosAction {
 
 	private static final Logger LOGGER = Logger.getLogger(StopAllSocketListeners.class.getName());
-	private Collection<SocketLogReader> logReaders = null;
+	private Collection<NetworkLogReader> logReaders = null;
 
-	public StopAllSocketListeners(OtrosApplication otrosApplication, Collection<SocketLogReader> logReaders) {
+	public StopAllSocketListeners(OtrosApplication otrosApplication, Collection<NetworkLogReader> logReaders) {
 		super(otrosApplication);
 		this.logReaders = logReaders;
 
@@ -52,13 +52,15 @@ public class StopAllSocketListeners extends OtrosAction {
 		JPanel panel = new JPanel(new MigLayout());
 		panel.add(new JLabel("Are you sure, that you want to close following sockets?"), "wrap");
 		panel.add(new JLabel("Opened sockets"), "wrap, growx");
-		JTable jTable = new JTable(logReaders.size(), 2);
+		JTable jTable = new JTable(logReaders.size(), 3);
 		jTable.getTableHeader().getColumnModel().getColumn(0).setHeaderValue("Log importer");
-		jTable.getTableHeader().getColumnModel().getColumn(1).setHeaderValue("Port");
+		jTable.getTableHeader().getColumnModel().getColumn(1).setHeaderValue("Protocol");
+		jTable.getTableHeader().getColumnModel().getColumn(2).setHeaderValue("Port");
 		int row = 0;
-		for (SocketLogReader socketLogReader : logReaders) {
+		for (NetworkLogReader socketLogReader : logReaders) {
 			jTable.setValueAt(socketLogReader.getLogImporter().getName(), row, 0);
-			jTable.setValueAt(Integer.toString(socketLogReader.getPort()), row, 1);
+			jTable.setValueAt(socketLogReader.getProtocol(), row, 1);
+			jTable.setValueAt(Integer.toString(socketLogReader.getPort()), row, 2);
 			row++;
 		}
 		JScrollPane jScrollPane = new JScrollPane(jTable);
@@ -70,7 +72,7 @@ public class StopAllSocketListeners extends OtrosAction {
 		}
 
 		int failedCount = 0;
-		for (SocketLogReader socketLogReader : logReaders) {
+		for (NetworkLogReader socketLogReader : logReaders) {
 			try {
 				socketLogReader.close();
 			} catch (IOException e) {
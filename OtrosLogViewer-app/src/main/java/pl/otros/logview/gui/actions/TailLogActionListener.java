@@ -17,7 +17,6 @@
 package pl.otros.logview.gui.actions;
 
 import org.apache.commons.vfs2.FileObject;
-import org.apache.commons.vfs2.FileSystemException;
 import pl.otros.logview.BufferingLogDataCollectorProxy;
 import pl.otros.logview.Stoppable;
 import pl.otros.logview.gui.Icons;
@@ -30,12 +29,15 @@ import pl.otros.logview.io.LoadingInfo;
 import pl.otros.logview.io.Utils;
 import pl.otros.logview.parser.ParsingContext;
 import pl.otros.logview.parser.TableColumnNameSelfDescribable;
+import pl.otros.logview.reader.FileTailTask;
+import pl.otros.logview.reader.ReadingScheduler;
 import pl.otros.vfs.browser.JOtrosVfsBrowserDialog;
 import pl.otros.vfs.browser.SelectionMode;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.HierarchyEvent;
 import java.awt.event.HierarchyListener;
 import java.lang.ref.SoftReference;
@@ -46,6 +48,7 @@ import java.util.logging.Logger;
 public class TailLogActionListener extends OtrosAction {
 
   private static final Logger LOGGER = Logger.getLogger(TailLogActionListener.class.getName());
+  private static final int STATS_REFRESH_INTERVAL = 1000;
   private LogImporter importer;
   private LogImportStats importStats;
 
@@ -118,48 +121,37 @@ public class TailLogActionListener extends OtrosAction {
 
   public void openFileObjectInTailMode(final LogViewPanelWrapper panel, final LoadingInfo loadingInfo, final BufferingLogDataCollectorProxy logDataCollector,
                                        final ParsingContext parsingContext) {
-    {
-
-      Runnable r = new Runnable() {
-
-        @Override
-        public void run() {
-          importStats = new LogImportStats(loadingInfo.getFileObject().getName().getFriendlyURI());
-          panel.getStatsTable().setModel(importStats);
-          panel.addHierarchyListener(new ReadingStopperForRemove(loadingInfo.getObserableInputStreamImpl(), logDataCollector,
-              new ParsingContextStopperForClosingTab(parsingContext)));
-          importer.initParsingContext(parsingContext);
-          try {
-            loadingInfo.setLastFileSize(loadingInfo.getFileObject().getContent().getSize());
-          } catch (FileSystemException e1) {
-            LOGGER.warning("Can't initialize start position for tailing. Can duplicate some values for small files");
-          }
-          while (parsingContext.isParsingInProgress()) {
-            try {
-              importer.importLogs(loadingInfo.getContentInputStream(), logDataCollector, parsingContext);
-              if (!loadingInfo.isTailing() || loadingInfo.isGziped()) {
-                break;
-              }
-              Thread.sleep(1000);
-
-              Utils.reloadFileObject(loadingInfo);
-            } catch (Exception e) {
-              LOGGER.warning("Exception in tailing loop: " + e.getMessage());
-            }
-          }
-          LOGGER.info(String.format("Loading of files %s is finished", loadingInfo.getFriendlyUrl()));
-          parsingContext.setParsingInProgress(false);
-          LOGGER.info("File " + loadingInfo.getFriendlyUrl() + " loaded");
-          getOtrosApplication().getStatusObserver().updateStatus("File " + loadingInfo.getFriendlyUrl() + " stop tailing");
-          Utils.closeQuietly(loadingInfo.getFileObject());
-        }
+    importStats = new LogImportStats(loadingInfo.getFileObject().getName().getFriendlyURI());
+    panel.getStatsTable().setModel(importStats);
+    final LogImportStats tailStats = importStats;
+    final Timer statsRefresh = new Timer(STATS_REFRESH_INTERVAL, new ActionListener() {
+
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        tailStats.refresh();
+      }
+    });
+    FileTailTask tailTask = new FileTailTask(loadingInfo, importer, logDataCollector, parsingContext) {
 
-      };
-      Thread t = new Thread(r, "Log reader-" + loadingInfo.getFileObject().getName().getFriendlyURI());
-      t.setDaemon(true);
-      t.start();
+      @Override
+      protected void tailingFinished() {
+        LOGGER.info("File " + loadingInfo.getFriendlyUrl() + " loaded");
+        getOtrosApplication().getStatusObserver().updateStatus("File " + loadingInfo.getFriendlyUrl() + " stop tailing");
+        Utils.closeQuietly(loadingInfo.getFileObject());
+        statsRefresh.stop();
+      }
+    };
+    panel.addHierarchyListener(new ReadingStopperForRemove(loadingInfo.getObserableInputStreamImpl(), logDataCollector,
+        new ParsingContextStopperForClosingTab(parsingContext), tailTask.getWatch(), new Stoppable() {
 
-    }
+      @Override
+      public void stop() {
+        statsRefresh.stop();
+      }
+    }));
+    ReadingScheduler.getInstance().startTailing(tailTask);
+    tailStats.setReadingSource(tailTask.getSource());
+    statsRefresh.start();
   }
 
   private void initFileChooser(JOtrosVfsBrowserDialog chooser) {
@@ -23,6 +23,8 @@ import pl.otros.logview.importer.LogImporter;
 import pl.otros.logview.io.LoadingInfo;
 import pl.otros.logview.io.Utils;
 import pl.otros.logview.parser.ParsingContext;
+import pl.otros.logview.reader.ReadingScheduler;
+import pl.otros.logview.reader.ReadingSource;
 import pl.otros.logview.store.LogDataStore;
 
 import javax.swing.*;
@@ -51,6 +53,9 @@ public final class ImportLogRunnable implements Runnable {
     final LogDataStore logDataStore = dataTableModel.getLogDataStore();
     LogImportStats importStats = new LogImportStats(file.getName().getFriendlyURI());
     panel.getStatsTable().setModel(importStats);
+    ReadingSource source = ReadingScheduler.getInstance().registerSource(file.getName().getFriendlyURI(), ReadingScheduler.TYPE_FILE);
+    source.attach(parsingContext);
+    importStats.setReadingSource(source);
     ProgressWatcher watcher = new ProgressWatcher(openFileObject.getObserableInputStreamImpl(), panel, file, importStats);
     Thread t = new Thread(watcher, "Log loader: " + file.getName().toString());
     t.setDaemon(true);
@@ -58,11 +63,14 @@ public final class ImportLogRunnable implements Runnable {
     panel.addHierarchyListener(new ReadingStopperForRemove(openFileObject.getObserableInputStreamImpl()));
     importer.initParsingContext(parsingContext);
     try {
-      importer.importLogs(openFileObject.getContentInputStream(), logDataStore, parsingContext);
+      importer.importLogs(source.countBytes(openFileObject.getContentInputStream()), source.countEvents(logDataStore), parsingContext);
       LOGGER.info("File " + file.getName().getFriendlyURI() + " loaded");
     } catch (Exception e) {
       LOGGER.log(Level.SEVERE, "Error when importing log", e);
+    } finally {
+      ReadingScheduler.getInstance().unregisterSource(source);
     }
+    importStats.refresh();
     SwingUtilities.invokeLater(new Runnable() {
 
       @Override
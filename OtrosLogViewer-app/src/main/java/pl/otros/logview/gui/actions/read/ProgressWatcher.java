@@ -55,6 +55,7 @@ public class ProgressWatcher implements Runnable {
         long max = fileName.getContent().getSize();
         if (max <= 0) {
           updateNotDetermined("Loading");
+          importStats.refresh();
         } else {
           long current = in.getCurrentRead();
           float percent = (float) current / max;
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.actions.search;
+
+import pl.otros.logview.LogData;
+import pl.otros.logview.gui.markers.AutomaticMarker;
+import pl.otros.logview.gui.markers.MarkerEngine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Matches events marked by automatic marker.
+ */
+public class AutomaticMarkerSearchMatcher implements SearchMatcher {
+
+  private final MarkerEngine markerEngine;
+
+  public AutomaticMarkerSearchMatcher(AutomaticMarker automaticMarker) {
+    markerEngine = new MarkerEngine(Collections.singleton(automaticMarker));
+  }
+
+  @Override
+  public boolean matches(LogData logData) {
+    return markerEngine.toMark(logData);
+  }
+
+  @Override
+  public ArrayList<String> getFoundTextFragments(LogData logData) {
+    return new ArrayList<String>();
+  }
+
+}
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright 2011 Krzysztof Otrebski
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package pl.otros.logview.gui.actions.search;
+
+import pl.otros.logview.store.index.IdSelection;
+import pl.otros.logview.store.index.LogDataIndexes;
+
+/**
+ * Search matcher which can use store indexes to skip events which for sure are not matching.
+ */
+public interface IndexAwareSearchMatcher extends SearchMatcher {
+
+  /**
+   * @return candidates for matching or null if indexes can't help
+   */
+  IdSelection getCandidates(LogDataIndexes indexes);
+}
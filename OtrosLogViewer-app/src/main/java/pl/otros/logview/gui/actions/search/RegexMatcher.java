@@ -16,13 +16,15 @@
 package pl.otros.logview.gui.actions.search;
 
 import pl.otros.logview.LogData;
+import pl.otros.logview.store.index.IdSelection;
+import pl.otros.logview.store.index.LogDataIndexes;
 
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class RegexMatcher implements SearchMatcher {
+public class RegexMatcher implements IndexAwareSearchMatcher {
 
   private static final String DOT_ALL_SUFFIX = ".*";
   private Pattern pattern;
@@ -43,6 +45,11 @@ public class RegexMatcher implements SearchMatcher {
     return pattern.matcher(logData.getMessage()).find();
   }
 
+  @Override
+  public IdSelection getCandidates(LogDataIndexes indexes) {
+    return indexes.selectMessagesMatching(pattern.pattern());
+  }
+
   @Override
   public ArrayList<String> getFoundTextFragments(LogData logData) {
     HashSet<String> result = new HashSet<String>();
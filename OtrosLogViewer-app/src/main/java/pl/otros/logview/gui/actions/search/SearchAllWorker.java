@@ -0,0 +1,201 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.actions.search;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import pl.otros.logview.LogData;
+import pl.otros.logview.gui.LogDataTableModel;
+import pl.otros.logview.store.index.IdSelection;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Finds all rows matching {@link SearchMatcher}. Rows are split into chunks checked in parallel, matching rows are
+ * passed to {@link #rowsFound(int[])} on EDT as soon as chunk is finished. Search can be stopped with
+ * {@link #cancel(boolean)}. When search is finished, cancelled or failed {@link #searchFinished(Throwable)} is called on EDT.
+ */
+public abstract class SearchAllWorker extends SwingWorker<Integer, int[]> {
+
+  private static final Logger LOGGER = Logger.getLogger(SearchAllWorker.class.getName());
+  static final int CHUNK_SIZE = 4096;
+  private static final int CANCEL_CHECK_INTERVAL = 256;
+  private static final ThreadPoolExecutor EXECUTOR;
+
+  static {
+    int threads = Runtime.getRuntime().availableProcessors();
+    EXECUTOR = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactoryBuilder().setNameFormat("SearchAll-%d").setDaemon(true).build());
+    EXECUTOR.allowCoreThreadTimeOut(true);
+  }
+
+  private final LogDataTableModel dataTableModel;
+  private final SearchMatcher searchMatcher;
+  private final int[] rows;
+
+  /**
+   * @param rows model rows to check, should be collected on EDT
+   */
+  public SearchAllWorker(LogDataTableModel dataTableModel, SearchMatcher searchMatcher, int[] rows) {
+    this.dataTableModel = dataTableModel;
+    this.searchMatcher = searchMatcher;
+    this.rows = rows;
+  }
+
+  /**
+   * Collects model rows of all rows visible in table. Have to be called on EDT.
+   */
+  public static int[] visibleModelRows(JTable table) {
+    int[] result = new int[table.getRowCount()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = table.convertRowIndexToModel(i);
+    }
+    return result;
+  }
+
+  @Override
+  protected Integer doInBackground() throws Exception {
+    final IdSelection candidates = SearchEngine.getCandidates(searchMatcher, dataTableModel);
+    CompletionService<int[]> completionService = new ExecutorCompletionService<int[]>(EXECUTOR);
+    List<Future<int[]>> futures = new ArrayList<Future<int[]>>();
+    for (int start = 0; start < rows.length; start += CHUNK_SIZE) {
+      final int from = start;
+      final int to = Math.min(rows.length, start + CHUNK_SIZE);
+      futures.add(completionService.submit(new Callable<int[]>() {
+        @Override
+        public int[] call() throws Exception {
+          return searchChunk(from, to, candidates);
+        }
+      }));
+    }
+    int found = 0;
+    try {
+      for (int i = 0; i < futures.size() && !isCancelled(); i++) {
+        int[] rowsAndIds = completionService.take().get();
+        if (rowsAndIds.length > 0) {
+          found += rowsAndIds.length / 2;
+          publish(rowsAndIds);
+        }
+        setProgress(100 * (i + 1) / futures.size());
+      }
+    } finally {
+      for (Future<int[]> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return found;
+  }
+
+  /**
+   * @return pairs of matching row and id of event in this row
+   */
+  private int[] searchChunk(int from, int to, IdSelection candidates) {
+    int[] result = new int[16];
+    int size = 0;
+    for (int i = from; i < to; i++) {
+      if ((i - from) % CANCEL_CHECK_INTERVAL == 0 && (isCancelled() || Thread.currentThread().isInterrupted())) {
+        break;
+      }
+      int row = rows[i];
+      if (row >= dataTableModel.getRowCount()) {
+        continue;
+      }
+      if (candidates != null && candidates.excludes(dataTableModel.getLogDataIdInRow(row))) {
+        continue;
+      }
+      LogData logData = dataTableModel.getLogData(row);
+      if (logData != null && searchMatcher.matches(logData)) {
+        if (size + 2 > result.length) {
+          int[] bigger = new int[result.length * 2];
+          System.arraycopy(result, 0, bigger, 0, size);
+          result = bigger;
+        }
+        result[size++] = row;
+        result[size++] = logData.getId();
+      }
+    }
+    int[] trimmed = new int[size];
+    System.arraycopy(result, 0, trimmed, 0, size);
+    return trimmed;
+  }
+
+  @Override
+  protected void process(List<int[]> chunks) {
+    if (isCancelled()) {
+      return;
+    }
+    for (int[] rowsAndIds : chunks) {
+      // rows could be shifted by events added after search was started
+      int[] found = new int[rowsAndIds.length / 2];
+      int size = 0;
+      for (int i = 0; i < rowsAndIds.length; i += 2) {
+        int row = rowsAndIds[i];
+        if (row < dataTableModel.getRowCount() && dataTableModel.getLogDataIdInRow(row) == rowsAndIds[i + 1]) {
+          found[size++] = row;
+        }
+      }
+      if (size > 0) {
+        int[] rows = new int[size];
+        System.arraycopy(found, 0, rows, 0, size);
+        rowsFound(rows);
+      }
+    }
+  }
+
+  /**
+   * Called on EDT with rows matching search.
+   */
+  protected abstract void rowsFound(int[] rows);
+
+  @Override
+  protected final void done() {
+    Throwable error = null;
+    if (!isCancelled()) {
+      try {
+        get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        error = e.getCause();
+        // chunk failures are wrapped by completion service
+        while (error instanceof ExecutionException && error.getCause() != null) {
+          error = error.getCause();
+        }
+        LOGGER.log(Level.SEVERE, "Error when searching rows", error);
+      }
+    }
+    searchFinished(error);
+  }
+
+  /**
+   * Called on EDT when search is finished, cancelled or failed.
+   *
+   * @param error cause of failure or null if search has not failed
+   */
+  protected void searchFinished(Throwable error) {
+  }
+}
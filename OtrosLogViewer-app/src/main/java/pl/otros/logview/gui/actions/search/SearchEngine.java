@@ -17,19 +17,24 @@ package pl.otros.logview.gui.actions.search;
 
 import pl.otros.logview.LogData;
 import pl.otros.logview.gui.LogDataTableModel;
+import pl.otros.logview.store.index.IdSelection;
 
 public class SearchEngine {
 
   public SearchResult searchNext(SearchContext context, NextRowProvider nextRowProvider) {
     SearchResult result = new SearchResult();
     LogDataTableModel dataTableModel = context.getDataTableModel();
+    SearchMatcher searchMatcher = context.getSearchMatcher();
+    IdSelection candidates = getCandidates(searchMatcher, dataTableModel);
     while (true) {
       int nextRow = nextRowProvider.getNextRow();
       if (nextRow < 0) {
         // not found
         break;
       }
-      SearchMatcher searchMatcher = context.getSearchMatcher();
+      if (candidates != null && candidates.excludes(dataTableModel.getLogDataIdInRow(nextRow))) {
+        continue;
+      }
       LogData logData = dataTableModel.getLogData(nextRow);
       if (searchMatcher.matches(logData)) {
         result.setFound(true);
@@ -41,4 +46,11 @@ public class SearchEngine {
     return result;
 
   }
+
+  public static IdSelection getCandidates(SearchMatcher searchMatcher, LogDataTableModel dataTableModel) {
+    if (searchMatcher instanceof IndexAwareSearchMatcher) {
+      return ((IndexAwareSearchMatcher) searchMatcher).getCandidates(dataTableModel.getIndexes());
+    }
+    return null;
+  }
 }
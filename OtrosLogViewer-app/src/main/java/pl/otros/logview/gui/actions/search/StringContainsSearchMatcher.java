@@ -17,6 +17,8 @@ package pl.otros.logview.gui.actions.search;
 
 import org.apache.commons.lang.StringUtils;
 import pl.otros.logview.LogData;
+import pl.otros.logview.store.index.IdSelection;
+import pl.otros.logview.store.index.LogDataIndexes;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -26,7 +28,7 @@ import java.util.HashSet;
  * 
  * 
  */
-public class StringContainsSearchMatcher implements SearchMatcher {
+public class StringContainsSearchMatcher implements IndexAwareSearchMatcher {
 
   private String searchChar;
 
@@ -39,6 +41,11 @@ public class StringContainsSearchMatcher implements SearchMatcher {
     return StringUtils.contains(StringUtils.lowerCase(logData.getMessage()), searchChar);
   }
 
+  @Override
+  public IdSelection getCandidates(LogDataIndexes indexes) {
+    return indexes.selectMessagesContaining(searchChar);
+  }
+
   @Override
   public ArrayList<String> getFoundTextFragments(LogData logData) {
     HashSet<String> result = new HashSet<String>();
@@ -18,11 +18,12 @@ package pl.otros.logview.gui.markers;
 import pl.otros.logview.LogData;
 import pl.otros.logview.MarkerColors;
 
-public class BadWordsMarker extends AbstractAutomaticMarker implements AutomaticMarker {
+public class BadWordsMarker extends AbstractAutomaticMarker implements LiteralAutomaticMarker {
 
   private static final String NAME = "Containing words 'Null', 'Error', 'Fail', 'Exception', 'Severe'";
   private static final String DESCRIPTION = "Marks/unmakrs logs with 'Null', 'Error', 'Fail' , 'Exception', 'Severe' in message";
   private static final String[] GROUPS = new String[] { "", "Errors" };
+  private static final String[] WORDS = new String[] { "fail", "error", "null", "exceptions", "severe" };
 
   public BadWordsMarker() {
     super(NAME, DESCRIPTION, MarkerColors.Red, GROUPS);
@@ -35,4 +36,19 @@ public class BadWordsMarker extends AbstractAutomaticMarker implements Automatic
     return m.contains("fail") || m.contains("error") || m.contains("null") || m.contains("exceptions") || m.contains("severe");
   }
 
+  @Override
+  public String[] getRequiredLiterals() {
+    return WORDS;
+  }
+
+  @Override
+  public boolean isMarkedWithoutLiterals() {
+    return false;
+  }
+
+  @Override
+  public boolean isDecidedByLiterals() {
+    return true;
+  }
+
 }
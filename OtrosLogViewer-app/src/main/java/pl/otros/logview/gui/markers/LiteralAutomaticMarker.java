@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.markers;
+
+/**
+ * Automatic marker which result depends on presence of literals in message. {@link MarkerEngine} looks for literals of
+ * all markers in one pass and calls {@link #toMark(pl.otros.logview.LogData)} only if one of them is found.
+ */
+public interface LiteralAutomaticMarker extends AutomaticMarker {
+
+  /**
+   * @return literals (compared ignoring case) from which at least one has to be in message to change result of
+   *         {@link #toMark(pl.otros.logview.LogData)}, null if marker can't tell
+   */
+  public String[] getRequiredLiterals();
+
+  /**
+   * @return result of {@link #toMark(pl.otros.logview.LogData)} for message without any of required literals
+   */
+  public boolean isMarkedWithoutLiterals();
+
+  /**
+   * @return true if finding any of required literals (ignoring case) is enough to tell result, then
+   *         {@link #toMark(pl.otros.logview.LogData)} is not called and result is opposite of
+   *         {@link #isMarkedWithoutLiterals()}
+   */
+  public boolean isDecidedByLiterals();
+
+}
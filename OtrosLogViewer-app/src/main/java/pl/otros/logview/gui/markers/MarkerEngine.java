@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.markers;
+
+import pl.otros.logview.LogData;
+import pl.otros.logview.util.AhoCorasick;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates many automatic markers at once. Literals of {@link LiteralAutomaticMarker}s are compiled into one
+ * {@link AhoCorasick} automaton, message is scanned once and {@link AutomaticMarker#toMark(LogData)} is called only for
+ * markers which literal was found. Markers decided by literals are not called at all, hit of automaton is the result.
+ * Other markers are always called.
+ */
+public class MarkerEngine {
+
+  private final List<AutomaticMarker> markers;
+  private final AhoCorasick automaton;
+  /**
+   * Markers using literals, indexed by pattern index
+   */
+  private final int[][] patternMarkers;
+  private final boolean[] literalMarkers;
+  private final boolean[] decidedByLiterals;
+
+  public MarkerEngine(Collection<? extends AutomaticMarker> markers) {
+    this.markers = new ArrayList<AutomaticMarker>(markers);
+    literalMarkers = new boolean[this.markers.size()];
+    decidedByLiterals = new boolean[this.markers.size()];
+    Map<String, List<Integer>> literalToMarkers = new HashMap<String, List<Integer>>();
+    for (int i = 0; i < this.markers.size(); i++) {
+      String[] literals = getLiterals(this.markers.get(i));
+      if (literals == null) {
+        continue;
+      }
+      literalMarkers[i] = true;
+      decidedByLiterals[i] = ((LiteralAutomaticMarker) this.markers.get(i)).isDecidedByLiterals();
+      for (String literal : literals) {
+        List<Integer> list = literalToMarkers.get(literal);
+        if (list == null) {
+          list = new ArrayList<Integer>();
+          literalToMarkers.put(literal, list);
+        }
+        list.add(i);
+      }
+    }
+    List<String> patterns = new ArrayList<String>(literalToMarkers.keySet());
+    patternMarkers = new int[patterns.size()][];
+    for (int i = 0; i < patterns.size(); i++) {
+      List<Integer> list = literalToMarkers.get(patterns.get(i));
+      patternMarkers[i] = new int[list.size()];
+      for (int j = 0; j < patternMarkers[i].length; j++) {
+        patternMarkers[i][j] = list.get(j);
+      }
+    }
+    automaton = new AhoCorasick(patterns);
+  }
+
+  /**
+   * @return literals of marker or null if marker has to be always called
+   */
+  private static String[] getLiterals(AutomaticMarker marker) {
+    if (!(marker instanceof LiteralAutomaticMarker)) {
+      return null;
+    }
+    String[] literals = ((LiteralAutomaticMarker) marker).getRequiredLiterals();
+    if (literals == null || literals.length == 0) {
+      return null;
+    }
+    for (String literal : literals) {
+      if (literal == null || literal.length() == 0) {
+        return null;
+      }
+    }
+    return literals;
+  }
+
+  /**
+   * @return markers marking event, in order of markers passed to constructor
+   */
+  public List<AutomaticMarker> findMarkers(LogData logData) {
+    if (logData.getMessage() == null) {
+      return Collections.emptyList();
+    }
+    boolean[] literalFound = new boolean[markers.size()];
+    BitSet found = automaton.find(logData.getMessage());
+    for (int pattern = found.nextSetBit(0); pattern >= 0; pattern = found.nextSetBit(pattern + 1)) {
+      for (int marker : patternMarkers[pattern]) {
+        literalFound[marker] = true;
+      }
+    }
+    List<AutomaticMarker> result = null;
+    for (int i = 0; i < markers.size(); i++) {
+      AutomaticMarker marker = markers.get(i);
+      boolean toMark;
+      if (literalMarkers[i] && !literalFound[i]) {
+        toMark = ((LiteralAutomaticMarker) marker).isMarkedWithoutLiterals();
+      } else if (decidedByLiterals[i]) {
+        toMark = !((LiteralAutomaticMarker) marker).isMarkedWithoutLiterals();
+      } else {
+        toMark = marker.toMark(logData);
+      }
+      if (toMark) {
+        if (result == null) {
+          result = new ArrayList<AutomaticMarker>();
+        }
+        result.add(marker);
+      }
+    }
+    return result != null ? result : Collections.<AutomaticMarker>emptyList();
+  }
+
+  /**
+   * @return true if any marker marks event
+   */
+  public boolean toMark(LogData logData) {
+    return !findMarkers(logData).isEmpty();
+  }
+
+  public List<AutomaticMarker> getMarkers() {
+    return Collections.unmodifiableList(markers);
+  }
+}
@@ -17,11 +17,14 @@ package pl.otros.logview.gui.markers;
 
 import pl.otros.logview.LogData;
 import pl.otros.logview.MarkerColors;
+import pl.otros.logview.store.index.RegexLiterals;
 
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.regex.Pattern;
 
-public class RegexMarker extends PropertyFileAbstractMarker {
+public class RegexMarker extends PropertyFileAbstractMarker implements LiteralAutomaticMarker {
 
   private String precondition;
   private Pattern regexCondition;
@@ -68,4 +71,35 @@ public class RegexMarker extends PropertyFileAbstractMarker {
     return result;
   }
 
+  @Override
+  public String[] getRequiredLiterals() {
+    if (preconditionInclude && precondition.length() > 0) {
+      return new String[]{precondition};
+    }
+    List<Set<String>> alternatives = RegexLiterals.analyze(regexCondition.pattern());
+    if (alternatives == null) {
+      return null;
+    }
+    // longest literal of every alternative
+    String[] literals = new String[alternatives.size()];
+    for (int i = 0; i < literals.length; i++) {
+      for (String literal : alternatives.get(i)) {
+        if (literals[i] == null || literal.length() > literals[i].length()) {
+          literals[i] = literal;
+        }
+      }
+    }
+    return literals;
+  }
+
+  @Override
+  public boolean isMarkedWithoutLiterals() {
+    return false;
+  }
+
+  @Override
+  public boolean isDecidedByLiterals() {
+    return false;
+  }
+
 }
@@ -19,7 +19,7 @@ import pl.otros.logview.LogData;
 
 import java.util.Properties;
 
-public class StringMarker extends PropertyFileAbstractMarker implements AutomaticMarker {
+public class StringMarker extends PropertyFileAbstractMarker implements LiteralAutomaticMarker {
 
   public StringMarker(Properties p) throws Exception {
     super(p);
@@ -32,6 +32,21 @@ public class StringMarker extends PropertyFileAbstractMarker implements Automati
 
   }
 
+  @Override
+  public String[] getRequiredLiterals() {
+    return condition.length() > 0 ? new String[]{condition} : null;
+  }
+
+  @Override
+  public boolean isMarkedWithoutLiterals() {
+    return !include;
+  }
+
+  @Override
+  public boolean isDecidedByLiterals() {
+    return ignoreCase;
+  }
+
   @Override
   public Properties toProperties() {
 
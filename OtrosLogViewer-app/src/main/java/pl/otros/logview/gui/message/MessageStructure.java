@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.message;
+
+/**
+ * Regions of structured content found in a message by {@link StructureScanner}.
+ */
+public class MessageStructure {
+
+  private final String text;
+  private final OffsetRanges jsonRegions;
+  private final OffsetRanges soapRegions;
+  private final OffsetRanges stackTraceRegions;
+
+  MessageStructure(String text, OffsetRanges jsonRegions, OffsetRanges soapRegions, OffsetRanges stackTraceRegions) {
+    this.text = text;
+    this.jsonRegions = jsonRegions;
+    this.soapRegions = soapRegions;
+    this.stackTraceRegions = stackTraceRegions;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * @return top level <code>{...}</code> blocks
+   */
+  public OffsetRanges getJsonRegions() {
+    return jsonRegions;
+  }
+
+  /**
+   * @return SOAP envelopes including preceding XML declaration
+   */
+  public OffsetRanges getSoapRegions() {
+    return soapRegions;
+  }
+
+  /**
+   * @return stack traces, each one starting with the line before the first <code>at ...</code> line
+   */
+  public OffsetRanges getStackTraceRegions() {
+    return stackTraceRegions;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.message;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Growable list of <code>[start, end)</code> offset pairs kept in a single primitive array.
+ */
+public class OffsetRanges {
+
+  private int[] offsets;
+  private int size;
+
+  public OffsetRanges() {
+    offsets = new int[8];
+  }
+
+  void add(int start, int end) {
+    if (2 * size + 2 > offsets.length) {
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    }
+    offsets[2 * size] = start;
+    offsets[2 * size + 1] = end;
+    size++;
+  }
+
+  void setEnd(int index, int end) {
+    checkIndex(index);
+    offsets[2 * index + 1] = end;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int getStart(int index) {
+    checkIndex(index);
+    return offsets[2 * index];
+  }
+
+  public int getEnd(int index) {
+    checkIndex(index);
+    return offsets[2 * index + 1];
+  }
+
+  /**
+   * Adds every range as {@link SubText} to given collection.
+   *
+   * @param collection target collection
+   * @return the same collection
+   */
+  public <T extends Collection<SubText>> T addTo(T collection) {
+    for (int i = 0; i < size; i++) {
+      collection.add(new SubText(offsets[2 * i], offsets[2 * i + 1]));
+    }
+    return collection;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("OffsetRanges [");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(offsets[2 * i]).append("-").append(offsets[2 * i + 1]);
+    }
+    return sb.append("]").toString();
+  }
+}
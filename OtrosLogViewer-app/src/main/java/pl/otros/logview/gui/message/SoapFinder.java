@@ -28,6 +28,8 @@ public class SoapFinder {
   // http://www.w3.org/2002/06/soap-envelope
   static Pattern[] patterns = new Pattern[] { p1, p2 };
 
+  private final StructureScanner structureScanner = new StructureScanner();
+
   public String findSoapTag(String string) {
     String result = null;
 
@@ -43,44 +45,7 @@ public class SoapFinder {
   }
 
   public SortedSet<SubText> findSoaps(String text) {
-    SortedSet<SubText> set = new TreeSet<SubText>();
-    String tag = findSoapTag(text);
-    if (tag == null) {
-      return set;
-    }
-    String soapStartTag = "<" + tag + ":Envelope";
-    String soapEndTag = "</" + tag + ":Envelope>";
-    int end = 0;
-    int start = 0;
-    String s = text;
-    Pattern startPatern = Pattern.compile("((<\\?xml .*?\\?>[\\s\n]*)?" + soapStartTag + ")");
-    Matcher startMatcher = startPatern.matcher(s);
-    while (startMatcher.find()) {
-      start = startMatcher.start(1);
-      end = s.indexOf(soapEndTag, start);
-      if (start < 0 || end < 0) {
-        break;
-      }
-      SubText subText = new SubText(start, end + soapEndTag.length());
-      set.add(subText);
-    }
-    // while (true) {
-    // start = s.indexOf(soapStartTag, end);
-    // end = s.indexOf(soapEndTag, start);
-    // if (start < 0 || end < 0) {
-    // break;
-    // }
-    // Pattern p = Pattern.compile(".*(<\\?xml .*?\\?>)[\\s\n]*" + soapStartTag, Pattern.CASE_INSENSITIVE);
-    // String sub = text.substring(0, start + soapStartTag.length());
-    // Matcher matcher = p.matcher(sub);
-    // if (matcher.find()) {
-    // start = matcher.start(1);
-    // }
-    // SubText subText = new SubText(start, end + soapEndTag.length());
-    // set.add(subText);
-    // }
-
-    return set;
+    return structureScanner.scan(text).getSoapRegions().addTo(new TreeSet<SubText>());
   }
 
 }
@@ -43,11 +43,13 @@ public class StackTraceColorizer implements MessageColorizer {
   private Style styleMethod;
   private Style styleFile;
   private Style styleCodeComment;
+  private final StructureScanner structureScanner;
   private StackTraceFinder stackTraceFinder;
   private StyleContext styleContext;
 
   public StackTraceColorizer() {
-    stackTraceFinder = new StackTraceFinder();
+    structureScanner = new StructureScanner();
+    stackTraceFinder = new StackTraceFinder(structureScanner);
   }
 
   protected void initStyles() {
@@ -77,7 +79,7 @@ public class StackTraceColorizer implements MessageColorizer {
 
   @Override
   public boolean colorizingNeeded(String message) {
-    return exceptionLine.matcher(message).find();
+    return !structureScanner.scan(message).getStackTraceRegions().isEmpty();
   }
 
   @Override
@@ -88,15 +90,12 @@ public class StackTraceColorizer implements MessageColorizer {
     for (SubText subText : foundStackTraces) {
       list.add(new MessageFragmentStyle(subText.getStart(), subText.getLength(), styleStackTrace, false));
       String subTextFragment = message.substring(subText.getStart(), subText.getEnd());
-      Matcher matcher = exceptionLine.matcher(subTextFragment);
-      while (matcher.find()) {
-        int newOffset = subText.start;
-        list.addAll(increaseOffset(colorizeStackTraceRegex(stylePackage, subTextFragment, exceptionLine, EXCEPTION_LINE_GROUP_PACKAGE), newOffset));
-        list.addAll(increaseOffset(colorizeStackTraceRegex(styleClass, subTextFragment, exceptionLine, EXCEPTION_LINE_GROUP_CLASS), newOffset));
-        list.addAll(increaseOffset(colorizeStackTraceRegex(styleMethod, subTextFragment, exceptionLine, EXCEPTION_LINE_GROUP_METHOD), newOffset));
-        list.addAll(increaseOffset(colorizeStackTraceRegex(styleFile, subTextFragment, exceptionLine, EXCEPTION_LINE_GROUP_FILE), newOffset));
-        list.addAll(increaseOffset(colorizeStackTraceRegex(styleCodeComment, subTextFragment, exceptionLine, EXCEPTION_LINE_GROUP_CODE_COMMENT), newOffset));
-      }
+      int newOffset = subText.start;
+      list.addAll(increaseOffset(colorizeStackTraceRegex(stylePackage, subTextFragment, exceptionLine, EXCEPTION_LINE_GROUP_PACKAGE), newOffset));
+      list.addAll(increaseOffset(colorizeStackTraceRegex(styleClass, subTextFragment, exceptionLine, EXCEPTION_LINE_GROUP_CLASS), newOffset));
+      list.addAll(increaseOffset(colorizeStackTraceRegex(styleMethod, subTextFragment, exceptionLine, EXCEPTION_LINE_GROUP_METHOD), newOffset));
+      list.addAll(increaseOffset(colorizeStackTraceRegex(styleFile, subTextFragment, exceptionLine, EXCEPTION_LINE_GROUP_FILE), newOffset));
+      list.addAll(increaseOffset(colorizeStackTraceRegex(styleCodeComment, subTextFragment, exceptionLine, EXCEPTION_LINE_GROUP_CODE_COMMENT), newOffset));
     }
     return list;
   }
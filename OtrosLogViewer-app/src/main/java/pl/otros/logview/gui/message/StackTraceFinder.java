@@ -15,61 +15,22 @@
  ******************************************************************************/
 package pl.otros.logview.gui.message;
 
-import org.apache.commons.lang.StringUtils;
-
-import java.util.LinkedList;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class StackTraceFinder {
 
-  private static final Pattern exceptionLine = Pattern.compile("(\\s*at\\s+([\\w\\d\\.]*\\.)?([\\w\\d\\$]+)\\.([\\d\\w<>\\$]+)\\(([\\d\\w\\.\\u0020:]+)\\))");
+  private final StructureScanner structureScanner;
 
-  public SortedSet<SubText> findStackTraces(String text) {
-    SortedSet<SubText> set = new TreeSet<SubText>();
-    LinkedList<Integer> newLineIndexes = new LinkedList<Integer>();
-    newLineIndexes.add(0);
-    int newLineIndex = -1;
-    while ((newLineIndex = StringUtils.indexOf(text, '\n', newLineIndex + 1)) > -1) {
-      newLineIndexes.addLast(newLineIndex);
-    }
-    if (newLineIndexes.getLast() < text.length()) {
-      newLineIndexes.addLast(text.length());
-    }
+  public StackTraceFinder() {
+    this(new StructureScanner());
+  }
 
-    int startLine;
-    int endLine;
-    boolean found = false;
-    int startedLineException = -1;
-    for (int i = 0; i < newLineIndexes.size() - 1; i++) {
-      startLine = newLineIndexes.get(i);
-      endLine = newLineIndexes.get(i + 1);
-      String line = text.substring(startLine, endLine);
-      Matcher matcher = exceptionLine.matcher(line);
-      boolean f = matcher.find();
-      if (f && !found) {
-        startedLineException = i - 1;
-      } else if (!f && found) {
-        // exception end
-        int start = newLineIndexes.get(startedLineException);
-        int end = newLineIndexes.get(i);
-        SubText subText = new SubText(start, end);
-        set.add(subText);
-      }
-      found = f;
-    }
-    // Add stacktrace if string with end of stacktrace
-    if (found) {
-      int start = newLineIndexes.get(startedLineException);
-      int end = newLineIndexes.getLast();
-      SubText subText = new SubText(start, end);
-      set.add(subText);
-    }
-    // for (SubText subText : set) {
-    // System.out.printf("[%d -> %d] \n\"%s\"", subText.start, subText.end, text.substring(subText.start, subText.end));
-    // }
-    return set;
+  public StackTraceFinder(StructureScanner structureScanner) {
+    this.structureScanner = structureScanner;
+  }
+
+  public SortedSet<SubText> findStackTraces(String text) {
+    return structureScanner.scan(text).getStackTraceRegions().addTo(new TreeSet<SubText>());
   }
 }
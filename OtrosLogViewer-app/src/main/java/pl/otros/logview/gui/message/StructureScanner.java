@@ -0,0 +1,306 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.message;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds JSON, SOAP and stack trace regions of a message in a single pass. Characters are inspected once and regions
+ * are collected as primitive offsets. Stack trace regex is evaluated only for lines which can match it and SOAP
+ * namespace is checked only in envelope start tags.
+ * <p/>
+ * Result of the last scan is remembered by scanner instance, so colorizer asking about the same message first if
+ * colorizing is needed and then for regions does not scan it again.
+ */
+public class StructureScanner {
+
+  static final Pattern EXCEPTION_LINE = Pattern.compile("(\\s*at\\s+([\\w\\d\\.]*\\.)?([\\w\\d\\$]+)\\.([\\d\\w<>\\$]+)\\(([\\d\\w\\.\\u0020:]+)\\))");
+
+  private static final String ENVELOPE = "Envelope";
+  private static final String XML_DECLARATION = "<?xml ";
+  private static final String XMLNS = "xmlns:";
+  private static final String SOAP_11_NAMESPACE = "http://schemas.xmlsoap.org/soap/envelope/";
+  private static final String SOAP_12_NAMESPACE_PREFIX = "http://www.w3.org/";
+  private static final String SOAP_12_NAMESPACE_SUFFIX = "soap-envelope";
+  private static final int MAX_PREFIX_LENGTH = 64;
+
+  private volatile MessageStructure lastScanned;
+
+  public MessageStructure scan(String text) {
+    MessageStructure last = lastScanned;
+    if (last != null && last.getText() == text) {
+      return last;
+    }
+    MessageStructure structure = new Scan().doScan(text);
+    lastScanned = structure;
+    return structure;
+  }
+
+  /**
+   * State of scanning one message
+   */
+  private static class Scan {
+
+    private final OffsetRanges json = new OffsetRanges();
+    private final OffsetRanges stackTraces = new OffsetRanges();
+    /**
+     * Envelope start tag and end of matching end tag, -1 while not closed
+     */
+    private final OffsetRanges envelopes = new OffsetRanges();
+    /**
+     * Indexes in {@link #envelopes} of not closed envelopes by namespace prefix
+     */
+    private final Map<String, List<Integer>> openEnvelopes = new HashMap<String, List<Integer>>();
+    private Matcher exceptionLineMatcher;
+
+    private MessageStructure doScan(String text) {
+      final int length = text.length();
+
+      //JSON
+      int depth = 0;
+      int lastDepth = 0;
+      int jsonStart = 0;
+      boolean escaped = false;
+      boolean inString = false;
+
+      //stack trace
+      int lineStart = 0;
+      int previousLineStart = 0;
+      boolean inStackTrace = false;
+      int stackTraceStart = 0;
+      char prev1 = 0;
+      char prev2 = 0;
+      boolean atSeen = false;
+      boolean parenthesisOpened = false;
+      boolean candidateLine = false;
+
+      for (int i = 0; i < length; i++) {
+        final char c = text.charAt(i);
+
+        //watch for '{}' in strings value
+        if (c == '{' && !inString) {
+          depth++;
+        } else if (c == '}' && !inString) {
+          depth--;
+        } else if (!escaped && c == '"') {
+          inString = !inString;
+        } else {
+          escaped = c == '\\' && !escaped;
+        }
+        if (depth == 0 && lastDepth > 0) {
+          json.add(jsonStart, i + 1);
+        } else if (depth > 0 && lastDepth == 0) {
+          jsonStart = i;
+        }
+        lastDepth = depth;
+
+        if (c == '\n') {
+          boolean matches = candidateLine && isExceptionLine(text, lineStart, i);
+          if (matches && !inStackTrace) {
+            stackTraceStart = previousLineStart;
+          } else if (!matches && inStackTrace) {
+            stackTraces.add(stackTraceStart, lineStart);
+          }
+          inStackTrace = matches;
+          previousLineStart = lineStart;
+          lineStart = i;
+          prev1 = prev2 = 0;
+          atSeen = parenthesisOpened = candidateLine = false;
+          continue;
+        }
+        if (!atSeen) {
+          atSeen = prev2 == 'a' && prev1 == 't' && isWhitespace(c);
+        } else if (!parenthesisOpened) {
+          parenthesisOpened = c == '(';
+        } else if (c == ')') {
+          candidateLine = true;
+        }
+        prev2 = prev1;
+        prev1 = c;
+
+        if (c == '<') {
+          recordEnvelopeTag(text, i);
+        }
+      }
+
+      if (lineStart < length) {
+        boolean matches = candidateLine && isExceptionLine(text, lineStart, length);
+        if (matches && !inStackTrace) {
+          stackTraceStart = previousLineStart;
+        } else if (!matches && inStackTrace) {
+          stackTraces.add(stackTraceStart, lineStart);
+        }
+        inStackTrace = matches;
+      }
+      // Add stacktrace if string with end of stacktrace
+      if (inStackTrace) {
+        stackTraces.add(stackTraceStart, length);
+      }
+
+      OffsetRanges soaps = new OffsetRanges();
+      for (int i = 0; i < envelopes.size(); i++) {
+        if (envelopes.getEnd(i) >= 0) {
+          soaps.add(xmlDeclarationStart(text, envelopes.getStart(i)), envelopes.getEnd(i));
+        }
+      }
+      return new MessageStructure(text, json, soaps, stackTraces);
+    }
+
+    private boolean isExceptionLine(String text, int start, int end) {
+      if (exceptionLineMatcher == null) {
+        exceptionLineMatcher = EXCEPTION_LINE.matcher(text);
+      }
+      return exceptionLineMatcher.region(start, end).find();
+    }
+
+    /**
+     * Opens envelope for <code>&lt;prefix:Envelope</code> tag declaring SOAP namespace and closes all open envelopes
+     * with the same prefix on <code>&lt;/prefix:Envelope&gt;</code> tag.
+     */
+    private void recordEnvelopeTag(String text, int tagStart) {
+      final int length = text.length();
+      int i = tagStart + 1;
+      boolean closing = i < length && text.charAt(i) == '/';
+      if (closing) {
+        i++;
+      }
+      final int prefixStart = i;
+      while (i < length && i - prefixStart <= MAX_PREFIX_LENGTH && isPrefixChar(text.charAt(i))) {
+        i++;
+      }
+      if (i == prefixStart || i >= length || text.charAt(i) != ':' || !text.startsWith(ENVELOPE, i + 1)) {
+        return;
+      }
+      final int afterName = i + 1 + ENVELOPE.length();
+      if (!closing) {
+        int tagEnd = text.indexOf('>', afterName);
+        if (tagEnd >= 0 && declaresSoapNamespace(text, prefixStart, i, tagEnd)) {
+          String prefix = text.substring(prefixStart, i);
+          List<Integer> open = openEnvelopes.get(prefix);
+          if (open == null) {
+            open = new ArrayList<Integer>(1);
+            openEnvelopes.put(prefix, open);
+          }
+          open.add(envelopes.size());
+          envelopes.add(tagStart, -1);
+        }
+      } else if (afterName < length && text.charAt(afterName) == '>' && !openEnvelopes.isEmpty()) {
+        List<Integer> open = openEnvelopes.remove(text.substring(prefixStart, i));
+        if (open != null) {
+          for (Integer index : open) {
+            envelopes.setEnd(index, afterName + 1);
+          }
+        }
+      }
+    }
+  }
+
+  private static boolean declaresSoapNamespace(String text, int prefixStart, int prefixEnd, int tagEnd) {
+    final int prefixLength = prefixEnd - prefixStart;
+    for (int i = prefixEnd; i + XMLNS.length() <= tagEnd; i++) {
+      if (!text.startsWith(XMLNS, i)) {
+        continue;
+      }
+      int name = i + XMLNS.length();
+      int quote = name + prefixLength + 1;
+      if (quote < tagEnd && text.regionMatches(name, text, prefixStart, prefixLength) && text.charAt(name + prefixLength) == '='
+          && (text.charAt(quote) == '"' || text.charAt(quote) == '\'')) {
+        return isSoapNamespace(text, quote + 1, text.charAt(quote), tagEnd);
+      }
+    }
+    return false;
+  }
+
+  private static boolean isSoapNamespace(String text, int start, char quote, int limit) {
+    int end = start;
+    while (end < limit && text.charAt(end) != quote) {
+      end++;
+    }
+    if (end >= limit) {
+      return false;
+    }
+    if (end - start == SOAP_11_NAMESPACE.length()) {
+      return text.startsWith(SOAP_11_NAMESPACE, start);
+    }
+    // http://www.w3.org/<digits>/<digits>/soap-envelope
+    if (!text.startsWith(SOAP_12_NAMESPACE_PREFIX, start) || !text.startsWith(SOAP_12_NAMESPACE_SUFFIX, end - SOAP_12_NAMESPACE_SUFFIX.length())) {
+      return false;
+    }
+    int i = skipDigits(text, start + SOAP_12_NAMESPACE_PREFIX.length(), end);
+    if (i < 0 || i >= end || text.charAt(i) != '/') {
+      return false;
+    }
+    i = skipDigits(text, i + 1, end);
+    return i >= 0 && i == end - SOAP_12_NAMESPACE_SUFFIX.length() - 1 && text.charAt(i) == '/';
+  }
+
+  private static int skipDigits(String text, int start, int end) {
+    int i = start;
+    while (i < end && Character.isDigit(text.charAt(i))) {
+      i++;
+    }
+    return i > start ? i : -1;
+  }
+
+  /**
+   * Returns start of <code>&lt;?xml ...?&gt;</code> declaration directly preceding envelope or envelope tag start if
+   * there is no declaration. Declaration have to be in one line.
+   */
+  private static int xmlDeclarationStart(String text, int tagStart) {
+    int end = tagStart;
+    while (end > 0 && isWhitespace(text.charAt(end - 1))) {
+      end--;
+    }
+    if (end < 2 || text.charAt(end - 1) != '>' || text.charAt(end - 2) != '?') {
+      return tagStart;
+    }
+    end -= 2;
+    int declarationStart = -1;
+    int candidate = text.lastIndexOf(XML_DECLARATION, end - XML_DECLARATION.length());
+    while (candidate >= 0 && !containsLineTerminator(text, candidate + XML_DECLARATION.length(), end)) {
+      declarationStart = candidate;
+      end = candidate;
+      candidate = text.lastIndexOf(XML_DECLARATION, candidate - 1);
+    }
+    return declarationStart >= 0 ? declarationStart : tagStart;
+  }
+
+  private static boolean containsLineTerminator(String text, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isPrefixChar(char c) {
+    return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.';
+  }
+
+  /**
+   * Same characters as <code>\s</code> in regular expression
+   */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+}
@@ -29,18 +29,34 @@ import javax.swing.text.BadLocationException;
 import javax.swing.text.StyledDocument;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Formats log event details in background. Chunks are published when formatter has them ready and inserted into document
+ * in parts of limited size, so EDT is not blocked by very large messages. Beginning of the message, which is visible
+ * first, is inserted first.
  */
 public class FormatMessageDialogWorker extends SwingWorker<List<TextChunkWithStyle>, TextChunkWithStyle> implements CancelStatus {
 
   private static final Logger LOGGER = Logger.getLogger(FormatMessageDialogWorker.class.getName());
+  static final int INSERT_CHUNK_SIZE = 64 * 1024;
+  private static final int CHARS_PER_EDT_CYCLE = 128 * 1024;
+  private static final int STYLES_PER_EDT_CYCLE = 2000;
 
   private LogData ld;
-  private ArrayList<TextChunkWithStyle> chunks = new ArrayList<TextChunkWithStyle>();
+  private List<TextChunkWithStyle> chunks = new ArrayList<TextChunkWithStyle>();
+  /**
+   * Chunks waiting for insert into document, accessed only on EDT
+   */
+  private final LinkedList<TextChunkWithStyle> pendingChunks = new LinkedList<TextChunkWithStyle>();
+  private int enqueuedChunks = 0;
+  private boolean documentCleared = false;
+  private boolean finished = false;
+  private boolean insertScheduled = false;
+  private boolean caretMovedToBeginning = false;
   private SimpleDateFormat dateFormat;
 
   private OtrosJTextWithRulerScrollPane<JTextPane> otrosJTextWithRulerScrollPane;
@@ -71,30 +87,135 @@ public class FormatMessageDialogWorker extends SwingWorker<List<TextChunkWithSty
   protected List<TextChunkWithStyle> doInBackground() throws Exception {
     LOGGER.finer("Start do in background");
     LogDataFormatter logDataFormatter = new LogDataFormatter(ld, dateFormat, messageUtils, colorizersContainer, formattersContainer, this, maximumMessageSize);
-    chunks.addAll(logDataFormatter.format());
+    final List<TextChunkWithStyle> published = new ArrayList<TextChunkWithStyle>();
+    logDataFormatter.format(new TextChunkConsumer() {
+      @Override
+      public void consume(List<TextChunkWithStyle> formatted) {
+        List<TextChunkWithStyle> split = split(formatted);
+        published.addAll(split);
+        publish(split.toArray(new TextChunkWithStyle[split.size()]));
+      }
+    });
+    chunks = published;
     return chunks;
   }
 
+  /**
+   * Splits long text chunks to parts of {@link #INSERT_CHUNK_SIZE}.
+   */
+  static List<TextChunkWithStyle> split(List<TextChunkWithStyle> chunks) {
+    List<TextChunkWithStyle> result = new ArrayList<TextChunkWithStyle>(chunks.size());
+    for (TextChunkWithStyle chunk : chunks) {
+      String string = chunk.getString();
+      if (string == null || string.length() <= INSERT_CHUNK_SIZE) {
+        result.add(chunk);
+        continue;
+      }
+      for (int start = 0; start < string.length(); start += INSERT_CHUNK_SIZE) {
+        String part = string.substring(start, Math.min(string.length(), start + INSERT_CHUNK_SIZE));
+        if (chunk.getMessageFragmentStyle() != null) {
+          result.add(new TextChunkWithStyle(part, chunk.getMessageFragmentStyle()));
+        } else {
+          result.add(new TextChunkWithStyle(part, chunk.getStyle()));
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  protected void process(List<TextChunkWithStyle> published) {
+    if (isCancelled() || finished) {
+      return;
+    }
+    enqueue(published);
+  }
 
   @Override
   protected void done() {
+    if (isCancelled()) {
+      return;
+    }
     LOGGER.finest("Message details format and colors calculated, updating GUI");
-    StyledDocument styledDocument = otrosJTextWithRulerScrollPane.getjTextComponent().getStyledDocument();
-    try {
-      styledDocument.remove(0, styledDocument.getLength());
-    } catch (BadLocationException e) {
-      LOGGER.log(Level.SEVERE, "Can't clear log events text  area", e);
+    // chunks not delivered to process yet
+    if (enqueuedChunks < chunks.size()) {
+      enqueue(chunks.subList(enqueuedChunks, chunks.size()));
+    }
+    finished = true;
+    scheduleInsert();
+  }
+
+  private void enqueue(List<TextChunkWithStyle> toInsert) {
+    if (!documentCleared) {
+      StyledDocument styledDocument = otrosJTextWithRulerScrollPane.getjTextComponent().getStyledDocument();
+      try {
+        styledDocument.remove(0, styledDocument.getLength());
+      } catch (BadLocationException e) {
+        LOGGER.log(Level.SEVERE, "Can't clear log events text  area", e);
+      }
+      documentCleared = true;
+    }
+    pendingChunks.addAll(toInsert);
+    enqueuedChunks += toInsert.size();
+    scheduleInsert();
+  }
+
+  private void scheduleInsert() {
+    if (insertScheduled) {
+      return;
+    }
+    insertScheduled = true;
+    SwingUtilities.invokeLater(new Runnable() {
+      @Override
+      public void run() {
+        insertScheduled = false;
+        insertPendingChunks();
+      }
+    });
+  }
+
+  /**
+   * Inserts limited number of pending chunks and schedules next part, so EDT can process other events in between.
+   */
+  private void insertPendingChunks() {
+    if (isCancelled()) {
+      pendingChunks.clear();
+      return;
+    }
+    List<TextChunkWithStyle> part = new ArrayList<TextChunkWithStyle>();
+    int chars = 0;
+    while (!pendingChunks.isEmpty() && chars < CHARS_PER_EDT_CYCLE && part.size() < STYLES_PER_EDT_CYCLE) {
+      TextChunkWithStyle chunk = pendingChunks.removeFirst();
+      part.add(chunk);
+      if (chunk.getString() != null) {
+        chars += chunk.getString().length();
+      }
     }
-    if (!isCancelled()) {
-      updateChanges(chunks);
+    insertChunks(part);
+    if (!caretMovedToBeginning) {
+      // text appended after caret does not move it, so view stays at beginning of message
+      otrosJTextWithRulerScrollPane.getjTextComponent().setCaretPosition(0);
+      caretMovedToBeginning = true;
+    }
+    if (!pendingChunks.isEmpty()) {
+      scheduleInsert();
+    } else if (finished) {
+      LOGGER.finest("GUI updated");
+      MessageUpdateUtils.highlightSearchResult(otrosJTextWithRulerScrollPane, colorizersContainer);
+      RulerBarHelper.scrollToFirstMarker(otrosJTextWithRulerScrollPane);
     }
-    LOGGER.finest("GUI updated");
   }
 
   protected void updateChanges(List<TextChunkWithStyle> chunks) {
+    insertChunks(chunks);
+    otrosJTextWithRulerScrollPane.getjTextComponent().setCaretPosition(0);
+    MessageUpdateUtils.highlightSearchResult(otrosJTextWithRulerScrollPane, colorizersContainer);
+    RulerBarHelper.scrollToFirstMarker(otrosJTextWithRulerScrollPane);
+  }
+
+  private void insertChunks(List<TextChunkWithStyle> chunks) {
     LOGGER.finest("Start updating view with chunks, size: " + chunks.size());
     StyledDocument document = otrosJTextWithRulerScrollPane.getjTextComponent().getStyledDocument();
-    List<MessageFragmentStyle> searchResultPositions = new ArrayList<MessageFragmentStyle>();
     int i = 0;
     for (TextChunkWithStyle chunk : chunks) {
       LOGGER.finer("Updating with chunk " + i++);
@@ -112,16 +233,19 @@ public class FormatMessageDialogWorker extends SwingWorker<List<TextChunkWithSty
           document.setCharacterAttributes(mfs.getOffset(), mfs.getLength(), mfs.getStyle(), mfs.isReplace());
         }
         if (chunk.getIcon() != null) {
-          otrosJTextWithRulerScrollPane.getjTextComponent().insertIcon(chunk.getIcon());
+          // icon is inserted at caret, which can be moved by user when message is inserted in parts
+          JTextPane textPane = otrosJTextWithRulerScrollPane.getjTextComponent();
+          int caretPosition = textPane.getCaretPosition();
+          textPane.setCaretPosition(document.getLength());
+          textPane.insertIcon(chunk.getIcon());
+          if (caretPosition < document.getLength() - 1) {
+            textPane.setCaretPosition(caretPosition);
+          }
         }
       } catch (BadLocationException e) {
         LOGGER.log(Level.SEVERE, "Can't update log details text area", e);
       }
     }
-
-    otrosJTextWithRulerScrollPane.getjTextComponent().setCaretPosition(0);
-    MessageUpdateUtils.highlightSearchResult(otrosJTextWithRulerScrollPane, colorizersContainer);
-    RulerBarHelper.scrollToFirstMarker(otrosJTextWithRulerScrollPane);
   }
 
 
@@ -48,6 +48,7 @@ public class LogDataFormatter {
 
     private LogData ld;
     private ArrayList<TextChunkWithStyle> chunks = new ArrayList<TextChunkWithStyle>();
+    private int flushedChunks = 0;
     private DateFormat dateFormat;
     private Style defaultStyle = null;
     private Style mainStyle = null;
@@ -108,6 +109,18 @@ public class LogDataFormatter {
     }
 
     public java.util.List<TextChunkWithStyle> format() throws Exception {
+        return format(null);
+    }
+
+    /**
+     * Formats event, chunks are passed to consumer as soon as part of details is ready: header, message, colors of
+     * message, not formatted rest of message and footer. Message longer than maximum message size is not cut, only first
+     * part of it is formatted and colorized.
+     *
+     * @param consumer consumer of chunks, can be null
+     * @return all chunks
+     */
+    public java.util.List<TextChunkWithStyle> format(TextChunkConsumer consumer) throws Exception {
 
         LOGGER.finer("Start do in background");
 
@@ -158,10 +171,12 @@ public class LogDataFormatter {
 
         s1 = "Message: ";
         chunks.add(new TextChunkWithStyle(s1, boldArialStyle));
+        flush(consumer);
         s1 = ld.getMessage();
+        String notFormattedRest = null;
         if (s1.length() > maximumMessageSize) {
-            int removedCharsSize = s1.length() - maximumMessageSize;
-            s1 = StringUtils.left(s1, maximumMessageSize) + String.format("%n...%n...(+%,d chars)", removedCharsSize);
+            notFormattedRest = s1.substring(maximumMessageSize);
+            s1 = StringUtils.left(s1, maximumMessageSize);
         }
 
         Collection<MessageFormatter> formatters = formattersContainer.getElements();
@@ -174,20 +189,24 @@ public class LogDataFormatter {
             s1 = StringUtils.remove(s1,'\r');
         }
         chunks.add(new TextChunkWithStyle(s1, mainStyle));
+        flush(consumer);
 
 
-        Collection<MessageColorizer> colorizers = colorizersContainer.getElements();
-        ArrayList<MessageFragmentStyle> messageFragmentStyles = new ArrayList<MessageFragmentStyle>();
-        for (MessageColorizer messageColorizer : colorizers) {
-            if (messageColorizer.getPluginableId().equals(SearchResultColorizer.class.getName())) {
-                continue;
+        Collection<MessageColorizer> colorizers = new ArrayList<MessageColorizer>();
+        for (MessageColorizer messageColorizer : colorizersContainer.getElements()) {
+            if (!messageColorizer.getPluginableId().equals(SearchResultColorizer.class.getName())) {
+                colorizers.add(messageColorizer);
             }
-            messageFragmentStyles.addAll(messageUtils.colorizeMessageWithTimeLimit(s1, charsBeforeMessage, messageColorizer, 5));
         }
+        Collection<MessageFragmentStyle> messageFragmentStyles = messageUtils.colorizeMessageWithTimeLimit(ld.getId(), s1, charsBeforeMessage, colorizers, 5);
 
         for (MessageFragmentStyle messageFragmentStyle : messageFragmentStyles) {
             chunks.add(new TextChunkWithStyle(null, messageFragmentStyle));
         }
+        flush(consumer);
+        if (notFormattedRest != null) {
+            chunks.add(new TextChunkWithStyle(notFormattedRest, mainStyle));
+        }
 
         chunks.add(new TextChunkWithStyle("\nMarked: ", boldArialStyle));
         if (ld.isMarked()) {
@@ -202,10 +221,18 @@ public class LogDataFormatter {
             s1 = "Note: " + note.getNote();
             chunks.add(new TextChunkWithStyle(s1, boldArialStyle));
         }
+        flush(consumer);
 
         return chunks;
     }
 
+    private void flush(TextChunkConsumer consumer) {
+        if (consumer != null && flushedChunks < chunks.size()) {
+            consumer.consume(new ArrayList<TextChunkWithStyle>(chunks.subList(flushedChunks, chunks.size())));
+        }
+        flushedChunks = chunks.size();
+    }
+
     private int countCharsBeforeMessage(ArrayList<TextChunkWithStyle> chunks) {
         int i = 0;
         for (TextChunkWithStyle chunk : chunks) {
@@ -16,6 +16,8 @@
 
 package pl.otros.logview.gui.message.update;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang.StringUtils;
 import pl.otros.logview.gui.message.MessageColorizer;
 import pl.otros.logview.gui.message.MessageFormatter;
@@ -30,8 +32,10 @@ import javax.swing.text.*;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,91 +45,99 @@ public class MessageUpdateUtils {
 
   public static final Logger LOGGER = Logger.getLogger(MessageUpdateUtils.class.getName());
 
-  private ExecutorService executorService;
+  private static final int COLORIZING_CACHE_SIZE = 2000;
+  /**
+   * Results of colorizers with offsets relative to message
+   */
+  private static final Cache<ColorizingKey, Collection<MessageFragmentStyle>> COLORIZING_CACHE = CacheBuilder.newBuilder()
+      .maximumSize(COLORIZING_CACHE_SIZE).build();
+
+  private final PluginInvoker pluginInvoker;
 
   public MessageUpdateUtils() {
-    executorService = Executors.newSingleThreadExecutor();
+    pluginInvoker = PluginInvoker.getInstance();
   }
 
 
   public String formatMessageWithTimeLimit(final String s1, final MessageFormatter messageFormatter, int timeoutSeconds) {
-    String result = s1;
     Callable<String> callable = new Callable<String>() {
 
-
       @Override
       public String call() throws Exception {
-        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
-        try {
-          Thread.currentThread().setContextClassLoader(messageFormatter.getClass().getClassLoader());
-          if (messageFormatter.formattingNeeded(s1)) {
-            return messageFormatter.format(s1);
-          }
-        } catch (Throwable e) {
-          LOGGER.severe(String.format("Error occurred when using message formatter %s: %s", messageFormatter.getName(), e.getMessage()));
-          LOGGER.fine(String.format("Error occurred when using message formatter %s with message\"%s\"", messageFormatter.getName(), StringUtils.left(s1, 1500)));
-        } finally {
-          Thread.currentThread().setContextClassLoader(contextClassLoader);
+        if (messageFormatter.formattingNeeded(s1)) {
+          return messageFormatter.format(s1);
         }
         return s1;
       }
     };
 
-
-    Future<String> submit = executorService.submit(callable);
-    try {
-      result = submit.get(timeoutSeconds, TimeUnit.SECONDS);
-    } catch (TimeoutException e) {
-      String msg = String.format("Formatting message with %s takes to long time, skipping this formatter", messageFormatter.getName());
-      LOGGER.warning(msg);
-      submit.cancel(true);
-    } catch (Exception e) {
-      LOGGER.severe(String.format("Error occurred when using message formatter %s: %s", messageFormatter.getName(), e.getMessage()));
-      submit.cancel(true);
+    String result = pluginInvoker.submit(messageFormatter, PluginInvoker.TYPE_FORMATTER, callable).get(timeoutSeconds);
+    if (result == null) {
+      LOGGER.fine(String.format("Message formatter %s skipped for message \"%s\"", messageFormatter.getName(), StringUtils.left(s1, 1500)));
+      return s1;
     }
-
     return result;
   }
 
   public Collection<MessageFragmentStyle> colorizeMessageWithTimeLimit(final String message, final int messageStartOffset, final MessageColorizer messageColorizer, int timeoutSeconds) {
+    Collection<MessageFragmentStyle> result = submitColorizer(message, messageColorizer).get(timeoutSeconds);
+    return result != null ? moveFragments(result, messageStartOffset) : new ArrayList<MessageFragmentStyle>(0);
+  }
+
+  /**
+   * Colorizes message of event with many colorizers in parallel. Results are cached by event id, colorizer instance and
+   * message, so selecting the same event again does not run colorizers.
+   */
+  public Collection<MessageFragmentStyle> colorizeMessageWithTimeLimit(int logId, String message, int messageStartOffset,
+                                                                        Collection<MessageColorizer> messageColorizers, int timeoutSeconds) {
+    Map<MessageColorizer, PluginInvoker.Invocation<Collection<MessageFragmentStyle>>> invocations =
+        new LinkedHashMap<MessageColorizer, PluginInvoker.Invocation<Collection<MessageFragmentStyle>>>();
+    Map<MessageColorizer, Collection<MessageFragmentStyle>> results = new LinkedHashMap<MessageColorizer, Collection<MessageFragmentStyle>>();
+    for (MessageColorizer messageColorizer : messageColorizers) {
+      Collection<MessageFragmentStyle> cached = COLORIZING_CACHE.getIfPresent(new ColorizingKey(logId, messageColorizer, message));
+      results.put(messageColorizer, cached);
+      if (cached == null) {
+        invocations.put(messageColorizer, submitColorizer(message, messageColorizer));
+      }
+    }
+    for (Map.Entry<MessageColorizer, PluginInvoker.Invocation<Collection<MessageFragmentStyle>>> entry : invocations.entrySet()) {
+      Collection<MessageFragmentStyle> result = entry.getValue().get(timeoutSeconds);
+      if (result != null) {
+        COLORIZING_CACHE.put(new ColorizingKey(logId, entry.getKey(), message), result);
+      }
+      results.put(entry.getKey(), result);
+    }
+    ArrayList<MessageFragmentStyle> list = new ArrayList<MessageFragmentStyle>();
+    for (Collection<MessageFragmentStyle> result : results.values()) {
+      if (result != null) {
+        list.addAll(moveFragments(result, messageStartOffset));
+      }
+    }
+    return list;
+  }
 
-    Callable<Collection<MessageFragmentStyle>> callable = new Callable<Collection<MessageFragmentStyle>>() {
+  private PluginInvoker.Invocation<Collection<MessageFragmentStyle>> submitColorizer(final String message, final MessageColorizer messageColorizer) {
+    return pluginInvoker.submit(messageColorizer, PluginInvoker.TYPE_COLORIZER, new Callable<Collection<MessageFragmentStyle>>() {
       @Override
       public Collection<MessageFragmentStyle> call() throws Exception {
         Collection<MessageFragmentStyle> list = new ArrayList<MessageFragmentStyle>();
-        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
-        try {
-          Thread.currentThread().setContextClassLoader(messageColorizer.getClass().getClassLoader());
-          if (messageColorizer.colorizingNeeded(message)) {
-            Collection<MessageFragmentStyle> colorize = messageColorizer.colorize(message);
-            for (MessageFragmentStyle messageFragmentStyle : colorize) {
-              messageFragmentStyle.setOffset(messageFragmentStyle.getOffset() + messageStartOffset);
-            }
-            list.addAll(colorize);
-          }
-        } catch (Throwable e) {
-          LOGGER.log(Level.SEVERE,String.format("Error occurred when using message colorizer %s: %s%n", messageColorizer.getName(), e.getMessage()),e);
-          LOGGER.fine(String.format("Error occurred when using message colorizer %s with message\"%s\"", messageColorizer.getName(), StringUtils.left(message, 1500)));
-          e.printStackTrace();
-        } finally {
-          Thread.currentThread().setContextClassLoader(contextClassLoader);
+        if (messageColorizer.colorizingNeeded(message)) {
+          list.addAll(messageColorizer.colorize(message));
         }
         return list;
       }
-    };
+    });
+  }
 
-    Future<Collection<MessageFragmentStyle>> submit = executorService.submit(callable);
-    try {
-      return submit.get(timeoutSeconds, TimeUnit.SECONDS);
-    } catch (TimeoutException e) {
-      String msg = String.format("Formatting message with %s takes to long time, skipping this formatter", messageColorizer.getName());
-      LOGGER.warning(msg);
-      submit.cancel(true);
-    } catch (Exception e) {
-      LOGGER.severe(String.format("Error occurred when using message formatter %s: %s", messageColorizer.getName(), e.getMessage()));
-      submit.cancel(true);
+  /**
+   * @return copies of fragments moved by offset, cached fragments are not modified
+   */
+  private static Collection<MessageFragmentStyle> moveFragments(Collection<MessageFragmentStyle> fragments, int offset) {
+    ArrayList<MessageFragmentStyle> result = new ArrayList<MessageFragmentStyle>(fragments.size());
+    for (MessageFragmentStyle mfs : fragments) {
+      result.add(new MessageFragmentStyle(mfs.getOffset() + offset, mfs.getLength(), mfs.getStyle(), mfs.isReplace(), mfs.isSearchResult()));
     }
-    return new ArrayList<MessageFragmentStyle>(0);
+    return result;
   }
 
 
@@ -169,5 +181,37 @@ public class MessageUpdateUtils {
     markSearchResult(messageFragmentStyles, otrosJTextWithRulerScrollPane);
   }
 
+  private static final class ColorizingKey {
+
+    private final int logId;
+    private final MessageColorizer messageColorizer;
+    private final int messageLength;
+    private final int messageHash;
+
+    private ColorizingKey(int logId, MessageColorizer messageColorizer, String message) {
+      this.logId = logId;
+      this.messageColorizer = messageColorizer;
+      this.messageLength = message.length();
+      this.messageHash = message.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof ColorizingKey)) return false;
+      ColorizingKey that = (ColorizingKey) o;
+      // colorizer reloaded from file is a new instance, identity works as colorizer version
+      return logId == that.logId && messageColorizer == that.messageColorizer && messageLength == that.messageLength && messageHash == that.messageHash;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = logId;
+      result = 31 * result + System.identityHashCode(messageColorizer);
+      result = 31 * result + messageLength;
+      result = 31 * result + messageHash;
+      return result;
+    }
+  }
 
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.message.update;
+
+import pl.otros.logview.pluginable.PluginableElement;
+import pl.otros.logview.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of invocations of single message formatter or colorizer.
+ */
+public class PluginInvocationStats {
+
+  private final String pluginableId;
+  private final String name;
+  private final String type;
+  private final LatencyHistogram histogram = new LatencyHistogram();
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong errors = new AtomicLong();
+  private final AtomicLong skipped = new AtomicLong();
+  private final AtomicInteger hanging = new AtomicInteger();
+
+  public PluginInvocationStats(PluginableElement element, String type) {
+    this.pluginableId = element.getPluginableId();
+    this.name = element.getName();
+    this.type = type;
+  }
+
+  public String getPluginableId() {
+    return pluginableId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public LatencyHistogram getHistogram() {
+    return histogram;
+  }
+
+  public long getTimeouts() {
+    return timeouts.get();
+  }
+
+  public long getErrors() {
+    return errors.get();
+  }
+
+  /**
+   * @return number of invocations not started because plugin was still hanging or pool was full
+   */
+  public long getSkipped() {
+    return skipped.get();
+  }
+
+  /**
+   * @return number of timed out invocations which are still running
+   */
+  public int getHanging() {
+    return hanging.get();
+  }
+
+  void invoked(long durationNanos) {
+    histogram.record(durationNanos);
+  }
+
+  void failed() {
+    errors.incrementAndGet();
+  }
+
+  void skipped() {
+    skipped.incrementAndGet();
+  }
+
+  void timedOut(boolean stillRunning) {
+    timeouts.incrementAndGet();
+    if (stillRunning) {
+      hanging.incrementAndGet();
+    }
+  }
+
+  void hangingFinished() {
+    hanging.decrementAndGet();
+  }
+
+  void reset() {
+    histogram.reset();
+    timeouts.set(0);
+    errors.set(0);
+    skipped.set(0);
+  }
+}
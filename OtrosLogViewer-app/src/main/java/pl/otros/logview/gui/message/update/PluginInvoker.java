@@ -0,0 +1,213 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.message.update;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import pl.otros.logview.pluginable.PluginableElement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs message formatters and colorizers on one shared, bounded pool of worker threads and collects
+ * {@link PluginInvocationStats} of every plugin.
+ * <p/>
+ * Plugin which did not finish in time is skipped until timed out invocation returns, so single slow plugin can't
+ * occupy all workers. When queue of pool is full new invocations are skipped as well.
+ */
+public class PluginInvoker {
+
+  private static final Logger LOGGER = Logger.getLogger(PluginInvoker.class.getName());
+
+  public static final String TYPE_FORMATTER = "Formatter";
+  public static final String TYPE_COLORIZER = "Colorizer";
+
+  private static final int QUEUE_SIZE = 256;
+  private static final PluginInvoker INSTANCE = new PluginInvoker(Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), QUEUE_SIZE);
+
+  private final ThreadPoolExecutor executor;
+  private final ConcurrentMap<String, PluginInvocationStats> stats = new ConcurrentHashMap<String, PluginInvocationStats>();
+
+  public static PluginInvoker getInstance() {
+    return INSTANCE;
+  }
+
+  PluginInvoker(int threads, int queueSize) {
+    executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize),
+        new ThreadFactoryBuilder().setNameFormat("PluginInvoker-%d").setDaemon(true).build());
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Schedules invocation of plugin.
+   *
+   * @param plugin   invoked formatter or colorizer, used for statistics and context class loader
+   * @param type     {@link #TYPE_FORMATTER} or {@link #TYPE_COLORIZER}
+   * @param callable plugin invocation
+   * @return handle to get result of invocation
+   */
+  public <T> Invocation<T> submit(PluginableElement plugin, String type, Callable<T> callable) {
+    PluginInvocationStats pluginStats = getStats(plugin, type);
+    if (pluginStats.getHanging() > 0) {
+      LOGGER.fine(String.format("%s %s is still processing timed out message, skipping it", type, plugin.getName()));
+      pluginStats.skipped();
+      return new Invocation<T>(plugin, null, null);
+    }
+    PluginCall<T> call = new PluginCall<T>(plugin, pluginStats, callable);
+    FutureTask<T> future = new FutureTask<T>(call);
+    try {
+      executor.execute(future);
+    } catch (RejectedExecutionException e) {
+      LOGGER.warning(String.format("Too many pending message formatters/colorizers, skipping %s %s", type, plugin.getName()));
+      pluginStats.skipped();
+      return new Invocation<T>(plugin, null, null);
+    }
+    return new Invocation<T>(plugin, call, future);
+  }
+
+  public PluginInvocationStats getStats(PluginableElement plugin, String type) {
+    String key = type + ":" + plugin.getPluginableId();
+    PluginInvocationStats pluginStats = stats.get(key);
+    if (pluginStats == null) {
+      PluginInvocationStats newStats = new PluginInvocationStats(plugin, type);
+      pluginStats = stats.putIfAbsent(key, newStats);
+      if (pluginStats == null) {
+        pluginStats = newStats;
+      }
+    }
+    return pluginStats;
+  }
+
+  public Collection<PluginInvocationStats> getAllStats() {
+    return new ArrayList<PluginInvocationStats>(stats.values());
+  }
+
+  public void resetStats() {
+    for (PluginInvocationStats pluginStats : stats.values()) {
+      pluginStats.reset();
+    }
+  }
+
+  /**
+   * Result of scheduled plugin invocation.
+   */
+  public static class Invocation<T> {
+
+    private final PluginableElement plugin;
+    private final PluginCall<T> call;
+    private final Future<T> future;
+
+    private Invocation(PluginableElement plugin, PluginCall<T> call, Future<T> future) {
+      this.plugin = plugin;
+      this.call = call;
+      this.future = future;
+    }
+
+    /**
+     * Waits for result of plugin. Invocation is cancelled when it does not finish in time.
+     *
+     * @return result of plugin or null if plugin was skipped, failed or did not finish in time
+     */
+    public T get(int timeoutSeconds) {
+      if (future == null) {
+        return null;
+      }
+      try {
+        return future.get(timeoutSeconds, TimeUnit.SECONDS);
+      } catch (TimeoutException e) {
+        LOGGER.warning(String.format("Processing message with %s takes to long time, skipping it", plugin.getName()));
+        call.timedOut();
+        future.cancel(true);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        future.cancel(true);
+      } catch (ExecutionException e) {
+        // already logged and counted by PluginCall
+      } catch (CancellationException e) {
+        // cancelled
+      }
+      return null;
+    }
+  }
+
+  private static class PluginCall<T> implements Callable<T> {
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int TIMED_OUT = 3;
+
+    private final PluginableElement plugin;
+    private final PluginInvocationStats pluginStats;
+    private final Callable<T> callable;
+    private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+    private PluginCall(PluginableElement plugin, PluginInvocationStats pluginStats, Callable<T> callable) {
+      this.plugin = plugin;
+      this.pluginStats = pluginStats;
+      this.callable = callable;
+    }
+
+    @Override
+    public T call() throws Exception {
+      if (!state.compareAndSet(QUEUED, RUNNING)) {
+        return null;
+      }
+      Thread thread = Thread.currentThread();
+      ClassLoader contextClassLoader = thread.getContextClassLoader();
+      ClassLoader pluginClassLoader = plugin.getClass().getClassLoader();
+      boolean swapClassLoader = pluginClassLoader != null && pluginClassLoader != contextClassLoader;
+      if (swapClassLoader) {
+        thread.setContextClassLoader(pluginClassLoader);
+      }
+      long start = System.nanoTime();
+      try {
+        return callable.call();
+      } catch (Exception e) {
+        failed(e);
+        throw e;
+      } catch (Error e) {
+        failed(e);
+        throw e;
+      } finally {
+        pluginStats.invoked(System.nanoTime() - start);
+        if (!state.compareAndSet(RUNNING, DONE)) {
+          pluginStats.hangingFinished();
+        }
+        if (swapClassLoader) {
+          thread.setContextClassLoader(contextClassLoader);
+        }
+      }
+    }
+
+    private void failed(Throwable e) {
+      pluginStats.failed();
+      LOGGER.log(Level.SEVERE, String.format("Error occurred when using %s %s: %s", pluginStats.getType().toLowerCase(), plugin.getName(), e.getMessage()), e);
+    }
+
+    private void timedOut() {
+      if (state.compareAndSet(QUEUED, TIMED_OUT)) {
+        pluginStats.timedOut(false);
+      } else if (state.compareAndSet(RUNNING, TIMED_OUT)) {
+        pluginStats.timedOut(true);
+      }
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.message.update;
+
+import pl.otros.logview.gui.Icons;
+import pl.otros.logview.pluginable.AllPluginables;
+import pl.otros.logview.pluginable.PluginableElement;
+import pl.otros.logview.pluginable.PluginableElementsContainer;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+
+/**
+ * Diagnostics view of message formatters and colorizers invocations. Slow plugin can be disabled until restart.
+ */
+public class PluginStatisticsPanel extends JPanel {
+
+  private static final int REFRESH_INTERVAL = 2000;
+
+  private final PluginInvoker pluginInvoker;
+  private final AllPluginables allPluginables;
+  private final PluginStatisticsTableModel tableModel;
+  private final JTable table;
+  private final Timer refreshTimer;
+
+  public PluginStatisticsPanel(PluginInvoker pluginInvoker, AllPluginables allPluginables) {
+    super(new BorderLayout());
+    this.pluginInvoker = pluginInvoker;
+    this.allPluginables = allPluginables;
+    tableModel = new PluginStatisticsTableModel();
+    table = new JTable(tableModel);
+    table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+
+    JToolBar toolBar = new JToolBar();
+    toolBar.setFloatable(false);
+    JButton refreshButton = new JButton("Refresh", Icons.ARROW_REPEAT);
+    refreshButton.addActionListener(new ActionListener() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        refresh();
+      }
+    });
+    JButton resetButton = new JButton("Reset", Icons.CLEAR);
+    resetButton.addActionListener(new ActionListener() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        PluginStatisticsPanel.this.pluginInvoker.resetStats();
+        refresh();
+      }
+    });
+    JButton disableButton = new JButton("Disable selected", Icons.PLUGIN_DISCONNECT);
+    disableButton.setToolTipText("Disable selected formatters and colorizers until restart");
+    disableButton.addActionListener(new ActionListener() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        disableSelected();
+      }
+    });
+    toolBar.add(refreshButton);
+    toolBar.add(resetButton);
+    toolBar.add(disableButton);
+
+    add(toolBar, BorderLayout.NORTH);
+    add(new JScrollPane(table), BorderLayout.CENTER);
+
+    refreshTimer = new Timer(REFRESH_INTERVAL, new ActionListener() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        refresh();
+      }
+    });
+  }
+
+  public void refresh() {
+    int[] selectedRows = table.getSelectedRows();
+    ArrayList<PluginInvocationStats> selected = new ArrayList<PluginInvocationStats>();
+    for (int row : selectedRows) {
+      selected.add(tableModel.getStats(table.convertRowIndexToModel(row)));
+    }
+    tableModel.setStats(new ArrayList<PluginInvocationStats>(pluginInvoker.getAllStats()));
+    for (int i = 0; i < tableModel.getRowCount(); i++) {
+      if (selected.contains(tableModel.getStats(i))) {
+        int viewRow = table.convertRowIndexToView(i);
+        table.addRowSelectionInterval(viewRow, viewRow);
+      }
+    }
+  }
+
+  private void disableSelected() {
+    for (int row : table.getSelectedRows()) {
+      PluginInvocationStats stats = tableModel.getStats(table.convertRowIndexToModel(row));
+      if (PluginInvoker.TYPE_FORMATTER.equals(stats.getType())) {
+        disable(allPluginables.getMessageFormatters(), stats.getPluginableId());
+      } else {
+        disable(allPluginables.getMessageColorizers(), stats.getPluginableId());
+      }
+    }
+  }
+
+  private <T extends PluginableElement> void disable(PluginableElementsContainer<T> container, String pluginableId) {
+    T element = container.getElement(pluginableId);
+    if (element != null) {
+      container.removeElement(element);
+    }
+  }
+
+  @Override
+  public void addNotify() {
+    super.addNotify();
+    refresh();
+    refreshTimer.start();
+  }
+
+  @Override
+  public void removeNotify() {
+    refreshTimer.stop();
+    super.removeNotify();
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.message.update;
+
+import pl.otros.logview.util.LatencyHistogram;
+
+import javax.swing.table.AbstractTableModel;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Table of {@link PluginInvocationStats}, slowest plugins first.
+ */
+public class PluginStatisticsTableModel extends AbstractTableModel {
+
+  private static final String[] COLUMNS = {"Type", "Name", "Invocations", "Mean [ms]", "Median [ms]", "99% [ms]", "Max [ms]",
+      "Timeouts", "Errors", "Skipped", "Hanging"};
+
+  private final NumberFormat meanFormat = NumberFormat.getInstance();
+  private List<PluginInvocationStats> stats = new ArrayList<PluginInvocationStats>();
+
+  public PluginStatisticsTableModel() {
+    meanFormat.setMaximumFractionDigits(2);
+    meanFormat.setMinimumFractionDigits(2);
+  }
+
+  public void setStats(List<PluginInvocationStats> stats) {
+    Collections.sort(stats, new Comparator<PluginInvocationStats>() {
+      @Override
+      public int compare(PluginInvocationStats o1, PluginInvocationStats o2) {
+        return Double.compare(o2.getHistogram().getMeanMillis(), o1.getHistogram().getMeanMillis());
+      }
+    });
+    this.stats = stats;
+    fireTableDataChanged();
+  }
+
+  public PluginInvocationStats getStats(int row) {
+    return stats.get(row);
+  }
+
+  @Override
+  public int getRowCount() {
+    return stats.size();
+  }
+
+  @Override
+  public int getColumnCount() {
+    return COLUMNS.length;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return COLUMNS[column];
+  }
+
+  @Override
+  public Object getValueAt(int rowIndex, int columnIndex) {
+    PluginInvocationStats s = stats.get(rowIndex);
+    LatencyHistogram histogram = s.getHistogram();
+    switch (columnIndex) {
+      case 0:
+        return s.getType();
+      case 1:
+        return s.getName();
+      case 2:
+        return histogram.getCount();
+      case 3:
+        return meanFormat.format(histogram.getMeanMillis());
+      case 4:
+        return formatBucket(histogram.getPercentileMillis(50));
+      case 5:
+        return formatBucket(histogram.getPercentileMillis(99));
+      case 6:
+        return histogram.getMaxMillis();
+      case 7:
+        return s.getTimeouts();
+      case 8:
+        return s.getErrors();
+      case 9:
+        return s.getSkipped();
+      case 10:
+        return s.getHanging();
+      default:
+        return null;
+    }
+  }
+
+  private String formatBucket(long bucketBound) {
+    long largestBound = LatencyHistogram.getLargestBoundMillis();
+    if (bucketBound > largestBound) {
+      return "> " + largestBound;
+    }
+    return "<= " + bucketBound;
+  }
+}
@@ -26,6 +26,7 @@ public class DateRenderer implements TableCellRenderer {
 
   private JLabel label = new JLabel();
   private DateFormat dateFormatter = null;
+  private RenderedValueCache<String> formattedDates = new RenderedValueCache<String>(4096);
 
   public DateRenderer() {
     this("HH:mm:ss .SSS");
@@ -39,7 +40,12 @@ public class DateRenderer implements TableCellRenderer {
   public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
     if (value instanceof Date) {
       Date date = (Date) value;
-      label.setText(dateFormatter.format(date));
+      String formatted = formattedDates.get(date.getTime());
+      if (formatted == null) {
+        formatted = dateFormatter.format(date);
+        formattedDates.put(date.getTime(), formatted);
+      }
+      label.setText(formatted);
     } else {
       label.setText("");
     }
@@ -53,6 +59,7 @@ public class DateRenderer implements TableCellRenderer {
 
   public void setDateFormatter(DateFormat dateFormatter) {
     this.dateFormatter = dateFormatter;
+    formattedDates.clear();
   }
 
 }
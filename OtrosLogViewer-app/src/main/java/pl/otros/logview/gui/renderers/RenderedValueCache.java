@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.renderers;
+
+/**
+ * Bounded cache of rendered values keyed by <code>long</code> (event id, timestamp). Cache is direct mapped: every key
+ * has one slot and the most recent value evicts older one from the same slot. Lookup and update do not allocate.
+ * <p/>
+ * Cache is not thread safe, it should be used in EDT only.
+ */
+public class RenderedValueCache<V> {
+
+  private final long[] keys;
+  private final Object[] values;
+  private final int mask;
+  private long hits;
+  private long misses;
+
+  /**
+   * @param capacity number of slots, rounded up to power of 2
+   */
+  public RenderedValueCache(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    keys = new long[size];
+    values = new Object[size];
+    mask = size - 1;
+  }
+
+  /**
+   * @return cached value or null if value for key is not cached
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int slot = slot(key);
+    Object value = values[slot];
+    if (value != null && keys[slot] == key) {
+      hits++;
+      return (V) value;
+    }
+    misses++;
+    return null;
+  }
+
+  public void put(long key, V value) {
+    int slot = slot(key);
+    keys[slot] = key;
+    values[slot] = value;
+  }
+
+  public void clear() {
+    for (int i = 0; i < values.length; i++) {
+      values[i] = null;
+    }
+  }
+
+  public int getCapacity() {
+    return values.length;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  private int slot(long key) {
+    // consecutive keys (ids of visible rows) never collide
+    return (int) (key ^ (key >>> 32)) & mask;
+  }
+}
@@ -15,6 +15,7 @@ public class TimeDeltaRenderer implements TableCellRenderer {
 
   private Date selectedTimestamp;
   private JLabel label;
+  private RenderedValueCache<String> formattedDeltas = new RenderedValueCache<String>(4096);
 
   public TimeDeltaRenderer() {
     label  = new JLabel();
@@ -27,7 +28,13 @@ public class TimeDeltaRenderer implements TableCellRenderer {
   public Component getTableCellRendererComponent(JTable jTable, Object o, boolean b, boolean b1, int i, int i1) {
     if (o != null && o instanceof TimeDelta && selectedTimestamp != null) {
       TimeDelta timeDelta = (TimeDelta) o;
-      label.setText(formatDelta(timeDelta.getTimestamp().getTime() - selectedTimestamp.getTime()));
+      long timestamp = timeDelta.getTimestamp().getTime();
+      String formatted = formattedDeltas.get(timestamp);
+      if (formatted == null) {
+        formatted = formatDelta(timestamp - selectedTimestamp.getTime());
+        formattedDeltas.put(timestamp, formatted);
+      }
+      label.setText(formatted);
     } else {
       label.setText("?");
     }
@@ -81,5 +88,6 @@ public class TimeDeltaRenderer implements TableCellRenderer {
 
   public void setSelectedTimestamp(Date selectedTimestamp) {
     this.selectedTimestamp = selectedTimestamp;
+    formattedDeltas.clear();
   }
 }
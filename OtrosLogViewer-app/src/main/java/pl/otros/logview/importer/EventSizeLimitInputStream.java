@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.importer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails reading when one serialized event takes more than limit of bytes. {@link #startEvent()} is called before every
+ * object is read, so limit is not accumulated over whole stream.
+ */
+class EventSizeLimitInputStream extends FilterInputStream {
+
+  private final long maxEventBytes;
+  private long eventBytes = 0;
+
+  EventSizeLimitInputStream(InputStream in, long maxEventBytes) {
+    super(in);
+    this.maxEventBytes = maxEventBytes;
+  }
+
+  void startEvent() {
+    eventBytes = 0;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int read = super.read();
+    if (read >= 0) {
+      count(1);
+    }
+    return read;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int read = super.read(b, off, len);
+    if (read > 0) {
+      count(read);
+    }
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = super.skip(n);
+    count(skipped);
+    return skipped;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  private void count(long bytes) throws IOException {
+    eventBytes += bytes;
+    if (eventBytes > maxEventBytes) {
+      throw new IOException("Serialized logging event is larger than " + maxEventBytes + " bytes");
+    }
+  }
+}
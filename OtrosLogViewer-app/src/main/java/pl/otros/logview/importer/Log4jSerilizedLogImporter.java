@@ -24,10 +24,10 @@ import pl.otros.logview.parser.log4j.Log4jUtil;
 import pl.otros.logview.pluginable.AbstractPluginableElement;
 
 import javax.swing.*;
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
 
@@ -37,6 +37,11 @@ public class Log4jSerilizedLogImporter extends AbstractPluginableElement impleme
 
   private static final String DESCRIPTION = "Log4j serialized events";
   private static final String NAME = "Log4j serialized events used org.apache.log4j.net.SocketAppenders";
+  private static final List<String> ALLOWED_CLASSES = Arrays.asList(
+    "org.apache.log4j.spi.LoggingEvent",
+    "org.apache.log4j.spi.LocationInfo",
+    "org.apache.log4j.spi.ThrowableInformation"
+  );
 
   public Log4jSerilizedLogImporter() {
     super(NAME, DESCRIPTION);
@@ -59,19 +64,19 @@ public class Log4jSerilizedLogImporter extends AbstractPluginableElement impleme
 
   @Override
   public void importLogs(InputStream in, LogDataCollector dataCollector, ParsingContext parsingContext) {
-    ObjectInputStream oin;
     try {
-      oin = new ObjectInputStream(new BufferedInputStream(in));
-      LoggingEvent le;
-      while ((le = (LoggingEvent) oin.readObject()) != null) {
-        LogData translateLog4j = Log4jUtil.translateLog4j(le);
-        translateLog4j.setLogSource(parsingContext.getLogSource());
-        dataCollector.add(translateLog4j);
-      }
+      new SerializedEventsReader<LoggingEvent>(LoggingEvent.class, ALLOWED_CLASSES) {
+        @Override
+        protected LogData convert(LoggingEvent le, ParsingContext parsingContext) {
+          LogData translateLog4j = Log4jUtil.translateLog4j(le);
+          translateLog4j.setLogSource(parsingContext.getLogSource());
+          return translateLog4j;
+        }
+      }.read(in, dataCollector, parsingContext);
     } catch (IOException e) {
-      LOGGER.warning(String.format("IOException when reading log4j serialized event", e.getMessage()));
+      LOGGER.warning(String.format("IOException when reading log4j serialized event: %s", e.getMessage()));
     } catch (ClassNotFoundException e) {
-      LOGGER.warning(String.format("ClassNotFoundException when reading log4j serialized event", e.getMessage()));
+      LOGGER.warning(String.format("ClassNotFoundException when reading log4j serialized event: %s", e.getMessage()));
     }
   }
 
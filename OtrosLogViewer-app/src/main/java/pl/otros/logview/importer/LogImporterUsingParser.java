@@ -19,6 +19,7 @@ import pl.otros.logview.LogData;
 import pl.otros.logview.LogDataCollector;
 import pl.otros.logview.gui.table.TableColumns;
 import pl.otros.logview.parser.*;
+import pl.otros.logview.reader.ImportMetrics;
 
 import javax.swing.*;
 import java.io.*;
@@ -65,12 +66,20 @@ public class LogImporterUsingParser implements LogImporter, TableColumnNameSelfD
       }
 
     }
+    ImportMetrics metrics = parsingContext.getImportMetrics();
+    long stageStart = metrics != null ? System.nanoTime() : 0;
     while (true) {
       try {
         line = logReader.readLine();
         if (line == null) {
           break;
         }
+        if (metrics != null) {
+          long now = System.nanoTime();
+          metrics.record(ImportMetrics.Stage.READ, now - stageStart);
+          metrics.linesRead(1);
+          stageStart = now;
+        }
 
         if (parser instanceof MultiLineLogParser) {
           synchronized (parsingContext) {
@@ -79,12 +88,24 @@ public class LogImporterUsingParser implements LogImporter, TableColumnNameSelfD
         } else {
           logData = parser.parse(line, parsingContext);
         }
+        if (metrics != null) {
+          long now = System.nanoTime();
+          metrics.record(ImportMetrics.Stage.PARSE, now - stageStart);
+          if (logData == null && !(parser instanceof MultiLineLogParser)) {
+            // multi line parsers return null for every line except the last one of event
+            metrics.parseFailed(1);
+          }
+          stageStart = now;
+        }
 
         if (logData != null) {
           logData.setId(parsingContext.getGeneratedIdAndIncrease());
           logData.setLogSource(parsingContext.getLogSource());
           dataCollector.add(logData);
           parsingContext.setLastParsed(System.currentTimeMillis());
+          if (metrics != null) {
+            stageStart = System.nanoTime();
+          }
         }
 
       } catch (IOException e) {
@@ -92,6 +113,9 @@ public class LogImporterUsingParser implements LogImporter, TableColumnNameSelfD
         LOGGER.severe(String.format("IOException during log import (file %s): %s", parsingContext.getLogSource(), e.getMessage()));
         break;
       } catch (ParseException e) {
+        if (metrics != null) {
+          metrics.parseFailed(1);
+        }
         LOGGER.severe(String.format("ParseException during log import (file %s): %s", parsingContext.getLogSource(), e.getMessage()));
         e.printStackTrace();
         break;
@@ -99,7 +123,7 @@ public class LogImporterUsingParser implements LogImporter, TableColumnNameSelfD
     }
 
     try {
-      if (parser instanceof MultiLineLogParser) {
+      if (parser instanceof MultiLineLogParser && !parsingContext.isKeepBufferBetweenImports()) {
         MultiLineLogParser multiLineLogParser = (MultiLineLogParser) parser;
         logData = multiLineLogParser.parseBuffer(parsingContext);
         if (logData != null) {
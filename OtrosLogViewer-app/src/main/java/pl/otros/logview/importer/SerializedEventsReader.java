@@ -0,0 +1,260 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.importer;
+
+import pl.otros.logview.LogData;
+import pl.otros.logview.LogDataCollector;
+import pl.otros.logview.parser.ParsingContext;
+import pl.otros.logview.reader.ImportMetrics;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads stream of serialized logging events. Objects are deserialized on reading thread through
+ * {@link WhitelistObjectInputStream}, every event is limited to {@link #DEFAULT_MAX_EVENT_BYTES}. Events are converted to {@link LogData} in batches on small shared pool.
+ * Every stream converts at most one batch at time and queues its next batch behind batches of other streams, so
+ * burst from one appender does not starve others. When conversion falls behind, reading thread is blocked.
+ *
+ * @param <T> type of serialized logging event
+ */
+public abstract class SerializedEventsReader<T> {
+
+  private static final Logger LOGGER = Logger.getLogger(SerializedEventsReader.class.getName());
+
+  public static final int BATCH_SIZE = 500;
+  public static final int DEFAULT_MAX_EVENT_BYTES = 16 * 1024 * 1024;
+  static final int MAX_PENDING_BATCHES = 8;
+
+  private static ExecutorService converterPool;
+
+  private final Class<T> eventClass;
+  private final Collection<String> allowedClasses;
+  private final ExecutorService executor;
+  private final BlockingQueue<List<T>> batches = new ArrayBlockingQueue<List<T>>(MAX_PENDING_BATCHES);
+  private final AtomicBoolean converting = new AtomicBoolean();
+  private final AtomicInteger pendingBatches = new AtomicInteger();
+  private final AtomicLong eventsConverted = new AtomicLong();
+  private final AtomicLong rejectedObjects = new AtomicLong();
+
+  private LogDataCollector collector;
+  private ParsingContext parsingContext;
+  private ImportMetrics metrics;
+  private int maxEventBytes = DEFAULT_MAX_EVENT_BYTES;
+
+  protected SerializedEventsReader(Class<T> eventClass, Collection<String> allowedClasses) {
+    this(eventClass, allowedClasses, getConverterPool());
+  }
+
+  SerializedEventsReader(Class<T> eventClass, Collection<String> allowedClasses, ExecutorService executor) {
+    this.eventClass = eventClass;
+    this.allowedClasses = allowedClasses;
+    this.executor = executor;
+  }
+
+  private static synchronized ExecutorService getConverterPool() {
+    if (converterPool == null) {
+      final AtomicInteger counter = new AtomicInteger();
+      int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+      converterPool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "Event converter-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return converterPool;
+  }
+
+  void setMaxEventBytes(int maxEventBytes) {
+    this.maxEventBytes = maxEventBytes;
+  }
+
+  /**
+   * Converts deserialized event. Called for one stream sequentially, in order of events.
+   */
+  protected abstract LogData convert(T event, ParsingContext parsingContext);
+
+  /**
+   * Reads events until end of stream or parsing is stopped. Returns when all read events are added to collector.
+   */
+  public void read(InputStream in, LogDataCollector collector, ParsingContext parsingContext) throws IOException, ClassNotFoundException {
+    this.collector = collector;
+    this.parsingContext = parsingContext;
+    metrics = parsingContext.getImportMetrics();
+    List<T> batch = new ArrayList<T>(BATCH_SIZE);
+    try {
+      BufferedInputStream bin = new BufferedInputStream(in);
+      EventSizeLimitInputStream limitedIn = new EventSizeLimitInputStream(bin, maxEventBytes);
+      ObjectInputStream oin = new WhitelistObjectInputStream(limitedIn, allowedClasses);
+      while (parsingContext.isParsingInProgress()) {
+        Object o;
+        long start = System.nanoTime();
+        limitedIn.startEvent();
+        try {
+          o = oin.readObject();
+        } catch (EOFException e) {
+          break;
+        }
+        if (o == null) {
+          break;
+        }
+        if (metrics != null) {
+          metrics.record(ImportMetrics.Stage.READ, System.nanoTime() - start);
+        }
+        if (eventClass.isInstance(o)) {
+          batch.add(eventClass.cast(o));
+        } else {
+          rejectedObjects.incrementAndGet();
+          if (metrics != null) {
+            metrics.parseFailed(1);
+          }
+        }
+        if (batch.size() >= BATCH_SIZE || (batch.size() > 0 && bin.available() == 0)) {
+          submit(batch);
+          batch = new ArrayList<T>(BATCH_SIZE);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      // events read before end of stream or broken object are imported too
+      if (batch.size() > 0) {
+        submitUninterruptibly(batch);
+      }
+      awaitConverted();
+    }
+  }
+
+  private void submit(List<T> batch) throws InterruptedException {
+    updateQueueDepth(pendingBatches.incrementAndGet());
+    try {
+      batches.put(batch);
+    } catch (InterruptedException e) {
+      updateQueueDepth(pendingBatches.decrementAndGet());
+      throw e;
+    }
+    scheduleConversion();
+  }
+
+  private void submitUninterruptibly(List<T> batch) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        submit(batch);
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void scheduleConversion() {
+    if (!batches.isEmpty() && converting.compareAndSet(false, true)) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          convertBatch(batches.poll());
+          converting.set(false);
+          scheduleConversion();
+        }
+      });
+    }
+  }
+
+  private void convertBatch(List<T> batch) {
+    if (batch == null) {
+      return;
+    }
+    try {
+      LogData[] logDatas = new LogData[batch.size()];
+      for (int i = 0; i < logDatas.length; i++) {
+        long start = System.nanoTime();
+        logDatas[i] = convert(batch.get(i), parsingContext);
+        if (metrics != null) {
+          metrics.record(ImportMetrics.Stage.PARSE, System.nanoTime() - start);
+        }
+      }
+      collector.add(logDatas);
+      eventsConverted.addAndGet(logDatas.length);
+    } catch (RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Can't convert serialized events", e);
+      if (metrics != null) {
+        metrics.parseFailed(batch.size());
+      }
+    } finally {
+      synchronized (pendingBatches) {
+        updateQueueDepth(pendingBatches.decrementAndGet());
+        pendingBatches.notifyAll();
+      }
+    }
+  }
+
+  private void updateQueueDepth(int depth) {
+    if (metrics != null) {
+      metrics.setQueueDepth(depth);
+    }
+  }
+
+  private void awaitConverted() {
+    boolean interrupted = false;
+    synchronized (pendingBatches) {
+      while (pendingBatches.get() > 0) {
+        try {
+          pendingBatches.wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public long getEventsConverted() {
+    return eventsConverted.get();
+  }
+
+  /**
+   * @return number of deserialized objects which are not logging events
+   */
+  public long getRejectedObjects() {
+    return rejectedObjects.get();
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Object input stream which resolves only classes from whitelist. Serialized logging events are received from
+ * network, so any other class (and every dynamic proxy) is rejected before it is instantiated. Length of arrays and
+ * depth of object graph are limited too, array is allocated with length from stream before its elements are read.
+ */
+public class WhitelistObjectInputStream extends ObjectInputStream {
+
+  private static final Logger LOGGER = Logger.getLogger(WhitelistObjectInputStream.class.getName());
+
+  public static final int DEFAULT_MAX_ARRAY_LENGTH = 64 * 1024;
+  public static final int DEFAULT_MAX_DEPTH = 100;
+
+  /**
+   * ObjectInputFilter of Java 9 and its backport in Java 8u121
+   */
+  private static final String[] FILTER_INTERFACES = {"java.io.ObjectInputFilter", "sun.misc.ObjectInputFilter"};
+
+  /**
+   * Classes used by values of logging events: MDC maps, markers and stack traces.
+   */
+  public static final Collection<String> COMMON_CLASSES = Arrays.asList(
+    "java.lang.Object",
+    "java.lang.String",
+    "java.lang.Number",
+    "java.lang.Integer",
+    "java.lang.Long",
+    "java.lang.Short",
+    "java.lang.Byte",
+    "java.lang.Double",
+    "java.lang.Float",
+    "java.lang.Boolean",
+    "java.lang.Character",
+    "java.lang.Enum",
+    "java.lang.StackTraceElement",
+    "java.util.Date",
+    "java.util.Hashtable",
+    "java.util.HashMap",
+    "java.util.LinkedHashMap",
+    "java.util.TreeMap",
+    "java.util.ArrayList",
+    "java.util.LinkedList",
+    "java.util.Vector",
+    "java.util.concurrent.CopyOnWriteArrayList",
+    "java.util.Collections$EmptyMap",
+    "java.util.Collections$EmptyList",
+    "java.util.Collections$UnmodifiableMap",
+    "java.util.Collections$SynchronizedMap",
+    "java.util.Collections$UnmodifiableCollection",
+    "java.util.Collections$UnmodifiableList",
+    "java.util.Collections$UnmodifiableRandomAccessList"
+  );
+
+  private final Set<String> allowedClasses;
+  private final int maxArrayLength;
+  private final int maxDepth;
+  private final boolean limited;
+
+  public WhitelistObjectInputStream(InputStream in, Collection<String> allowedClasses) throws IOException {
+    this(in, allowedClasses, DEFAULT_MAX_ARRAY_LENGTH, DEFAULT_MAX_DEPTH);
+  }
+
+  WhitelistObjectInputStream(InputStream in, Collection<String> allowedClasses, int maxArrayLength, int maxDepth) throws IOException {
+    super(in);
+    this.allowedClasses = new HashSet<String>(COMMON_CLASSES);
+    this.allowedClasses.addAll(allowedClasses);
+    this.maxArrayLength = maxArrayLength;
+    this.maxDepth = maxDepth;
+    limited = installFilter();
+  }
+
+  /**
+   * @return true if length of arrays and depth of objects are limited, false if runtime has no ObjectInputFilter
+   */
+  public boolean isLimited() {
+    return limited;
+  }
+
+  /**
+   * Sets ObjectInputFilter checking array length and depth. Filter API is not available in Java 8 before update 121 and
+   * has different package in later versions, so it is used by reflection. Filter set by jdk.serialFilter property is
+   * still consulted after own checks pass.
+   */
+  private boolean installFilter() {
+    for (String filterInterface : FILTER_INTERFACES) {
+      Class<?> filterClass;
+      try {
+        filterClass = Class.forName(filterInterface);
+      } catch (ClassNotFoundException e) {
+        continue;
+      }
+      try {
+        Class<?> infoClass = Class.forName(filterInterface + "$FilterInfo");
+        Method statusValueOf = Class.forName(filterInterface + "$Status").getMethod("valueOf", String.class);
+        // backport has static methods in Config class instead of methods of stream
+        boolean backport = !filterInterface.startsWith("java.");
+        Class<?> configClass = backport ? Class.forName(filterInterface + "$Config") : null;
+        Object previous = backport ? configClass.getMethod("getObjectInputFilter", ObjectInputStream.class).invoke(null, this)
+            : ObjectInputStream.class.getMethod("getObjectInputFilter").invoke(this);
+        LimitsFilter limitsFilter = new LimitsFilter(infoClass.getMethod("arrayLength"), infoClass.getMethod("depth"),
+            statusValueOf.invoke(null, "REJECTED"), statusValueOf.invoke(null, "UNDECIDED"), previous);
+        Object filter = Proxy.newProxyInstance(WhitelistObjectInputStream.class.getClassLoader(), new Class<?>[]{filterClass}, limitsFilter);
+        if (backport) {
+          configClass.getMethod("setObjectInputFilter", ObjectInputStream.class, filterClass).invoke(null, this, filter);
+        } else {
+          ObjectInputStream.class.getMethod("setObjectInputFilter", filterClass).invoke(this, filter);
+        }
+        return true;
+      } catch (Exception e) {
+        LOGGER.warning("Can't set filter of serialized logging events: " + e.getMessage());
+        return false;
+      }
+    }
+    LOGGER.warning("ObjectInputFilter is not available, length of arrays and depth of serialized logging events are not limited");
+    return false;
+  }
+
+  @Override
+  protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+    if (!isAllowed(desc.getName())) {
+      throw new InvalidClassException(desc.getName(), "class is not allowed in serialized logging events");
+    }
+    return super.resolveClass(desc);
+  }
+
+  @Override
+  protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+    throw new InvalidClassException(Arrays.toString(interfaces), "proxy is not allowed in serialized logging events");
+  }
+
+  /**
+   * Implementation of ObjectInputFilter.checkInput
+   */
+  private class LimitsFilter implements InvocationHandler {
+
+    private final Method arrayLength;
+    private final Method depth;
+    private final Object rejected;
+    private final Object undecided;
+    private final Object previous;
+
+    LimitsFilter(Method arrayLength, Method depth, Object rejected, Object undecided, Object previous) {
+      this.arrayLength = arrayLength;
+      this.depth = depth;
+      this.rejected = rejected;
+      this.undecided = undecided;
+      this.previous = previous;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        if ("equals".equals(method.getName())) {
+          return proxy == args[0];
+        } else if ("hashCode".equals(method.getName())) {
+          return System.identityHashCode(proxy);
+        }
+        return "Limits of serialized logging events";
+      }
+      Object info = args[0];
+      if ((Long) arrayLength.invoke(info) > maxArrayLength || (Long) depth.invoke(info) > maxDepth) {
+        return rejected;
+      }
+      if (previous == null) {
+        return undecided;
+      }
+      try {
+        return method.invoke(previous, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  boolean isAllowed(String className) {
+    String name = className;
+    while (name.startsWith("[")) {
+      name = name.substring(1);
+    }
+    if (name.length() == 1) {
+      // array of primitives
+      return name.length() < className.length();
+    }
+    if (name.length() < className.length() && name.startsWith("L") && name.endsWith(";")) {
+      name = name.substring(1, name.length() - 1);
+    }
+    return allowedClasses.contains(name);
+  }
+}
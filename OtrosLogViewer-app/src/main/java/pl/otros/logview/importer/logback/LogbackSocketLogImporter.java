@@ -1,23 +1,34 @@
 package pl.otros.logview.importer.logback;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
-import pl.otros.logview.LogDataBuilder;
+import pl.otros.logview.LogData;
 import pl.otros.logview.LogDataCollector;
 import pl.otros.logview.importer.InitializationException;
 import pl.otros.logview.importer.LogImporter;
+import pl.otros.logview.importer.SerializedEventsReader;
 import pl.otros.logview.parser.ParsingContext;
 import pl.otros.logview.pluginable.AbstractPluginableElement;
 
 import javax.swing.*;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class LogbackSocketLogImporter extends AbstractPluginableElement implements LogImporter {
   private static final Logger LOGGER = Logger.getLogger(LogbackSocketLogImporter.class.getName());
+  private static final List<String> ALLOWED_CLASSES = Arrays.asList(
+    "ch.qos.logback.classic.spi.LoggingEventVO",
+    "ch.qos.logback.classic.spi.LoggerContextVO",
+    "ch.qos.logback.classic.spi.ThrowableProxyVO",
+    "ch.qos.logback.classic.spi.IThrowableProxy",
+    "ch.qos.logback.classic.spi.StackTraceElementProxy",
+    "ch.qos.logback.classic.spi.ClassPackagingData",
+    "org.slf4j.helpers.BasicMarker"
+  );
 
   public LogbackSocketLogImporter() {
     super("Logback - socket", "Logback serialized events for socket appender");
@@ -42,24 +53,19 @@ public class LogbackSocketLogImporter extends AbstractPluginableElement implemen
   @Override
   public void importLogs(InputStream in, LogDataCollector dataCollector, ParsingContext parsingContext) {
     try {
-      ObjectInputStream oin = new ObjectInputStream(in);
-      while (parsingContext.isParsingInProgress()) {
-        final Object o = oin.readObject();
-        LOGGER.info("LogbackSocketLogImporter.importLogs have read object " + o + "\n");
-        if (o instanceof ILoggingEvent) {
-          ILoggingEvent ev = (ILoggingEvent) o;
-          final LogDataBuilder builder = LogbackUtil.translate(ev)
-            .withId(parsingContext.getGeneratedIdAndIncrease());
-          dataCollector.add(builder.build());
+      new SerializedEventsReader<ILoggingEvent>(ILoggingEvent.class, ALLOWED_CLASSES) {
+        @Override
+        protected LogData convert(ILoggingEvent ev, ParsingContext parsingContext) {
+          return LogbackUtil.translate(ev)
+            .withId(parsingContext.getGeneratedIdAndIncrease())
+            .build();
         }
-      }
+      }.read(in, dataCollector, parsingContext);
     } catch (IOException | ClassNotFoundException e) {
       LOGGER.log(Level.SEVERE, "Can't read serialized logback events from stream: " + e.getMessage(), e);
     }
   }
 
-
-
   @Override
   public String getKeyStrokeAccelelator() {
     return null;
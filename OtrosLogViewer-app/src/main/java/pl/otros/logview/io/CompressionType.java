@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.io;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Compression of log file recognized by magic bytes at the beginning of file.
+ */
+public enum CompressionType {
+
+  NONE(new int[0]),
+  GZIP(new int[]{0x1f, 0x8b}) {
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+      return new ParallelGzipInputStream(in);
+    }
+  },
+  BZIP2(new int[]{'B', 'Z', 'h'}) {
+    /**
+     * "BZh" is common at the beginning of text, so block size digit and magic of first block (or end of stream for
+     * empty archive) are checked as well.
+     */
+    @Override
+    boolean matches(byte[] buffer, int length) {
+      if (length < 10 || !super.matches(buffer, length) || buffer[3] < '1' || buffer[3] > '9') {
+        return false;
+      }
+      return startsWith(buffer, 4, BZIP2_BLOCK_MAGIC) || startsWith(buffer, 4, BZIP2_END_OF_STREAM_MAGIC);
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+      return new BZip2CompressorInputStream(in);
+    }
+  },
+  ZIP(new int[]{'P', 'K', 3, 4}) {
+    /**
+     * Content of first file in archive is returned.
+     */
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+      ZipInputStream zipInputStream = new ZipInputStream(in);
+      ZipEntry entry;
+      while ((entry = zipInputStream.getNextEntry()) != null) {
+        if (!entry.isDirectory()) {
+          return zipInputStream;
+        }
+      }
+      throw new IOException("Zip archive does not contain any file");
+    }
+  },
+  XZ(new int[]{0xfd, '7', 'z', 'X', 'Z', 0}),
+  ZSTD(new int[]{0x28, 0xb5, 0x2f, 0xfd});
+
+  /**
+   * Number of bytes which have to be read to recognize any compression.
+   */
+  public static final int MAGIC_SIZE = 10;
+
+  private static final int[] BZIP2_BLOCK_MAGIC = {0x31, 0x41, 0x59, 0x26, 0x53, 0x59};
+  private static final int[] BZIP2_END_OF_STREAM_MAGIC = {0x17, 0x72, 0x45, 0x38, 0x50, 0x90};
+
+  private final int[] magic;
+
+  CompressionType(int[] magic) {
+    this.magic = magic;
+  }
+
+  public static CompressionType detect(byte[] buffer, int length) {
+    for (CompressionType type : values()) {
+      if (type != NONE && type.matches(buffer, length)) {
+        return type;
+      }
+    }
+    return NONE;
+  }
+
+  boolean matches(byte[] buffer, int length) {
+    return length >= magic.length && startsWith(buffer, 0, magic);
+  }
+
+  private static boolean startsWith(byte[] buffer, int offset, int[] bytes) {
+    for (int i = 0; i < bytes.length; i++) {
+      if ((buffer[offset + i] & 0xff) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Wraps compressed stream into stream of decompressed data.
+   *
+   * @throws IOException if compression is not supported
+   */
+  public InputStream decompress(InputStream in) throws IOException {
+    if (this == NONE) {
+      return in;
+    }
+    throw new IOException(name() + " compression is not supported");
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.io;
+
+import org.apache.commons.vfs2.FileObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Identity of local file which survives rename: file key (inode and device on unix) or creation time. Used to
+ * distinguish rotation (file replaced by new one) from truncation and to find where rotated file was moved.
+ */
+public final class FileIdentity {
+
+  private static final Logger LOGGER = Logger.getLogger(FileIdentity.class.getName());
+
+  private final Object fileKey;
+  private final FileTime creationTime;
+
+  FileIdentity(Object fileKey, FileTime creationTime) {
+    this.fileKey = fileKey;
+    this.creationTime = creationTime;
+  }
+
+  /**
+   * @return identity of local file or null for remote file or if file does not exist
+   */
+  public static FileIdentity of(FileObject fileObject) {
+    File file = toLocalFile(fileObject);
+    return file != null ? of(file.toPath()) : null;
+  }
+
+  public static FileIdentity of(Path path) {
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      return new FileIdentity(attributes.fileKey(), attributes.creationTime());
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  static File toLocalFile(FileObject fileObject) {
+    if (!"file".equals(fileObject.getName().getScheme())) {
+      return null;
+    }
+    try {
+      return Paths.get(fileObject.getURL().toURI()).toFile();
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Looks for file with this identity next to the given file. Rotated files are usually renamed to name with suffix
+   * ({@code app.log.1}, {@code app.log.2014-01-01}) or with index before extension ({@code app.1.log}), so only siblings
+   * starting with name of file (without extension) are checked, most likely names first.
+   *
+   * @return rotated file or null if it was not found (deleted or compressed)
+   */
+  public File findRotated(File file) {
+    File directory = file.getAbsoluteFile().getParentFile();
+    if (directory == null) {
+      return null;
+    }
+    String name = file.getName();
+    List<Path> candidates = new ArrayList<Path>();
+    candidates.add(new File(directory, name + ".1").toPath());
+    candidates.add(new File(directory, name + ".0").toPath());
+    int dot = name.lastIndexOf('.');
+    String prefix = dot > 0 ? name.substring(0, dot) : name;
+    try {
+      DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath(), escapeGlob(prefix) + "*");
+      try {
+        for (Path path : stream) {
+          if (!path.getFileName().toString().equals(name)) {
+            candidates.add(path);
+          }
+        }
+      } finally {
+        stream.close();
+      }
+    } catch (IOException e) {
+      LOGGER.fine("Can't list rotated files of " + file + ": " + e.getMessage());
+    }
+    for (Path candidate : candidates) {
+      if (equals(of(candidate))) {
+        return candidate.toFile();
+      }
+    }
+    return null;
+  }
+
+  private static String escapeGlob(String s) {
+    StringBuilder sb = new StringBuilder();
+    for (char c : s.toCharArray()) {
+      if ("*?[]{}\\".indexOf(c) >= 0) {
+        sb.append('\\');
+      }
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Identities are equal when file keys are equal. Creation time is compared only if file key is not supported by file
+   * system (Windows), because some platforms report last modification time as creation time.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof FileIdentity)) {
+      return false;
+    }
+    FileIdentity other = (FileIdentity) o;
+    if (fileKey != null || other.fileKey != null) {
+      return fileKey != null && fileKey.equals(other.fileKey);
+    }
+    return creationTime == null ? other.creationTime == null : creationTime.equals(other.creationTime);
+  }
+
+  @Override
+  public int hashCode() {
+    if (fileKey != null) {
+      return fileKey.hashCode();
+    }
+    return creationTime != null ? creationTime.hashCode() : 0;
+  }
+
+  @Override
+  public String toString() {
+    return "FileIdentity{fileKey=" + fileKey + ", creationTime=" + creationTime + '}';
+  }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.io;
+
+import org.apache.commons.vfs2.FileObject;
+import pl.otros.logview.Stoppable;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Wakes up tailing readers when a tailed file changes. Local files are observed by a single shared thread using
+ * {@link WatchService}, remote files (and local files when a watch service is not available) are polled with an
+ * interval that grows while the file does not change and drops back as soon as new data arrives.
+ */
+public class FileTailWatcher {
+
+  private static final Logger LOGGER = Logger.getLogger(FileTailWatcher.class.getName());
+
+  public static final long MIN_POLL_INTERVAL = 250;
+  public static final long MAX_POLL_INTERVAL = 5000;
+  /**
+   * Local files are re-checked with this interval even without a notification, in case an event was lost (for
+   * example on network file systems).
+   */
+  public static final long LOCAL_FALLBACK_INTERVAL = 5000;
+
+  private static FileTailWatcher instance;
+
+  private final long localFallbackInterval;
+  private final Map<Path, List<Watch>> watchesByDirectory = new HashMap<Path, List<Watch>>();
+  private final Map<Path, WatchKey> keysByDirectory = new HashMap<Path, WatchKey>();
+  private WatchService watchService;
+  private boolean watchServiceUnavailable = false;
+
+  public static synchronized FileTailWatcher getInstance() {
+    if (instance == null) {
+      instance = new FileTailWatcher(LOCAL_FALLBACK_INTERVAL);
+    }
+    return instance;
+  }
+
+  FileTailWatcher(long localFallbackInterval) {
+    this.localFallbackInterval = localFallbackInterval;
+  }
+
+  /**
+   * Starts watching file. Returned watch have to be stopped when tailing is finished.
+   */
+  public Watch watch(FileObject fileObject) {
+    Path path = toLocalPath(fileObject);
+    return path != null ? watch(path) : new Watch(null);
+  }
+
+  Watch watch(Path path) {
+    Watch watch = new Watch(path.toAbsolutePath());
+    if (!register(watch)) {
+      watch = new Watch(null);
+    }
+    return watch;
+  }
+
+  private static Path toLocalPath(FileObject fileObject) {
+    if (!"file".equals(fileObject.getName().getScheme())) {
+      return null;
+    }
+    try {
+      return Paths.get(fileObject.getURL().toURI());
+    } catch (Exception e) {
+      LOGGER.fine("Can't convert " + fileObject.getName().getFriendlyURI() + " to local path: " + e.getMessage());
+      return null;
+    }
+  }
+
+  private synchronized boolean register(Watch watch) {
+    if (!startWatchService()) {
+      return false;
+    }
+    Path directory = watch.file.getParent();
+    List<Watch> watches = watchesByDirectory.get(directory);
+    if (watches == null) {
+      try {
+        WatchKey key = directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        keysByDirectory.put(directory, key);
+      } catch (IOException e) {
+        LOGGER.warning("Can't watch directory " + directory + ", falling back to polling: " + e.getMessage());
+        return false;
+      }
+      watches = new ArrayList<Watch>();
+      watchesByDirectory.put(directory, watches);
+    }
+    watches.add(watch);
+    return true;
+  }
+
+  private synchronized void unregister(Watch watch) {
+    Path directory = watch.file.getParent();
+    List<Watch> watches = watchesByDirectory.get(directory);
+    if (watches == null || !watches.remove(watch) || !watches.isEmpty()) {
+      return;
+    }
+    watchesByDirectory.remove(directory);
+    WatchKey key = keysByDirectory.remove(directory);
+    if (key != null) {
+      key.cancel();
+    }
+  }
+
+  private boolean startWatchService() {
+    if (watchService != null) {
+      return true;
+    }
+    if (watchServiceUnavailable) {
+      return false;
+    }
+    try {
+      watchService = FileSystems.getDefault().newWatchService();
+    } catch (Exception e) {
+      LOGGER.warning("Watch service is not available, tailed files will be polled: " + e.getMessage());
+      watchServiceUnavailable = true;
+      return false;
+    }
+    Thread thread = new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        processEvents();
+      }
+    }, "Tail file watcher");
+    thread.setDaemon(true);
+    thread.start();
+    return true;
+  }
+
+  private void processEvents() {
+    while (true) {
+      WatchKey key;
+      try {
+        key = watchService.take();
+      } catch (InterruptedException e) {
+        return;
+      } catch (ClosedWatchServiceException e) {
+        return;
+      }
+      Path directory = (Path) key.watchable();
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == OVERFLOW) {
+          notifyWatches(directory, null);
+        } else {
+          notifyWatches(directory, directory.resolve((Path) event.context()));
+        }
+      }
+      key.reset();
+    }
+  }
+
+  private void notifyWatches(Path directory, Path changed) {
+    List<Watch> toNotify = new ArrayList<Watch>();
+    synchronized (this) {
+      List<Watch> watches = watchesByDirectory.get(directory);
+      if (watches == null) {
+        return;
+      }
+      for (Watch watch : watches) {
+        if (changed == null || watch.file.equals(changed)) {
+          toNotify.add(watch);
+        }
+      }
+    }
+    for (Watch watch : toNotify) {
+      watch.fireChange();
+    }
+  }
+
+  synchronized int getWatchedDirectoriesCount() {
+    return watchesByDirectory.size();
+  }
+
+  /**
+   * Handle of single tailed file.
+   */
+  public class Watch implements Stoppable {
+
+    private final Path file;
+    private boolean stopped = false;
+    private long pollInterval = MIN_POLL_INTERVAL;
+    private volatile Runnable changeListener;
+
+    Watch(Path file) {
+      this.file = file;
+    }
+
+    /**
+     * Reports result of checking file after change notification or {@link #getPollInterval()}, used to adapt poll
+     * interval.
+     */
+    public synchronized void dataRead(boolean newData) {
+      if (newData) {
+        pollInterval = MIN_POLL_INTERVAL;
+      } else {
+        pollInterval = Math.min(MAX_POLL_INTERVAL, pollInterval * 2);
+      }
+    }
+
+    public synchronized long getPollInterval() {
+      return isWatched() ? localFallbackInterval : pollInterval;
+    }
+
+    public boolean isWatched() {
+      return file != null;
+    }
+
+    /**
+     * Sets callback invoked (on watcher thread) when change is reported or watch is stopped. Callback should only
+     * schedule checking of file, it must not block watcher thread.
+     */
+    public void setChangeListener(Runnable changeListener) {
+      this.changeListener = changeListener;
+    }
+
+    private void fireChange() {
+      Runnable listener = changeListener;
+      if (listener != null) {
+        listener.run();
+      }
+    }
+
+    @Override
+    public void stop() {
+      synchronized (this) {
+        if (stopped) {
+          return;
+        }
+        stopped = true;
+      }
+      fireChange();
+      if (file != null) {
+        unregister(this);
+        LOGGER.log(Level.FINE, "Stopped watching " + file);
+      }
+    }
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses gzip file which is still growing. Unlike {@link java.util.zip.GZIPInputStream}, end of available data in
+ * the middle of member is not an error: inflater state is kept and decoding continues when more compressed bytes are
+ * fed. Concatenated members (appending gzip chunks, logrotate delaycompress, streaming compressors) are decoded one by
+ * one. Position in compressed file is exposed, so tailing can resume reading exactly where decoder stopped.
+ */
+public class IncrementalGzipDecoder {
+
+  private static final int GZIP_MAGIC = 0x8b1f;
+  private static final int FHCRC = 2;
+  private static final int FEXTRA = 4;
+  private static final int FNAME = 8;
+  private static final int FCOMMENT = 16;
+  private static final int TRAILER_SIZE = 8;
+
+  private enum State {
+    HEADER, DEFLATE, TRAILER
+  }
+
+  private final Inflater inflater = new Inflater(true);
+  private final CRC32 crc = new CRC32();
+  private final byte[] inflateBuffer = new byte[8 * 1024];
+  private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+  private State state = State.HEADER;
+  private long compressedOffset = 0;
+  private long memberSize = 0;
+  private int members = 0;
+
+  /**
+   * Feeds compressed bytes. All bytes are consumed, decompressed data available so far is written to output.
+   */
+  public synchronized void decode(byte[] compressed, int off, int len, ByteArrayOutputStream out) throws IOException {
+    compressedOffset += len;
+    int end = off + len;
+    while (off < end) {
+      switch (state) {
+        case HEADER:
+          off = readHeader(compressed, off, end);
+          break;
+        case DEFLATE:
+          off = inflate(compressed, off, end, out);
+          break;
+        case TRAILER:
+          off = readTrailer(compressed, off, end);
+          break;
+      }
+    }
+  }
+
+  /**
+   * @return number of compressed bytes consumed, position from which reading should be resumed
+   */
+  public synchronized long getCompressedOffset() {
+    return compressedOffset;
+  }
+
+  /**
+   * @return number of gzip members which decoding was started
+   */
+  public synchronized int getMembers() {
+    return members;
+  }
+
+  /**
+   * Clears state, used when file was truncated or replaced.
+   */
+  public synchronized void reset() {
+    inflater.reset();
+    crc.reset();
+    pending.reset();
+    state = State.HEADER;
+    compressedOffset = 0;
+    memberSize = 0;
+    members = 0;
+  }
+
+  /**
+   * Wraps stream of compressed bytes (read from {@link #getCompressedOffset()}) into stream of decompressed data. End of
+   * compressed stream is end of returned stream, even if gzip member is not complete.
+   */
+  public InputStream decompress(final InputStream compressed) {
+    return new InputStream() {
+
+      private final byte[] readBuffer = new byte[8 * 1024];
+      private final ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+      private byte[] available = new byte[0];
+      private int position = 0;
+
+      @Override
+      public int read() throws IOException {
+        byte[] b = new byte[1];
+        int read = read(b, 0, 1);
+        return read < 0 ? -1 : b[0] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        while (position >= available.length) {
+          int read = compressed.read(readBuffer);
+          if (read < 0) {
+            return -1;
+          }
+          decoded.reset();
+          decode(readBuffer, 0, read, decoded);
+          available = decoded.toByteArray();
+          position = 0;
+        }
+        int count = Math.min(len, available.length - position);
+        System.arraycopy(available, position, b, off, count);
+        position += count;
+        return count;
+      }
+
+      @Override
+      public int available() {
+        return available.length - position;
+      }
+
+      @Override
+      public void close() throws IOException {
+        compressed.close();
+      }
+    };
+  }
+
+  private int readHeader(byte[] b, int off, int end) throws IOException {
+    if (pending.size() == 0) {
+      // zero padding after last member is ignored
+      while (off < end && b[off] == 0) {
+        off++;
+      }
+    }
+    int start = pending.size();
+    pending.write(b, off, end - off);
+    byte[] header = pending.toByteArray();
+    int headerSize = parseHeaderSize(header);
+    if (headerSize < 0) {
+      return end;
+    }
+    pending.reset();
+    inflater.reset();
+    crc.reset();
+    memberSize = 0;
+    members++;
+    state = State.DEFLATE;
+    return off + headerSize - start;
+  }
+
+  /**
+   * @return size of header or -1 if header is not complete yet
+   */
+  private static int parseHeaderSize(byte[] h) throws IOException {
+    if (h.length < 10) {
+      return -1;
+    }
+    if (((h[1] & 0xff) << 8 | (h[0] & 0xff)) != GZIP_MAGIC) {
+      throw new ZipException("Not in GZIP format");
+    }
+    if (h[2] != 8) {
+      throw new ZipException("Unsupported compression method");
+    }
+    int flags = h[3] & 0xff;
+    int pos = 10;
+    if ((flags & FEXTRA) != 0) {
+      if (h.length < pos + 2) {
+        return -1;
+      }
+      pos += 2 + ((h[pos + 1] & 0xff) << 8 | (h[pos] & 0xff));
+    }
+    if ((flags & FNAME) != 0) {
+      pos = skipZeroTerminated(h, pos);
+    }
+    if ((flags & FCOMMENT) != 0) {
+      pos = skipZeroTerminated(h, pos);
+    }
+    if ((flags & FHCRC) != 0) {
+      pos += 2;
+    }
+    return pos <= h.length ? pos : -1;
+  }
+
+  private static int skipZeroTerminated(byte[] h, int pos) {
+    while (pos < h.length) {
+      if (h[pos++] == 0) {
+        return pos;
+      }
+    }
+    return Integer.MAX_VALUE / 2;
+  }
+
+  private int inflate(byte[] b, int off, int end, ByteArrayOutputStream out) throws IOException {
+    inflater.setInput(b, off, end - off);
+    try {
+      while (!inflater.finished()) {
+        int inflated = inflater.inflate(inflateBuffer);
+        if (inflated > 0) {
+          crc.update(inflateBuffer, 0, inflated);
+          memberSize += inflated;
+          out.write(inflateBuffer, 0, inflated);
+        } else if (inflater.needsInput()) {
+          return end;
+        } else if (inflater.needsDictionary()) {
+          throw new ZipException("Preset dictionary is not supported");
+        }
+      }
+    } catch (DataFormatException e) {
+      throw new ZipException(e.getMessage());
+    }
+    state = State.TRAILER;
+    return end - inflater.getRemaining();
+  }
+
+  private int readTrailer(byte[] b, int off, int end) throws IOException {
+    int count = Math.min(TRAILER_SIZE - pending.size(), end - off);
+    pending.write(b, off, count);
+    if (pending.size() == TRAILER_SIZE) {
+      byte[] t = pending.toByteArray();
+      pending.reset();
+      if (readInt(t, 0) != crc.getValue()) {
+        throw new ZipException("Corrupt GZIP trailer");
+      }
+      if (readInt(t, 4) != (memberSize & 0xffffffffL)) {
+        throw new ZipException("Corrupt GZIP trailer");
+      }
+      state = State.HEADER;
+    }
+    return off + count;
+  }
+
+  private static long readInt(byte[] b, int off) {
+    return ((b[off + 3] & 0xffL) << 24) | ((b[off + 2] & 0xffL) << 16) | ((b[off + 1] & 0xffL) << 8) | (b[off] & 0xffL);
+  }
+}
@@ -29,7 +29,10 @@ public class LoadingInfo {
   private boolean tailing;
   private boolean gziped;
   private long lastFileSize = 0;
+  private long streamStartOffset = 0;
   private byte[] inputStreamBufferedStart;
+  private IncrementalGzipDecoder gzipDecoder;
+  private FileIdentity fileIdentity;
 
   public InputStream getContentInputStream() {
     return contentInputStream;
@@ -87,6 +90,26 @@ public class LoadingInfo {
     this.lastFileSize = lastFileSize;
   }
 
+  /**
+   * @param streamStartOffset position in file from which {@link #getObserableInputStreamImpl()} reads
+   */
+  public void setStreamStartOffset(long streamStartOffset) {
+    this.streamStartOffset = streamStartOffset;
+  }
+
+  /**
+   * Position in file up to which content was read, reading should be resumed from here. It is not a file size seen
+   * when file was checked, data appended after that and already read is not read again.
+   *
+   * @return compressed offset of {@link IncrementalGzipDecoder} or position of observed stream
+   */
+  public long getConsumedOffset() {
+    if (gzipDecoder != null) {
+      return gzipDecoder.getCompressedOffset();
+    }
+    return streamStartOffset + (obserableInputStreamImpl != null ? obserableInputStreamImpl.getCurrentRead() : 0);
+  }
+
   public byte[] getInputStreamBufferedStart() {
     return inputStreamBufferedStart;
   }
@@ -95,4 +118,26 @@ public class LoadingInfo {
     this.inputStreamBufferedStart = inputStreamBufferedStart;
   }
 
+
+  /**
+   * @return decoder of tailed gzip file, keeping inflater state between reloads, or null
+   */
+  public IncrementalGzipDecoder getGzipDecoder() {
+    return gzipDecoder;
+  }
+
+  public void setGzipDecoder(IncrementalGzipDecoder gzipDecoder) {
+    this.gzipDecoder = gzipDecoder;
+  }
+
+  /**
+   * @return identity of tailed local file, used to detect rotation, or null
+   */
+  public FileIdentity getFileIdentity() {
+    return fileIdentity;
+  }
+
+  public void setFileIdentity(FileIdentity fileIdentity) {
+    this.fileIdentity = fileIdentity;
+  }
 }
@@ -33,8 +33,11 @@ public class ObservableInputStreamImpl extends InputStream implements Observable
 
   @Override
   public int read() throws IOException {
-    current++;
-    return src.read();
+    int read = src.read();
+    if (read >= 0) {
+      current++;
+    }
+    return read;
   }
 
   public int available() throws IOException {
@@ -57,7 +60,9 @@ public class ObservableInputStreamImpl extends InputStream implements Observable
     if (stop)
       return -1;
     int read = src.read(b, off, len);
-    current += read;
+    if (read > 0) {
+      current += read;
+    }
     return read;
   }
 
@@ -65,7 +70,9 @@ public class ObservableInputStreamImpl extends InputStream implements Observable
     if (stop)
       return -1;
     int read = src.read(b);
-    current += read;
+    if (read > 0) {
+      current += read;
+    }
     return read;
   }
 
@@ -74,7 +81,9 @@ public class ObservableInputStreamImpl extends InputStream implements Observable
   }
 
   public long skip(long n) throws IOException {
-    return src.skip(n);
+    long skipped = src.skip(n);
+    current += skipped;
+    return skipped;
   }
 
   /*
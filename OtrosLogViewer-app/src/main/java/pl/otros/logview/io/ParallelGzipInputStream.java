@@ -0,0 +1,411 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.lang.ref.WeakReference;
+import java.util.LinkedList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses gzip file using more than one core. Blocked gzip (BGZF, every member has size in extra field) is split
+ * into members which are inflated in parallel and returned in order. Members of other files can't be found without
+ * inflating, so they are inflated by read-ahead thread, which works while the consumer is parsing.
+ */
+public class ParallelGzipInputStream extends InputStream {
+
+  private static final int HEADER_SIZE = 12;
+  private static final int FEXTRA = 4;
+  /**
+   * BGZF block holds at most 64 KiB of uncompressed data
+   */
+  private static final int MAX_BLOCK_SIZE = 64 * 1024;
+  private static final int READ_AHEAD_CHUNK = 64 * 1024;
+  private static final int READ_AHEAD_CHUNKS = 16;
+  private static final byte[] END = new byte[0];
+
+  private static ExecutorService inflaterPool;
+
+  private final InputStream in;
+  private final int window;
+  private final LinkedList<Future<byte[]>> blocks = new LinkedList<Future<byte[]>>();
+  private BlockingQueue<Object> readAhead;
+  private byte[] current = new byte[0];
+  private int position = 0;
+  private boolean blocksEnded = false;
+  private IOException failure;
+  private volatile boolean closed = false;
+  private long blockCount = 0;
+
+  public ParallelGzipInputStream(InputStream in) {
+    this.in = in;
+    window = Runtime.getRuntime().availableProcessors() * 4;
+  }
+
+  private static synchronized ExecutorService getInflaterPool() {
+    if (inflaterPool == null) {
+      final AtomicInteger counter = new AtomicInteger();
+      inflaterPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "Gzip inflater-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return inflaterPool;
+  }
+
+  /**
+   * @return number of blocks inflated in parallel, 0 if file is not blocked gzip
+   */
+  public long getBlockCount() {
+    return blockCount;
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] b = new byte[1];
+    int read = read(b, 0, 1);
+    return read < 0 ? -1 : b[0] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (len == 0) {
+      return 0;
+    }
+    while (position >= current.length) {
+      if (!nextChunk()) {
+        return -1;
+      }
+    }
+    int count = Math.min(len, current.length - position);
+    System.arraycopy(current, position, b, off, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return current.length - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    for (Future<byte[]> block : blocks) {
+      block.cancel(false);
+    }
+    blocks.clear();
+    in.close();
+  }
+
+  /**
+   * Failure is remembered, read-ahead thread is gone after error and further reads would wait for it forever.
+   */
+  private boolean nextChunk() throws IOException {
+    if (failure != null) {
+      throw failure;
+    }
+    if (current == END) {
+      return false;
+    }
+    try {
+      current = takeChunk();
+    } catch (IOException e) {
+      failure = e;
+      throw e;
+    }
+    position = 0;
+    return current != END;
+  }
+
+  private byte[] takeChunk() throws IOException {
+    fillWindow();
+    if (!blocks.isEmpty()) {
+      return get(blocks.removeFirst());
+    } else if (readAhead != null) {
+      Object chunk;
+      try {
+        chunk = readAhead.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for inflated data");
+      }
+      if (chunk instanceof IOException) {
+        throw (IOException) chunk;
+      }
+      return (byte[]) chunk;
+    }
+    return END;
+  }
+
+  private void fillWindow() throws IOException {
+    while (!blocksEnded && blocks.size() < window) {
+      byte[] block = readBlock();
+      if (block == null) {
+        blocksEnded = true;
+      } else {
+        blockCount++;
+        blocks.add(getInflaterPool().submit(new BlockInflater(block)));
+      }
+    }
+  }
+
+  /**
+   * Reads next BGZF member.
+   *
+   * @return compressed member or null if there are no more members. If member is not BGZF, remaining data is passed to
+   * read-ahead inflater.
+   */
+  private byte[] readBlock() throws IOException {
+    byte[] header = new byte[HEADER_SIZE];
+    int read = readFully(in, header);
+    if (read == 0) {
+      return null;
+    }
+    if (read < HEADER_SIZE || !isGzipHeader(header) || (header[3] & FEXTRA) == 0) {
+      startReadAhead(header, read);
+      return null;
+    }
+    int xlen = readShort(header, 10);
+    byte[] extra = new byte[xlen];
+    if (readFully(in, extra) < xlen) {
+      throw new EOFException("Unexpected end of gzip header");
+    }
+    int blockSize = findBlockSize(extra);
+    if (blockSize < 0) {
+      byte[] prefix = new byte[HEADER_SIZE + xlen];
+      System.arraycopy(header, 0, prefix, 0, HEADER_SIZE);
+      System.arraycopy(extra, 0, prefix, HEADER_SIZE, xlen);
+      startReadAhead(prefix, prefix.length);
+      return null;
+    }
+    byte[] block = new byte[blockSize + 1];
+    System.arraycopy(header, 0, block, 0, HEADER_SIZE);
+    System.arraycopy(extra, 0, block, HEADER_SIZE, xlen);
+    int rest = block.length - HEADER_SIZE - xlen;
+    if (rest < 8 || readFully(in, block, HEADER_SIZE + xlen, rest) < rest) {
+      throw new EOFException("Unexpected end of gzip block");
+    }
+    return block;
+  }
+
+  private static boolean isGzipHeader(byte[] header) {
+    return (header[0] & 0xff) == 0x1f && (header[1] & 0xff) == 0x8b && header[2] == 8;
+  }
+
+  /**
+   * @return value of BSIZE from BC subfield or -1 if there is no such subfield
+   */
+  private static int findBlockSize(byte[] extra) {
+    int pos = 0;
+    while (pos + 4 <= extra.length) {
+      int length = readShort(extra, pos + 2);
+      if (extra[pos] == 'B' && extra[pos + 1] == 'C' && length == 2 && pos + 6 <= extra.length) {
+        return readShort(extra, pos + 4);
+      }
+      pos += 4 + length;
+    }
+    return -1;
+  }
+
+  /**
+   * Starts thread inflating rest of not blocked gzip file.
+   */
+  private void startReadAhead(byte[] prefix, int length) throws IOException {
+    InputStream rest = new SequenceInputStream(new ByteArrayInputStream(prefix, 0, length), in);
+    readAhead = new ArrayBlockingQueue<Object>(READ_AHEAD_CHUNKS);
+    Thread thread = new Thread(new ReadAheadInflater(new GZIPInputStream(rest, READ_AHEAD_CHUNK), readAhead, this), "Gzip read-ahead");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private static byte[] get(Future<byte[]> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for inflated block");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Can't inflate gzip block", e.getCause());
+    }
+  }
+
+  private static int readShort(byte[] b, int off) {
+    return (b[off + 1] & 0xff) << 8 | (b[off] & 0xff);
+  }
+
+  private static int readInt(byte[] b, int off) {
+    return (b[off + 3] & 0xff) << 24 | (b[off + 2] & 0xff) << 16 | (b[off + 1] & 0xff) << 8 | (b[off] & 0xff);
+  }
+
+  private static int readFully(InputStream in, byte[] b) throws IOException {
+    return readFully(in, b, 0, b.length);
+  }
+
+  private static int readFully(InputStream in, byte[] b, int off, int len) throws IOException {
+    int total = 0;
+    while (total < len) {
+      int read = in.read(b, off + total, len - total);
+      if (read < 0) {
+        break;
+      }
+      total += read;
+    }
+    return total;
+  }
+
+  private static class BlockInflater implements Callable<byte[]> {
+
+    private final byte[] block;
+
+    public BlockInflater(byte[] block) {
+      this.block = block;
+    }
+
+    @Override
+    public byte[] call() throws IOException {
+      int dataStart = HEADER_SIZE + readShort(block, 10);
+      int dataEnd = block.length - 8;
+      int size = readInt(block, dataEnd + 4);
+      if (dataEnd < dataStart || size < 0) {
+        throw new ZipException("Corrupt gzip block");
+      }
+      if (size > MAX_BLOCK_SIZE) {
+        throw new ZipException("Corrupt gzip block, declared size " + size + " exceeds " + MAX_BLOCK_SIZE + " bytes");
+      }
+      byte[] inflated = new byte[size];
+      Inflater inflater = new Inflater(true);
+      try {
+        inflater.setInput(block, dataStart, dataEnd - dataStart);
+        int total = 0;
+        while (total < size && !inflater.finished()) {
+          int read = inflater.inflate(inflated, total, size - total);
+          if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            break;
+          }
+          total += read;
+        }
+        if (total != size) {
+          throw new ZipException("Corrupt gzip block, inflated " + total + " bytes instead of " + size);
+        }
+      } catch (DataFormatException e) {
+        throw new ZipException(e.getMessage());
+      } finally {
+        inflater.end();
+      }
+      CRC32 crc = new CRC32();
+      crc.update(inflated);
+      if ((int) crc.getValue() != readInt(block, dataEnd)) {
+        throw new ZipException("Corrupt gzip block, CRC mismatch");
+      }
+      return inflated;
+    }
+  }
+
+  /**
+   * Inflates not blocked gzip ahead of consumer. Stream is referenced weakly, so thread stops also when stream was not
+   * closed but is not used anymore.
+   */
+  private static class ReadAheadInflater implements Runnable {
+
+    private final GZIPInputStream gzipInputStream;
+    private final BlockingQueue<Object> queue;
+    private final WeakReference<ParallelGzipInputStream> owner;
+
+    public ReadAheadInflater(GZIPInputStream gzipInputStream, BlockingQueue<Object> queue, ParallelGzipInputStream owner) {
+      this.gzipInputStream = gzipInputStream;
+      this.queue = queue;
+      this.owner = new WeakReference<ParallelGzipInputStream>(owner);
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (true) {
+          byte[] chunk = new byte[READ_AHEAD_CHUNK];
+          int read = readFully(gzipInputStream, chunk);
+          if (read == 0) {
+            break;
+          }
+          if (read < chunk.length) {
+            byte[] last = new byte[read];
+            System.arraycopy(chunk, 0, last, 0, read);
+            chunk = last;
+          }
+          if (!put(chunk)) {
+            return;
+          }
+        }
+        put(END);
+      } catch (IOException e) {
+        put(e);
+      } catch (RuntimeException e) {
+        put(new IOException("Can't inflate gzip stream", e));
+      } finally {
+        try {
+          gzipInputStream.close();
+        } catch (IOException ignore) {
+          // closing
+        }
+      }
+    }
+
+    private boolean put(Object o) {
+      try {
+        while (!queue.offer(o, 100, TimeUnit.MILLISECONDS)) {
+          ParallelGzipInputStream stream = owner.get();
+          if (stream == null || stream.closed) {
+            return false;
+          }
+        }
+        return true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+  }
+}
@@ -37,48 +37,26 @@ import java.util.zip.GZIPInputStream;
 public class Utils {
 
   private static final Logger LOGGER = Logger.getLogger(Utils.class.getName());
-  private static final int GZIP_MIN_SIZE = 26;
-  private static final int GZIP_CHECK_BUFFER_SIZE = 8 * 1024;
   private static final int DETECT_LOAD_SIZE = 8 * 1024;
+  private static final int PROBE_SIZE = 10000;
 
   public static boolean checkIfIsGzipped(FileObject fileObject) throws IOException {
-    boolean gziped = false;
     if (fileObject.getContent().getSize() == 0) {
       LOGGER.fine("File object " + fileObject.getName() + " is empty, can't detect gzip compression");
       return false;
     }
     InputStream inputStream = fileObject.getContent().getInputStream();
-    byte[] loadProbe = loadProbe(inputStream, GZIP_CHECK_BUFFER_SIZE);
-    // IOUtils.closeQuietly(inputStream);
-    if (loadProbe.length < GZIP_MIN_SIZE) {
-      LOGGER.info("Loaded probe is too small to check if it is gziped");
-      return false;
-    }
     try {
-      ByteArrayInputStream bin = new ByteArrayInputStream(loadProbe);
-      int available = bin.available();
-      byte[] b = new byte[available < GZIP_CHECK_BUFFER_SIZE ? available : GZIP_CHECK_BUFFER_SIZE];
-      int read = bin.read(b);
-      gziped = checkIfIsGzipped(b, read);
-    } catch (IOException e) {
-      // Not gziped
-      LOGGER.fine(fileObject.getName() + " is not gzip");
+      byte[] magic = new byte[CompressionType.MAGIC_SIZE];
+      int read = IOUtils.read(inputStream, magic);
+      return checkIfIsGzipped(magic, read);
+    } finally {
+      IOUtils.closeQuietly(inputStream);
     }
-
-    return gziped;
   }
 
   public static boolean checkIfIsGzipped(byte[] buffer, int lenght) throws IOException {
-    boolean gziped = false;
-    try {
-      ByteArrayInputStream bin = new ByteArrayInputStream(buffer, 0, lenght);
-      GZIPInputStream gzipInputStream = new GZIPInputStream(bin);
-      gzipInputStream.read(new byte[buffer.length], 0, bin.available());
-      gziped = true;
-    } catch (IOException e) {
-      gziped = false;
-    }
-    return gziped;
+    return CompressionType.detect(buffer, lenght) == CompressionType.GZIP;
   }
 
   public static byte[] loadProbe(InputStream in, int buffSize) throws IOException {
@@ -95,76 +73,136 @@ public class Utils {
     return openFileObject(fileObject, false);
   }
 
+  /**
+   * Opens file content. Stream is read once: magic bytes and probe used to detect log format are taken from buffer with
+   * mark/reset, compressed content (gzip, bzip2, zip) is decompressed transparently.
+   */
   public static LoadingInfo openFileObject(FileObject fileObject, boolean tailing) throws Exception {
     LoadingInfo loadingInfo = new LoadingInfo();
     loadingInfo.setFileObject(fileObject);
     loadingInfo.setFriendlyUrl(fileObject.getName().getFriendlyURI());
 
-    InputStream httpInputStream = fileObject.getContent().getInputStream();
-    byte[] buff = Utils.loadProbe(httpInputStream, 10000);
+    ObservableInputStreamImpl observableInputStreamImpl = new ObservableInputStreamImpl(fileObject.getContent().getInputStream());
+    BufferedInputStream compressed = new BufferedInputStream(observableInputStreamImpl, PROBE_SIZE);
+    byte[] magic = new byte[CompressionType.MAGIC_SIZE];
+    compressed.mark(magic.length);
+    int magicLength = IOUtils.read(compressed, magic);
+    compressed.reset();
+    CompressionType compressionType = CompressionType.detect(magic, magicLength);
+    loadingInfo.setGziped(compressionType == CompressionType.GZIP);
 
-    loadingInfo.setGziped(checkIfIsGzipped(buff, buff.length));
-
-    ByteArrayInputStream bin = new ByteArrayInputStream(buff);
-
-    SequenceInputStream sequenceInputStream = new SequenceInputStream(bin, httpInputStream);
-
-    ObservableInputStreamImpl observableInputStreamImpl = new ObservableInputStreamImpl(sequenceInputStream);
-
-    if (loadingInfo.isGziped()) {
-      loadingInfo.setContentInputStream(new GZIPInputStream(observableInputStreamImpl));
-      loadingInfo.setInputStreamBufferedStart(ungzip(buff));
+    InputStream decompressed;
+    if (loadingInfo.isGziped() && tailing) {
+      IncrementalGzipDecoder gzipDecoder = new IncrementalGzipDecoder();
+      loadingInfo.setGzipDecoder(gzipDecoder);
+      decompressed = gzipDecoder.decompress(compressed);
     } else {
-      loadingInfo.setContentInputStream(observableInputStreamImpl);
-      loadingInfo.setInputStreamBufferedStart(buff);
+      decompressed = compressionType.decompress(compressed);
     }
+    BufferedInputStream content = new BufferedInputStream(decompressed, PROBE_SIZE);
+    content.mark(PROBE_SIZE);
+    byte[] probe = new byte[PROBE_SIZE];
+    int probeLength = IOUtils.read(content, probe);
+    content.reset();
+    byte[] bufferedStart = new byte[probeLength];
+    System.arraycopy(probe, 0, bufferedStart, 0, probeLength);
+
+    loadingInfo.setContentInputStream(content);
+    loadingInfo.setInputStreamBufferedStart(bufferedStart);
     loadingInfo.setObserableInputStreamImpl(observableInputStreamImpl);
 
-    loadingInfo.setTailing(tailing);
+    // only plain and gzip files can be read incrementally
+    loadingInfo.setTailing(tailing && (compressionType == CompressionType.NONE || compressionType == CompressionType.GZIP));
+    if (tailing) {
+      loadingInfo.setFileIdentity(FileIdentity.of(fileObject));
+    }
 
     return loadingInfo;
 
   }
 
-  private static byte[] ungzip(byte[] buff) throws IOException {
-    GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(buff));
-    byte[] ungzippedRead = new byte[buff.length];
-    int read = gzipInputStream.read(ungzippedRead);
-    byte[] ungzipped = new byte[read];
-    System.arraycopy(ungzippedRead, 0, ungzipped, 0, read);
-    return ungzipped;
-  }
-
-  public static void reloadFileObject(LoadingInfo loadingInfo) throws IOException {
+  /**
+   * Reopens content of tailed file if size has changed. Reading is resumed from {@link LoadingInfo#getConsumedOffset()}
+   * (for compressed file position where {@link IncrementalGzipDecoder} stopped), so no data is read twice. If local file was replaced by new one (rotation),
+   * rest of rotated file is read before content of new file, file which shrunk (truncation) is read from beginning.
+   *
+   * @return true if file size has changed since last check
+   */
+  public static boolean reloadFileObject(LoadingInfo loadingInfo) throws IOException {
     loadingInfo.getFileObject().refresh();
+    FileIdentity fileIdentity = loadingInfo.getFileIdentity();
+    if (fileIdentity != null) {
+      FileIdentity currentIdentity = FileIdentity.of(loadingInfo.getFileObject());
+      if (currentIdentity == null) {
+        // rotated file is moved away and new one is not created yet
+        return false;
+      } else if (!currentIdentity.equals(fileIdentity)) {
+        followRotation(loadingInfo, currentIdentity);
+        return true;
+      }
+    }
     long lastFileSize = loadingInfo.getLastFileSize();
     long currentSize = loadingInfo.getFileObject().getContent().getSize();
+    IncrementalGzipDecoder gzipDecoder = loadingInfo.getGzipDecoder();
     if (currentSize > lastFileSize) {
       IOUtils.closeQuietly(loadingInfo.getObserableInputStreamImpl());
 
+      long position = loadingInfo.getConsumedOffset();
       RandomAccessContent randomAccessContent = loadingInfo.getFileObject().getContent().getRandomAccessContent(RandomAccessMode.READ);
-      randomAccessContent.seek(lastFileSize);
+      randomAccessContent.seek(position);
       loadingInfo.setLastFileSize(currentSize);
       ObservableInputStreamImpl observableStream = new ObservableInputStreamImpl(randomAccessContent.getInputStream());
       loadingInfo.setObserableInputStreamImpl(observableStream);
-      if (loadingInfo.isGziped()) {
-        loadingInfo.setContentInputStream(new GZIPInputStream(observableStream));
-      } else {
-        loadingInfo.setContentInputStream(observableStream);
-      }
+      loadingInfo.setStreamStartOffset(position);
+      loadingInfo.setContentInputStream(decompressIfNeeded(loadingInfo, observableStream));
     } else if (currentSize < lastFileSize) {
       IOUtils.closeQuietly(loadingInfo.getObserableInputStreamImpl());
       InputStream inputStream = loadingInfo.getFileObject().getContent().getInputStream();
       ObservableInputStreamImpl observableStream = new ObservableInputStreamImpl(inputStream);
       loadingInfo.setObserableInputStreamImpl(observableStream);
-      if (loadingInfo.isGziped()) {
-        loadingInfo.setContentInputStream(new GZIPInputStream(observableStream));
-      } else {
-        loadingInfo.setContentInputStream(observableStream);
+      loadingInfo.setStreamStartOffset(0);
+      if (gzipDecoder != null) {
+        gzipDecoder.reset();
       }
+      loadingInfo.setContentInputStream(decompressIfNeeded(loadingInfo, observableStream));
       loadingInfo.setLastFileSize(loadingInfo.getFileObject().getContent().getSize());
     }
+    return currentSize != lastFileSize;
+  }
+
+  private static void followRotation(LoadingInfo loadingInfo, FileIdentity currentIdentity) throws IOException {
+    IOUtils.closeQuietly(loadingInfo.getObserableInputStreamImpl());
+    IncrementalGzipDecoder gzipDecoder = loadingInfo.getGzipDecoder();
+    long position = loadingInfo.getConsumedOffset();
+    InputStream rest = new ByteArrayInputStream(new byte[0]);
+    File rotated = loadingInfo.getFileIdentity().findRotated(FileIdentity.toLocalFile(loadingInfo.getFileObject()));
+    if (rotated != null && rotated.length() > position) {
+      LOGGER.info(String.format("File %s rotated to %s, reading remaining %d bytes", loadingInfo.getFriendlyUrl(), rotated.getName(),
+          rotated.length() - position));
+      FileInputStream rotatedStream = new FileInputStream(rotated);
+      rotatedStream.getChannel().position(position);
+      rest = gzipDecoder != null ? gzipDecoder.decompress(rotatedStream) : rotatedStream;
+    } else if (rotated == null) {
+      LOGGER.warning(String.format("File %s rotated, rotated file not found, unread data can be lost", loadingInfo.getFriendlyUrl()));
+    }
+    if (gzipDecoder != null) {
+      loadingInfo.setGzipDecoder(new IncrementalGzipDecoder());
+    }
+    loadingInfo.setFileIdentity(currentIdentity);
+    ObservableInputStreamImpl observableStream = new ObservableInputStreamImpl(loadingInfo.getFileObject().getContent().getInputStream());
+    loadingInfo.setObserableInputStreamImpl(observableStream);
+    loadingInfo.setStreamStartOffset(0);
+    loadingInfo.setLastFileSize(loadingInfo.getFileObject().getContent().getSize());
+    loadingInfo.setContentInputStream(new SequenceInputStream(rest, decompressIfNeeded(loadingInfo, observableStream)));
+  }
 
+  private static InputStream decompressIfNeeded(LoadingInfo loadingInfo, InputStream inputStream) throws IOException {
+    if (loadingInfo.getGzipDecoder() != null) {
+      return loadingInfo.getGzipDecoder().decompress(inputStream);
+    } else if (loadingInfo.isGziped()) {
+      return new GZIPInputStream(inputStream);
+    }
+    return inputStream;
   }
 
   public static LogImporter detectLogImporter(Collection<LogImporter> importers, byte[] buff) {
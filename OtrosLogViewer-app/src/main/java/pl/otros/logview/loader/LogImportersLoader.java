@@ -22,6 +22,7 @@ import pl.otros.logview.parser.JulSimpleFormmaterParser;
 import pl.otros.logview.parser.LogParser;
 import pl.otros.logview.parser.log4j.Log4jPatternMultilineLogParser;
 import pl.otros.logview.parser.log4j.Log4jUtil;
+import pl.otros.logview.parser.syslog.SyslogParser;
 
 import java.io.File;
 import java.io.FileFilter;
@@ -62,6 +63,10 @@ public class LogImportersLoader {
     logbackSockeLogImporter.init(new Properties());
     list.add(logbackSockeLogImporter);
 
+    LogImporterUsingParser syslogImporter = new LogImporterUsingParser(new SyslogParser());
+    syslogImporter.init(p);
+    list.add(syslogImporter);
+
     return list;
 
   }
@@ -15,6 +15,8 @@
  ******************************************************************************/
 package pl.otros.logview.parser;
 
+import pl.otros.logview.reader.ImportMetrics;
+
 import java.text.DateFormat;
 import java.util.HashMap;
 
@@ -28,6 +30,8 @@ public class ParsingContext {
   private String logSource;
   private HashMap<String, Object> customConextProperties;
   private DateFormat dateFormat;
+  private ImportMetrics importMetrics;
+  private volatile boolean keepBufferBetweenImports = false;
 
   public ParsingContext() {
     this("?");
@@ -111,4 +115,27 @@ public class ParsingContext {
   public void setDateFormat(DateFormat dateFormat) {
     this.dateFormat = dateFormat;
   }
+
+  /**
+   * @return metrics of source being parsed or null if source is not measured
+   */
+  public ImportMetrics getImportMetrics() {
+    return importMetrics;
+  }
+
+  public void setImportMetrics(ImportMetrics importMetrics) {
+    this.importMetrics = importMetrics;
+  }
+
+  /**
+   * @return true if data is imported in portions and multi line parser should keep not finished event in buffer when
+   * import of portion ends. Event is completed by next import, or flushed by import done with this flag cleared.
+   */
+  public boolean isKeepBufferBetweenImports() {
+    return keepBufferBetweenImports;
+  }
+
+  public void setKeepBufferBetweenImports(boolean keepBufferBetweenImports) {
+    this.keepBufferBetweenImports = keepBufferBetweenImports;
+  }
 }
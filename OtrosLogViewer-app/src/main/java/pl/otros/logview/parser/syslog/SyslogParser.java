@@ -0,0 +1,276 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.parser.syslog;
+
+import pl.otros.logview.LogData;
+import pl.otros.logview.gui.table.TableColumns;
+import pl.otros.logview.importer.InitializationException;
+import pl.otros.logview.parser.LogParser;
+import pl.otros.logview.parser.ParserDescription;
+import pl.otros.logview.parser.ParsingContext;
+import pl.otros.logview.parser.TableColumnNameSelfDescribable;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+
+/**
+ * Parses syslog messages in RFC 5424 and RFC 3164 (BSD) format, one message per line (datagram or
+ * newline delimited stream). Octet counted framing of syslog over TCP (RFC 6587) is not supported.
+ */
+public class SyslogParser implements LogParser, TableColumnNameSelfDescribable {
+
+  public static final String FACILITY = "facility";
+  public static final String HOST = "host";
+
+  private static final String NIL = "-";
+  private static final String BOM = "\uFEFF";
+  private static final DateTimeFormatter BSD_DATE = DateTimeFormatter.ofPattern("MMM d HH:mm:ss yyyy", Locale.ENGLISH);
+  private static final String[] FACILITIES = {"kern", "user", "mail", "daemon", "auth", "syslog", "lpr", "news", "uucp",
+      "cron", "authpriv", "ftp", "ntp", "audit", "alert", "clock", "local0", "local1", "local2", "local3", "local4",
+      "local5", "local6", "local7"};
+  private static final Level[] SEVERITIES = {Level.SEVERE, Level.SEVERE, Level.SEVERE, Level.SEVERE, Level.WARNING,
+      Level.INFO, Level.INFO, Level.FINE};
+
+  private final ParserDescription pd;
+
+  public SyslogParser() {
+    pd = new ParserDescription();
+    pd.setDisplayName("Syslog");
+    pd.setDescription("Parse syslog messages (RFC 5424 and RFC 3164)");
+    pd.setFile(this.getClass().getName());
+    pd.setCharset("UTF-8");
+  }
+
+  @Override
+  public void init(Properties properties) throws InitializationException {
+
+  }
+
+  @Override
+  public void initParsingContext(ParsingContext parsingContext) {
+
+  }
+
+  @Override
+  public LogData parse(String line, ParsingContext parsingContext) {
+    if (!line.startsWith("<")) {
+      return null;
+    }
+    int priEnd = line.indexOf('>');
+    if (priEnd < 2 || priEnd > 4) {
+      return null;
+    }
+    int pri;
+    try {
+      pri = Integer.parseInt(line.substring(1, priEnd));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    LogData logData = new LogData();
+    Map<String, String> properties = new HashMap<String, String>();
+    int facility = pri >> 3;
+    properties.put(FACILITY, facility < FACILITIES.length ? FACILITIES[facility] : Integer.toString(facility));
+    logData.setLevel(SEVERITIES[pri & 7]);
+    logData.setProperties(properties);
+    boolean parsed;
+    if (line.startsWith("1 ", priEnd + 1)) {
+      parsed = parseRfc5424(new Tokenizer(line, priEnd + 3), logData, properties);
+    } else {
+      parsed = parseRfc3164(line, priEnd + 1, logData, properties);
+    }
+    return parsed ? logData : null;
+  }
+
+  private boolean parseRfc5424(Tokenizer tokenizer, LogData logData, Map<String, String> properties) {
+    String timestamp = tokenizer.next();
+    String host = tokenizer.next();
+    String appName = tokenizer.next();
+    String procId = tokenizer.next();
+    String msgId = tokenizer.next();
+    if (msgId == null) {
+      return false;
+    }
+    try {
+      logData.setDate(NIL.equals(timestamp) ? new Date() : Date.from(OffsetDateTime.parse(timestamp).toInstant()));
+    } catch (DateTimeParseException e) {
+      return false;
+    }
+    putIfNotNil(properties, HOST, host);
+    if (!NIL.equals(appName)) {
+      logData.setLoggerName(appName);
+    }
+    if (!NIL.equals(procId)) {
+      logData.setThread(procId);
+    }
+    if (!NIL.equals(msgId)) {
+      logData.setMessageId(msgId);
+    }
+    if (!tokenizer.structuredData(properties)) {
+      return false;
+    }
+    String message = tokenizer.rest();
+    if (message.startsWith(BOM)) {
+      message = message.substring(BOM.length());
+    }
+    logData.setMessage(message);
+    return true;
+  }
+
+  private boolean parseRfc3164(String line, int start, LogData logData, Map<String, String> properties) {
+    // Mmm dd hh:mm:ss, day of month is padded with space
+    if (line.length() < start + 16 || line.charAt(start + 15) != ' ') {
+      return false;
+    }
+    String timestamp = line.substring(start, start + 15).replace("  ", " ");
+    try {
+      LocalDateTime dateTime = LocalDateTime.parse(timestamp + " " + LocalDateTime.now().getYear(), BSD_DATE);
+      if (dateTime.isAfter(LocalDateTime.now().plusDays(1))) {
+        // message from December received in January
+        dateTime = dateTime.minusYears(1);
+      }
+      logData.setDate(Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant()));
+    } catch (DateTimeParseException e) {
+      return false;
+    }
+    Tokenizer tokenizer = new Tokenizer(line, start + 16);
+    String host = tokenizer.next();
+    putIfNotNil(properties, HOST, host);
+    String message = tokenizer.rest();
+    int tagEnd = message.indexOf(": ");
+    if (tagEnd > 0 && message.lastIndexOf(' ', tagEnd) < 0) {
+      String tag = message.substring(0, tagEnd);
+      message = message.substring(tagEnd + 2);
+      int pidStart = tag.indexOf('[');
+      if (pidStart > 0 && tag.endsWith("]")) {
+        logData.setThread(tag.substring(pidStart + 1, tag.length() - 1));
+        tag = tag.substring(0, pidStart);
+      }
+      logData.setLoggerName(tag);
+    }
+    logData.setMessage(message);
+    return true;
+  }
+
+  private static void putIfNotNil(Map<String, String> properties, String key, String value) {
+    if (value != null && !NIL.equals(value)) {
+      properties.put(key, value);
+    }
+  }
+
+  @Override
+  public ParserDescription getParserDescription() {
+    return pd;
+  }
+
+  @Override
+  public TableColumns[] getTableColumnsToUse() {
+    return new TableColumns[]{TableColumns.ID, TableColumns.TIME, TableColumns.LEVEL, TableColumns.MESSAGE,
+        TableColumns.THREAD, TableColumns.LOGGER_NAME, TableColumns.PROPERTIES, TableColumns.LOG_SOURCE,
+        TableColumns.MARK, TableColumns.NOTE};
+  }
+
+  @Override
+  public int getVersion() {
+    return LOG_PARSER_VERSION_1;
+  }
+
+  private static class Tokenizer {
+
+    private final String line;
+    private int position;
+
+    Tokenizer(String line, int position) {
+      this.line = line;
+      this.position = position;
+    }
+
+    String next() {
+      if (position >= line.length()) {
+        return null;
+      }
+      int end = line.indexOf(' ', position);
+      if (end < 0) {
+        end = line.length();
+      }
+      String token = line.substring(position, end);
+      position = end + 1;
+      return token;
+    }
+
+    String rest() {
+      return position >= line.length() ? "" : line.substring(position);
+    }
+
+    /**
+     * Reads structured data elements, parameters are stored as <code>sdId.name</code> properties.
+     */
+    boolean structuredData(Map<String, String> properties) {
+      if (line.startsWith(NIL, position)) {
+        position += 2;
+        return true;
+      }
+      while (position < line.length() && line.charAt(position) == '[') {
+        int idEnd = position + 1;
+        while (idEnd < line.length() && line.charAt(idEnd) != ' ' && line.charAt(idEnd) != ']') {
+          idEnd++;
+        }
+        String sdId = line.substring(position + 1, idEnd);
+        position = idEnd;
+        while (position < line.length() && line.charAt(position) == ' ') {
+          int nameEnd = line.indexOf("=\"", position);
+          if (nameEnd < 0) {
+            return false;
+          }
+          String name = line.substring(position + 1, nameEnd);
+          StringBuilder value = new StringBuilder();
+          int i = nameEnd + 2;
+          for (; i < line.length() && line.charAt(i) != '"'; i++) {
+            char c = line.charAt(i);
+            // RFC 5424 escapes only '"', '\\' and ']', backslash before other character is part of value
+            if (c == '\\' && i + 1 < line.length() && isEscaped(line.charAt(i + 1))) {
+              c = line.charAt(++i);
+            }
+            value.append(c);
+          }
+          properties.put(sdId + "." + name, value.toString());
+          position = i + 1;
+        }
+        if (position >= line.length() || line.charAt(position) != ']') {
+          return false;
+        }
+        position++;
+      }
+      if (position < line.length() && line.charAt(position) == ' ') {
+        position++;
+      }
+      return true;
+    }
+
+    private boolean isEscaped(char c) {
+      return c == '"' || c == '\\' || c == ']';
+    }
+  }
+}
@@ -18,7 +18,6 @@ package pl.otros.logview.pluginsimpl;
 
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.vfs2.FileObject;
-import org.apache.commons.vfs2.FileSystemException;
 import pl.otros.logview.BufferingLogDataCollectorProxy;
 import pl.otros.logview.api.plugins.PluginContext;
 import pl.otros.logview.gui.ConfKeys;
@@ -33,6 +32,8 @@ import pl.otros.logview.importer.LogImporter;
 import pl.otros.logview.io.LoadingInfo;
 import pl.otros.logview.io.Utils;
 import pl.otros.logview.parser.ParsingContext;
+import pl.otros.logview.reader.FileTailTask;
+import pl.otros.logview.reader.ReadingScheduler;
 
 import javax.swing.*;
 import java.util.ArrayList;
@@ -102,45 +103,22 @@ class OpenLogsSwingWorker extends SwingWorker<Void, String> {
   private void openLog(final BufferingLogDataCollectorProxy logDataCollector, final LogImporter importer, final LoadingInfo loadingInfo) {
     publish("Start tailing " + loadingInfo.getFriendlyUrl());
 
-    Runnable r = new Runnable() {
+    ParsingContext tailingContext = new ParsingContext(loadingInfo.getFriendlyUrl(), loadingInfo.getFileObject().getName()
+        .getBaseName());
+    FileTailTask tailTask = new FileTailTask(loadingInfo, importer, logDataCollector, tailingContext) {
 
       @Override
-      public void run() {
-        ParsingContext parsingContext = new ParsingContext(loadingInfo.getFriendlyUrl(), loadingInfo.getFileObject().getName()
-            .getBaseName());
-        logViewPanelWrapper.addHierarchyListener(new ReadingStopperForRemove(loadingInfo.getObserableInputStreamImpl()));
-        logViewPanelWrapper.addHierarchyListener(new ReadingStopperForRemove(logDataCollector));
-        logViewPanelWrapper.addHierarchyListener(new ReadingStopperForRemove(new TailLogActionListener.ParsingContextStopperForClosingTab(parsingContext)));
-        importer.initParsingContext(parsingContext);
-        try {
-          loadingInfo.setLastFileSize(loadingInfo.getFileObject().getContent().getSize());
-        } catch (FileSystemException e1) {
-          LOGGER.warning("Can't initialize start position for tailing. Can duplicate some values for small files");
-        }
-        while (parsingContext.isParsingInProgress()) {
-          try {
-            importer.importLogs(loadingInfo.getContentInputStream(), logDataCollector, parsingContext);
-            if (!loadingInfo.isTailing() || loadingInfo.isGziped()) {
-              break;
-            }
-            Thread.sleep(1000);
-
-            Utils.reloadFileObject(loadingInfo);
-          } catch (Exception e) {
-            LOGGER.warning("Exception in tailing loop: " + e.getMessage());
-          }
-        }
-        LOGGER.info(String.format("Loading of files %s is finished", loadingInfo.getFriendlyUrl()));
-        parsingContext.setParsingInProgress(false);
+      protected void tailingFinished() {
         LOGGER.info("File " + loadingInfo.getFriendlyUrl() + " loaded");
         pluginContext.getOtrosApplication().getStatusObserver().updateStatus("File " + loadingInfo.getFriendlyUrl() + " stop tailing");
         Utils.closeQuietly(loadingInfo.getFileObject());
       }
-
     };
-    Thread t = new Thread(r, "Log reader-" + loadingInfo.getFileObject().getName().getFriendlyURI());
-    t.setDaemon(true);
-    t.start();
+    logViewPanelWrapper.addHierarchyListener(new ReadingStopperForRemove(loadingInfo.getObserableInputStreamImpl()));
+    logViewPanelWrapper.addHierarchyListener(new ReadingStopperForRemove(logDataCollector));
+    logViewPanelWrapper.addHierarchyListener(new ReadingStopperForRemove(new TailLogActionListener.ParsingContextStopperForClosingTab(tailingContext)));
+    logViewPanelWrapper.addHierarchyListener(new ReadingStopperForRemove(tailTask.getWatch()));
+    ReadingScheduler.getInstance().startTailing(tailTask);
 
 
     String friendlyURI = loadingInfo.getFileObject().getName().getFriendlyURI();
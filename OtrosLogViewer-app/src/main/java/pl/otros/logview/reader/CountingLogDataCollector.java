@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import pl.otros.logview.BufferingLogDataCollectorProxy;
+import pl.otros.logview.LogData;
+import pl.otros.logview.LogDataCollector;
+
+/**
+ * Counts events added by importer to {@link ReadingSource} and measures time of storing them. When events are buffered
+ * by {@link BufferingLogDataCollectorProxy}, adding only queues them, so store time is recorded by its update
+ * scheduler when events are inserted.
+ */
+class CountingLogDataCollector implements LogDataCollector {
+
+  private final LogDataCollector delegate;
+  private final ReadingSource source;
+  private final boolean buffered;
+
+  CountingLogDataCollector(LogDataCollector delegate, ReadingSource source) {
+    this.delegate = delegate;
+    this.source = source;
+    buffered = delegate instanceof BufferingLogDataCollectorProxy;
+    if (buffered) {
+      ((BufferingLogDataCollectorProxy) delegate).getUpdateScheduler().addStoreMetrics(source.getMetrics());
+    }
+  }
+
+  @Override
+  public void add(LogData... logDatas) {
+    source.eventsRead(logDatas.length);
+    if (buffered) {
+      delegate.add(logDatas);
+      return;
+    }
+    long start = System.nanoTime();
+    delegate.add(logDatas);
+    source.getMetrics().record(ImportMetrics.Stage.STORE, System.nanoTime() - start);
+  }
+
+  @Override
+  public LogData[] getLogData() {
+    return delegate.getLogData();
+  }
+
+  @Override
+  public int clear() {
+    return delegate.clear();
+  }
+}
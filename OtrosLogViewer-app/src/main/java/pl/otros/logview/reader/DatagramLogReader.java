@@ -0,0 +1,262 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import pl.otros.logview.LogDataCollector;
+import pl.otros.logview.gui.StatusObserver;
+import pl.otros.logview.importer.LogImporter;
+import pl.otros.logview.parser.ParsingContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Receives logs sent as datagrams, i.e. by UDP appenders or syslog. Listener thread drains all datagrams waiting in
+ * receive buffer into batch, batches are decoded in order on {@link ReadingScheduler} pool. Line based importers
+ * decode whole batch at once, other importers get every datagram as separate stream. When decoding falls behind,
+ * batches are dropped instead of blocking listener, so kernel buffer does not overflow silently. Dropped datagrams are
+ * counted in {@link ImportMetrics#getDropped()} of reading source.
+ */
+public class DatagramLogReader implements NetworkLogReader {
+
+  private static final Logger LOGGER = Logger.getLogger(DatagramLogReader.class.getName());
+
+  public static final String PROTOCOL = "UDP";
+  static final int MAX_DATAGRAM_SIZE = 64 * 1024;
+  static final int RECEIVE_BUFFER_SIZE = 8 * 1024 * 1024;
+  static final int MAX_BATCH_SIZE = 1000;
+  static final int MAX_PENDING_BATCHES = 64;
+
+  private final LogImporter logImporter;
+  private final LogDataCollector logDataCollector;
+  private final StatusObserver observer;
+  private final boolean lineBased;
+  private final int maxPendingBatches;
+  private int port;
+  private DatagramChannel channel;
+  private Selector selector;
+  private ReadingSource source;
+  private ParsingContext parsingContext;
+  private LogDataCollector countingCollector;
+  private final ConcurrentLinkedQueue<List<byte[]>> batches = new ConcurrentLinkedQueue<List<byte[]>>();
+  private final AtomicInteger pendingBatches = new AtomicInteger();
+  private final AtomicInteger wakeUps = new AtomicInteger();
+  private final AtomicLong datagramsReceived = new AtomicLong();
+  private final AtomicLong bytesReceived = new AtomicLong();
+
+  public DatagramLogReader(LogImporter logImporter, LogDataCollector logDataCollector, StatusObserver observer, int port) {
+    this(logImporter, logDataCollector, observer, port, MAX_PENDING_BATCHES);
+  }
+
+  DatagramLogReader(LogImporter logImporter, LogDataCollector logDataCollector, StatusObserver observer, int port, int maxPendingBatches) {
+    this.logImporter = logImporter;
+    this.logDataCollector = logDataCollector;
+    this.observer = observer;
+    this.port = port;
+    this.maxPendingBatches = maxPendingBatches;
+    lineBased = SocketConnection.isResumable(logImporter);
+  }
+
+  @Override
+  public void start() throws Exception {
+    channel = DatagramChannel.open();
+    channel.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_SIZE);
+    channel.configureBlocking(false);
+    channel.bind(new InetSocketAddress(port));
+    port = channel.socket().getLocalPort();
+    int receiveBuffer = channel.getOption(StandardSocketOptions.SO_RCVBUF);
+    if (receiveBuffer < RECEIVE_BUFFER_SIZE) {
+      LOGGER.info(String.format("UDP receive buffer on port %d limited by system to %d bytes", port, receiveBuffer));
+    }
+    selector = Selector.open();
+    channel.register(selector, SelectionKey.OP_READ);
+    String name = PROTOCOL + " :" + port;
+    source = ReadingScheduler.getInstance().registerSource(name, ReadingScheduler.TYPE_DATAGRAM);
+    countingCollector = source.countEvents(logDataCollector);
+    parsingContext = new ParsingContext(name, name);
+    source.attach(parsingContext);
+    logImporter.initParsingContext(parsingContext);
+    Runnable r = new Runnable() {
+
+      @Override
+      public void run() {
+        try {
+          receive();
+        } catch (ClosedSelectorException e) {
+          LOGGER.info("Listening on UDP port closed.");
+        } catch (IOException e) {
+          if (isClosed()) {
+            LOGGER.info("Listening on UDP port closed.");
+          } else {
+            LOGGER.warning("Problem with listening on UDP port: " + e.getMessage());
+            observer.updateStatus("Listening on UDP port " + port + " failed: " + e.getMessage(), StatusObserver.LEVEL_ERROR);
+          }
+        }
+      }
+    };
+    Thread t = new Thread(r, "UDP listener " + port);
+    t.setDaemon(true);
+    t.start();
+  }
+
+  private void receive() throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE);
+    while (selector.isOpen()) {
+      selector.select();
+      selector.selectedKeys().clear();
+      List<byte[]> batch = new ArrayList<byte[]>();
+      while (batch.size() < MAX_BATCH_SIZE && channel.receive(buffer) != null) {
+        buffer.flip();
+        byte[] datagram = new byte[buffer.remaining()];
+        buffer.get(datagram);
+        buffer.clear();
+        batch.add(datagram);
+        bytesReceived.addAndGet(datagram.length);
+      }
+      if (!batch.isEmpty()) {
+        submit(batch);
+      }
+    }
+  }
+
+  private void submit(List<byte[]> batch) {
+    datagramsReceived.addAndGet(batch.size());
+    if (pendingBatches.get() >= maxPendingBatches) {
+      source.getMetrics().dropped(batch.size());
+      return;
+    }
+    source.getMetrics().setQueueDepth(pendingBatches.incrementAndGet());
+    batches.add(batch);
+    if (wakeUps.getAndIncrement() == 0) {
+      ReadingScheduler.getInstance().execute(new Runnable() {
+        @Override
+        public void run() {
+          decodeBatches();
+        }
+      });
+    }
+  }
+
+  private void decodeBatches() {
+    source.setState(ReadingSource.State.READING);
+    source.activated(0);
+    int requests;
+    do {
+      requests = wakeUps.get();
+      List<byte[]> batch;
+      while ((batch = batches.poll()) != null) {
+        decode(batch);
+        source.getMetrics().setQueueDepth(pendingBatches.decrementAndGet());
+      }
+    } while (wakeUps.addAndGet(-requests) != 0);
+    if (source.getState() != ReadingSource.State.FINISHED) {
+      source.setState(ReadingSource.State.WAITING);
+    }
+  }
+
+  private void decode(List<byte[]> batch) {
+    try {
+      if (lineBased) {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (byte[] datagram : batch) {
+          lines.write(datagram, 0, datagram.length);
+          if (datagram.length > 0 && datagram[datagram.length - 1] != '\n') {
+            lines.write('\n');
+          }
+          source.dataRead(datagram.length);
+        }
+        logImporter.importLogs(new ByteArrayInputStream(lines.toByteArray()), countingCollector, parsingContext);
+      } else {
+        for (byte[] datagram : batch) {
+          source.dataRead(datagram.length);
+          logImporter.importLogs(new ByteArrayInputStream(datagram), countingCollector, parsingContext);
+        }
+      }
+    } catch (RuntimeException e) {
+      LOGGER.warning("Can't import logs from UDP port " + port + ": " + e.getMessage());
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      selector.close();
+      channel.close();
+      channel = null;
+      ReadingScheduler.getInstance().unregisterSource(source);
+      LOGGER.info(String.format("UDP listener on port %d closed, received %d datagrams (%d bytes), dropped %d datagrams",
+          port, datagramsReceived.get(), bytesReceived.get(), getDatagramsDropped()));
+    }
+  }
+
+  @Override
+  public boolean isClosed() {
+    return channel == null || !channel.isOpen();
+  }
+
+  public long getDatagramsReceived() {
+    return datagramsReceived.get();
+  }
+
+  /**
+   * @return datagrams received but not decoded, because decoding was too slow
+   */
+  public long getDatagramsDropped() {
+    return source == null ? 0 : source.getMetrics().getDropped();
+  }
+
+  ReadingSource getSource() {
+    return source;
+  }
+
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  public long getEventsReceived() {
+    return source == null ? 0 : source.getEventsRead();
+  }
+
+  @Override
+  public String getProtocol() {
+    return PROTOCOL;
+  }
+
+  @Override
+  public LogImporter getLogImporter() {
+    return logImporter;
+  }
+
+  @Override
+  public int getPort() {
+    return port;
+  }
+}
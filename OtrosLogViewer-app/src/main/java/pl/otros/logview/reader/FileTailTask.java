@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import pl.otros.logview.LogDataCollector;
+import pl.otros.logview.importer.LogImporter;
+import pl.otros.logview.io.FileTailWatcher;
+import pl.otros.logview.io.LoadingInfo;
+import pl.otros.logview.io.Utils;
+import pl.otros.logview.parser.ParsingContext;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Tails single file on {@link ReadingScheduler} pool. Initial import of whole file can take long, so it is done on
+ * blocking reader thread. Later instead of looping in own thread, task reads what is available, returns the thread
+ * to pool and is executed again when {@link FileTailWatcher} reports change or poll interval elapsed. Wake ups which
+ * come during reading are coalesced into one more run.
+ */
+public class FileTailTask implements Runnable {
+
+  private static final Logger LOGGER = Logger.getLogger(FileTailTask.class.getName());
+
+  private final LoadingInfo loadingInfo;
+  private final LogImporter importer;
+  private LogDataCollector logDataCollector;
+  private final ParsingContext parsingContext;
+  private final FileTailWatcher.Watch watch;
+  private final AtomicInteger wakeUps = new AtomicInteger();
+  private final Runnable wakeUp = new Runnable() {
+
+    @Override
+    public void run() {
+      wakeUp();
+    }
+  };
+  private final Runnable initialImport = new Runnable() {
+
+    @Override
+    public void run() {
+      importInitial();
+    }
+  };
+  private ReadingScheduler scheduler;
+  private ReadingSource source;
+  private volatile ScheduledFuture<?> pollFuture;
+  private volatile long wakeUpRequestTime;
+
+  public FileTailTask(LoadingInfo loadingInfo, LogImporter importer, LogDataCollector logDataCollector, ParsingContext parsingContext) {
+    this.loadingInfo = loadingInfo;
+    this.importer = importer;
+    this.logDataCollector = logDataCollector;
+    this.parsingContext = parsingContext;
+    watch = FileTailWatcher.getInstance().watch(loadingInfo.getFileObject());
+  }
+
+  /**
+   * @return watch which should be stopped when tailing view is closed
+   */
+  public FileTailWatcher.Watch getWatch() {
+    return watch;
+  }
+
+  public ReadingSource getSource() {
+    return source;
+  }
+
+  void start(ReadingScheduler scheduler) {
+    this.scheduler = scheduler;
+    source = scheduler.registerSource(loadingInfo.getFriendlyUrl(), ReadingScheduler.TYPE_FILE);
+    source.attach(parsingContext);
+    logDataCollector = new CountingLogDataCollector(logDataCollector, source);
+    watch.setChangeListener(wakeUp);
+    // pending wake up holds off tail runs, changes reported during initial import are read by first tail run
+    wakeUps.incrementAndGet();
+    wakeUpRequestTime = System.currentTimeMillis();
+    scheduler.executeBlocking(initialImport);
+  }
+
+  private void importInitial() {
+    source.activated(System.currentTimeMillis() - wakeUpRequestTime);
+    source.setState(ReadingSource.State.READING);
+    boolean finished = !parsingContext.isParsingInProgress();
+    if (!finished) {
+      try {
+        importer.initParsingContext(parsingContext);
+        importer.importLogs(loadingInfo.getContentInputStream(), logDataCollector, parsingContext);
+        initialImportRead();
+        finished = !loadingInfo.isTailing();
+      } catch (Exception e) {
+        LOGGER.warning("Exception in initial import: " + e.getMessage());
+      }
+    }
+    if (finished || !parsingContext.isParsingInProgress()) {
+      finish();
+      return;
+    }
+    wakeUpRequestTime = System.currentTimeMillis();
+    scheduler.execute(this);
+  }
+
+  private void wakeUp() {
+    if (wakeUps.getAndIncrement() == 0) {
+      wakeUpRequestTime = System.currentTimeMillis();
+      scheduler.execute(this);
+    }
+  }
+
+  @Override
+  public void run() {
+    source.activated(System.currentTimeMillis() - wakeUpRequestTime);
+    source.setState(ReadingSource.State.READING);
+    boolean finished;
+    int requests;
+    do {
+      requests = wakeUps.get();
+      finished = readAvailable();
+    } while (!finished && wakeUps.addAndGet(-requests) != 0);
+
+    if (finished) {
+      finish();
+      return;
+    }
+    source.setState(ReadingSource.State.WAITING);
+    ScheduledFuture<?> previous = pollFuture;
+    if (previous != null) {
+      previous.cancel(false);
+    }
+    pollFuture = scheduler.schedule(wakeUp, watch.getPollInterval());
+  }
+
+  /**
+   * @return true if tailing is finished
+   */
+  private boolean readAvailable() {
+    if (!parsingContext.isParsingInProgress()) {
+      return true;
+    }
+    try {
+      long lastFileSize = loadingInfo.getLastFileSize();
+      boolean changed = Utils.reloadFileObject(loadingInfo);
+      watch.dataRead(changed);
+      if (changed) {
+        long currentSize = loadingInfo.getLastFileSize();
+        long newBytes = currentSize > lastFileSize ? currentSize - lastFileSize : currentSize;
+        source.setLagBytes(newBytes);
+        source.dataRead(newBytes);
+        importer.importLogs(loadingInfo.getContentInputStream(), logDataCollector, parsingContext);
+      }
+    } catch (Exception e) {
+      LOGGER.warning("Exception in tailing loop: " + e.getMessage());
+    }
+    return !parsingContext.isParsingInProgress();
+  }
+
+  /**
+   * Starts tailing from position reached by initial import, data appended while importing is already read.
+   */
+  private void initialImportRead() {
+    loadingInfo.setLastFileSize(loadingInfo.getConsumedOffset());
+    source.dataRead(loadingInfo.getLastFileSize());
+  }
+
+  private void finish() {
+    ScheduledFuture<?> previous = pollFuture;
+    if (previous != null) {
+      previous.cancel(false);
+    }
+    watch.setChangeListener(null);
+    watch.stop();
+    scheduler.unregisterSource(source);
+    LOGGER.info(String.format("Loading of files %s is finished", loadingInfo.getFriendlyUrl()));
+    parsingContext.setParsingInProgress(false);
+    tailingFinished();
+  }
+
+  /**
+   * Invoked on pool thread when tailing is finished (file is not tailed or tailing was stopped).
+   */
+  protected void tailingFinished() {
+  }
+}
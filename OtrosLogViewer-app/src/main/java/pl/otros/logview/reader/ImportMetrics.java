@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import pl.otros.logview.util.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and stage timings of importing from one {@link ReadingSource}. Importers get it from
+ * {@link pl.otros.logview.parser.ParsingContext#getImportMetrics()}, which is null when source is not measured.
+ */
+public class ImportMetrics {
+
+  /**
+   * Stage of import. {@link #READ} and {@link #PARSE} are recorded per line or deserialized object, {@link #STORE} per
+   * insert into store.
+   */
+  public enum Stage {
+    READ, PARSE, STORE
+  }
+
+  private final LongAdder lines = new LongAdder();
+  private final LongAdder parseFailures = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final Map<Stage, LatencyHistogram> stages = new EnumMap<Stage, LatencyHistogram>(Stage.class);
+  private volatile long queueDepth;
+
+  public ImportMetrics() {
+    for (Stage stage : Stage.values()) {
+      stages.put(stage, new LatencyHistogram());
+    }
+  }
+
+  public void record(Stage stage, long nanos) {
+    stages.get(stage).record(nanos);
+  }
+
+  public LatencyHistogram getHistogram(Stage stage) {
+    return stages.get(stage);
+  }
+
+  public void linesRead(long count) {
+    lines.add(count);
+  }
+
+  public long getLinesRead() {
+    return lines.sum();
+  }
+
+  public void parseFailed(long count) {
+    parseFailures.add(count);
+  }
+
+  public long getParseFailures() {
+    return parseFailures.sum();
+  }
+
+  /**
+   * Counts items (datagrams) received but discarded, because processing fell behind.
+   */
+  public void dropped(long count) {
+    dropped.add(count);
+  }
+
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  /**
+   * Sets number of items (batches, datagrams) received but not processed yet.
+   */
+  public void setQueueDepth(long queueDepth) {
+    this.queueDepth = queueDepth;
+  }
+
+  public long getQueueDepth() {
+    return queueDepth;
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import pl.otros.logview.importer.LogImporter;
+
+import java.io.IOException;
+
+/**
+ * Listener receiving logs from network on local port.
+ */
+public interface NetworkLogReader {
+
+  public void start() throws Exception;
+
+  public void close() throws IOException;
+
+  public boolean isClosed();
+
+  /**
+   * @return transport protocol, i.e. TCP or UDP
+   */
+  public String getProtocol();
+
+  public int getPort();
+
+  public LogImporter getLogImporter();
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs all log readers of application. Tailed files are non blocking tasks ({@link FileTailTask}) multiplexed on a
+ * small pool of threads. Readers which block on I/O (sockets) get thread from separate pool. Every reader is
+ * registered as {@link ReadingSource}, so lag and throughput of all sources can be presented in one view.
+ */
+public class ReadingScheduler {
+
+  private static final Logger LOGGER = Logger.getLogger(ReadingScheduler.class.getName());
+
+  public static final String TYPE_FILE = "File";
+  public static final String TYPE_SOCKET = "Socket";
+  public static final String TYPE_DATAGRAM = "Datagram";
+  public static final long RATE_SAMPLE_MILLIS = 1000;
+
+  private static ReadingScheduler instance;
+
+  private final ScheduledThreadPoolExecutor tailExecutor;
+  private final ExecutorService blockingExecutor;
+  private final List<ReadingSource> sources = new CopyOnWriteArrayList<ReadingSource>();
+  private final Map<ReadingSource, ReadingSourceJmx> jmxSources = new ConcurrentHashMap<ReadingSource, ReadingSourceJmx>();
+
+  public static synchronized ReadingScheduler getInstance() {
+    if (instance == null) {
+      instance = new ReadingScheduler(Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    }
+    return instance;
+  }
+
+  ReadingScheduler(int tailThreads) {
+    tailExecutor = new ScheduledThreadPoolExecutor(tailThreads, new NamedThreadFactory("Tail reader-"));
+    tailExecutor.setRemoveOnCancelPolicy(true);
+    blockingExecutor = Executors.newCachedThreadPool(new NamedThreadFactory("Blocking reader-"));
+    tailExecutor.scheduleAtFixedRate(new Runnable() {
+
+      @Override
+      public void run() {
+        sampleRates();
+      }
+    }, RATE_SAMPLE_MILLIS, RATE_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Samples throughput of all sources on one schedule, views and JMX only read sampled rates.
+   */
+  void sampleRates() {
+    for (ReadingSource source : sources) {
+      try {
+        source.sampleRates();
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Can't sample rates of " + source, e);
+      }
+    }
+  }
+
+  public ReadingSource registerSource(String name, String type) {
+    ReadingSource source = new ReadingSource(name, type);
+    sources.add(source);
+    if (ReadingSourceJmx.isEnabled()) {
+      ReadingSourceJmx jmx = ReadingSourceJmx.register(source);
+      if (jmx != null) {
+        jmxSources.put(source, jmx);
+      }
+    }
+    return source;
+  }
+
+  public void unregisterSource(ReadingSource source) {
+    source.setState(ReadingSource.State.FINISHED);
+    sources.remove(source);
+    ReadingSourceJmx jmx = jmxSources.remove(source);
+    if (jmx != null) {
+      jmx.unregister();
+    }
+  }
+
+  public List<ReadingSource> getSources() {
+    return new ArrayList<ReadingSource>(sources);
+  }
+
+  /**
+   * Starts tailing. Task is executed on shared pool every time file change is reported or poll interval elapsed.
+   */
+  public void startTailing(FileTailTask task) {
+    task.start(this);
+  }
+
+  /**
+   * Executes reader which blocks on I/O. Source is unregistered when reader finish.
+   */
+  public void executeBlocking(final ReadingSource source, final Runnable reader) {
+    blockingExecutor.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        Thread thread = Thread.currentThread();
+        String threadName = thread.getName();
+        thread.setName(threadName + " " + source.getName());
+        source.setState(ReadingSource.State.READING);
+        source.activated(0);
+        try {
+          reader.run();
+        } catch (RuntimeException e) {
+          LOGGER.log(Level.WARNING, "Reading from " + source + " failed", e);
+        } finally {
+          unregisterSource(source);
+          thread.setName(threadName);
+        }
+      }
+    });
+  }
+
+  /**
+   * Executes long running part of non blocking reader, source stays registered.
+   */
+  void executeBlocking(Runnable runnable) {
+    blockingExecutor.execute(runnable);
+  }
+
+  void execute(Runnable runnable) {
+    tailExecutor.execute(runnable);
+  }
+
+  ScheduledFuture<?> schedule(Runnable runnable, long delayMillis) {
+    return tailExecutor.schedule(runnable, delayMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private static class NamedThreadFactory implements ThreadFactory {
+
+    private final String prefix;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public NamedThreadFactory(String prefix) {
+      this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import pl.otros.logview.LogDataCollector;
+import pl.otros.logview.parser.ParsingContext;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of single source of logs (tailed file, socket connection) read by {@link ReadingScheduler}.
+ */
+public class ReadingSource {
+
+  public enum State {
+    WAITING, READING, FINISHED
+  }
+
+  private final String name;
+  private final String type;
+  private final long startTime;
+  private final AtomicLong bytesRead = new AtomicLong();
+  private final AtomicLong eventsRead = new AtomicLong();
+  private final AtomicLong activations = new AtomicLong();
+  private final ImportMetrics metrics = new ImportMetrics();
+  private volatile State state = State.WAITING;
+  private volatile long lastDataTime;
+  private volatile long lagBytes;
+  private volatile long wakeUpDelay;
+  private long rateSampleTime;
+  private long rateSampleBytes;
+  private long rateSampleEvents;
+  private long rateSampleLines;
+  private double bytesPerSecond;
+  private double eventsPerSecond;
+  private double linesPerSecond;
+
+  ReadingSource(String name, String type) {
+    this.name = name;
+    this.type = type;
+    startTime = System.currentTimeMillis();
+    rateSampleTime = startTime;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  void setState(State state) {
+    this.state = state;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public long getBytesRead() {
+    return bytesRead.get();
+  }
+
+  public void dataRead(long bytes) {
+    if (bytes > 0) {
+      bytesRead.addAndGet(bytes);
+      lastDataTime = System.currentTimeMillis();
+    }
+  }
+
+  public long getEventsRead() {
+    return eventsRead.get();
+  }
+
+  public void eventsRead(long events) {
+    eventsRead.addAndGet(events);
+  }
+
+  /**
+   * @return time of last data read or 0 if nothing was read yet
+   */
+  public long getLastDataTime() {
+    return lastDataTime;
+  }
+
+  /**
+   * @return bytes which were waiting to be read when source was checked last time
+   */
+  public long getLagBytes() {
+    return lagBytes;
+  }
+
+  public void setLagBytes(long lagBytes) {
+    this.lagBytes = lagBytes;
+  }
+
+  /**
+   * @return time in ms between last change notification and start of reading
+   */
+  public long getWakeUpDelay() {
+    return wakeUpDelay;
+  }
+
+  void activated(long wakeUpDelay) {
+    this.wakeUpDelay = wakeUpDelay;
+    activations.incrementAndGet();
+  }
+
+  public long getActivations() {
+    return activations.get();
+  }
+
+  public ImportMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Lets importer using parsing context record lines, parse failures and stage timings of this source.
+   */
+  public void attach(ParsingContext parsingContext) {
+    parsingContext.setImportMetrics(metrics);
+  }
+
+  /**
+   * Calculates throughput since previous call, see {@link #getBytesPerSecond()}, {@link #getEventsPerSecond()} and
+   * {@link #getLinesPerSecond()}. Called only by {@link ReadingScheduler} on fixed schedule, so all views and JMX show
+   * the same rates.
+   */
+  synchronized void sampleRates() {
+    long now = System.currentTimeMillis();
+    if (now > rateSampleTime) {
+      long bytes = bytesRead.get();
+      long events = eventsRead.get();
+      long lines = metrics.getLinesRead();
+      bytesPerSecond = (bytes - rateSampleBytes) * 1000d / (now - rateSampleTime);
+      eventsPerSecond = (events - rateSampleEvents) * 1000d / (now - rateSampleTime);
+      linesPerSecond = (lines - rateSampleLines) * 1000d / (now - rateSampleTime);
+      rateSampleTime = now;
+      rateSampleBytes = bytes;
+      rateSampleEvents = events;
+      rateSampleLines = lines;
+    }
+  }
+
+  public synchronized double getBytesPerSecond() {
+    return bytesPerSecond;
+  }
+
+  public synchronized double getEventsPerSecond() {
+    return eventsPerSecond;
+  }
+
+  public synchronized double getLinesPerSecond() {
+    return linesPerSecond;
+  }
+
+  /**
+   * Wraps stream to count bytes read from source.
+   */
+  public InputStream countBytes(InputStream in) {
+    return new FilterInputStream(in) {
+
+      @Override
+      public int read() throws IOException {
+        int read = super.read();
+        if (read >= 0) {
+          dataRead(1);
+        }
+        return read;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        dataRead(read);
+        return read;
+      }
+    };
+  }
+
+  /**
+   * Wraps collector to count events imported from source.
+   */
+  public LogDataCollector countEvents(LogDataCollector collector) {
+    return new CountingLogDataCollector(collector, this);
+  }
+
+  @Override
+  public String toString() {
+    return type + " " + name;
+  }
+}
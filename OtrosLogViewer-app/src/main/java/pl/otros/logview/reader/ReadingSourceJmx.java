@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import pl.otros.logview.reader.ImportMetrics.Stage;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registers reading sources as MBeans, enabled with system property {@value #JMX_PROPERTY}.
+ */
+class ReadingSourceJmx implements ReadingSourceMXBean {
+
+  private static final Logger LOGGER = Logger.getLogger(ReadingSourceJmx.class.getName());
+  public static final String JMX_PROPERTY = "jmxImportMetrics";
+  private static final String DOMAIN = "pl.otros.logview";
+  private static final AtomicInteger COUNTER = new AtomicInteger();
+
+  private final ReadingSource source;
+  private final ObjectName objectName;
+
+  private ReadingSourceJmx(ReadingSource source, ObjectName objectName) {
+    this.source = source;
+    this.objectName = objectName;
+  }
+
+  static boolean isEnabled() {
+    return Boolean.getBoolean(JMX_PROPERTY);
+  }
+
+  static ReadingSourceJmx register(ReadingSource source) {
+    try {
+      ObjectName name = new ObjectName(DOMAIN + ":type=ReadingSource,name="
+          + ObjectName.quote(source.getType() + " " + source.getName() + " #" + COUNTER.incrementAndGet()));
+      ReadingSourceJmx jmx = new ReadingSourceJmx(source, name);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(jmx, name);
+      return jmx;
+    } catch (Exception e) {
+      LOGGER.log(Level.WARNING, "Can't register " + source + " in JMX", e);
+      return null;
+    }
+  }
+
+  void unregister() {
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (Exception e) {
+      LOGGER.log(Level.FINE, "Can't unregister " + objectName, e);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return source.getName();
+  }
+
+  @Override
+  public String getType() {
+    return source.getType();
+  }
+
+  @Override
+  public String getState() {
+    return source.getState().name();
+  }
+
+  @Override
+  public long getBytesRead() {
+    return source.getBytesRead();
+  }
+
+  @Override
+  public long getEventsRead() {
+    return source.getEventsRead();
+  }
+
+  @Override
+  public long getLinesRead() {
+    return source.getMetrics().getLinesRead();
+  }
+
+  @Override
+  public long getParseFailures() {
+    return source.getMetrics().getParseFailures();
+  }
+
+  @Override
+  public double getBytesPerSecond() {
+    return source.getBytesPerSecond();
+  }
+
+  @Override
+  public double getEventsPerSecond() {
+    return source.getEventsPerSecond();
+  }
+
+  @Override
+  public double getLinesPerSecond() {
+    return source.getLinesPerSecond();
+  }
+
+  @Override
+  public long getLagBytes() {
+    return source.getLagBytes();
+  }
+
+  @Override
+  public long getQueueDepth() {
+    return source.getMetrics().getQueueDepth();
+  }
+
+  @Override
+  public long getDropped() {
+    return source.getMetrics().getDropped();
+  }
+
+  @Override
+  public double getReadMeanMicros() {
+    return mean(Stage.READ);
+  }
+
+  @Override
+  public long getReadP99Micros() {
+    return p99(Stage.READ);
+  }
+
+  @Override
+  public double getParseMeanMicros() {
+    return mean(Stage.PARSE);
+  }
+
+  @Override
+  public long getParseP99Micros() {
+    return p99(Stage.PARSE);
+  }
+
+  @Override
+  public double getStoreMeanMicros() {
+    return mean(Stage.STORE);
+  }
+
+  @Override
+  public long getStoreP99Micros() {
+    return p99(Stage.STORE);
+  }
+
+  private double mean(Stage stage) {
+    return source.getMetrics().getHistogram(stage).getMeanNanos() / 1000;
+  }
+
+  private long p99(Stage stage) {
+    return source.getMetrics().getHistogram(stage).getPercentileNanos(99) / 1000;
+  }
+}
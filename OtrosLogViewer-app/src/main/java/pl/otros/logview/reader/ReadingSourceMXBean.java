@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+/**
+ * Import metrics of {@link ReadingSource} exported through JMX. Times are in microseconds.
+ */
+public interface ReadingSourceMXBean {
+
+  public String getName();
+
+  public String getType();
+
+  public String getState();
+
+  public long getBytesRead();
+
+  public long getEventsRead();
+
+  public long getLinesRead();
+
+  public long getParseFailures();
+
+  public double getBytesPerSecond();
+
+  public double getEventsPerSecond();
+
+  public double getLinesPerSecond();
+
+  public long getLagBytes();
+
+  public long getQueueDepth();
+
+  public long getDropped();
+
+  public double getReadMeanMicros();
+
+  public long getReadP99Micros();
+
+  public double getParseMeanMicros();
+
+  public long getParseP99Micros();
+
+  public double getStoreMeanMicros();
+
+  public long getStoreP99Micros();
+}
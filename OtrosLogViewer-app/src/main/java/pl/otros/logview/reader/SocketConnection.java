@@ -0,0 +1,368 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import pl.otros.logview.LogDataCollector;
+import pl.otros.logview.importer.DetectOnTheFlyLogImporter;
+import pl.otros.logview.importer.LogImporter;
+import pl.otros.logview.importer.LogImporterUsingParser;
+import pl.otros.logview.parser.ParsingContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * State of single connection accepted by {@link SocketLogReader}. Bytes are read by selector thread into connection
+ * buffer. When buffer is over {@link #HIGH_WATERMARK}, reading from socket is suspended until importer consumes data
+ * below {@link #LOW_WATERMARK}, so slow importer slows down only its own appender (TCP flow control).
+ * <p/>
+ * Text importers can continue parsing with new portion of data (like tailing), so complete lines are imported on
+ * shared {@link ReadingScheduler} pool only when new data arrives. Multi line event (e.g. with stack trace) can be
+ * split between portions, so parser keeps it in buffer until end of stream or until connection is idle for
+ * {@link #IDLE_FLUSH_MILLIS}. Line longer than {@link #MAX_PARTIAL_LINE} is imported in parts, otherwise buffer could
+ * not drop below {@link #LOW_WATERMARK} and reading would never be resumed. Importers which keep state in stream (serialized events) read buffer as blocking stream
+ * on own thread.
+ */
+class SocketConnection {
+
+  private static final Logger LOGGER = Logger.getLogger(SocketConnection.class.getName());
+
+  static final int HIGH_WATERMARK = 1024 * 1024;
+  static final int LOW_WATERMARK = 256 * 1024;
+  static final int MAX_PARTIAL_LINE = LOW_WATERMARK;
+  static final long IDLE_FLUSH_MILLIS = 1000;
+
+  private final SocketLogReader reader;
+  private final SocketChannel channel;
+  private final String address;
+  private final LogImporter importer;
+  private final LogDataCollector logDataCollector;
+  private final ParsingContext parsingContext;
+  private final ReadingSource source;
+  private final boolean resumable;
+  private final AtomicInteger wakeUps = new AtomicInteger();
+  private final AtomicBoolean finished = new AtomicBoolean();
+  private final Runnable requestFlush = new Runnable() {
+    @Override
+    public void run() {
+      flushRequested = true;
+      wakeUp();
+    }
+  };
+  private volatile boolean flushRequested = false;
+  private volatile ScheduledFuture<?> idleFlush;
+  private SelectionKey key;
+  private byte[] buffer = new byte[16 * 1024];
+  private int start = 0;
+  private int end = 0;
+  private boolean endOfStream = false;
+  private boolean suspended = false;
+
+  SocketConnection(SocketLogReader reader, SocketChannel channel, String address, LogImporter importer, LogDataCollector logDataCollector) {
+    this.reader = reader;
+    this.channel = channel;
+    this.address = address;
+    this.importer = importer;
+    parsingContext = new ParsingContext(address, address);
+    importer.initParsingContext(parsingContext);
+    resumable = isResumable(importer);
+    parsingContext.setKeepBufferBetweenImports(resumable);
+    source = ReadingScheduler.getInstance().registerSource(address, ReadingScheduler.TYPE_SOCKET);
+    source.attach(parsingContext);
+    this.logDataCollector = new CountingLogDataCollector(logDataCollector, source);
+  }
+
+  static boolean isResumable(LogImporter importer) {
+    return importer instanceof LogImporterUsingParser || importer instanceof DetectOnTheFlyLogImporter;
+  }
+
+  void start(SelectionKey key) {
+    this.key = key;
+    if (!resumable) {
+      ReadingScheduler.getInstance().executeBlocking(source, new Runnable() {
+        @Override
+        public void run() {
+          try {
+            importer.importLogs(new ConnectionInputStream(), logDataCollector, parsingContext);
+          } finally {
+            finish();
+          }
+        }
+      });
+    }
+  }
+
+  String getAddress() {
+    return address;
+  }
+
+  ReadingSource getSource() {
+    return source;
+  }
+
+  SelectionKey getKey() {
+    return key;
+  }
+
+  /**
+   * Reads available data from channel, invoked by selector thread.
+   *
+   * @return false if end of stream was reached
+   */
+  boolean readFrom(ByteBuffer readBuffer) throws IOException {
+    readBuffer.clear();
+    int read = channel.read(readBuffer);
+    if (read < 0) {
+      endOfStream();
+      return false;
+    }
+    if (read == 0) {
+      return true;
+    }
+    readBuffer.flip();
+    int buffered;
+    synchronized (this) {
+      ensureCapacity(read);
+      readBuffer.get(buffer, end, read);
+      end += read;
+      buffered = end - start;
+      if (buffered > HIGH_WATERMARK && !suspended) {
+        suspended = true;
+        key.interestOps(0);
+      }
+      notifyAll();
+    }
+    source.dataRead(read);
+    source.setLagBytes(buffered);
+    reader.bytesReceived(read);
+    if (resumable) {
+      wakeUp();
+    }
+    return true;
+  }
+
+  void endOfStream() {
+    synchronized (this) {
+      endOfStream = true;
+      notifyAll();
+    }
+    if (resumable) {
+      wakeUp();
+    }
+  }
+
+  /**
+   * Invoked by selector thread when socket reading is resumed.
+   */
+  synchronized void resumed() {
+    suspended = false;
+  }
+
+  private void ensureCapacity(int length) {
+    if (end + length <= buffer.length) {
+      return;
+    }
+    int buffered = end - start;
+    if (buffered + length > buffer.length) {
+      byte[] newBuffer = new byte[Math.max(buffer.length * 2, buffered + length)];
+      System.arraycopy(buffer, start, newBuffer, 0, buffered);
+      buffer = newBuffer;
+    } else {
+      System.arraycopy(buffer, start, buffer, 0, buffered);
+    }
+    start = 0;
+    end = buffered;
+  }
+
+  /**
+   * Has to be invoked while holding lock after data was consumed.
+   */
+  private void consumed() {
+    int buffered = end - start;
+    if (buffered == 0) {
+      start = 0;
+      end = 0;
+    }
+    source.setLagBytes(buffered);
+    if (suspended && buffered < LOW_WATERMARK) {
+      reader.resume(this);
+    }
+  }
+
+  private void wakeUp() {
+    if (wakeUps.getAndIncrement() == 0) {
+      ReadingScheduler.getInstance().execute(new Runnable() {
+        @Override
+        public void run() {
+          importAvailable();
+        }
+      });
+    }
+  }
+
+  private void importAvailable() {
+    source.setState(ReadingSource.State.READING);
+    source.activated(0);
+    boolean imported = false;
+    int requests;
+    do {
+      requests = wakeUps.get();
+      byte[] lines = takeCompleteLines();
+      if (lines.length > 0) {
+        // event buffered by parser can be continued by new data
+        flushRequested = false;
+        imported = true;
+        importLogs(lines);
+      }
+    } while (wakeUps.addAndGet(-requests) != 0);
+    source.setState(ReadingSource.State.WAITING);
+    boolean drained;
+    synchronized (this) {
+      drained = endOfStream && start == end;
+    }
+    if (drained) {
+      flushParserBuffer();
+      finish();
+    } else if (flushRequested) {
+      flushRequested = false;
+      flushParserBuffer();
+    } else if (imported) {
+      scheduleIdleFlush();
+    }
+  }
+
+  private void importLogs(byte[] data) {
+    try {
+      importer.importLogs(new ByteArrayInputStream(data), logDataCollector, parsingContext);
+    } catch (RuntimeException e) {
+      LOGGER.warning("Can't import logs from " + address + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Imports event kept in parser buffer. Invoked on end of stream or when connection is idle.
+   */
+  private void flushParserBuffer() {
+    parsingContext.setKeepBufferBetweenImports(false);
+    try {
+      importLogs(new byte[0]);
+    } finally {
+      parsingContext.setKeepBufferBetweenImports(true);
+    }
+  }
+
+  private void scheduleIdleFlush() {
+    ScheduledFuture<?> previous = idleFlush;
+    if (previous != null) {
+      previous.cancel(false);
+    }
+    idleFlush = ReadingScheduler.getInstance().schedule(requestFlush, IDLE_FLUSH_MILLIS);
+  }
+
+  /**
+   * Takes buffered data up to last end of line. Incomplete line is left in buffer, unless connection is closed or the
+   * line is not shorter than {@link #MAX_PARTIAL_LINE}.
+   */
+  private synchronized byte[] takeCompleteLines() {
+    int last = end - 1;
+    if (!endOfStream) {
+      while (last >= start && buffer[last] != '\n') {
+        last--;
+      }
+      if (end - 1 - last >= MAX_PARTIAL_LINE) {
+        last = end - 1;
+      }
+    }
+    int length = last + 1 - start;
+    if (length <= 0) {
+      return new byte[0];
+    }
+    byte[] lines = new byte[length];
+    System.arraycopy(buffer, start, lines, 0, length);
+    start += length;
+    consumed();
+    return lines;
+  }
+
+  private void finish() {
+    if (finished.compareAndSet(false, true)) {
+      ScheduledFuture<?> previous = idleFlush;
+      if (previous != null) {
+        previous.cancel(false);
+      }
+      if (resumable) {
+        ReadingScheduler.getInstance().unregisterSource(source);
+      }
+      reader.connectionFinished(this);
+      try {
+        channel.close();
+      } catch (IOException e) {
+        LOGGER.fine("Can't close connection " + address + ": " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Blocking view of connection buffer for importers which read whole stream.
+   */
+  private class ConnectionInputStream extends InputStream {
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      int read = read(b, 0, 1);
+      return read < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      synchronized (SocketConnection.this) {
+        while (start == end && !endOfStream) {
+          try {
+            SocketConnection.this.wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+          }
+        }
+        if (start == end) {
+          return -1;
+        }
+        int count = Math.min(len, end - start);
+        System.arraycopy(buffer, start, b, off, count);
+        start += count;
+        consumed();
+        return count;
+      }
+    }
+
+    @Override
+    public int available() {
+      synchronized (SocketConnection.this) {
+        return end - start;
+      }
+    }
+  }
+}
@@ -18,22 +18,43 @@ package pl.otros.logview.reader;
 import pl.otros.logview.LogDataCollector;
 import pl.otros.logview.gui.StatusObserver;
 import pl.otros.logview.importer.LogImporter;
-import pl.otros.logview.parser.ParsingContext;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
-public class SocketLogReader {
+/**
+ * Receives logs from socket appenders. All connections are handled by single selector thread, data is parsed on
+ * {@link ReadingScheduler} pool (see {@link SocketConnection}), so many appenders can send logs to one listener.
+ */
+public class SocketLogReader implements NetworkLogReader {
 
   private static final Logger LOGGER = Logger.getLogger(SocketLogReader.class.getName());
-  private ServerSocket serverSocket;
+  public static final String PROTOCOL = "TCP";
+  private ServerSocketChannel serverSocketChannel;
+  private Selector selector;
   private StatusObserver observer;
   private final LogDataCollector logDataCollector;
   private final LogImporter logImporter;
   private int port;
+  private final Set<SocketConnection> connections = new CopyOnWriteArraySet<SocketConnection>();
+  private final ConcurrentLinkedQueue<SocketConnection> toResume = new ConcurrentLinkedQueue<SocketConnection>();
+  private final AtomicLong acceptedConnections = new AtomicLong();
+  private final AtomicLong bytesReceived = new AtomicLong();
+  private final AtomicLong finishedEvents = new AtomicLong();
 
   public SocketLogReader(LogImporter logImporter, LogDataCollector logDataCollector, StatusObserver observer, int port) {
     super();
@@ -43,27 +64,39 @@ public class SocketLogReader {
     this.port = port;
   }
 
+  @Override
   public void close() throws IOException {
-    if (serverSocket != null) {
-      serverSocket.close();
-      serverSocket = null;
+    if (serverSocketChannel != null) {
+      serverSocketChannel.close();
+      serverSocketChannel = null;
+      for (SocketConnection connection : connections) {
+        if (connection.getKey() != null) {
+          connection.getKey().channel().close();
+        }
+        connection.endOfStream();
+      }
+      selector.close();
+      LOGGER.info(String.format("Socket listener on port %d closed, accepted %d connections, received %d bytes", port,
+          acceptedConnections.get(), bytesReceived.get()));
     }
   }
 
+  @Override
   public void start() throws Exception {
-    serverSocket = new ServerSocket(port);
+    serverSocketChannel = ServerSocketChannel.open();
+    serverSocketChannel.configureBlocking(false);
+    serverSocketChannel.socket().bind(new InetSocketAddress(port));
+    port = serverSocketChannel.socket().getLocalPort();
+    selector = Selector.open();
+    serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
     Runnable r = new Runnable() {
 
       @Override
       public void run() {
         try {
-          while (true) {
-            Socket s = serverSocket.accept();
-            SocketHandler handler = new SocketHandler(s);
-            Thread t = new Thread(handler, "Socket handler: " + s.getInetAddress() + ":" + s.getPort());
-            t.setDaemon(true);
-            t.start();
-          }
+          select();
+        } catch (ClosedSelectorException e) {
+          LOGGER.info("Listening on socket closed.");
         } catch (IOException e) {
           if (isClosed()) {
             LOGGER.info("Listening on socket closed.");
@@ -73,50 +106,123 @@ public class SocketLogReader {
         }
       }
     };
-    Thread t = new Thread(r, "Socket listener");
+    Thread t = new Thread(r, "Socket listener " + port);
     t.setDaemon(true);
     t.start();
 
   }
 
+  private void select() throws IOException {
+    ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 * 1024);
+    while (selector.isOpen()) {
+      selector.select();
+      SocketConnection resumed;
+      while ((resumed = toResume.poll()) != null) {
+        resumed.resumed();
+        if (resumed.getKey().isValid()) {
+          resumed.getKey().interestOps(SelectionKey.OP_READ);
+        }
+      }
+      Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+      while (iterator.hasNext()) {
+        SelectionKey key = iterator.next();
+        iterator.remove();
+        try {
+          if (key.isAcceptable()) {
+            accept();
+          } else if (key.isReadable()) {
+            read(key, readBuffer);
+          }
+        } catch (CancelledKeyException e) {
+          LOGGER.fine("Connection already closed");
+        }
+      }
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel channel = serverSocketChannel.accept();
+    if (channel == null) {
+      return;
+    }
+    channel.configureBlocking(false);
+    Socket s = channel.socket();
+    SocketConnection connection = new SocketConnection(this, channel, s.getInetAddress() + ":" + s.getPort(), logImporter, logDataCollector);
+    connections.add(connection);
+    acceptedConnections.incrementAndGet();
+    connection.start(channel.register(selector, SelectionKey.OP_READ, connection));
+  }
+
+  private void read(SelectionKey key, ByteBuffer readBuffer) {
+    SocketConnection connection = (SocketConnection) key.attachment();
+    try {
+      if (!connection.readFrom(readBuffer)) {
+        key.cancel();
+      }
+    } catch (IOException e) {
+      observer.updateStatus(connection.getAddress() + " - connection broken: " + e.getMessage(), StatusObserver.LEVEL_ERROR);
+      key.cancel();
+      connection.endOfStream();
+    }
+  }
+
+  /**
+   * Requests selector to read again from suspended connection.
+   */
+  void resume(SocketConnection connection) {
+    toResume.add(connection);
+    selector.wakeup();
+  }
+
+  void bytesReceived(int bytes) {
+    bytesReceived.addAndGet(bytes);
+  }
+
+  void connectionFinished(SocketConnection connection) {
+    connections.remove(connection);
+    finishedEvents.addAndGet(connection.getSource().getEventsRead());
+    observer.updateStatus(connection.getAddress() + " - connection finished ");
+  }
+
+  @Override
   public boolean isClosed() {
-    return serverSocket == null || serverSocket.isClosed();
+    return serverSocketChannel == null || !serverSocketChannel.isOpen();
   }
 
-  private class SocketHandler implements Runnable {
+  public int getConnectionsCount() {
+    return connections.size();
+  }
 
-    public Socket socket;
+  public long getAcceptedConnections() {
+    return acceptedConnections.get();
+  }
 
-    public SocketHandler(Socket socket) {
-      super();
-      this.socket = socket;
-    }
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
 
-    @Override
-    public void run() {
-      String adress = socket.getInetAddress().toString() + ":" + socket.getPort();
-
-      try {
-        InputStream in = socket.getInputStream();
-        ParsingContext parsingContext = new ParsingContext(adress, adress);
-        logImporter.initParsingContext(parsingContext);
-        logImporter.importLogs(in, logDataCollector, parsingContext);
-        observer.updateStatus(adress + " - connection finished ");
-      } catch (IOException e) {
-        e.printStackTrace();
-        observer.updateStatus(adress + " - connection broken: " + e.getMessage(), StatusObserver.LEVEL_ERROR);
-      } catch (Exception e) {
-        e.printStackTrace();
-        observer.updateStatus("Can't initialize log parser", StatusObserver.LEVEL_ERROR);
-      }
+  /**
+   * @return events imported from all connections
+   */
+  public long getEventsReceived() {
+    long events = 0;
+    for (SocketConnection connection : connections) {
+      events += connection.getSource().getEventsRead();
     }
+    return events + finishedEvents.get();
+  }
 
+  @Override
+  public String getProtocol() {
+    return PROTOCOL;
   }
 
+  @Override
   public LogImporter getLogImporter() {
     return logImporter;
   }
 
+  @Override
   public int getPort() {
     return port;
   }
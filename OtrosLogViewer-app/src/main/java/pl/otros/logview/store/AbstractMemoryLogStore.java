@@ -20,6 +20,7 @@ import pl.otros.logview.MarkerColors;
 import pl.otros.logview.Note;
 import pl.otros.logview.gui.note.NotableTableModel;
 import pl.otros.logview.gui.note.NotableTableModelImpl;
+import pl.otros.logview.store.index.LogDataIndexes;
 
 import java.util.Comparator;
 import java.util.TreeMap;
@@ -30,10 +31,12 @@ public abstract class AbstractMemoryLogStore implements LogDataStore {
   protected int limit = 2000000;
   protected volatile int idCounter = 0;
   protected Comparator<LogData> logDataTimeComparator;
+  protected LogDataIndexes indexes;
 
   public AbstractMemoryLogStore() {
     notable = new NotableTableModelImpl();
     logDataTimeComparator = new LogDataTimeIdComparator();
+    indexes = new LogDataIndexes();
   }
 
   @Override
@@ -124,6 +127,11 @@ public abstract class AbstractMemoryLogStore implements LogDataStore {
     return result;
   }
 
+  @Override
+  public LogDataIndexes getIndexes() {
+    return indexes;
+  }
+
   protected int getNextLogId() {
     return idCounter++;
   }
@@ -22,6 +22,7 @@ import pl.otros.logview.LogData;
 import pl.otros.logview.MarkerColors;
 import pl.otros.logview.Note;
 import pl.otros.logview.store.file.FileLogDataStore;
+import pl.otros.logview.store.index.LogDataIndexes;
 
 import java.util.Iterator;
 import java.util.TreeMap;
@@ -171,4 +172,8 @@ public class CachedLogStore implements LogDataStore {
     return fileLogDataStore.getAllNotes();
   }
 
+  public LogDataIndexes getIndexes() {
+    return fileLogDataStore.getIndexes();
+  }
+
 }
@@ -19,6 +19,7 @@ import pl.otros.logview.LogData;
 import pl.otros.logview.LogDataCollector;
 import pl.otros.logview.Note;
 import pl.otros.logview.gui.MarkableTableModel;
+import pl.otros.logview.store.index.LogDataIndexes;
 
 import java.util.TreeMap;
 
@@ -50,4 +51,6 @@ public interface LogDataStore extends MarkableTableModel, Iterable<LogData>, Log
 
   public TreeMap<Integer, Note> getAllNotes();
 
+  public LogDataIndexes getIndexes();
+
 }
@@ -43,6 +43,7 @@ public class MemoryLogDataStore extends AbstractMemoryLogStore implements LogDat
     for (int i = 0; i < logDatas.length; i++) {
       LogData logData = logDatas[i];
       logData.setId(getNextLogId());
+      indexes.add(logData);
       if (list.size() == 0 || logDataTimeComparator.compare(logData, list.get(list.size() - 1)) >= 0) {
         list.add(logData);
       } else {
@@ -91,6 +92,7 @@ public class MemoryLogDataStore extends AbstractMemoryLogStore implements LogDat
     LOGGER.finest("Rows sorted, removing from end");
     for (int i = rows.length - 1; i >= 0; i--) {
       LogData removed = list.remove(rows[i]);
+      indexes.remove(removed);
       notable.removeNote(removed.getId(), false);
     }
     LOGGER.finest(String.format("%d rows where removed ", rows.length));
@@ -115,6 +117,7 @@ public class MemoryLogDataStore extends AbstractMemoryLogStore implements LogDat
     int size = list.size();
     if (size > 0) {
       list.clear();
+      indexes.clear();
       clearNotes();
     }
     return size;
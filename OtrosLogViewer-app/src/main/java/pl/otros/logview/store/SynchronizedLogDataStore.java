@@ -18,6 +18,7 @@ package pl.otros.logview.store;
 import pl.otros.logview.LogData;
 import pl.otros.logview.MarkerColors;
 import pl.otros.logview.Note;
+import pl.otros.logview.store.index.LogDataIndexes;
 
 import java.util.Iterator;
 import java.util.TreeMap;
@@ -107,4 +108,8 @@ public class SynchronizedLogDataStore implements LogDataStore {
     return logDataStore.getAllNotes();
   }
 
+  public synchronized LogDataIndexes getIndexes() {
+    return logDataStore.getIndexes();
+  }
+
 }
@@ -79,6 +79,7 @@ public class FileLogDataStore extends AbstractMemoryLogStore implements LogDataS
         oout = new ObjectOutputStream(byteArrayOutputStream);
         logDatas[i].setId(getNextLogId());
         int logDataId = logDatas[i].getId();
+        indexes.add(logDatas[i]);
         long positionInFile = randomAccessFile.length();
 
         oout.writeObject(logDatas[i]);
@@ -129,6 +130,7 @@ public class FileLogDataStore extends AbstractMemoryLogStore implements LogDataS
       Integer removeId = logDatasId.remove(rows[i]).id;
       notable.removeNote(removeId, false);
       marks.remove(removeId);
+      indexes.remove(removeId);
       storeIdFilePositionMapping.remove(removeId);
     }
     LOGGER.finest(String.format("%d rows where removed ", rows.length));
@@ -187,6 +189,7 @@ public class FileLogDataStore extends AbstractMemoryLogStore implements LogDataS
     RandomAccessFile old = randomAccessFile;
     storeIdFilePositionMapping.clear();
     logDatasId.clear();
+    indexes.clear();
     try {
       init();
     } catch (IOException e) {
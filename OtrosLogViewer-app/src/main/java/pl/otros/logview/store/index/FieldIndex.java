@@ -0,0 +1,252 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Maps every distinct value of a field to a bitmap of log ids having this value. Index is meant for low cardinality fields,
+ * if number of distinct values exceeds limit, index is dropped and all queries return null. Value of every event is
+ * remembered by id as code in dictionary of values, so removal is cheap and returns value. Codes are kept in array
+ * starting at the lowest live id, which is compacted when oldest events are removed (tailing with limit of events).
+ * Dictionary is not extended after overflow, values seen first after overflow are not returned by removal.
+ */
+public class FieldIndex {
+
+  private static final Logger LOGGER = Logger.getLogger(FieldIndex.class.getName());
+  public static final int DEFAULT_MAX_DISTINCT_VALUES = 10000;
+
+  private final String name;
+  private final int maxDistinctValues;
+  private final Map<String, IdBitmap> valueIds = new HashMap<String, IdBitmap>();
+  private final Map<String, Integer> valueCodes = new HashMap<String, Integer>();
+  private final List<String> codeValues = new ArrayList<String>();
+  private int[] idCodes = new int[0];
+  /**
+   * Id of event at idCodes[0]
+   */
+  private int firstId = 0;
+  /**
+   * Position in idCodes of the lowest id which can be live, positions before are free
+   */
+  private int head = 0;
+  private int liveIds = 0;
+  private int indexedUpToId = -1;
+  private boolean overflow = false;
+
+  public FieldIndex(String name) {
+    this(name, DEFAULT_MAX_DISTINCT_VALUES);
+  }
+
+  public FieldIndex(String name, int maxDistinctValues) {
+    this.name = name;
+    this.maxDistinctValues = maxDistinctValues;
+  }
+
+  public synchronized void add(String value, int id) {
+    indexedUpToId = Math.max(indexedUpToId, id);
+    if (value == null) {
+      return;
+    }
+    if (overflow) {
+      rememberValue(value, id);
+      return;
+    }
+    IdBitmap ids = valueIds.get(value);
+    if (ids == null) {
+      if (valueIds.size() >= maxDistinctValues) {
+        LOGGER.info(String.format("Field %s has more than %d distinct values, dropping index", name, maxDistinctValues));
+        overflow = true;
+        valueIds.clear();
+        return;
+      }
+      ids = new IdBitmap();
+      valueIds.put(value, ids);
+    }
+    ids.add(id);
+    rememberValue(value, id);
+  }
+
+  /**
+   * @return value which event with given id had, or null if not known
+   */
+  public synchronized String remove(int id) {
+    int position = id - firstId;
+    if (id < 0 || position < head || position >= idCodes.length || idCodes[position] == 0) {
+      return null;
+    }
+    String value = codeValues.get(idCodes[position] - 1);
+    idCodes[position] = 0;
+    liveIds--;
+    if (liveIds == 0) {
+      idCodes = new int[0];
+      head = 0;
+    } else if (position == head) {
+      while (idCodes[head] == 0) {
+        head++;
+      }
+      if (head > idCodes.length / 2) {
+        compact(Math.max(16, (idCodes.length - head) * 2));
+      }
+    }
+    if (!overflow) {
+      IdBitmap ids = valueIds.get(value);
+      if (ids != null) {
+        ids.remove(id);
+      }
+    }
+    return value;
+  }
+
+  public synchronized void clear() {
+    valueIds.clear();
+    valueCodes.clear();
+    codeValues.clear();
+    idCodes = new int[0];
+    head = 0;
+    liveIds = 0;
+    indexedUpToId = -1;
+    overflow = false;
+  }
+
+  private void rememberValue(String value, int id) {
+    if (id < 0) {
+      return;
+    }
+    Integer code = valueCodes.get(value);
+    if (code == null) {
+      if (overflow) {
+        return;
+      }
+      codeValues.add(value);
+      code = codeValues.size();
+      valueCodes.put(value, code);
+    }
+    if (liveIds == 0) {
+      firstId = id;
+      head = 0;
+    } else if (id < firstId + head) {
+      // older event than all live events, make room at the beginning
+      int shift = firstId + head - id;
+      int[] moved = new int[idCodes.length - head + shift];
+      System.arraycopy(idCodes, head, moved, shift, idCodes.length - head);
+      idCodes = moved;
+      firstId = id;
+      head = 0;
+    }
+    int position = id - firstId;
+    if (position >= idCodes.length) {
+      int live = position - head + 1;
+      compact(Math.max(live, Math.max(16, (idCodes.length - head) * 2)));
+      position = id - firstId;
+    }
+    if (idCodes[position] == 0) {
+      liveIds++;
+    }
+    idCodes[position] = code;
+  }
+
+  /**
+   * Moves codes of live events to the beginning of new array of given size.
+   */
+  private void compact(int size) {
+    int[] compacted = new int[size];
+    System.arraycopy(idCodes, head, compacted, 0, Math.min(idCodes.length - head, size));
+    idCodes = compacted;
+    firstId += head;
+    head = 0;
+  }
+
+  /**
+   * @return size of array of value codes, for tests
+   */
+  synchronized int getIdCapacity() {
+    return idCodes.length;
+  }
+
+  public synchronized boolean isAvailable() {
+    return !overflow;
+  }
+
+  /**
+   * @return distinct values of field, or null if field is not indexed
+   */
+  public synchronized List<String> getValues() {
+    if (overflow) {
+      return null;
+    }
+    ArrayList<String> values = new ArrayList<String>(valueIds.size());
+    for (Map.Entry<String, IdBitmap> entry : valueIds.entrySet()) {
+      if (!entry.getValue().isEmpty()) {
+        values.add(entry.getKey());
+      }
+    }
+    return values;
+  }
+
+  public synchronized int getCount(String value) {
+    IdBitmap ids = valueIds.get(value);
+    return ids != null ? ids.cardinality() : 0;
+  }
+
+  public synchronized IdSelection select(Collection<String> values) {
+    if (overflow) {
+      return null;
+    }
+    IdBitmap result = new IdBitmap();
+    for (String value : values) {
+      IdBitmap ids = valueIds.get(value);
+      if (ids != null) {
+        result.or(ids);
+      }
+    }
+    return new IdSelection(result, indexedUpToId);
+  }
+
+  public synchronized IdSelection selectIgnoreCase(String value) {
+    if (overflow) {
+      return null;
+    }
+    IdBitmap result = new IdBitmap();
+    for (Map.Entry<String, IdBitmap> entry : valueIds.entrySet()) {
+      if (entry.getKey().equalsIgnoreCase(value)) {
+        result.or(entry.getValue());
+      }
+    }
+    return new IdSelection(result, indexedUpToId);
+  }
+
+  public synchronized IdSelection selectWithPrefix(Collection<String> prefixes) {
+    if (overflow) {
+      return null;
+    }
+    IdBitmap result = new IdBitmap();
+    for (Map.Entry<String, IdBitmap> entry : valueIds.entrySet()) {
+      for (String prefix : prefixes) {
+        if (entry.getKey().startsWith(prefix)) {
+          result.or(entry.getValue());
+          break;
+        }
+      }
+    }
+    return new IdSelection(result, indexedUpToId);
+  }
+}
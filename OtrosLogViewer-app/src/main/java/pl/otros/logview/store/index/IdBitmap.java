@@ -0,0 +1,600 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of non negative log ids. Ids are split into chunks of 65536 values (by high 16 bits). Sparse chunks are kept as
+ * sorted arrays, dense chunks as plain bitmaps. Appending ids in ascending order (the way stores assign them) is O(1).
+ */
+public class IdBitmap {
+
+  private static final int ARRAY_CONTAINER_MAX = 4096;
+  private static final int BITMAP_WORDS = 1024;
+
+  private int[] keys = new int[0];
+  private Container[] containers = new Container[0];
+  private int size = 0;
+
+  public IdBitmap() {
+  }
+
+  public IdBitmap(IdBitmap other) {
+    keys = Arrays.copyOf(other.keys, other.size);
+    containers = new Container[other.size];
+    for (int i = 0; i < other.size; i++) {
+      containers[i] = other.containers[i].copy();
+    }
+    size = other.size;
+  }
+
+  public static IdBitmap of(int... ids) {
+    IdBitmap bitmap = new IdBitmap();
+    for (int id : ids) {
+      bitmap.add(id);
+    }
+    return bitmap;
+  }
+
+  public void add(int id) {
+    checkId(id);
+    int key = id >>> 16;
+    int index = findContainer(key);
+    if (index < 0) {
+      index = -index - 1;
+      insertContainer(index, key, new ArrayContainer());
+    }
+    containers[index] = containers[index].add((char) id);
+  }
+
+  public void remove(int id) {
+    if (id < 0) {
+      return;
+    }
+    int index = findContainer(id >>> 16);
+    if (index < 0) {
+      return;
+    }
+    Container container = containers[index].remove((char) id);
+    if (container.cardinality() == 0) {
+      removeContainer(index);
+    } else {
+      containers[index] = container;
+    }
+  }
+
+  public boolean contains(int id) {
+    if (id < 0) {
+      return false;
+    }
+    int index = findContainer(id >>> 16);
+    return index >= 0 && containers[index].contains((char) id);
+  }
+
+  public int cardinality() {
+    int result = 0;
+    for (int i = 0; i < size; i++) {
+      result += containers[i].cardinality();
+    }
+    return result;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    keys = new int[0];
+    containers = new Container[0];
+    size = 0;
+  }
+
+  /**
+   * Returns the smallest id in bitmap which is equal or greater than {@code from}, or -1 if there is none.
+   */
+  public int nextId(int from) {
+    if (from < 0) {
+      from = 0;
+    }
+    int index = findContainer(from >>> 16);
+    char low = (char) from;
+    if (index < 0) {
+      index = -index - 1;
+      low = 0;
+    }
+    for (; index < size; index++) {
+      int found = containers[index].next(low);
+      if (found >= 0) {
+        return (keys[index] << 16) | found;
+      }
+      low = 0;
+    }
+    return -1;
+  }
+
+  public int[] toArray() {
+    int[] result = new int[cardinality()];
+    int position = 0;
+    for (int i = 0; i < size; i++) {
+      position = containers[i].fill(keys[i] << 16, result, position);
+    }
+    return result;
+  }
+
+  /**
+   * Adds all ids from other bitmap to this one.
+   */
+  public void or(IdBitmap other) {
+    int i = 0;
+    int j = 0;
+    int[] newKeys = new int[size + other.size];
+    Container[] newContainers = new Container[size + other.size];
+    int newSize = 0;
+    while (i < size || j < other.size) {
+      if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+        newKeys[newSize] = keys[i];
+        newContainers[newSize++] = containers[i++];
+      } else if (i >= size || other.keys[j] < keys[i]) {
+        newKeys[newSize] = other.keys[j];
+        newContainers[newSize++] = other.containers[j++].copy();
+      } else {
+        newKeys[newSize] = keys[i];
+        newContainers[newSize++] = containers[i++].or(other.containers[j++]);
+      }
+    }
+    keys = newKeys;
+    containers = newContainers;
+    size = newSize;
+  }
+
+  /**
+   * Retains only ids which are present in other bitmap.
+   */
+  public void and(IdBitmap other) {
+    int newSize = 0;
+    int j = 0;
+    for (int i = 0; i < size; i++) {
+      while (j < other.size && other.keys[j] < keys[i]) {
+        j++;
+      }
+      if (j < other.size && other.keys[j] == keys[i]) {
+        Container container = containers[i].and(other.containers[j]);
+        if (container.cardinality() > 0) {
+          keys[newSize] = keys[i];
+          containers[newSize++] = container;
+        }
+      }
+    }
+    for (int i = newSize; i < size; i++) {
+      containers[i] = null;
+    }
+    size = newSize;
+  }
+
+  /**
+   * Removes all ids which are present in other bitmap.
+   */
+  public void andNot(IdBitmap other) {
+    int newSize = 0;
+    int j = 0;
+    for (int i = 0; i < size; i++) {
+      while (j < other.size && other.keys[j] < keys[i]) {
+        j++;
+      }
+      Container container = containers[i];
+      if (j < other.size && other.keys[j] == keys[i]) {
+        container = container.andNot(other.containers[j]);
+      }
+      if (container.cardinality() > 0) {
+        keys[newSize] = keys[i];
+        containers[newSize++] = container;
+      }
+    }
+    for (int i = newSize; i < size; i++) {
+      containers[i] = null;
+    }
+    size = newSize;
+  }
+
+  public static IdBitmap or(Iterable<IdBitmap> bitmaps) {
+    IdBitmap result = new IdBitmap();
+    for (IdBitmap bitmap : bitmaps) {
+      result.or(bitmap);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof IdBitmap)) {
+      return false;
+    }
+    return Arrays.equals(toArray(), ((IdBitmap) obj).toArray());
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(toArray());
+  }
+
+  @Override
+  public String toString() {
+    return "IdBitmap[cardinality=" + cardinality() + ", chunks=" + size + "]";
+  }
+
+  private void checkId(int id) {
+    if (id < 0) {
+      throw new IllegalArgumentException("Id can't be negative: " + id);
+    }
+  }
+
+  private int findContainer(int key) {
+    // ids are added in ascending order, check last chunk first
+    if (size > 0 && keys[size - 1] == key) {
+      return size - 1;
+    }
+    return Arrays.binarySearch(keys, 0, size, key);
+  }
+
+  private void insertContainer(int index, int key, Container container) {
+    if (size == keys.length) {
+      int newCapacity = Math.max(4, size * 2);
+      keys = Arrays.copyOf(keys, newCapacity);
+      containers = Arrays.copyOf(containers, newCapacity);
+    }
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(containers, index, containers, index + 1, size - index);
+    keys[index] = key;
+    containers[index] = container;
+    size++;
+  }
+
+  private void removeContainer(int index) {
+    System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+    System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+    size--;
+    containers[size] = null;
+  }
+
+  private interface Container {
+
+    Container add(char value);
+
+    Container remove(char value);
+
+    boolean contains(char value);
+
+    int cardinality();
+
+    int next(char from);
+
+    int fill(int high, int[] array, int position);
+
+    Container or(Container other);
+
+    Container and(Container other);
+
+    Container andNot(Container other);
+
+    Container copy();
+
+    BitmapContainer toBitmap();
+  }
+
+  private static class ArrayContainer implements Container {
+
+    private char[] values;
+    private int cardinality;
+
+    ArrayContainer() {
+      this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] values, int cardinality) {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    public Container add(char value) {
+      int index;
+      if (cardinality == 0 || values[cardinality - 1] < value) {
+        index = cardinality;
+      } else {
+        index = Arrays.binarySearch(values, 0, cardinality, value);
+        if (index >= 0) {
+          return this;
+        }
+        index = -index - 1;
+      }
+      if (cardinality == ARRAY_CONTAINER_MAX) {
+        return toBitmap().add(value);
+      }
+      if (cardinality == values.length) {
+        values = Arrays.copyOf(values, Math.min(ARRAY_CONTAINER_MAX, values.length * 2));
+      }
+      System.arraycopy(values, index, values, index + 1, cardinality - index);
+      values[index] = value;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    public Container remove(char value) {
+      int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+        cardinality--;
+      }
+      return this;
+    }
+
+    @Override
+    public boolean contains(char value) {
+      return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    public int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    public int next(char from) {
+      int index = Arrays.binarySearch(values, 0, cardinality, from);
+      if (index < 0) {
+        index = -index - 1;
+      }
+      return index < cardinality ? values[index] : -1;
+    }
+
+    @Override
+    public int fill(int high, int[] array, int position) {
+      for (int i = 0; i < cardinality; i++) {
+        array[position++] = high | values[i];
+      }
+      return position;
+    }
+
+    @Override
+    public Container or(Container other) {
+      if (other instanceof BitmapContainer) {
+        return other.copy().or(this);
+      }
+      ArrayContainer o = (ArrayContainer) other;
+      char[] merged = new char[cardinality + o.cardinality];
+      int i = 0;
+      int j = 0;
+      int k = 0;
+      while (i < cardinality && j < o.cardinality) {
+        if (values[i] < o.values[j]) {
+          merged[k++] = values[i++];
+        } else if (values[i] > o.values[j]) {
+          merged[k++] = o.values[j++];
+        } else {
+          merged[k++] = values[i++];
+          j++;
+        }
+      }
+      while (i < cardinality) {
+        merged[k++] = values[i++];
+      }
+      while (j < o.cardinality) {
+        merged[k++] = o.values[j++];
+      }
+      ArrayContainer result = new ArrayContainer(merged, k);
+      return k > ARRAY_CONTAINER_MAX ? result.toBitmap() : result;
+    }
+
+    @Override
+    public Container and(Container other) {
+      char[] common = new char[cardinality];
+      int k = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (other.contains(values[i])) {
+          common[k++] = values[i];
+        }
+      }
+      return new ArrayContainer(common, k);
+    }
+
+    @Override
+    public Container andNot(Container other) {
+      char[] rest = new char[cardinality];
+      int k = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (!other.contains(values[i])) {
+          rest[k++] = values[i];
+        }
+      }
+      return new ArrayContainer(rest, k);
+    }
+
+    @Override
+    public Container copy() {
+      return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 4)), cardinality);
+    }
+
+    @Override
+    public BitmapContainer toBitmap() {
+      BitmapContainer bitmapContainer = new BitmapContainer();
+      for (int i = 0; i < cardinality; i++) {
+        bitmapContainer.add(values[i]);
+      }
+      return bitmapContainer;
+    }
+  }
+
+  private static class BitmapContainer implements Container {
+
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer() {
+      this(new long[BITMAP_WORDS], 0);
+    }
+
+    BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    public Container add(char value) {
+      long before = words[value >>> 6];
+      long after = before | (1L << value);
+      if (before != after) {
+        words[value >>> 6] = after;
+        cardinality++;
+      }
+      return this;
+    }
+
+    @Override
+    public Container remove(char value) {
+      long before = words[value >>> 6];
+      long after = before & ~(1L << value);
+      if (before != after) {
+        words[value >>> 6] = after;
+        cardinality--;
+      }
+      if (cardinality <= ARRAY_CONTAINER_MAX / 2) {
+        char[] values = new char[cardinality];
+        fillChars(values);
+        return new ArrayContainer(values, cardinality);
+      }
+      return this;
+    }
+
+    @Override
+    public boolean contains(char value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    public int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    public int next(char from) {
+      int wordIndex = from >>> 6;
+      long word = words[wordIndex] & (-1L << from);
+      while (true) {
+        if (word != 0) {
+          return wordIndex * 64 + Long.numberOfTrailingZeros(word);
+        }
+        if (++wordIndex == BITMAP_WORDS) {
+          return -1;
+        }
+        word = words[wordIndex];
+      }
+    }
+
+    @Override
+    public int fill(int high, int[] array, int position) {
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          array[position++] = high | (i * 64 + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return position;
+    }
+
+    @Override
+    public Container or(Container other) {
+      BitmapContainer o = other.toBitmap();
+      long[] result = new long[BITMAP_WORDS];
+      int resultCardinality = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        result[i] = words[i] | o.words[i];
+        resultCardinality += Long.bitCount(result[i]);
+      }
+      return new BitmapContainer(result, resultCardinality);
+    }
+
+    @Override
+    public Container and(Container other) {
+      if (other instanceof ArrayContainer) {
+        return other.and(this);
+      }
+      BitmapContainer o = (BitmapContainer) other;
+      long[] result = new long[BITMAP_WORDS];
+      int resultCardinality = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        result[i] = words[i] & o.words[i];
+        resultCardinality += Long.bitCount(result[i]);
+      }
+      BitmapContainer bitmapContainer = new BitmapContainer(result, resultCardinality);
+      if (resultCardinality <= ARRAY_CONTAINER_MAX) {
+        char[] values = new char[resultCardinality];
+        bitmapContainer.fillChars(values);
+        return new ArrayContainer(values, resultCardinality);
+      }
+      return bitmapContainer;
+    }
+
+    @Override
+    public Container andNot(Container other) {
+      BitmapContainer result = (BitmapContainer) copy();
+      if (other instanceof ArrayContainer) {
+        ArrayContainer o = (ArrayContainer) other;
+        Container container = result;
+        for (int i = 0; i < o.cardinality; i++) {
+          container = container.remove(o.values[i]);
+        }
+        return container;
+      }
+      BitmapContainer o = (BitmapContainer) other;
+      int resultCardinality = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        result.words[i] &= ~o.words[i];
+        resultCardinality += Long.bitCount(result.words[i]);
+      }
+      result.cardinality = resultCardinality;
+      if (resultCardinality <= ARRAY_CONTAINER_MAX) {
+        char[] values = new char[resultCardinality];
+        result.fillChars(values);
+        return new ArrayContainer(values, resultCardinality);
+      }
+      return result;
+    }
+
+    @Override
+    public Container copy() {
+      return new BitmapContainer(Arrays.copyOf(words, BITMAP_WORDS), cardinality);
+    }
+
+    @Override
+    public BitmapContainer toBitmap() {
+      return this;
+    }
+
+    private void fillChars(char[] values) {
+      int position = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          values[position++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+    }
+  }
+}
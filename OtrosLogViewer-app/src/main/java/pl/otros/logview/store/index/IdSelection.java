@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+/**
+ * Result of index query. Index knows only about events added before the query was executed, so ids greater than
+ * {@link #getIndexedUpToId()} are not covered and have to be checked in old way.
+ */
+public class IdSelection {
+
+  private final IdBitmap ids;
+  private final int indexedUpToId;
+
+  public IdSelection(IdBitmap ids, int indexedUpToId) {
+    this.ids = ids;
+    this.indexedUpToId = indexedUpToId;
+  }
+
+  public boolean covers(int id) {
+    return id >= 0 && id <= indexedUpToId;
+  }
+
+  public boolean contains(int id) {
+    return ids.contains(id);
+  }
+
+  /**
+   * @return true if index knows that event with given id is not selected
+   */
+  public boolean excludes(int id) {
+    return covers(id) && !ids.contains(id);
+  }
+
+  public IdBitmap getIds() {
+    return ids;
+  }
+
+  public int getIndexedUpToId() {
+    return indexedUpToId;
+  }
+
+  public int size() {
+    return ids.cardinality();
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import pl.otros.logview.LogData;
+
+/**
+ * Low cardinality fields of {@link LogData} which are indexed by log stores.
+ */
+public enum IndexedField {
+
+  THREAD {
+    @Override
+    public String getValue(LogData logData) {
+      return logData.getThread();
+    }
+  },
+  CLASS {
+    @Override
+    public String getValue(LogData logData) {
+      return logData.getClazz();
+    }
+  },
+  LOGGER_NAME {
+    @Override
+    public String getValue(LogData logData) {
+      return logData.getLoggerName();
+    }
+  },
+  LOG_SOURCE {
+    @Override
+    public String getValue(LogData logData) {
+      return logData.getLogSource();
+    }
+  };
+
+  public abstract String getValue(LogData logData);
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import pl.otros.logview.LogData;
+
+import java.util.EnumMap;
+
+/**
+ * Bitmap indexes of {@link IndexedField}s and package tree of classes maintained by log store while events are added
+ * and removed.
+ */
+public class LogDataIndexes {
+
+  private final EnumMap<IndexedField, FieldIndex> indexes = new EnumMap<IndexedField, FieldIndex>(IndexedField.class);
+  private final PackageTree classTree = new PackageTree();
+  private final MessageIndexer messageIndexer;
+
+  public LogDataIndexes() {
+    this(MessageIndexer.isEnabled());
+  }
+
+  public LogDataIndexes(boolean indexMessages) {
+    for (IndexedField field : IndexedField.values()) {
+      indexes.put(field, new FieldIndex(field.name()));
+    }
+    messageIndexer = indexMessages ? new MessageIndexer() : null;
+  }
+
+  public void add(LogData logData) {
+    int id = logData.getId();
+    for (IndexedField field : IndexedField.values()) {
+      indexes.get(field).add(field.getValue(logData), id);
+    }
+    classTree.add(logData.getClazz());
+    if (messageIndexer != null) {
+      messageIndexer.add(id, logData.getMessage());
+    }
+  }
+
+  /**
+   * Removes event known only by id. Class of event is taken from index, so package tree is not updated for classes
+   * seen first after class index overflowed.
+   */
+  public void remove(int id) {
+    String clazz = null;
+    for (IndexedField field : IndexedField.values()) {
+      String value = indexes.get(field).remove(id);
+      if (field == IndexedField.CLASS) {
+        clazz = value;
+      }
+    }
+    classTree.remove(clazz);
+    if (messageIndexer != null) {
+      messageIndexer.remove(id);
+    }
+  }
+
+  public void remove(LogData logData) {
+    int id = logData.getId();
+    for (IndexedField field : IndexedField.values()) {
+      indexes.get(field).remove(id);
+    }
+    classTree.remove(logData.getClazz());
+    if (messageIndexer != null) {
+      messageIndexer.remove(id);
+    }
+  }
+
+  public void clear() {
+    for (FieldIndex index : indexes.values()) {
+      index.clear();
+    }
+    classTree.clear();
+    if (messageIndexer != null) {
+      messageIndexer.clear();
+    }
+  }
+
+  public FieldIndex get(IndexedField field) {
+    return indexes.get(field);
+  }
+
+  public PackageTree getClassTree() {
+    return classTree;
+  }
+
+  /**
+   * @return indexer of messages or null if messages are not indexed
+   */
+  public MessageIndexer getMessageIndexer() {
+    return messageIndexer;
+  }
+
+  /**
+   * @return events which can contain text (ignoring case) or null if messages are not indexed
+   */
+  public IdSelection selectMessagesContaining(String text) {
+    return messageIndexer != null ? messageIndexer.selectContaining(text) : null;
+  }
+
+  /**
+   * @return events which can match regular expression or null if messages are not indexed or expression does not
+   *         require any literal
+   */
+  public IdSelection selectMessagesMatching(String regex) {
+    return messageIndexer != null ? messageIndexer.selectMatching(regex) : null;
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds message indexes in background thread, so adding events to store is not slowed down. Messages are indexed in
+ * the same order as they are added, index results cover ids up to {@link #getIndexedUpToId()}. Events which failed to
+ * be indexed are always returned as candidates. Queue of pending events is bounded, adding waits when indexer is
+ * behind, so pending messages do not pile up in memory.
+ */
+public class MessageIndexer {
+
+  private static final Logger LOGGER = Logger.getLogger(MessageIndexer.class.getName());
+  public static final String INDEX_MESSAGES_PROPERTY = "indexMessages";
+  private static final int REMOVED_IDS_SWEEP_SIZE = 10000;
+  private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+  private final ThreadPoolExecutor executor;
+  private final TokenIndex tokenIndex;
+  private final TrigramIndex trigramIndex;
+  private volatile int indexedUpToId = -1;
+  private final IdBitmap failedIds = new IdBitmap();
+  private IdBitmap removedIds = new IdBitmap();
+  private int removedIdsCount = 0;
+
+  public MessageIndexer() {
+    this(DEFAULT_QUEUE_CAPACITY, new TokenIndex(), new TrigramIndex());
+  }
+
+  MessageIndexer(int queueCapacity, TokenIndex tokenIndex, TrigramIndex trigramIndex) {
+    this.tokenIndex = tokenIndex;
+    this.trigramIndex = trigramIndex;
+    // thread is stopped when idle, so indexer of closed log view can be garbage collected
+    executor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueCapacity),
+        new ThreadFactoryBuilder().setNameFormat("MessageIndexer-%d").setDaemon(true).setPriority(Thread.MIN_PRIORITY).build(),
+        new RejectedExecutionHandler() {
+          @Override
+          public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            // queue is full, so worker thread is alive and will take task when there is room
+            try {
+              executor.getQueue().put(r);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new RejectedExecutionException("Interrupted while waiting for message indexer", e);
+            }
+          }
+        });
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  public static boolean isEnabled() {
+    return Boolean.getBoolean(INDEX_MESSAGES_PROPERTY);
+  }
+
+  public void add(final int id, final String message) {
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          tokenIndex.add(id, message);
+          trigramIndex.add(id, message);
+        } catch (RuntimeException e) {
+          LOGGER.log(Level.WARNING, "Can't index message of event " + id, e);
+          // event is covered by watermark but missing in index, it has to be always checked
+          synchronized (failedIds) {
+            failedIds.add(id);
+          }
+        }
+        indexedUpToId = Math.max(indexedUpToId, id);
+      }
+    });
+  }
+
+  public void remove(final int id) {
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        // removed ids are not mapped to any row, so they can stay in index for some time
+        removedIds.add(id);
+        if (++removedIdsCount >= REMOVED_IDS_SWEEP_SIZE) {
+          tokenIndex.removeAll(removedIds);
+          trigramIndex.removeAll(removedIds);
+          synchronized (failedIds) {
+            failedIds.andNot(removedIds);
+          }
+          removedIds = new IdBitmap();
+          removedIdsCount = 0;
+        }
+      }
+    });
+  }
+
+  public void clear() {
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        tokenIndex.clear();
+        trigramIndex.clear();
+        synchronized (failedIds) {
+          failedIds.clear();
+        }
+        removedIds = new IdBitmap();
+        removedIdsCount = 0;
+      }
+    });
+  }
+
+  public int getIndexedUpToId() {
+    return indexedUpToId;
+  }
+
+  public int getPendingCount() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * @return events which can contain text (ignoring case) or null if index can't help
+   */
+  public IdSelection selectContaining(String text) {
+    int upToId = indexedUpToId;
+    IdBitmap candidates = tokenIndex.findCandidates(text);
+    return candidates != null ? new IdSelection(withFailed(candidates), upToId) : null;
+  }
+
+  /**
+   * @return events which can match regular expression or null if index can't help
+   */
+  public IdSelection selectMatching(String regex) {
+    List<Set<String>> literals = RegexLiterals.analyze(regex);
+    if (literals == null) {
+      return null;
+    }
+    int upToId = indexedUpToId;
+    IdBitmap candidates = trigramIndex.findCandidates(literals);
+    return candidates != null ? new IdSelection(withFailed(candidates), upToId) : null;
+  }
+
+  private IdBitmap withFailed(IdBitmap candidates) {
+    synchronized (failedIds) {
+      if (!failedIds.isEmpty()) {
+        candidates.or(failedIds);
+      }
+    }
+    return candidates;
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import java.util.Collection;
+import java.util.TreeMap;
+
+/**
+ * Tree of packages and classes built from events class names. Every node keeps number of events of its class and of
+ * all classes below it, so tree view can show counts without scanning events.
+ */
+public class PackageTree {
+
+  private final Node root = new Node("", "");
+
+  public synchronized void add(String clazz) {
+    if (clazz == null || clazz.length() == 0) {
+      return;
+    }
+    Node node = root;
+    node.count++;
+    int start = 0;
+    while (start <= clazz.length()) {
+      int end = clazz.indexOf('.', start);
+      if (end < 0) {
+        end = clazz.length();
+      }
+      String name = clazz.substring(start, end);
+      Node child = node.children.get(name);
+      if (child == null) {
+        child = new Node(name, clazz.substring(0, end));
+        node.children.put(name, child);
+      }
+      child.count++;
+      node = child;
+      start = end + 1;
+    }
+    node.ownCount++;
+  }
+
+  public synchronized void remove(String clazz) {
+    if (clazz == null || clazz.length() == 0) {
+      return;
+    }
+    Node classNode = find(clazz);
+    if (classNode == null || classNode.ownCount == 0) {
+      return;
+    }
+    Node node = root;
+    node.count--;
+    int start = 0;
+    while (start <= clazz.length()) {
+      int end = clazz.indexOf('.', start);
+      if (end < 0) {
+        end = clazz.length();
+      }
+      String name = clazz.substring(start, end);
+      Node child = node.children.get(name);
+      child.count--;
+      if (child.count == 0) {
+        node.children.remove(name);
+        return;
+      }
+      node = child;
+      start = end + 1;
+    }
+    node.ownCount--;
+  }
+
+  public synchronized void clear() {
+    root.children.clear();
+    root.count = 0;
+    root.ownCount = 0;
+  }
+
+  public synchronized int getCount(String packageOrClass) {
+    Node node = find(packageOrClass);
+    return node != null ? node.count : 0;
+  }
+
+  /**
+   * @return copy of tree, safe to use while events are still added
+   */
+  public synchronized Node copy() {
+    return root.copy();
+  }
+
+  private Node find(String packageOrClass) {
+    Node node = root;
+    int start = 0;
+    while (node != null && start <= packageOrClass.length()) {
+      int end = packageOrClass.indexOf('.', start);
+      if (end < 0) {
+        end = packageOrClass.length();
+      }
+      node = node.children.get(packageOrClass.substring(start, end));
+      start = end + 1;
+    }
+    return node;
+  }
+
+  public static class Node {
+
+    private final String name;
+    private final String fullName;
+    private final TreeMap<String, Node> children = new TreeMap<String, Node>();
+    private int count;
+    private int ownCount;
+
+    private Node(String name, String fullName) {
+      this.name = name;
+      this.fullName = fullName;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getFullName() {
+      return fullName;
+    }
+
+    /**
+     * @return number of events of this class and all classes in this package
+     */
+    public int getCount() {
+      return count;
+    }
+
+    /**
+     * @return number of events which have exactly this class
+     */
+    public int getOwnCount() {
+      return ownCount;
+    }
+
+    public Collection<Node> getChildren() {
+      return children.values();
+    }
+
+    public boolean isLeaf() {
+      return children.isEmpty();
+    }
+
+    private Node copy() {
+      Node copy = new Node(name, fullName);
+      copy.count = count;
+      copy.ownCount = ownCount;
+      for (Node child : children.values()) {
+        copy.children.put(child.name, child.copy());
+      }
+      return copy;
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Set of string prefixes. Checking if any of prefixes is a prefix of a value costs O(value length), independent of
+ * number of prefixes.
+ */
+public class PrefixTrie {
+
+  private final Node root = new Node();
+  private int size = 0;
+
+  public PrefixTrie() {
+  }
+
+  public PrefixTrie(Collection<String> prefixes) {
+    for (String prefix : prefixes) {
+      add(prefix);
+    }
+  }
+
+  public void add(String prefix) {
+    Node node = root;
+    for (int i = 0; i < prefix.length(); i++) {
+      node = node.getOrCreateChild(prefix.charAt(i));
+    }
+    if (!node.terminal) {
+      node.terminal = true;
+      size++;
+    }
+  }
+
+  public boolean remove(String prefix) {
+    Node node = find(prefix);
+    if (node == null || !node.terminal) {
+      return false;
+    }
+    node.terminal = false;
+    size--;
+    return true;
+  }
+
+  public boolean contains(String prefix) {
+    Node node = find(prefix);
+    return node != null && node.terminal;
+  }
+
+  /**
+   * @return true if any of prefixes is a prefix of value
+   */
+  public boolean matches(String value) {
+    Node node = root;
+    if (node.terminal) {
+      return true;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      node = node.getChild(value.charAt(i));
+      if (node == null) {
+        return false;
+      }
+      if (node.terminal) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  private Node find(String prefix) {
+    Node node = root;
+    for (int i = 0; i < prefix.length() && node != null; i++) {
+      node = node.getChild(prefix.charAt(i));
+    }
+    return node;
+  }
+
+  private static class Node {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private char[] keys = NO_KEYS;
+    private Node[] children = NO_CHILDREN;
+    private boolean terminal;
+
+    Node getChild(char c) {
+      int index = Arrays.binarySearch(keys, c);
+      return index >= 0 ? children[index] : null;
+    }
+
+    Node getOrCreateChild(char c) {
+      int index = Arrays.binarySearch(keys, c);
+      if (index >= 0) {
+        return children[index];
+      }
+      index = -index - 1;
+      char[] newKeys = new char[keys.length + 1];
+      Node[] newChildren = new Node[children.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, index);
+      System.arraycopy(children, 0, newChildren, 0, index);
+      System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+      System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+      Node node = new Node();
+      newKeys[index] = c;
+      newChildren[index] = node;
+      keys = newKeys;
+      children = newChildren;
+      return node;
+    }
+  }
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds literals which have to be present in every match of regular expression. Result is a list of alternatives, every
+ * match contains all literals from at least one alternative. Literals are lower cased, only ASCII characters are used
+ * and literals shorter than 3 characters are skipped, so result can be used with {@link TrigramIndex} also for case
+ * insensitive expressions.
+ * <p/>
+ * Analysis is conservative: anything not understood (character classes, escapes, lookarounds, optional parts) breaks a
+ * literal and is treated as matching anything.
+ */
+public final class RegexLiterals {
+
+  static final int MAX_ALTERNATIVES = 32;
+  static final int MIN_LITERAL_LENGTH = 3;
+  private static final int NO_QUANTIFIER = -1;
+
+  private final String regex;
+  private int pos = 0;
+
+  private RegexLiterals(String regex) {
+    this.regex = regex;
+  }
+
+  /**
+   * @return alternatives of required literals or null if expression does not require any literal
+   */
+  public static List<Set<String>> analyze(String regex) {
+    RegexLiterals parser = new RegexLiterals(regex);
+    List<Set<String>> result;
+    try {
+      result = parser.parseAlternation();
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    if (parser.pos < regex.length() || isUnconstrained(result)) {
+      return null;
+    }
+    return result;
+  }
+
+  private List<Set<String>> parseAlternation() {
+    List<Set<String>> result = parseSequence();
+    while (pos < regex.length() && regex.charAt(pos) == '|') {
+      pos++;
+      result = or(result, parseSequence());
+    }
+    return result;
+  }
+
+  private List<Set<String>> parseSequence() {
+    List<Set<String>> result = all();
+    StringBuilder literal = new StringBuilder();
+    while (pos < regex.length()) {
+      char c = regex.charAt(pos);
+      if (c == '|' || c == ')') {
+        break;
+      }
+      if (c == '(') {
+        List<Set<String>> group = parseGroup();
+        int min = parseQuantifier();
+        result = withLiteral(result, literal);
+        if (min != 0) {
+          result = and(result, group);
+        }
+        continue;
+      }
+      Character atom;
+      if (regex.startsWith("\\Q", pos)) {
+        pos += 2;
+        int end = regex.indexOf("\\E", pos);
+        String quoted = regex.substring(pos, end < 0 ? regex.length() : end);
+        pos = end < 0 ? regex.length() : end + 2;
+        if (quoted.length() == 0) {
+          continue;
+        }
+        // quantifier applies only to last quoted character
+        for (int i = 0; i < quoted.length() - 1; i++) {
+          Character quotedChar = literalChar(quoted.charAt(i));
+          if (quotedChar != null) {
+            literal.append(quotedChar.charValue());
+          } else {
+            result = withLiteral(result, literal);
+          }
+        }
+        atom = literalChar(quoted.charAt(quoted.length() - 1));
+      } else {
+        atom = parseAtom();
+      }
+      int min = parseQuantifier();
+      if (atom == null || min == 0) {
+        result = withLiteral(result, literal);
+      } else if (min == NO_QUANTIFIER) {
+        literal.append(atom.charValue());
+      } else {
+        // "ab+c" requires "ab" and "bc"
+        literal.append(atom.charValue());
+        result = withLiteral(result, literal);
+        literal.append(atom.charValue());
+      }
+    }
+    return withLiteral(result, literal);
+  }
+
+  private List<Set<String>> parseGroup() {
+    pos++;
+    List<Set<String>> result;
+    if (pos < regex.length() && regex.charAt(pos) == '?') {
+      pos++;
+      char c = next();
+      if (c == ':' || c == '>') {
+        result = parseAlternation();
+      } else if (c == '=' || c == '!') {
+        parseAlternation();
+        result = all();
+      } else if (c == '<' && pos < regex.length() && (regex.charAt(pos) == '=' || regex.charAt(pos) == '!')) {
+        pos++;
+        parseAlternation();
+        result = all();
+      } else if (c == '<') {
+        skipAfter('>');
+        result = parseAlternation();
+      } else {
+        pos--;
+        result = parseFlags();
+        if (result == null) {
+          return all();
+        }
+      }
+    } else {
+      result = parseAlternation();
+    }
+    if (next() != ')') {
+      throw new IllegalArgumentException("Unclosed group");
+    }
+    return result;
+  }
+
+  /**
+   * Parses flags of "(?flags)" or "(?flags:X)".
+   *
+   * @return literals of group or null for flags only group
+   */
+  private List<Set<String>> parseFlags() {
+    while (true) {
+      char c = next();
+      if (c == 'x' || c == 'u') {
+        // comments and unicode case change meaning of literals
+        throw new IllegalArgumentException("Unsupported flag " + c);
+      } else if (c == ')') {
+        return null;
+      } else if (c == ':') {
+        return parseAlternation();
+      }
+    }
+  }
+
+  private Character parseAtom() {
+    char c = next();
+    switch (c) {
+      case '.':
+      case '^':
+      case '$':
+        return null;
+      case '[':
+        skipCharacterClass();
+        return null;
+      case '\\':
+        return parseEscape();
+      case '*':
+      case '+':
+      case '?':
+      case '{':
+        throw new IllegalArgumentException("Dangling quantifier");
+      default:
+        return literalChar(c);
+    }
+  }
+
+  private Character parseEscape() {
+    char c = next();
+    if (Character.isDigit(c)) {
+      // back reference or octal value
+      while (pos < regex.length() && Character.isDigit(regex.charAt(pos))) {
+        pos++;
+      }
+      return null;
+    }
+    if (!Character.isLetter(c)) {
+      return literalChar(c);
+    }
+    switch (c) {
+      case 'p':
+      case 'P':
+      case 'x':
+        if (pos < regex.length() && regex.charAt(pos) == '{') {
+          skipAfter('}');
+        } else {
+          pos += c == 'x' ? 2 : 1;
+        }
+        break;
+      case 'u':
+        pos += 4;
+        break;
+      case 'c':
+        pos++;
+        break;
+      case 'k':
+        skipAfter('>');
+        break;
+      case 'E':
+      case 'Q':
+        throw new IllegalArgumentException("Unexpected \\" + c);
+      default:
+        // character classes, boundaries and control characters
+        break;
+    }
+    return null;
+  }
+
+  private void skipCharacterClass() {
+    int depth = 1;
+    if (pos < regex.length() && regex.charAt(pos) == '^') {
+      pos++;
+    }
+    if (pos < regex.length() && regex.charAt(pos) == ']') {
+      pos++;
+    }
+    while (depth > 0) {
+      char c = next();
+      if (c == '\\') {
+        next();
+      } else if (c == '[') {
+        depth++;
+      } else if (c == ']') {
+        depth--;
+      }
+    }
+  }
+
+  /**
+   * @return minimal number of repetitions or {@link #NO_QUANTIFIER}
+   */
+  private int parseQuantifier() {
+    if (pos >= regex.length()) {
+      return NO_QUANTIFIER;
+    }
+    int min;
+    char c = regex.charAt(pos);
+    if (c == '*' || c == '?') {
+      pos++;
+      min = 0;
+    } else if (c == '+') {
+      pos++;
+      min = 1;
+    } else if (c == '{') {
+      pos++;
+      int start = pos;
+      while (pos < regex.length() && Character.isDigit(regex.charAt(pos))) {
+        pos++;
+      }
+      if (start == pos) {
+        throw new IllegalArgumentException("Illegal repetition");
+      }
+      min = Integer.parseInt(regex.substring(start, pos));
+      skipAfter('}');
+    } else {
+      return NO_QUANTIFIER;
+    }
+    // reluctant or possessive
+    if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+      pos++;
+    }
+    return min;
+  }
+
+  private char next() {
+    if (pos >= regex.length()) {
+      throw new IllegalArgumentException("Unexpected end of expression");
+    }
+    return regex.charAt(pos++);
+  }
+
+  private void skipAfter(char c) {
+    int index = regex.indexOf(c, pos);
+    if (index < 0) {
+      throw new IllegalArgumentException("Missing " + c);
+    }
+    pos = index + 1;
+  }
+
+  private static Character literalChar(char c) {
+    return c < 128 ? Character.toLowerCase(c) : null;
+  }
+
+  private static List<Set<String>> all() {
+    List<Set<String>> result = new ArrayList<Set<String>>();
+    result.add(Collections.<String>emptySet());
+    return result;
+  }
+
+  private static boolean isUnconstrained(List<Set<String>> alternatives) {
+    for (Set<String> literals : alternatives) {
+      if (literals.isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Adds literal to every alternative and clears literal buffer.
+   */
+  private static List<Set<String>> withLiteral(List<Set<String>> alternatives, StringBuilder literal) {
+    if (literal.length() < MIN_LITERAL_LENGTH) {
+      literal.setLength(0);
+      return alternatives;
+    }
+    String s = literal.toString();
+    literal.setLength(0);
+    List<Set<String>> result = new ArrayList<Set<String>>(alternatives.size());
+    for (Set<String> literals : alternatives) {
+      Set<String> set = new HashSet<String>(literals);
+      set.add(s);
+      result.add(set);
+    }
+    return result;
+  }
+
+  private static List<Set<String>> and(List<Set<String>> a, List<Set<String>> b) {
+    if (a.size() * b.size() > MAX_ALTERNATIVES) {
+      // dropping a constraint gives more candidates, but still all matches
+      return isUnconstrained(a) ? b : a;
+    }
+    List<Set<String>> result = new ArrayList<Set<String>>(a.size() * b.size());
+    for (Set<String> x : a) {
+      for (Set<String> y : b) {
+        Set<String> set = new HashSet<String>(x);
+        set.addAll(y);
+        result.add(set);
+      }
+    }
+    return result;
+  }
+
+  private static List<Set<String>> or(List<Set<String>> a, List<Set<String>> b) {
+    if (isUnconstrained(a) || isUnconstrained(b) || a.size() + b.size() > MAX_ALTERNATIVES) {
+      return all();
+    }
+    List<Set<String>> result = new ArrayList<Set<String>>(a);
+    result.addAll(b);
+    return result;
+  }
+}
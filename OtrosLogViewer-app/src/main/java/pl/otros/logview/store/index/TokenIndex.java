@@ -0,0 +1,181 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index of words in log messages. Word is a run of letters or digits, words are kept in lower case. Index is
+ * used to find candidates for case insensitive "contains" search, every candidate still has to be verified.
+ */
+public class TokenIndex {
+
+  static final int MAX_TOKEN_LENGTH = 64;
+
+  private final Map<String, IdBitmap> postings = new HashMap<String, IdBitmap>();
+  /**
+   * Events with words longer than {@link #MAX_TOKEN_LENGTH}, these are always candidates.
+   */
+  private final IdBitmap notFullyIndexed = new IdBitmap();
+
+  public synchronized void add(int id, String message) {
+    if (message == null) {
+      return;
+    }
+    StringBuilder token = new StringBuilder();
+    int length = message.length();
+    for (int i = 0; i <= length; i++) {
+      char c = i < length ? message.charAt(i) : ' ';
+      if (Character.isLetterOrDigit(c)) {
+        token.append(Character.toLowerCase(c));
+      } else if (token.length() > 0) {
+        if (token.length() > MAX_TOKEN_LENGTH) {
+          notFullyIndexed.add(id);
+        } else {
+          String word = token.toString();
+          IdBitmap ids = postings.get(word);
+          if (ids == null) {
+            ids = new IdBitmap();
+            postings.put(word, ids);
+          }
+          ids.add(id);
+        }
+        token.setLength(0);
+      }
+    }
+  }
+
+  public synchronized void removeAll(IdBitmap ids) {
+    Iterator<IdBitmap> iterator = postings.values().iterator();
+    while (iterator.hasNext()) {
+      IdBitmap posting = iterator.next();
+      posting.andNot(ids);
+      if (posting.isEmpty()) {
+        iterator.remove();
+      }
+    }
+    notFullyIndexed.andNot(ids);
+  }
+
+  public synchronized void clear() {
+    postings.clear();
+    notFullyIndexed.clear();
+  }
+
+  public synchronized int getTokenCount() {
+    return postings.size();
+  }
+
+  /**
+   * Finds events which can contain text (ignoring case).
+   *
+   * @return ids of candidates or null if index can't narrow search (text has no letters or digits)
+   */
+  public synchronized IdBitmap findCandidates(String text) {
+    List<QueryToken> tokens = QueryToken.parse(text);
+    if (tokens.isEmpty()) {
+      return null;
+    }
+    // whole words are cheap to look up and usually narrow result most, check them first
+    IdBitmap result = null;
+    for (QueryToken token : tokens) {
+      if (token.isWholeWord()) {
+        IdBitmap ids = postings.get(token.text);
+        result = intersect(result, ids != null ? ids : new IdBitmap());
+      }
+    }
+    for (QueryToken token : tokens) {
+      if (result != null && result.isEmpty()) {
+        break;
+      }
+      if (!token.isWholeWord()) {
+        IdBitmap ids = new IdBitmap();
+        for (Map.Entry<String, IdBitmap> entry : postings.entrySet()) {
+          if (token.matches(entry.getKey())) {
+            ids.or(entry.getValue());
+          }
+        }
+        result = intersect(result, ids);
+      }
+    }
+    result.or(notFullyIndexed);
+    return result;
+  }
+
+  private IdBitmap intersect(IdBitmap result, IdBitmap ids) {
+    if (result == null) {
+      return new IdBitmap(ids);
+    }
+    result.and(ids);
+    return result;
+  }
+
+  /**
+   * Word from searched text. First and last word can be a part of longer word in message, unless they are separated by
+   * other characters in searched text.
+   */
+  static class QueryToken {
+
+    private final String text;
+    private final boolean boundedBefore;
+    private final boolean boundedAfter;
+
+    QueryToken(String text, boolean boundedBefore, boolean boundedAfter) {
+      this.text = text;
+      this.boundedBefore = boundedBefore;
+      this.boundedAfter = boundedAfter;
+    }
+
+    static List<QueryToken> parse(String text) {
+      ArrayList<QueryToken> result = new ArrayList<QueryToken>();
+      StringBuilder token = new StringBuilder();
+      int start = 0;
+      int length = text.length();
+      for (int i = 0; i <= length; i++) {
+        char c = i < length ? text.charAt(i) : ' ';
+        if (Character.isLetterOrDigit(c)) {
+          if (token.length() == 0) {
+            start = i;
+          }
+          token.append(Character.toLowerCase(c));
+        } else if (token.length() > 0) {
+          if (token.length() <= MAX_TOKEN_LENGTH) {
+            result.add(new QueryToken(token.toString(), start > 0, i < length));
+          }
+          token.setLength(0);
+        }
+      }
+      return result;
+    }
+
+    boolean isWholeWord() {
+      return boundedBefore && boundedAfter;
+    }
+
+    boolean matches(String word) {
+      if (boundedBefore) {
+        return word.startsWith(text);
+      } else if (boundedAfter) {
+        return word.endsWith(text);
+      }
+      return word.contains(text);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of lower cased character trigrams of log messages. Used to find candidates for regular expression search, query
+ * is built from literals required by expression (see {@link RegexLiterals}). Every candidate still has to be verified.
+ */
+public class TrigramIndex {
+
+  private final Map<Long, IdBitmap> postings = new HashMap<Long, IdBitmap>();
+
+  public synchronized void add(int id, String message) {
+    if (message == null) {
+      return;
+    }
+    int length = message.length();
+    for (int i = 0; i + 2 < length; i++) {
+      Long trigram = trigram(message, i);
+      IdBitmap ids = postings.get(trigram);
+      if (ids == null) {
+        ids = new IdBitmap();
+        postings.put(trigram, ids);
+      }
+      ids.add(id);
+    }
+  }
+
+  public synchronized void removeAll(IdBitmap ids) {
+    Iterator<IdBitmap> iterator = postings.values().iterator();
+    while (iterator.hasNext()) {
+      IdBitmap posting = iterator.next();
+      posting.andNot(ids);
+      if (posting.isEmpty()) {
+        iterator.remove();
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    postings.clear();
+  }
+
+  public synchronized int getTrigramCount() {
+    return postings.size();
+  }
+
+  /**
+   * Finds events containing all literals of at least one alternative.
+   *
+   * @param alternatives alternatives of required literals, as returned by {@link RegexLiterals#analyze(String)}
+   * @return ids of candidates or null if index can't narrow search
+   */
+  public synchronized IdBitmap findCandidates(List<Set<String>> alternatives) {
+    IdBitmap result = new IdBitmap();
+    for (Set<String> literals : alternatives) {
+      IdBitmap ids = findContainingAll(literals);
+      if (ids == null) {
+        return null;
+      }
+      result.or(ids);
+    }
+    return result;
+  }
+
+  private IdBitmap findContainingAll(Set<String> literals) {
+    IdBitmap result = null;
+    for (String literal : literals) {
+      String lowerCase = literal.toLowerCase();
+      for (int i = 0; i + 2 < lowerCase.length(); i++) {
+        IdBitmap ids = postings.get(trigram(lowerCase, i));
+        if (ids == null) {
+          return new IdBitmap();
+        }
+        if (result == null) {
+          result = new IdBitmap(ids);
+        } else {
+          result.and(ids);
+        }
+        if (result.isEmpty()) {
+          return result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Long trigram(String s, int start) {
+    long c1 = Character.toLowerCase(s.charAt(start));
+    long c2 = Character.toLowerCase(s.charAt(start + 1));
+    long c3 = Character.toLowerCase(s.charAt(start + 2));
+    return (c1 << 32) | (c2 << 16) | c3;
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton finding many patterns in one pass over text, ignoring case. Text is not copied, characters are
+ * lower cased one by one. Transitions for ASCII characters are precomputed, other characters follow failure links.
+ */
+public class AhoCorasick {
+
+  private static final int ASCII = 128;
+
+  private final int patternCount;
+  private final int[] asciiTransitions;
+  private final List<Map<Character, Integer>> children = new ArrayList<Map<Character, Integer>>();
+  private final int[] fail;
+  private final int[][] outputs;
+
+  /**
+   * @param patterns not empty patterns, pattern index is used in result of {@link #find(CharSequence)}
+   */
+  public AhoCorasick(List<String> patterns) {
+    patternCount = patterns.size();
+    List<List<Integer>> stateOutputs = new ArrayList<List<Integer>>();
+    children.add(new HashMap<Character, Integer>());
+    stateOutputs.add(new ArrayList<Integer>());
+    for (int i = 0; i < patterns.size(); i++) {
+      String pattern = patterns.get(i);
+      if (pattern.length() == 0) {
+        throw new IllegalArgumentException("Empty pattern");
+      }
+      int state = 0;
+      for (int j = 0; j < pattern.length(); j++) {
+        Character c = Character.toLowerCase(pattern.charAt(j));
+        Integer next = children.get(state).get(c);
+        if (next == null) {
+          next = children.size();
+          children.add(new HashMap<Character, Integer>());
+          stateOutputs.add(new ArrayList<Integer>());
+          children.get(state).put(c, next);
+        }
+        state = next;
+      }
+      stateOutputs.get(state).add(i);
+    }
+
+    int states = children.size();
+    fail = new int[states];
+    asciiTransitions = new int[states * ASCII];
+    outputs = new int[states][];
+    LinkedList<Integer> queue = new LinkedList<Integer>();
+    queue.add(0);
+    while (!queue.isEmpty()) {
+      int state = queue.removeFirst();
+      if (state != 0) {
+        stateOutputs.get(state).addAll(stateOutputs.get(fail[state]));
+      }
+      for (Map.Entry<Character, Integer> entry : children.get(state).entrySet()) {
+        int child = entry.getValue();
+        fail[child] = state == 0 ? 0 : next(fail[state], entry.getKey());
+        queue.add(child);
+      }
+      for (char c = 0; c < ASCII; c++) {
+        Integer child = children.get(state).get(c);
+        if (child != null) {
+          asciiTransitions[state * ASCII + c] = child;
+        } else {
+          asciiTransitions[state * ASCII + c] = state == 0 ? 0 : asciiTransitions[fail[state] * ASCII + c];
+        }
+      }
+    }
+    for (int i = 0; i < states; i++) {
+      List<Integer> list = stateOutputs.get(i);
+      outputs[i] = new int[list.size()];
+      for (int j = 0; j < outputs[i].length; j++) {
+        outputs[i][j] = list.get(j);
+      }
+    }
+  }
+
+  /**
+   * Transition for character, for ASCII characters state has to be already processed.
+   */
+  private int next(int state, char c) {
+    if (c < ASCII) {
+      return asciiTransitions[state * ASCII + c];
+    }
+    while (true) {
+      Integer child = children.get(state).get(c);
+      if (child != null) {
+        return child;
+      }
+      if (state == 0) {
+        return 0;
+      }
+      state = fail[state];
+    }
+  }
+
+  /**
+   * @return indexes of patterns found in text
+   */
+  public BitSet find(CharSequence text) {
+    BitSet found = new BitSet(patternCount);
+    int state = 0;
+    int length = text.length();
+    for (int i = 0; i < length; i++) {
+      char c = Character.toLowerCase(text.charAt(i));
+      state = next(state, c);
+      for (int pattern : outputs[state]) {
+        found.set(pattern);
+      }
+    }
+    return found;
+  }
+
+  public int getPatternCount() {
+    return patternCount;
+  }
+}
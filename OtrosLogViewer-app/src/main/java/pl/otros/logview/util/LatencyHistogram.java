@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of durations with fixed, roughly logarithmic buckets from 1 microsecond to 5 seconds. Recording
+ * costs few atomic additions, so it can be used for every parsed line as well as for every plugin invocation.
+ */
+public class LatencyHistogram {
+
+  /**
+   * Upper bounds (exclusive) of buckets in nanoseconds, last bucket collects everything above
+   */
+  private static final long[] BUCKET_BOUNDS_NANOS = {
+      1000, 2000, 5000, 10000, 20000, 50000, 100000, 200000, 500000,
+      1000000, 2000000, 5000000, 10000000, 20000000, 50000000, 100000000, 200000000, 500000000,
+      1000000000, 2000000000, 5000000000L, Long.MAX_VALUE};
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_NANOS.length);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /**
+   * @return upper bound of the last bounded bucket in milliseconds, longer durations fall into one bucket
+   */
+  public static long getLargestBoundMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(BUCKET_BOUNDS_NANOS[BUCKET_BOUNDS_NANOS.length - 2]);
+  }
+
+  public void record(long durationNanos) {
+    int bucket = 0;
+    while (durationNanos >= BUCKET_BOUNDS_NANOS[bucket]) {
+      bucket++;
+    }
+    buckets.incrementAndGet(bucket);
+    count.increment();
+    totalNanos.add(durationNanos);
+    long max;
+    while ((max = maxNanos.get()) < durationNanos && !maxNanos.compareAndSet(max, durationNanos)) {
+      // retry
+    }
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getTotalNanos() {
+    return totalNanos.sum();
+  }
+
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  public long getMaxMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+  }
+
+  public double getMeanNanos() {
+    long c = count.sum();
+    return c == 0 ? 0 : (double) totalNanos.sum() / c;
+  }
+
+  public double getMeanMillis() {
+    return getMeanNanos() / 1000000d;
+  }
+
+  /**
+   * @param percentile percentile from range (0,100]
+   * @return upper bound of bucket containing given percentile in nanoseconds, maximal recorded duration for the last
+   * bucket or 0 if nothing was recorded
+   */
+  public long getPercentileNanos(double percentile) {
+    long[] snapshot = getBucketCounts();
+    long total = 0;
+    for (long bucketCount : snapshot) {
+      total += bucketCount;
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long threshold = (long) Math.ceil(total * percentile / 100);
+    long sum = 0;
+    for (int i = 0; i < snapshot.length - 1; i++) {
+      sum += snapshot[i];
+      if (sum >= threshold) {
+        return BUCKET_BOUNDS_NANOS[i];
+      }
+    }
+    return Math.max(maxNanos.get(), BUCKET_BOUNDS_NANOS[snapshot.length - 2]);
+  }
+
+  /**
+   * @param percentile percentile from range (0,100]
+   * @return upper bound of bucket containing given percentile in milliseconds (rounded up), maximal recorded duration
+   * for the last bucket or 0 if nothing was recorded
+   */
+  public long getPercentileMillis(double percentile) {
+    long nanos = getPercentileNanos(percentile);
+    return (nanos + TimeUnit.MILLISECONDS.toNanos(1) - 1) / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  public long[] getBucketCounts() {
+    long[] result = new long[buckets.length()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = buckets.get(i);
+    }
+    return result;
+  }
+
+  public void reset() {
+    for (int i = 0; i < buckets.length(); i++) {
+      buckets.set(i, 0);
+    }
+    count.reset();
+    totalNanos.reset();
+    maxNanos.set(0);
+  }
+}
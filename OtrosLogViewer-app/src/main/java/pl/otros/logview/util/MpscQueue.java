@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unbounded, lock free, multi producer single consumer queue. Producers exchange tail with one atomic operation, so
+ * they never block each other or the consumer.
+ * <p/>
+ * {@link #offer(Object)} can be called from any thread, {@link #poll()} only from one consumer thread.
+ */
+public class MpscQueue<E> {
+
+  private final AtomicReference<Node<E>> tail;
+  private volatile Node<E> head;
+
+  public MpscQueue() {
+    Node<E> stub = new Node<E>(null);
+    head = stub;
+    tail = new AtomicReference<Node<E>>(stub);
+  }
+
+  public void offer(E e) {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    Node<E> node = new Node<E>(e);
+    Node<E> previous = tail.getAndSet(node);
+    previous.next = node;
+  }
+
+  /**
+   * Removes head of queue. Have to be called only by consumer thread.
+   *
+   * @return head of queue or null if queue is empty
+   */
+  public E poll() {
+    Node<E> h = head;
+    Node<E> next = h.next;
+    if (next == null) {
+      if (h == tail.get()) {
+        return null;
+      }
+      // producer exchanged tail but has not linked node yet
+      while ((next = h.next) == null) {
+        Thread.yield();
+      }
+    }
+    E value = next.value;
+    next.value = null;
+    head = next;
+    return value;
+  }
+
+  public boolean isEmpty() {
+    return head == tail.get();
+  }
+
+  /**
+   * Returns elements currently in queue without removing them. Result is exact only if consumer is not polling at the
+   * same time.
+   */
+  public List<E> snapshot() {
+    List<E> result = new ArrayList<E>();
+    Node<E> node = head.next;
+    while (node != null) {
+      E value = node.value;
+      if (value != null) {
+        result.add(value);
+      }
+      node = node.next;
+    }
+    return result;
+  }
+
+  private static final class Node<E> {
+
+    private volatile E value;
+    private volatile Node<E> next;
+
+    private Node(E value) {
+      this.value = value;
+    }
+  }
+}
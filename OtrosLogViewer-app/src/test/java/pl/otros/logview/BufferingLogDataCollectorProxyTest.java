@@ -56,14 +56,30 @@ public class BufferingLogDataCollectorProxyTest {
     LogData data2 = new LogData();
     data2.setId(2);
     LogData[] toAdd = new LogData[] { data1, data2 };
+    // events are passed to delegate as soon as they are added, pause to check buffer
+    configuration.setProperty(ConfKeys.TAILING_PANEL_PLAY, false);
     bufferingLogDataCollectorProxy.add(toAdd);
 
     AssertJUnit.assertArrayEquals(toAdd, bufferingLogDataCollectorProxy.getLogData());
+    configuration.setProperty(ConfKeys.TAILING_PANEL_PLAY, true);
     Thread.sleep(2 * sleepTime);
     AssertJUnit.assertArrayEquals(toAdd, delegate.getLogData());
 
   }
 
+  @Test
+  public void testBatchesMergedInOrder() throws InterruptedException {
+    LogData[] first = new LogData[] { new LogData(), new LogData() };
+    LogData[] second = new LogData[] { new LogData() };
+    configuration.setProperty(ConfKeys.TAILING_PANEL_PLAY, false);
+    bufferingLogDataCollectorProxy.add(first);
+    bufferingLogDataCollectorProxy.add(second);
+
+    configuration.setProperty(ConfKeys.TAILING_PANEL_PLAY, true);
+    Thread.sleep(2 * sleepTime);
+    AssertJUnit.assertArrayEquals(new LogData[] { first[0], first[1], second[0] }, delegate.getLogData());
+  }
+
   @Test
   public void testAddLogData() throws Exception {
     LogData data = new LogData();
@@ -85,6 +101,7 @@ public class BufferingLogDataCollectorProxyTest {
     LogData data2 = new LogData();
     data2.setId(2);
     AssertJUnit.assertEquals(0, delegate.getLogData().length);
+    configuration.setProperty(ConfKeys.TAILING_PANEL_PLAY, false);
     bufferingLogDataCollectorProxy.add(data1);
     bufferingLogDataCollectorProxy.add(data2);
     LogData[] logData = bufferingLogDataCollectorProxy.getLogData();
@@ -110,4 +127,18 @@ public class BufferingLogDataCollectorProxyTest {
 
   }
 
+  @Test
+  public void testDrainerWokenUpByAdd() throws InterruptedException {
+    ProxyLogDataCollector collector = new ProxyLogDataCollector();
+    BufferingLogDataCollectorProxy proxy = new BufferingLogDataCollectorProxy(collector, 60000, configuration);
+    Thread.sleep(sleepTime);
+    proxy.add(new LogData());
+    long deadline = System.currentTimeMillis() + 5000;
+    while (collector.getLogData().length == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    AssertJUnit.assertEquals(1, collector.getLogData().length);
+    proxy.stop();
+  }
+
 }
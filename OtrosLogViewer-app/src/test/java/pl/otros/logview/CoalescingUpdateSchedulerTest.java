@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview;
+
+import org.testng.annotations.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+public class CoalescingUpdateSchedulerTest {
+
+  @Test
+  public void testBatchesMergedWhenEdtIsBusy() throws Exception {
+    // given
+    CountingCollector collector = new CountingCollector();
+    CoalescingUpdateScheduler scheduler = new CoalescingUpdateScheduler(collector, 1000);
+    final CountDownLatch edtBlocked = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    SwingUtilities.invokeLater(new Runnable() {
+      @Override
+      public void run() {
+        edtBlocked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException ignore) {
+        }
+      }
+    });
+    edtBlocked.await();
+
+    // when
+    scheduler.add(new LogData[]{logData(1), logData(2)});
+    scheduler.add(new LogData[]{logData(3)});
+    scheduler.add(new LogData[0]);
+    scheduler.add(new LogData[]{logData(4)});
+    release.countDown();
+    waitForEdt();
+
+    // then
+    assertEquals(1, collector.calls);
+    assertEquals(4, collector.logData.size());
+    assertEquals(4, collector.logData.get(3).getId());
+    assertEquals(3, scheduler.getBatches());
+    assertEquals(1, scheduler.getUpdates());
+    assertEquals(2, scheduler.getMergedBatches());
+  }
+
+  @Test
+  public void testUpdatesLimitedByFrame() throws Exception {
+    // given
+    CountingCollector collector = new CountingCollector();
+    CoalescingUpdateScheduler scheduler = new CoalescingUpdateScheduler(collector, 2);
+
+    // when
+    scheduler.add(new LogData[]{logData(1)});
+    waitForEdt();
+    scheduler.add(new LogData[]{logData(2)});
+    waitForEdt();
+    int callsBeforeFrameEnd = collector.calls;
+    Thread.sleep(700);
+    waitForEdt();
+
+    // then
+    assertEquals(1, callsBeforeFrameEnd);
+    assertEquals(2, collector.calls);
+  }
+
+  private static void waitForEdt() throws Exception {
+    SwingUtilities.invokeAndWait(new Runnable() {
+      @Override
+      public void run() {
+      }
+    });
+  }
+
+  private static LogData logData(int id) {
+    LogData logData = new LogData();
+    logData.setId(id);
+    return logData;
+  }
+
+  private static class CountingCollector implements LogDataCollector {
+
+    private int calls;
+    private List<LogData> logData = new ArrayList<LogData>();
+
+    @Override
+    public void add(LogData... logDatas) {
+      calls++;
+      for (LogData ld : logDatas) {
+        logData.add(ld);
+      }
+    }
+
+    @Override
+    public LogData[] getLogData() {
+      return logData.toArray(new LogData[logData.size()]);
+    }
+
+    @Override
+    public int clear() {
+      int size = logData.size();
+      logData.clear();
+      return size;
+    }
+  }
+}
@@ -24,9 +24,12 @@ import pl.otros.logview.MarkerColors;
 import pl.otros.logview.Note;
 import pl.otros.logview.accept.AcceptCondition;
 import pl.otros.logview.accept.LowLevelAcceptCondition;
+import pl.otros.logview.gui.markers.BadWordsMarker;
+import pl.otros.logview.gui.markers.MarkerEngine;
 import pl.otros.logview.gui.table.TableColumns;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Set;
 import java.util.TreeMap;
@@ -268,4 +271,43 @@ public void prepareModel() {
     AssertJUnit.assertEquals(NOTE_4, dataTableModel.getNote(3).getNote());
   }
 
+  @Test
+  public void testMarkIncoming() {
+    // given
+    dataTableModel.setIncomingMarkerEngine(new MarkerEngine(Collections.singleton(new BadWordsMarker())));
+    LogData error = generateLogData(10);
+    error.setMessage("Error in message");
+    LogData ok = generateLogData(11);
+
+    // when
+    dataTableModel.markIncoming(error, ok);
+    dataTableModel.add(error, ok);
+
+    // then
+    AssertJUnit.assertTrue(dataTableModel.isMarked(10));
+    AssertJUnit.assertEquals(MarkerColors.Red, dataTableModel.getMarkerColors(10));
+    AssertJUnit.assertFalse(dataTableModel.isMarked(11));
+  }
+
+  @Test
+  public void testRenderedValuesReused() {
+    // given
+    int row = 3;
+
+    // when
+    Object delta1 = dataTableModel.getValueAt(row, TableColumns.DELTA.getColumn());
+    Object properties1 = dataTableModel.getValueAt(row, TableColumns.PROPERTIES.getColumn());
+    dataTableModel.fireTableDataChanged();
+    Object delta2 = dataTableModel.getValueAt(row, TableColumns.DELTA.getColumn());
+    Object properties2 = dataTableModel.getValueAt(row, TableColumns.PROPERTIES.getColumn());
+    dataTableModel.clear();
+    dataTableModel.add(generateLogData(0));
+    Object deltaAfterClear = dataTableModel.getValueAt(0, TableColumns.DELTA.getColumn());
+
+    // then
+    AssertJUnit.assertSame(delta1, delta2);
+    AssertJUnit.assertSame(properties1, properties2);
+    AssertJUnit.assertNotSame(delta1, deltaAfterClear);
+  }
+
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import pl.otros.logview.LogData;
+import pl.otros.logview.store.MemoryLogDataStore;
+
+import java.util.Date;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+public class RowSnapshotCacheTest {
+
+  private CountingLogDataStore store;
+  private RowSnapshotCache underTest;
+
+  @BeforeMethod
+  public void setUp() {
+    store = new CountingLogDataStore();
+    for (int i = 0; i < 200; i++) {
+      LogData logData = new LogData();
+      logData.setId(i);
+      logData.setDate(new Date(i * 1000L));
+      logData.setMessage("message " + i);
+      store.add(logData);
+    }
+    underTest = new RowSnapshotCache(store, 3, false);
+  }
+
+  @Test
+  public void testRowReadOnce() {
+    // when
+    RowSnapshotCache.RowSnapshot first = underTest.get(5);
+    first.setValue(1, "computed");
+    RowSnapshotCache.RowSnapshot second = underTest.get(5);
+
+    // then
+    assertSame(first, second);
+    assertEquals(1, store.reads);
+    assertTrue(second.isComputed(1));
+    assertFalse(second.isComputed(0));
+    assertEquals("computed", second.getValue(1));
+  }
+
+  @Test
+  public void testNullValueComputedOnce() {
+    // when
+    RowSnapshotCache.RowSnapshot snapshot = underTest.get(5);
+    snapshot.setValue(2, null);
+
+    // then
+    assertTrue(snapshot.isComputed(2));
+    assertEquals(null, snapshot.getValue(2));
+  }
+
+  @Test
+  public void testInvalidate() {
+    // given
+    underTest.get(5);
+
+    // when
+    underTest.invalidate();
+    underTest.get(5);
+
+    // then
+    assertEquals(2, store.reads);
+  }
+
+  @Test
+  public void testRowChangedInStore() {
+    // given
+    underTest.get(0);
+
+    // when
+    store.remove(0);
+    RowSnapshotCache.RowSnapshot snapshot = underTest.get(0);
+
+    // then
+    assertEquals(1, snapshot.getLogData().getId());
+    assertEquals(2, store.reads);
+  }
+
+  @Test
+  public void testPrefetchPage() {
+    // given
+    underTest.prefetchPage(RowSnapshotCache.PAGE_SIZE, 0);
+    int readsAfterPrefetch = store.reads;
+
+    // when
+    for (int row = RowSnapshotCache.PAGE_SIZE; row < 2 * RowSnapshotCache.PAGE_SIZE; row++) {
+      underTest.get(row);
+    }
+
+    // then
+    assertEquals(RowSnapshotCache.PAGE_SIZE, readsAfterPrefetch);
+    assertEquals(readsAfterPrefetch, store.reads);
+  }
+
+  @Test
+  public void testPrefetchOfOldGenerationIgnored() {
+    // given
+    underTest.invalidate();
+
+    // when
+    underTest.prefetchPage(0, 0);
+
+    // then
+    assertEquals(0, store.reads);
+  }
+
+  private static class CountingLogDataStore extends MemoryLogDataStore {
+
+    private int reads;
+
+    @Override
+    public LogData getLogData(int row) {
+      reads++;
+      return super.getLogData(row);
+    }
+  }
+}
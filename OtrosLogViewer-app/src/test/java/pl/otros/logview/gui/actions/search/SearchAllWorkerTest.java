@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.actions.search;
+
+import org.testng.annotations.Test;
+import pl.otros.logview.LogData;
+import pl.otros.logview.gui.LogDataTableModel;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+public class SearchAllWorkerTest {
+
+  @Test
+  public void testFindAllInManyChunks() throws Exception {
+    // given
+    LogDataTableModel model = new LogDataTableModel();
+    int count = SearchAllWorker.CHUNK_SIZE * 3 + 17;
+    Set<Integer> expected = new TreeSet<Integer>();
+    for (int i = 0; i < count; i++) {
+      LogData logData = new LogData();
+      logData.setDate(new Date(i));
+      logData.setMessage(i % 7 == 0 ? "Found message " + i : "Other message " + i);
+      model.add(logData);
+      if (i % 7 == 0) {
+        expected.add(i);
+      }
+    }
+    int[] rows = new int[count];
+    for (int i = 0; i < count; i++) {
+      rows[i] = i;
+    }
+    final Set<Integer> found = new TreeSet<Integer>();
+    SearchAllWorker worker = new SearchAllWorker(model, new StringContainsSearchMatcher("found"), rows) {
+      @Override
+      protected void rowsFound(int[] rows) {
+        synchronized (found) {
+          for (int row : rows) {
+            found.add(row);
+          }
+        }
+      }
+    };
+
+    // when
+    worker.execute();
+    int matched = worker.get();
+
+    // then
+    assertEquals(expected.size(), matched);
+    long timeout = System.currentTimeMillis() + 5000;
+    while (System.currentTimeMillis() < timeout) {
+      synchronized (found) {
+        if (found.size() == expected.size()) {
+          break;
+        }
+      }
+      Thread.sleep(10);
+    }
+    synchronized (found) {
+      assertEquals(expected, found);
+    }
+  }
+
+  @Test
+  public void testSearchFailureIsReported() throws Exception {
+    // given
+    LogDataTableModel model = new LogDataTableModel();
+    LogData logData = new LogData();
+    logData.setDate(new Date());
+    logData.setMessage("message");
+    model.add(logData);
+    SearchMatcher failingMatcher = new SearchMatcher() {
+      @Override
+      public boolean matches(LogData logData) {
+        throw new IllegalStateException("broken matcher");
+      }
+
+      @Override
+      public ArrayList<String> getFoundTextFragments(LogData logData) {
+        return new ArrayList<String>();
+      }
+    };
+    final CountDownLatch finished = new CountDownLatch(1);
+    final AtomicReference<Throwable> reported = new AtomicReference<Throwable>();
+    SearchAllWorker worker = new SearchAllWorker(model, failingMatcher, new int[]{0}) {
+      @Override
+      protected void rowsFound(int[] rows) {
+      }
+
+      @Override
+      protected void searchFinished(Throwable error) {
+        reported.set(error);
+        finished.countDown();
+      }
+    };
+
+    // when
+    worker.execute();
+
+    // then
+    assertTrue(finished.await(5, TimeUnit.SECONDS));
+    assertTrue(reported.get() instanceof IllegalStateException);
+    assertEquals("broken matcher", reported.get().getMessage());
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.markers;
+
+import org.testng.annotations.Test;
+import pl.otros.logview.LogData;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+public class MarkerEngineTest {
+
+  @Test
+  public void testFindMarkers() throws Exception {
+    // given
+    StringMarker timeout = new StringMarker(properties("timeout", true));
+    StringMarker notDebug = new StringMarker(properties("debug", false));
+    RegexMarker userId = new RegexMarker(regexProperties("user \\d+ logged"));
+    BadWordsMarker badWords = new BadWordsMarker();
+    MarkerEngine engine = new MarkerEngine(Arrays.asList(timeout, notDebug, userId, badWords));
+
+    // expect
+    assertEquals(Arrays.<AutomaticMarker>asList(timeout, notDebug), engine.findMarkers(logData("Read TIMEOUT")));
+    assertEquals(Collections.<AutomaticMarker>emptyList(), engine.findMarkers(logData("DEBUG: user logged")));
+    assertEquals(Arrays.<AutomaticMarker>asList(notDebug, userId), engine.findMarkers(logData("User 12 logged in")));
+    assertEquals(Arrays.<AutomaticMarker>asList(notDebug, badWords), engine.findMarkers(logData("Value is null")));
+  }
+
+  @Test
+  public void testMarkerWithoutLiteralsIsAlwaysCalled() throws Exception {
+    // given
+    AutomaticMarker all = new AbstractAutomaticMarker("all", "", null) {
+      @Override
+      public boolean toMark(LogData data) {
+        return true;
+      }
+    };
+    MarkerEngine engine = new MarkerEngine(Collections.singleton(all));
+
+    // when
+    List<AutomaticMarker> markers = engine.findMarkers(logData("anything"));
+
+    // then
+    assertEquals(Collections.singletonList(all), markers);
+  }
+
+  @Test
+  public void testMarkerDecidedByLiteralsIsNotCalled() throws Exception {
+    // given
+    StringMarker timeout = new StringMarker(properties("timeout", true)) {
+      @Override
+      public boolean toMark(LogData data) {
+        throw new AssertionError("Literal hit should decide");
+      }
+    };
+    MarkerEngine engine = new MarkerEngine(Collections.singleton(timeout));
+
+    // when
+    List<AutomaticMarker> markers = engine.findMarkers(logData("Read TimeOut"));
+
+    // then
+    assertEquals(Collections.<AutomaticMarker>singletonList(timeout), markers);
+  }
+
+  @Test
+  public void testCaseSensitiveMarkerIsVerified() throws Exception {
+    // given
+    Properties p = properties("Timeout", true);
+    p.put(PropertyFileAbstractMarker.IGNORE_CASE, "false");
+    StringMarker timeout = new StringMarker(p);
+    MarkerEngine engine = new MarkerEngine(Collections.singleton(timeout));
+
+    // expect
+    assertEquals(Collections.<AutomaticMarker>emptyList(), engine.findMarkers(logData("Read TIMEOUT")));
+    assertEquals(Collections.<AutomaticMarker>singletonList(timeout), engine.findMarkers(logData("Read Timeout")));
+  }
+
+  private LogData logData(String message) {
+    LogData logData = new LogData();
+    logData.setMessage(message);
+    return logData;
+  }
+
+  private Properties properties(String condition, boolean include) {
+    Properties p = new Properties();
+    p.put(PropertyFileAbstractMarker.NAME, condition);
+    p.put(PropertyFileAbstractMarker.DESCRIPTION, "");
+    p.put(PropertyFileAbstractMarker.GROUPS, "");
+    p.put(PropertyFileAbstractMarker.IGNORE_CASE, "true");
+    p.put(PropertyFileAbstractMarker.INCLUDE, Boolean.toString(include));
+    p.put(PropertyFileAbstractMarker.CONDITION, condition);
+    return p;
+  }
+
+  private Properties regexProperties(String regex) {
+    Properties p = properties(regex, true);
+    p.put(PropertyFileAbstractMarker.PRECONDITION, "");
+    p.put(PropertyFileAbstractMarker.PRECONDITION_INCLUDE, "true");
+    return p;
+  }
+}
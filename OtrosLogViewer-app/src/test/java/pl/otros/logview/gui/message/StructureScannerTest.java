@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.message;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+public class StructureScannerTest {
+
+  @Test
+  public void testJsonRegions() {
+    // given
+    String text = "av{ala}ma{\"k}\":{\"x\":1}} \"{q}\"";
+
+    // when
+    OffsetRanges json = new StructureScanner().scan(text).getJsonRegions();
+
+    // then
+    AssertJUnit.assertEquals(2, json.size());
+    AssertJUnit.assertEquals("{ala}", text.substring(json.getStart(0), json.getEnd(0)));
+    AssertJUnit.assertEquals("{\"k}\":{\"x\":1}}", text.substring(json.getStart(1), json.getEnd(1)));
+  }
+
+  @Test
+  public void testStackTraceRegions() {
+    // given
+    String text = "first line\njava.lang.Exception: e\n\tat a.b.C.m(C.java:1)\n\tat a.b.D.n(D.java:2)\nnot stack\nformat of (x)";
+
+    // when
+    OffsetRanges stackTraces = new StructureScanner().scan(text).getStackTraceRegions();
+
+    // then
+    AssertJUnit.assertEquals(1, stackTraces.size());
+    AssertJUnit.assertEquals("\njava.lang.Exception: e\n\tat a.b.C.m(C.java:1)\n\tat a.b.D.n(D.java:2)",
+        text.substring(stackTraces.getStart(0), stackTraces.getEnd(0)));
+  }
+
+  @Test
+  public void testStackTraceAtFirstLine() {
+    // given
+    String text = "at a.b.C.m(C.java:1)\nend";
+
+    // when
+    OffsetRanges stackTraces = new StructureScanner().scan(text).getStackTraceRegions();
+
+    // then
+    AssertJUnit.assertEquals(1, stackTraces.size());
+    AssertJUnit.assertEquals(0, stackTraces.getStart(0));
+    AssertJUnit.assertEquals(text.indexOf('\n'), stackTraces.getEnd(0));
+  }
+
+  @Test
+  public void testSoapRegions() {
+    // given
+    String soap11 = "<s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\"><s:Body/></s:Envelope>";
+    String soap12 = "<?xml version=\"1.0\"?>\n<env:Envelope xmlns:env=\"http://www.w3.org/2003/05/soap-envelope\"></env:Envelope>";
+    String notSoap = "<x:Envelope xmlns:x=\"http://example.org/\"></x:Envelope>";
+    String text = "a " + soap11 + " b " + notSoap + " c " + soap12 + " d";
+
+    // when
+    OffsetRanges soaps = new StructureScanner().scan(text).getSoapRegions();
+
+    // then
+    AssertJUnit.assertEquals(2, soaps.size());
+    AssertJUnit.assertEquals(soap11, text.substring(soaps.getStart(0), soaps.getEnd(0)));
+    AssertJUnit.assertEquals(soap12, text.substring(soaps.getStart(1), soaps.getEnd(1)));
+  }
+
+  @Test
+  public void testXmlDeclarationInOtherLine() {
+    // given
+    String text = "<?xml version=\"1.0\"\n?><s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\"></s:Envelope>";
+
+    // when
+    OffsetRanges soaps = new StructureScanner().scan(text).getSoapRegions();
+
+    // then
+    AssertJUnit.assertEquals(1, soaps.size());
+    AssertJUnit.assertEquals(text.indexOf("<s:Envelope"), soaps.getStart(0));
+    AssertJUnit.assertEquals(text.length(), soaps.getEnd(0));
+  }
+
+  @Test
+  public void testLastScanReused() {
+    // given
+    String text = "{a}";
+    StructureScanner scanner = new StructureScanner();
+
+    // when
+    MessageStructure first = scanner.scan(text);
+    MessageStructure second = scanner.scan(text);
+    MessageStructure other = new StructureScanner().scan(text);
+
+    // then
+    AssertJUnit.assertSame(first, second);
+    AssertJUnit.assertNotSame(first, other);
+  }
+
+  @Test
+  public void testNestedSoapRegionsWithDifferentPrefixes() {
+    // given
+    String inner = "<b:Envelope xmlns:b=\"http://schemas.xmlsoap.org/soap/envelope/\"></b:Envelope>";
+    String outer = "<a:Envelope xmlns:a=\"http://schemas.xmlsoap.org/soap/envelope/\">" + inner + "</a:Envelope>";
+    String text = "x " + outer + " <b:Envelope>";
+
+    // when
+    OffsetRanges soaps = new StructureScanner().scan(text).getSoapRegions();
+
+    // then
+    AssertJUnit.assertEquals(2, soaps.size());
+    AssertJUnit.assertEquals(outer, text.substring(soaps.getStart(0), soaps.getEnd(0)));
+    AssertJUnit.assertEquals(inner, text.substring(soaps.getStart(1), soaps.getEnd(1)));
+  }
+}
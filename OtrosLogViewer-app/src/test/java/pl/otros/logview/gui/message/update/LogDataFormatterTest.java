@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.message.update;
+
+import org.apache.commons.lang.StringUtils;
+import org.testng.annotations.Test;
+import pl.otros.logview.LogData;
+import pl.otros.logview.LogDataBuilder;
+import pl.otros.logview.gui.message.MessageColorizer;
+import pl.otros.logview.gui.message.MessageFormatter;
+import pl.otros.logview.pluginable.PluginableElementsContainer;
+
+import javax.swing.text.Style;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+public class LogDataFormatterTest {
+
+  @Test
+  public void testLongMessageIsNotCut() throws Exception {
+    // given
+    String message = StringUtils.repeat("0123456789", 30 * 1000);
+    LogData logData = new LogDataBuilder().withId(1).withDate(new Date()).withLevel(Level.INFO).withMessage(message).build();
+    LogDataFormatter formatter = new LogDataFormatter(logData, new SimpleDateFormat("HH:mm:ss"), new MessageUpdateUtils(),
+        new PluginableElementsContainer<MessageColorizer>(), new PluginableElementsContainer<MessageFormatter>(), new CancelStatus() {
+      @Override
+      public boolean isCancelled() {
+        return false;
+      }
+    }, 1000);
+    final List<TextChunkWithStyle> consumed = new ArrayList<TextChunkWithStyle>();
+
+    // when
+    List<TextChunkWithStyle> chunks = formatter.format(new TextChunkConsumer() {
+      @Override
+      public void consume(List<TextChunkWithStyle> formatted) {
+        consumed.addAll(formatted);
+      }
+    });
+
+    // then
+    assertEquals(chunks, consumed);
+    assertTrue(text(chunks).contains(message));
+  }
+
+  @Test
+  public void testSplitLongChunks() {
+    // given
+    List<TextChunkWithStyle> chunks = new ArrayList<TextChunkWithStyle>();
+    chunks.add(new TextChunkWithStyle("short", (Style) null));
+    chunks.add(new TextChunkWithStyle(StringUtils.repeat("x", FormatMessageDialogWorker.INSERT_CHUNK_SIZE * 2 + 1), (Style) null));
+
+    // when
+    List<TextChunkWithStyle> split = FormatMessageDialogWorker.split(chunks);
+
+    // then
+    assertEquals(4, split.size());
+    assertEquals(text(chunks), text(split));
+  }
+
+  private String text(List<TextChunkWithStyle> chunks) {
+    StringBuilder sb = new StringBuilder();
+    for (TextChunkWithStyle chunk : chunks) {
+      if (chunk.getString() != null) {
+        sb.append(chunk.getString());
+      }
+    }
+    return sb.toString();
+  }
+}
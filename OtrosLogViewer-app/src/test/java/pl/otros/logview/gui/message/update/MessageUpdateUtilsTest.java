@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.message.update;
+
+import org.testng.annotations.Test;
+import pl.otros.logview.gui.message.MessageColorizer;
+import pl.otros.logview.gui.message.MessageFragmentStyle;
+
+import javax.swing.text.BadLocationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+public class MessageUpdateUtilsTest {
+
+  @Test
+  public void testColorizeWithCache() {
+    // given
+    CountingColorizer first = new CountingColorizer(0);
+    CountingColorizer second = new CountingColorizer(2);
+    Collection<MessageColorizer> colorizers = Arrays.<MessageColorizer>asList(first, second);
+    MessageUpdateUtils messageUpdateUtils = new MessageUpdateUtils();
+
+    // when
+    Collection<MessageFragmentStyle> result1 = messageUpdateUtils.colorizeMessageWithTimeLimit(1, "message", 10, colorizers, 5);
+    Collection<MessageFragmentStyle> result2 = messageUpdateUtils.colorizeMessageWithTimeLimit(1, "message", 20, colorizers, 5);
+    messageUpdateUtils.colorizeMessageWithTimeLimit(2, "message", 20, colorizers, 5);
+
+    // then
+    assertEquals(Arrays.asList(new MessageFragmentStyle(10, 1, null, false), new MessageFragmentStyle(12, 1, null, false)), result1);
+    assertEquals(Arrays.asList(new MessageFragmentStyle(20, 1, null, false), new MessageFragmentStyle(22, 1, null, false)), result2);
+    assertEquals(2, first.count.get());
+    assertEquals(2, second.count.get());
+  }
+
+  private static class CountingColorizer implements MessageColorizer {
+
+    private final AtomicInteger count = new AtomicInteger();
+    private final int offset;
+
+    private CountingColorizer(int offset) {
+      this.offset = offset;
+    }
+
+    @Override
+    public boolean colorizingNeeded(String message) {
+      return true;
+    }
+
+    @Override
+    public Collection<MessageFragmentStyle> colorize(String textToColorize) throws BadLocationException {
+      count.incrementAndGet();
+      return new ArrayList<MessageFragmentStyle>(Collections.singletonList(new MessageFragmentStyle(offset, 1, null, false)));
+    }
+
+    @Override
+    public String getName() {
+      return "counting";
+    }
+
+    @Override
+    public String getDescription() {
+      return "";
+    }
+
+    @Override
+    public String getPluginableId() {
+      return "counting" + offset;
+    }
+
+    @Override
+    public int getApiVersion() {
+      return MESSAGE_COLORIZER_VERSION_CURRENT;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.message.update;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import pl.otros.logview.pluginable.PluginableElement;
+import pl.otros.logview.util.LatencyHistogram;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+public class PluginInvokerTest {
+
+  private PluginInvoker underTest;
+  private PluginableElement plugin;
+
+  @BeforeMethod
+  public void setUp() {
+    underTest = new PluginInvoker(2, 10);
+    plugin = new TestPlugin();
+  }
+
+  @Test
+  public void testInvoke() {
+    // when
+    String result = underTest.submit(plugin, PluginInvoker.TYPE_FORMATTER, new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        return "formatted";
+      }
+    }).get(5);
+
+    // then
+    PluginInvocationStats stats = underTest.getStats(plugin, PluginInvoker.TYPE_FORMATTER);
+    assertEquals("formatted", result);
+    assertEquals(1, stats.getHistogram().getCount());
+    assertEquals(0, stats.getErrors());
+    assertEquals(1, underTest.getAllStats().size());
+  }
+
+  @Test
+  public void testInvokeFailing() {
+    // when
+    String result = underTest.submit(plugin, PluginInvoker.TYPE_COLORIZER, new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        throw new IllegalStateException("broken plugin");
+      }
+    }).get(5);
+
+    // then
+    PluginInvocationStats stats = underTest.getStats(plugin, PluginInvoker.TYPE_COLORIZER);
+    assertNull(result);
+    assertEquals(1, stats.getErrors());
+    assertEquals(1, stats.getHistogram().getCount());
+  }
+
+  @Test
+  public void testSkipHangingPlugin() throws Exception {
+    // given
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    Callable<String> hanging = new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        started.countDown();
+        // ignores interruption like badly written plugin
+        while (true) {
+          try {
+            if (release.await(10, TimeUnit.MILLISECONDS)) {
+              return "late";
+            }
+          } catch (InterruptedException ignored) {
+            // keep hanging
+          }
+        }
+      }
+    };
+    PluginInvocationStats stats = underTest.getStats(plugin, PluginInvoker.TYPE_FORMATTER);
+
+    // when
+    PluginInvoker.Invocation<String> invocation = underTest.submit(plugin, PluginInvoker.TYPE_FORMATTER, hanging);
+    started.await();
+    String timedOutResult = invocation.get(1);
+    String skippedResult = underTest.submit(plugin, PluginInvoker.TYPE_FORMATTER, hanging).get(1);
+    release.countDown();
+    long deadline = System.currentTimeMillis() + 5000;
+    while (stats.getHanging() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+
+    // then
+    assertNull(timedOutResult);
+    assertNull(skippedResult);
+    assertEquals(1, stats.getTimeouts());
+    assertEquals(1, stats.getSkipped());
+    assertEquals(0, stats.getHanging());
+    assertEquals(1, stats.getHistogram().getCount());
+  }
+
+  @Test
+  public void testHistogramPercentile() {
+    // given
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    // when
+    for (int i = 0; i < 99; i++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(300));
+    }
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(700));
+
+    // then
+    assertEquals(100, histogram.getCount());
+    assertEquals(1, histogram.getPercentileMillis(50));
+    assertEquals(1, histogram.getPercentileMillis(99));
+    assertEquals(1000, histogram.getPercentileMillis(100));
+    assertEquals(700, histogram.getMaxMillis());
+  }
+
+  private static class TestPlugin implements PluginableElement {
+
+    @Override
+    public String getName() {
+      return "Test plugin";
+    }
+
+    @Override
+    public String getDescription() {
+      return "Test plugin";
+    }
+
+    @Override
+    public String getPluginableId() {
+      return TestPlugin.class.getName();
+    }
+
+    @Override
+    public int getApiVersion() {
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.gui.renderers;
+
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+public class RenderedValueCacheTest {
+
+  @Test
+  public void testGetPut() {
+    // given
+    RenderedValueCache<String> cache = new RenderedValueCache<String>(100);
+
+    // when
+    cache.put(1, "a");
+    cache.put(2, "b");
+
+    // then
+    assertEquals(128, cache.getCapacity());
+    assertEquals("a", cache.get(1));
+    assertEquals("b", cache.get(2));
+    assertNull(cache.get(3));
+    assertEquals(2, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void testEviction() {
+    // given
+    RenderedValueCache<String> cache = new RenderedValueCache<String>(16);
+
+    // when
+    for (int i = 0; i < 32; i++) {
+      cache.put(i, Integer.toString(i));
+    }
+
+    // then
+    for (int i = 0; i < 16; i++) {
+      assertNull(cache.get(i));
+      assertEquals(Integer.toString(i + 16), cache.get(i + 16));
+    }
+  }
+
+  @Test
+  public void testClear() {
+    // given
+    RenderedValueCache<String> cache = new RenderedValueCache<String>(16);
+    cache.put(0, "a");
+
+    // when
+    cache.clear();
+
+    // then
+    assertNull(cache.get(0));
+  }
+}
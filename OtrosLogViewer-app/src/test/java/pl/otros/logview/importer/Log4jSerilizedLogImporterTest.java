@@ -17,18 +17,23 @@
 package pl.otros.logview.importer;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 import org.testng.annotations.Test;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LocationInfo;
 import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.spi.ThrowableInformation;
 import pl.otros.logview.LogData;
 import pl.otros.logview.parser.ParsingContext;
 import pl.otros.logview.reader.ProxyLogDataCollector;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.util.Hashtable;
 import java.util.Properties;
 
 public class Log4jSerilizedLogImporterTest {
@@ -74,4 +79,56 @@ public class Log4jSerilizedLogImporterTest {
 
   }
 
+  @Test
+  public void testImportManyEventsWithThrowableAndMdc() throws IOException, InitializationException {
+    // given
+    int count = SerializedEventsReader.BATCH_SIZE * 3 + 7;
+    Logger logger = Logger.getLogger("MyLogger");
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    ObjectOutputStream oout = new ObjectOutputStream(bout);
+    Hashtable<String, Object> mdc = new Hashtable<String, Object>();
+    mdc.put("user", "john");
+    mdc.put("request", "12");
+    for (int i = 0; i < count; i++) {
+      LoggingEvent event = new LoggingEvent(getClass().getName(), logger, i, Level.ERROR, Integer.toString(i),
+        "main", new ThrowableInformation(new IOException("Broken " + i)), null, new LocationInfo(new Throwable(), getClass().getName()), mdc);
+      oout.writeObject(event);
+    }
+    oout.flush();
+    Log4jSerilizedLogImporter importer = new Log4jSerilizedLogImporter();
+    ParsingContext parsingContext = new ParsingContext();
+    ProxyLogDataCollector collector = new ProxyLogDataCollector();
+
+    // when
+    importer.importLogs(new ByteArrayInputStream(bout.toByteArray()), collector, parsingContext);
+
+    // then
+    LogData[] parsedLogData = collector.getLogData();
+    assertEquals(count, parsedLogData.length);
+    for (int i = 0; i < parsedLogData.length; i++) {
+      assertEquals(i, parsedLogData[i].getDate().getTime());
+      assertTrue(parsedLogData[i].getMessage().contains("Broken " + i));
+    }
+  }
+
+  @Test
+  public void testClassNotOnWhitelistIsRejected() throws IOException {
+    // given
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    ObjectOutputStream oout = new ObjectOutputStream(bout);
+    oout.writeObject(new LoggingEvent(null, Logger.getLogger("MyLogger"), 1, Level.INFO, "before", null));
+    oout.writeObject(new File("/etc/passwd"));
+    oout.writeObject(new LoggingEvent(null, Logger.getLogger("MyLogger"), 2, Level.INFO, "after", null));
+    oout.flush();
+    ProxyLogDataCollector collector = new ProxyLogDataCollector();
+
+    // when
+    new Log4jSerilizedLogImporter().importLogs(new ByteArrayInputStream(bout.toByteArray()), collector, new ParsingContext());
+
+    // then
+    LogData[] parsedLogData = collector.getLogData();
+    assertEquals(1, parsedLogData.length);
+    assertEquals("before", parsedLogData[0].getMessage());
+  }
+
 }
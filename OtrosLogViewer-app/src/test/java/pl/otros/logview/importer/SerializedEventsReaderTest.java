@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.importer;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+import pl.otros.logview.LogData;
+import pl.otros.logview.parser.ParsingContext;
+import pl.otros.logview.reader.ProxyLogDataCollector;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class SerializedEventsReaderTest {
+
+  @Test
+  public void testEventLargerThanLimitIsRejected() throws Exception {
+    // given
+    char[] large = new char[5000];
+    Arrays.fill(large, 'x');
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    ObjectOutputStream oout = new ObjectOutputStream(bout);
+    oout.writeObject("before");
+    oout.writeObject(new String(large));
+    oout.writeObject("after");
+    oout.close();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    SerializedEventsReader<String> reader = new SerializedEventsReader<String>(String.class, Collections.<String>emptyList(), executor) {
+      @Override
+      protected LogData convert(String event, ParsingContext parsingContext) {
+        LogData logData = new LogData();
+        logData.setMessage(event);
+        return logData;
+      }
+    };
+    reader.setMaxEventBytes(1000);
+    ProxyLogDataCollector collector = new ProxyLogDataCollector();
+    IOException exception = null;
+
+    // when
+    try {
+      reader.read(new ByteArrayInputStream(bout.toByteArray()), collector, new ParsingContext());
+    } catch (IOException e) {
+      exception = e;
+    } finally {
+      executor.shutdown();
+    }
+
+    // then
+    AssertJUnit.assertNotNull(exception);
+    AssertJUnit.assertEquals(1, collector.getLogData().length);
+    AssertJUnit.assertEquals("before", collector.getLogData()[0].getMessage());
+  }
+}
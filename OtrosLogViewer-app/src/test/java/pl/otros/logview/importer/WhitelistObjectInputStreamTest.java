@@ -0,0 +1,83 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.importer;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class WhitelistObjectInputStreamTest {
+
+  @Test(expectedExceptions = InvalidClassException.class)
+  public void testOversizedArrayIsRejected() throws Exception {
+    // given
+    WhitelistObjectInputStream in = stream(serialize(new int[101]), 100, 10);
+    AssertJUnit.assertTrue(in.isLimited());
+
+    // when
+    in.readObject();
+  }
+
+  @Test(expectedExceptions = InvalidClassException.class)
+  public void testDeepNestingIsRejected() throws Exception {
+    // given
+    List<Object> root = new ArrayList<Object>();
+    List<Object> current = root;
+    for (int i = 0; i < 20; i++) {
+      List<Object> child = new ArrayList<Object>();
+      current.add(child);
+      current = child;
+    }
+    WhitelistObjectInputStream in = stream(serialize(root), 100, 10);
+
+    // when
+    in.readObject();
+  }
+
+  @Test
+  public void testObjectWithinLimitsIsRead() throws Exception {
+    // given
+    List<Object> list = new ArrayList<Object>();
+    list.add(new String[]{"a", "b"});
+    list.add(new int[100]);
+
+    // when
+    Object read = stream(serialize(list), 100, 10).readObject();
+
+    // then
+    AssertJUnit.assertEquals(2, ((List<?>) read).size());
+  }
+
+  private static WhitelistObjectInputStream stream(byte[] bytes, int maxArrayLength, int maxDepth) throws IOException {
+    return new WhitelistObjectInputStream(new ByteArrayInputStream(bytes), Collections.<String>emptyList(), maxArrayLength, maxDepth);
+  }
+
+  private static byte[] serialize(Object o) throws IOException {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    ObjectOutputStream oout = new ObjectOutputStream(bout);
+    oout.writeObject(o);
+    oout.close();
+    return bout.toByteArray();
+  }
+}
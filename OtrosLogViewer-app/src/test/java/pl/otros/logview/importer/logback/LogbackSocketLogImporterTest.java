@@ -0,0 +1,61 @@
+package pl.otros.logview.importer.logback;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEventVO;
+import ch.qos.logback.classic.spi.ThrowableProxy;
+import org.slf4j.helpers.BasicMarkerFactory;
+import org.testng.annotations.Test;
+import pl.otros.logview.LogData;
+import pl.otros.logview.parser.ParsingContext;
+import pl.otros.logview.reader.ProxyLogDataCollector;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+
+public class LogbackSocketLogImporterTest {
+
+  @Test
+  public void testImportLogs() throws IOException {
+    //Given
+    LoggerContext context = new LoggerContext();
+    Logger logger = context.getLogger("SomeLogger");
+    Map<String, String> mdc = new HashMap<String, String>();
+    mdc.put("user", "john");
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    ObjectOutputStream oout = new ObjectOutputStream(bout);
+    int count = 1200;
+    for (int i = 0; i < count; i++) {
+      LoggingEvent le = new LoggingEvent("a.b.C", logger, ch.qos.logback.classic.Level.WARN, "message {}", null, new Object[]{i});
+      le.setMDCPropertyMap(mdc);
+      le.setMarker(new BasicMarkerFactory().getMarker("important"));
+      le.setCallerData(new StackTraceElement[]{new StackTraceElement("a.b.C", "someMethod", "C.java", 120)});
+      if (i % 100 == 0) {
+        le.setThrowableProxy(new ThrowableProxy(new IOException("Broken", new IllegalStateException("cause"))));
+      }
+      oout.writeObject(LoggingEventVO.build(le));
+    }
+    oout.flush();
+    ProxyLogDataCollector collector = new ProxyLogDataCollector();
+    ParsingContext parsingContext = new ParsingContext();
+
+    //when
+    new LogbackSocketLogImporter().importLogs(new ByteArrayInputStream(bout.toByteArray()), collector, parsingContext);
+
+    //then
+    final LogData[] logData = collector.getLogData();
+    assertEquals(logData.length, count);
+    for (int i = 0; i < count; i++) {
+      assertEquals(logData[i].getId(), i);
+      assertEquals(logData[i].getMessage().split("\n")[0], "message {}");
+      assertEquals(logData[i].getProperties().get("user"), "john");
+    }
+  }
+}
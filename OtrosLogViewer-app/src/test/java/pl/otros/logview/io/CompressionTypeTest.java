@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.io;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.VFS;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class CompressionTypeTest {
+
+  private static final String CONTENT = "2014-01-01 12:00:00 INFO Some message\n2014-01-01 12:00:01 WARN Other message\n";
+
+  @Test
+  public void testDetect() throws IOException {
+    AssertJUnit.assertEquals(CompressionType.GZIP, detect(gzip(CONTENT)));
+    AssertJUnit.assertEquals(CompressionType.BZIP2, detect(bzip2(CONTENT)));
+    AssertJUnit.assertEquals(CompressionType.ZIP, detect(zip(CONTENT)));
+    AssertJUnit.assertEquals(CompressionType.XZ, detect(new byte[]{(byte) 0xfd, '7', 'z', 'X', 'Z', 0, 0}));
+    AssertJUnit.assertEquals(CompressionType.ZSTD, detect(new byte[]{0x28, (byte) 0xb5, 0x2f, (byte) 0xfd, 0}));
+    AssertJUnit.assertEquals(CompressionType.NONE, detect(CONTENT.getBytes("UTF-8")));
+    AssertJUnit.assertEquals(CompressionType.NONE, detect(new byte[]{0x1f}));
+  }
+
+  @Test
+  public void testDetectTextStartingWithBzip2Signature() throws IOException {
+    AssertJUnit.assertEquals(CompressionType.BZIP2, detect(bzip2("")));
+    AssertJUnit.assertEquals(CompressionType.NONE, detect("BZh header of some log".getBytes("UTF-8")));
+    AssertJUnit.assertEquals(CompressionType.NONE, detect("BZh9 1AY&SY".getBytes("UTF-8")));
+    AssertJUnit.assertEquals(CompressionType.NONE, detect("BZh9".getBytes("UTF-8")));
+  }
+
+  @Test
+  public void testDecompress() throws IOException {
+    AssertJUnit.assertEquals(CONTENT, decompress(CompressionType.GZIP, gzip(CONTENT)));
+    AssertJUnit.assertEquals(CONTENT, decompress(CompressionType.BZIP2, bzip2(CONTENT)));
+    AssertJUnit.assertEquals(CONTENT, decompress(CompressionType.ZIP, zip(CONTENT)));
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testUnsupportedCompression() throws IOException {
+    CompressionType.XZ.decompress(new ByteArrayInputStream(new byte[10]));
+  }
+
+  @Test
+  public void testOpenBzip2File() throws Exception {
+    // given
+    File file = File.createTempFile("CompressionTypeTest", ".log.bz2");
+    file.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(bzip2(CONTENT));
+    out.close();
+
+    // when
+    LoadingInfo loadingInfo = Utils.openFileObject(VFS.getManager().resolveFile(file.getAbsolutePath()), true);
+
+    // then
+    AssertJUnit.assertFalse(loadingInfo.isGziped());
+    AssertJUnit.assertFalse(loadingInfo.isTailing());
+    AssertJUnit.assertEquals(CONTENT, new String(loadingInfo.getInputStreamBufferedStart(), "UTF-8"));
+    AssertJUnit.assertEquals(CONTENT, new String(IOUtils.toByteArray(loadingInfo.getContentInputStream()), "UTF-8"));
+  }
+
+  private static CompressionType detect(byte[] bytes) {
+    return CompressionType.detect(bytes, bytes.length);
+  }
+
+  private static String decompress(CompressionType type, byte[] bytes) throws IOException {
+    return new String(IOUtils.toByteArray(type.decompress(new ByteArrayInputStream(bytes))), "UTF-8");
+  }
+
+  private static byte[] gzip(String text) throws IOException {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    write(new GZIPOutputStream(bout), text);
+    return bout.toByteArray();
+  }
+
+  private static byte[] bzip2(String text) throws IOException {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    write(new BZip2CompressorOutputStream(bout), text);
+    return bout.toByteArray();
+  }
+
+  private static byte[] zip(String text) throws IOException {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    ZipOutputStream zout = new ZipOutputStream(bout);
+    zout.putNextEntry(new ZipEntry("logs/"));
+    zout.closeEntry();
+    zout.putNextEntry(new ZipEntry("logs/app.log"));
+    write(zout, text);
+    return bout.toByteArray();
+  }
+
+  private static void write(OutputStream out, String text) throws IOException {
+    out.write(text.getBytes("UTF-8"));
+    out.close();
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.io;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.VFS;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class FileIdentityTest {
+
+  private File directory;
+
+  @BeforeMethod
+  public void createDirectory() throws IOException {
+    directory = File.createTempFile("FileIdentityTest", "");
+    directory.delete();
+    directory.mkdirs();
+  }
+
+  @AfterMethod
+  public void deleteDirectory() throws IOException {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  public void testIdentitySurvivesRename() throws IOException {
+    // given
+    File file = new File(directory, "app.log");
+    append(file, "line 1\n");
+    FileIdentity identity = FileIdentity.of(file.toPath());
+    File rotated = new File(directory, "app.log.1");
+
+    // when
+    file.renameTo(rotated);
+    append(file, "new file\n");
+
+    // then
+    AssertJUnit.assertEquals(identity, FileIdentity.of(rotated.toPath()));
+    AssertJUnit.assertEquals(rotated, identity.findRotated(file));
+  }
+
+  @Test
+  public void testRotatedFileIsDrainedBeforeNewFile() throws Exception {
+    // given
+    File file = new File(directory, "app.log");
+    append(file, "line 1\n");
+    LoadingInfo loadingInfo = Utils.openFileObject(VFS.getManager().resolveFile(file.getAbsolutePath()), true);
+    loadingInfo.setLastFileSize(file.length());
+    String firstRead = read(loadingInfo);
+
+    // when
+    append(file, "line 2\n");
+    file.renameTo(new File(directory, "app.log.1"));
+    append(new File(directory, "app.log.1"), "line 3\n");
+    append(file, "line 4\n");
+    boolean changed = Utils.reloadFileObject(loadingInfo);
+    String secondRead = read(loadingInfo);
+
+    // then
+    AssertJUnit.assertTrue(changed);
+    AssertJUnit.assertEquals("line 1\n", firstRead);
+    AssertJUnit.assertEquals("line 2\nline 3\nline 4\n", secondRead);
+    AssertJUnit.assertEquals(FileIdentity.of(file.toPath()), loadingInfo.getFileIdentity());
+  }
+
+  @Test
+  public void testDataAppendedAfterReloadIsNotReadTwice() throws Exception {
+    // given
+    File file = new File(directory, "app.log");
+    append(file, "l1\nl2\n");
+    LoadingInfo loadingInfo = Utils.openFileObject(VFS.getManager().resolveFile(file.getAbsolutePath()), true);
+    loadingInfo.setLastFileSize(file.length());
+    String firstRead = read(loadingInfo);
+    append(file, "l3\n");
+    Utils.reloadFileObject(loadingInfo);
+    append(file, "l4\n");
+    String secondRead = read(loadingInfo);
+
+    // when
+    file.renameTo(new File(directory, "app.log.1"));
+    append(file, "n1\n");
+    Utils.reloadFileObject(loadingInfo);
+    String thirdRead = read(loadingInfo);
+
+    // then
+    AssertJUnit.assertEquals("l1\nl2\n", firstRead);
+    AssertJUnit.assertEquals("l3\nl4\n", secondRead);
+    AssertJUnit.assertEquals("n1\n", thirdRead);
+  }
+
+  @Test
+  public void testDataAppendedAfterReloadIsNotReadTwiceWhenFileGrows() throws Exception {
+    // given
+    File file = new File(directory, "app.log");
+    append(file, "l1\n");
+    LoadingInfo loadingInfo = Utils.openFileObject(VFS.getManager().resolveFile(file.getAbsolutePath()), true);
+    loadingInfo.setLastFileSize(file.length());
+    read(loadingInfo);
+    append(file, "l2\n");
+    Utils.reloadFileObject(loadingInfo);
+    append(file, "l3\n");
+    read(loadingInfo);
+
+    // when
+    append(file, "l4\n");
+    Utils.reloadFileObject(loadingInfo);
+
+    // then
+    AssertJUnit.assertEquals("l4\n", read(loadingInfo));
+  }
+
+  @Test
+  public void testTruncatedFileIsReadFromBeginning() throws Exception {
+    // given
+    File file = new File(directory, "app.log");
+    append(file, "line 1\nline 2\n");
+    LoadingInfo loadingInfo = Utils.openFileObject(VFS.getManager().resolveFile(file.getAbsolutePath()), true);
+    loadingInfo.setLastFileSize(file.length());
+    read(loadingInfo);
+
+    // when
+    new FileOutputStream(file).close();
+    append(file, "line 3\n");
+    boolean changed = Utils.reloadFileObject(loadingInfo);
+
+    // then
+    AssertJUnit.assertTrue(changed);
+    AssertJUnit.assertEquals("line 3\n", read(loadingInfo));
+  }
+
+  private static String read(LoadingInfo loadingInfo) throws IOException {
+    return new String(IOUtils.toByteArray(loadingInfo.getContentInputStream()), "UTF-8");
+  }
+
+  private static void append(File file, String text) throws IOException {
+    FileOutputStream out = new FileOutputStream(file, true);
+    try {
+      out.write(text.getBytes("UTF-8"));
+    } finally {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.io;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class FileTailWatcherTest {
+
+  @Test
+  public void testChangeOfLocalFileIsReported() throws Exception {
+    // given
+    final File file = File.createTempFile("FileTailWatcherTest", ".log");
+    file.deleteOnExit();
+    FileTailWatcher watcher = new FileTailWatcher(30000);
+    FileTailWatcher.Watch watch = watcher.watch(file.toPath());
+    AssertJUnit.assertTrue(watch.isWatched());
+    final CountDownLatch changes = new CountDownLatch(1);
+    watch.setChangeListener(new Runnable() {
+      @Override
+      public void run() {
+        changes.countDown();
+      }
+    });
+    Thread writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(200);
+          append(file, "new line\n");
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+
+    // when
+    writer.start();
+    boolean changed = changes.await(10, TimeUnit.SECONDS);
+
+    // then
+    AssertJUnit.assertTrue(changed);
+    watch.stop();
+    AssertJUnit.assertEquals(0, watcher.getWatchedDirectoriesCount());
+  }
+
+  @Test
+  public void testStopNotifiesListener() throws Exception {
+    // given
+    File file = File.createTempFile("FileTailWatcherTest", ".log");
+    file.deleteOnExit();
+    final FileTailWatcher.Watch watch = new FileTailWatcher(30000).watch(file.toPath());
+    final CountDownLatch stopped = new CountDownLatch(1);
+    watch.setChangeListener(new Runnable() {
+      @Override
+      public void run() {
+        stopped.countDown();
+      }
+    });
+    Thread stopper = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(200);
+        } catch (InterruptedException e) {
+          // ignore
+        }
+        watch.stop();
+      }
+    });
+
+    // when
+    stopper.start();
+    boolean notified = stopped.await(10, TimeUnit.SECONDS);
+
+    // then
+    AssertJUnit.assertTrue(notified);
+  }
+
+  @Test
+  public void testPollIntervalIsAdaptive() {
+    // given
+    FileTailWatcher.Watch watch = new FileTailWatcher(30000).new Watch(null);
+
+    // when
+    watch.dataRead(false);
+    watch.dataRead(false);
+    long afterIdle = watch.getPollInterval();
+    for (int i = 0; i < 20; i++) {
+      watch.dataRead(false);
+    }
+    long maxInterval = watch.getPollInterval();
+    watch.dataRead(true);
+
+    // then
+    AssertJUnit.assertEquals(FileTailWatcher.MIN_POLL_INTERVAL * 4, afterIdle);
+    AssertJUnit.assertEquals(FileTailWatcher.MAX_POLL_INTERVAL, maxInterval);
+    AssertJUnit.assertEquals(FileTailWatcher.MIN_POLL_INTERVAL, watch.getPollInterval());
+  }
+
+  private static void append(File file, String text) throws IOException {
+    FileOutputStream out = new FileOutputStream(file, true);
+    try {
+      out.write(text.getBytes("UTF-8"));
+    } finally {
+      out.close();
+    }
+  }
+}
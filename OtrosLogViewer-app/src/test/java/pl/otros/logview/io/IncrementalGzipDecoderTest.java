@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.io;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.VFS;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+public class IncrementalGzipDecoderTest {
+
+  @Test
+  public void testConcatenatedMembersFedByteByByte() throws IOException {
+    // given
+    byte[] compressed = concat(gzip("first member\n"), gzip("second member\n"), new byte[]{0, 0});
+    IncrementalGzipDecoder decoder = new IncrementalGzipDecoder();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // when
+    for (int i = 0; i < compressed.length; i++) {
+      decoder.decode(compressed, i, 1, out);
+    }
+
+    // then
+    AssertJUnit.assertEquals("first member\nsecond member\n", out.toString("UTF-8"));
+    AssertJUnit.assertEquals(2, decoder.getMembers());
+    AssertJUnit.assertEquals(compressed.length, decoder.getCompressedOffset());
+  }
+
+  @Test
+  public void testHeaderWithFileName() throws IOException {
+    // given
+    byte[] plain = gzip("named\n");
+    byte[] name = "app.log\u0000".getBytes("US-ASCII");
+    byte[] compressed = new byte[plain.length + name.length];
+    System.arraycopy(plain, 0, compressed, 0, 10);
+    compressed[3] = 8;
+    System.arraycopy(name, 0, compressed, 10, name.length);
+    System.arraycopy(plain, 10, compressed, 10 + name.length, plain.length - 10);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // when
+    new IncrementalGzipDecoder().decode(compressed, 0, compressed.length, out);
+
+    // then
+    AssertJUnit.assertEquals("named\n", out.toString("UTF-8"));
+  }
+
+  @Test(expectedExceptions = ZipException.class)
+  public void testCorruptedTrailer() throws IOException {
+    // given
+    byte[] compressed = gzip("some text\n");
+    compressed[compressed.length - 8] ^= 1;
+
+    // when
+    new IncrementalGzipDecoder().decode(compressed, 0, compressed.length, new ByteArrayOutputStream());
+  }
+
+  @Test
+  public void testTailingGrowingGzipFile() throws Exception {
+    // given
+    byte[] member1 = gzip("line 1\nline 2\n");
+    byte[] member2 = gzip("line 3\n");
+    int split = member1.length / 2;
+    File file = File.createTempFile("IncrementalGzipDecoderTest", ".log.gz");
+    file.deleteOnExit();
+    write(file, member1, 0, split, false);
+    LoadingInfo loadingInfo = Utils.openFileObject(VFS.getManager().resolveFile(file.getAbsolutePath()), true);
+    loadingInfo.setLastFileSize(split);
+
+    // when
+    String firstRead = new String(IOUtils.toByteArray(loadingInfo.getContentInputStream()), "UTF-8");
+    write(file, member1, split, member1.length - split, true);
+    write(file, member2, 0, member2.length, true);
+    boolean changed = Utils.reloadFileObject(loadingInfo);
+    String secondRead = new String(IOUtils.toByteArray(loadingInfo.getContentInputStream()), "UTF-8");
+
+    // then
+    AssertJUnit.assertTrue(loadingInfo.isGziped());
+    AssertJUnit.assertTrue(changed);
+    AssertJUnit.assertEquals("line 1\nline 2\nline 3\n", firstRead + secondRead);
+    AssertJUnit.assertEquals(member1.length + member2.length, loadingInfo.getGzipDecoder().getCompressedOffset());
+  }
+
+  private static byte[] gzip(String text) throws IOException {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    GZIPOutputStream gout = new GZIPOutputStream(bout);
+    gout.write(text.getBytes("UTF-8"));
+    gout.close();
+    return bout.toByteArray();
+  }
+
+  private static byte[] concat(byte[]... arrays) {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    for (byte[] array : arrays) {
+      bout.write(array, 0, array.length);
+    }
+    return bout.toByteArray();
+  }
+
+  private static void write(File file, byte[] bytes, int off, int len, boolean append) throws IOException {
+    FileOutputStream out = new FileOutputStream(file, append);
+    try {
+      out.write(bytes, off, len);
+    } finally {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.io;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+public class ParallelGzipInputStreamTest {
+
+  @Test
+  public void testBlockedGzipIsInflatedInBlocks() throws IOException {
+    // given
+    byte[] content = logContent(20000);
+    ByteArrayOutputStream bgzf = new ByteArrayOutputStream();
+    for (int off = 0; off < content.length; off += 60000) {
+      bgzf.write(bgzfBlock(content, off, Math.min(60000, content.length - off)));
+    }
+    bgzf.write(bgzfBlock(content, 0, 0));
+
+    // when
+    ParallelGzipInputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(bgzf.toByteArray()));
+    byte[] actual = IOUtils.toByteArray(in);
+
+    // then
+    AssertJUnit.assertTrue(in.getBlockCount() > 2);
+    AssertJUnit.assertTrue(Arrays.equals(content, actual));
+  }
+
+  @Test
+  public void testSingleMemberGzipIsInflatedByReadAhead() throws IOException {
+    // given
+    byte[] content = logContent(20000);
+
+    // when
+    ParallelGzipInputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(gzip(content, 0, content.length)));
+    byte[] actual = IOUtils.toByteArray(in);
+
+    // then
+    AssertJUnit.assertEquals(0, in.getBlockCount());
+    AssertJUnit.assertTrue(Arrays.equals(content, actual));
+  }
+
+  @Test
+  public void testBlockedGzipFollowedByPlainMember() throws IOException {
+    // given
+    byte[] content = logContent(1000);
+    int half = content.length / 2;
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    compressed.write(bgzfBlock(content, 0, half));
+    compressed.write(gzip(content, half, content.length - half));
+
+    // when
+    byte[] actual = IOUtils.toByteArray(new ParallelGzipInputStream(new ByteArrayInputStream(compressed.toByteArray())));
+
+    // then
+    AssertJUnit.assertTrue(Arrays.equals(content, actual));
+  }
+
+  @Test(expectedExceptions = ZipException.class)
+  public void testCorruptedBlock() throws IOException {
+    // given
+    byte[] content = logContent(100);
+    byte[] block = bgzfBlock(content, 0, content.length);
+    block[block.length - 8] ^= 1;
+
+    // when
+    IOUtils.toByteArray(new ParallelGzipInputStream(new ByteArrayInputStream(block)));
+  }
+
+  @Test(expectedExceptions = ZipException.class)
+  public void testBlockWithTooLargeSizeIsRejected() throws IOException {
+    // given
+    byte[] content = logContent(100);
+    byte[] block = bgzfBlock(content, 0, content.length);
+    // ISIZE of 1 GiB
+    block[block.length - 1] = 0x40;
+
+    // when
+    IOUtils.toByteArray(new ParallelGzipInputStream(new ByteArrayInputStream(block)));
+  }
+
+  @Test(timeOut = 10000)
+  public void testReadAfterReadAheadFailureDoesNotBlock() throws IOException {
+    // given
+    byte[] content = logContent(20000);
+    byte[] gzip = gzip(content, 0, content.length);
+    ParallelGzipInputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(gzip, 0, gzip.length / 2));
+    IOException first = null;
+    IOException second = null;
+
+    // when
+    try {
+      IOUtils.toByteArray(in);
+    } catch (IOException e) {
+      first = e;
+    }
+    try {
+      in.read(new byte[10], 0, 10);
+    } catch (IOException e) {
+      second = e;
+    }
+
+    // then
+    AssertJUnit.assertNotNull(first);
+    AssertJUnit.assertSame(first, second);
+  }
+
+  @Test(timeOut = 10000)
+  public void testReadAfterEndReturnsEndOfStream() throws IOException {
+    // given
+    byte[] content = logContent(100);
+    ParallelGzipInputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(gzip(content, 0, content.length)));
+
+    // when
+    IOUtils.toByteArray(in);
+
+    // then
+    AssertJUnit.assertEquals(-1, in.read());
+    AssertJUnit.assertEquals(-1, in.read(new byte[10], 0, 10));
+  }
+
+  private static byte[] logContent(int lines) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < lines; i++) {
+      sb.append("2014-01-01 12:00:00,").append(i % 1000).append(" INFO [thread-").append(i % 7).append("] message ").append(i).append('\n');
+    }
+    return sb.toString().getBytes("UTF-8");
+  }
+
+  private static byte[] gzip(byte[] content, int off, int len) throws IOException {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    GZIPOutputStream gout = new GZIPOutputStream(bout);
+    gout.write(content, off, len);
+    gout.close();
+    return bout.toByteArray();
+  }
+
+  private static byte[] bgzfBlock(byte[] content, int off, int len) {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    deflater.setInput(content, off, len);
+    deflater.finish();
+    byte[] buffer = new byte[len + 1024];
+    int compressedLength = deflater.deflate(buffer);
+    deflater.end();
+    CRC32 crc = new CRC32();
+    crc.update(content, off, len);
+
+    ByteArrayOutputStream block = new ByteArrayOutputStream();
+    int blockSize = 18 + compressedLength + 8;
+    block.write(new byte[]{0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0}, 0, 16);
+    writeShort(block, blockSize - 1);
+    block.write(buffer, 0, compressedLength);
+    writeInt(block, (int) crc.getValue());
+    writeInt(block, len);
+    return block.toByteArray();
+  }
+
+  private static void writeShort(ByteArrayOutputStream out, int value) {
+    out.write(value & 0xff);
+    out.write((value >> 8) & 0xff);
+  }
+
+  private static void writeInt(ByteArrayOutputStream out, int value) {
+    writeShort(out, value & 0xffff);
+    writeShort(out, (value >> 16) & 0xffff);
+  }
+}
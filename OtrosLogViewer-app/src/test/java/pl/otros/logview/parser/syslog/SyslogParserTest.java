@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.parser.syslog;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+import pl.otros.logview.LogData;
+import pl.otros.logview.parser.ParsingContext;
+
+import java.util.Calendar;
+import java.util.logging.Level;
+
+public class SyslogParserTest {
+
+  private final SyslogParser parser = new SyslogParser();
+
+  @Test
+  public void testParseRfc5424() throws Exception {
+    // given
+    String line = "<165>1 2003-10-11T22:14:15.003Z mymachine.example.com evntslog 1234 ID47 "
+        + "[exampleSDID@32473 iut=\"3\" eventSource=\"Application\" eventID=\"1011\"][meta q=\"a \\\"b\\\" c\"] "
+        + "\uFEFFAn application event log entry...";
+
+    // when
+    LogData logData = parser.parse(line, new ParsingContext());
+
+    // then
+    AssertJUnit.assertEquals(1065910455003L, logData.getDate().getTime());
+    AssertJUnit.assertEquals(Level.INFO, logData.getLevel());
+    AssertJUnit.assertEquals("evntslog", logData.getLoggerName());
+    AssertJUnit.assertEquals("1234", logData.getThread());
+    AssertJUnit.assertEquals("ID47", logData.getMessageId());
+    AssertJUnit.assertEquals("An application event log entry...", logData.getMessage());
+    AssertJUnit.assertEquals("local4", logData.getProperties().get(SyslogParser.FACILITY));
+    AssertJUnit.assertEquals("mymachine.example.com", logData.getProperties().get(SyslogParser.HOST));
+    AssertJUnit.assertEquals("Application", logData.getProperties().get("exampleSDID@32473.eventSource"));
+    AssertJUnit.assertEquals("a \"b\" c", logData.getProperties().get("meta.q"));
+  }
+
+  @Test
+  public void testParseRfc5424WithNilValues() throws Exception {
+    // given
+    String line = "<11>1 2003-08-24T05:14:15.000003-07:00 - - - - - Failed";
+
+    // when
+    LogData logData = parser.parse(line, new ParsingContext());
+
+    // then
+    AssertJUnit.assertEquals(1061727255000L, logData.getDate().getTime());
+    AssertJUnit.assertEquals(Level.SEVERE, logData.getLevel());
+    AssertJUnit.assertEquals("", logData.getLoggerName());
+    AssertJUnit.assertNull(logData.getProperties().get(SyslogParser.HOST));
+    AssertJUnit.assertEquals("user", logData.getProperties().get(SyslogParser.FACILITY));
+    AssertJUnit.assertEquals("Failed", logData.getMessage());
+  }
+
+  @Test
+  public void testOctetCountedFrameIsNotParsed() throws Exception {
+    // when
+    LogData logData = parser.parse("52 <11>1 2003-08-24T05:14:15.000003-07:00 - - - - - Failed", new ParsingContext());
+
+    // then
+    AssertJUnit.assertNull(logData);
+  }
+
+  @Test
+  public void testParseRfc3164() throws Exception {
+    // given
+    String line = "<34>Jan  5 22:14:15 mymachine su[230]: 'su root' failed for lonvick on /dev/pts/8";
+
+    // when
+    LogData logData = parser.parse(line, new ParsingContext());
+
+    // then
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTime(logData.getDate());
+    AssertJUnit.assertEquals(Calendar.JANUARY, calendar.get(Calendar.MONTH));
+    AssertJUnit.assertEquals(5, calendar.get(Calendar.DAY_OF_MONTH));
+    AssertJUnit.assertEquals(22, calendar.get(Calendar.HOUR_OF_DAY));
+    AssertJUnit.assertEquals(Level.SEVERE, logData.getLevel());
+    AssertJUnit.assertEquals("auth", logData.getProperties().get(SyslogParser.FACILITY));
+    AssertJUnit.assertEquals("mymachine", logData.getProperties().get(SyslogParser.HOST));
+    AssertJUnit.assertEquals("su", logData.getLoggerName());
+    AssertJUnit.assertEquals("230", logData.getThread());
+    AssertJUnit.assertEquals("'su root' failed for lonvick on /dev/pts/8", logData.getMessage());
+  }
+
+  @Test
+  public void testParseStructuredDataKeepsBackslashNotEscapingCharacter() throws Exception {
+    // given
+    String line = "<14>1 2014-01-01T12:00:00.000Z host app - - [meta path=\"C:\\temp\\\\x\" q=\"a\\]b\"] message";
+
+    // when
+    LogData logData = parser.parse(line, new ParsingContext());
+
+    // then
+    AssertJUnit.assertEquals("C:\\temp\\x", logData.getProperties().get("meta.path"));
+    AssertJUnit.assertEquals("a]b", logData.getProperties().get("meta.q"));
+  }
+
+  @Test
+  public void testNotSyslogLine() throws Exception {
+    AssertJUnit.assertNull(parser.parse("2014-01-01 12:00:00 INFO message", new ParsingContext()));
+    AssertJUnit.assertNull(parser.parse("<abc>1 - - - - - -", new ParsingContext()));
+    AssertJUnit.assertNull(parser.parse("<13>1 yesterday host app - - - message", new ParsingContext()));
+    AssertJUnit.assertNull(parser.parse("", new ParsingContext()));
+  }
+}
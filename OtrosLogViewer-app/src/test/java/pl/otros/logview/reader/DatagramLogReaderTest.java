@@ -0,0 +1,242 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+import pl.otros.logview.LogData;
+import pl.otros.logview.LogDataCollector;
+import pl.otros.logview.gui.StatusObserver;
+import pl.otros.logview.importer.InitializationException;
+import pl.otros.logview.importer.Log4jSerilizedLogImporter;
+import pl.otros.logview.importer.LogImporter;
+import pl.otros.logview.importer.LogImporterUsingParser;
+import pl.otros.logview.parser.ParsingContext;
+import pl.otros.logview.parser.syslog.SyslogParser;
+
+import javax.swing.*;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class DatagramLogReaderTest {
+
+  @Test
+  public void testReceiveSyslog() throws Exception {
+    // given
+    LogImporterUsingParser importer = new LogImporterUsingParser(new SyslogParser());
+    importer.init(new Properties());
+    ListCollector collector = new ListCollector();
+    DatagramLogReader reader = new DatagramLogReader(importer, collector, new NullStatusObserver(), 0);
+    reader.start();
+    int count = 200;
+
+    // when
+    DatagramSocket socket = new DatagramSocket();
+    for (int i = 0; i < count; i++) {
+      byte[] data = String.format("<14>1 2014-01-01T12:00:00.%03dZ host app - - - message %d", i, i).getBytes("UTF-8");
+      socket.send(new DatagramPacket(data, data.length, InetAddress.getLoopbackAddress(), reader.getPort()));
+    }
+    socket.close();
+    waitForEvents(reader, count);
+    reader.close();
+
+    // then
+    AssertJUnit.assertTrue(reader.isClosed());
+    AssertJUnit.assertEquals(count, reader.getDatagramsReceived());
+    AssertJUnit.assertEquals(0, reader.getDatagramsDropped());
+    AssertJUnit.assertEquals(count, reader.getEventsReceived());
+    List<LogData> received = collector.getReceived();
+    for (int i = 0; i < count; i++) {
+      AssertJUnit.assertEquals("message " + i, received.get(i).getMessage());
+    }
+  }
+
+  @Test
+  public void testReceiveSerializedEventPerDatagram() throws Exception {
+    // given
+    ListCollector collector = new ListCollector();
+    DatagramLogReader reader = new DatagramLogReader(new Log4jSerilizedLogImporter(), collector, new NullStatusObserver(), 0);
+    reader.start();
+
+    // when
+    DatagramSocket socket = new DatagramSocket();
+    for (int i = 0; i < 10; i++) {
+      ByteArrayOutputStream bout = new ByteArrayOutputStream();
+      ObjectOutputStream oout = new ObjectOutputStream(bout);
+      oout.writeObject(new LoggingEvent(null, Logger.getLogger("UdpLogger"), i, Level.INFO, "event " + i, null));
+      oout.close();
+      byte[] data = bout.toByteArray();
+      socket.send(new DatagramPacket(data, data.length, InetAddress.getLoopbackAddress(), reader.getPort()));
+    }
+    socket.close();
+    waitForEvents(reader, 10);
+    reader.close();
+
+    // then
+    List<LogData> received = collector.getReceived();
+    AssertJUnit.assertEquals(10, received.size());
+    for (int i = 0; i < 10; i++) {
+      AssertJUnit.assertEquals("event " + i, received.get(i).getMessage());
+    }
+  }
+
+  @Test
+  public void testDatagramsDroppedWhenDecodingFallsBehind() throws Exception {
+    // given
+    BlockingImporter importer = new BlockingImporter();
+    DatagramLogReader reader = new DatagramLogReader(importer, new ListCollector(), new NullStatusObserver(), 0, 1);
+    reader.start();
+    DatagramSocket socket = new DatagramSocket();
+    try {
+      // when
+      byte[] data = "datagram".getBytes("UTF-8");
+      socket.send(new DatagramPacket(data, data.length, InetAddress.getLoopbackAddress(), reader.getPort()));
+      AssertJUnit.assertTrue(importer.entered.await(10, TimeUnit.SECONDS));
+      socket.send(new DatagramPacket(data, data.length, InetAddress.getLoopbackAddress(), reader.getPort()));
+      long deadline = System.currentTimeMillis() + 10000;
+      while (reader.getDatagramsReceived() < 2 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(20);
+      }
+
+      // then
+      AssertJUnit.assertEquals(2, reader.getDatagramsReceived());
+      AssertJUnit.assertEquals(1, reader.getDatagramsDropped());
+      AssertJUnit.assertEquals(1, reader.getSource().getMetrics().getDropped());
+    } finally {
+      socket.close();
+      importer.release.countDown();
+      reader.close();
+    }
+  }
+
+  private static void waitForEvents(DatagramLogReader reader, long expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (reader.getEventsReceived() < expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+  }
+
+  private static class ListCollector implements LogDataCollector {
+
+    private final List<LogData> received = Collections.synchronizedList(new ArrayList<LogData>());
+
+    @Override
+    public void add(LogData... logDatas) {
+      Collections.addAll(received, logDatas);
+    }
+
+    @Override
+    public LogData[] getLogData() {
+      return received.toArray(new LogData[0]);
+    }
+
+    @Override
+    public int clear() {
+      return 0;
+    }
+
+    public List<LogData> getReceived() {
+      return new ArrayList<LogData>(received);
+    }
+  }
+
+  /**
+   * Importer which decodes datagram per call and blocks first call until released.
+   */
+  private static class BlockingImporter implements LogImporter {
+
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public void init(Properties properties) throws InitializationException {
+    }
+
+    @Override
+    public void initParsingContext(ParsingContext parsingContext) {
+    }
+
+    @Override
+    public void importLogs(InputStream in, LogDataCollector dataCollector, ParsingContext parsingContext) {
+      entered.countDown();
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public String getKeyStrokeAccelelator() {
+      return null;
+    }
+
+    @Override
+    public int getMnemonic() {
+      return 0;
+    }
+
+    @Override
+    public Icon getIcon() {
+      return null;
+    }
+
+    @Override
+    public String getName() {
+      return "Blocking";
+    }
+
+    @Override
+    public String getDescription() {
+      return "Blocking";
+    }
+
+    @Override
+    public String getPluginableId() {
+      return "Blocking";
+    }
+
+    @Override
+    public int getApiVersion() {
+      return 1;
+    }
+  }
+
+  private static class NullStatusObserver implements StatusObserver {
+
+    @Override
+    public void updateStatus(String text) {
+    }
+
+    @Override
+    public void updateStatus(String text, int level) {
+    }
+  }
+}
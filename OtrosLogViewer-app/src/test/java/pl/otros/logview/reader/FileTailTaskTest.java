@@ -0,0 +1,205 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.VFS;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+import pl.otros.logview.LogDataCollector;
+import pl.otros.logview.importer.InitializationException;
+import pl.otros.logview.importer.LogImporter;
+import pl.otros.logview.io.LoadingInfo;
+import pl.otros.logview.io.Utils;
+import pl.otros.logview.parser.ParsingContext;
+
+import javax.swing.*;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class FileTailTaskTest {
+
+  @Test
+  public void testTailingOnSharedPool() throws Exception {
+    // given
+    File file = File.createTempFile("FileTailTaskTest", ".log");
+    file.deleteOnExit();
+    append(file, "line 1\nline 2\n");
+    FileObject fileObject = VFS.getManager().resolveFile(file.getAbsolutePath());
+    LoadingInfo loadingInfo = Utils.openFileObject(fileObject, true);
+    LineImporter importer = new LineImporter();
+    ParsingContext parsingContext = new ParsingContext("test", "test");
+    final CountDownLatch finished = new CountDownLatch(1);
+    FileTailTask task = new FileTailTask(loadingInfo, importer, new ProxyLogDataCollector(), parsingContext) {
+      @Override
+      protected void tailingFinished() {
+        finished.countDown();
+      }
+    };
+    ReadingScheduler scheduler = new ReadingScheduler(1);
+
+    // when
+    scheduler.startTailing(task);
+    waitForLines(importer, 2);
+    waitForState(task.getSource(), ReadingSource.State.WAITING);
+    append(file, "line 3\n");
+    waitForLines(importer, 3);
+    parsingContext.setParsingInProgress(false);
+    task.getWatch().stop();
+
+    // then
+    AssertJUnit.assertTrue(finished.await(5, TimeUnit.SECONDS));
+    AssertJUnit.assertEquals("line 3", importer.lines.get(2));
+    AssertJUnit.assertTrue(importer.threads.get(0), importer.threads.get(0).startsWith("Blocking reader-"));
+    AssertJUnit.assertTrue(importer.threads.get(2), importer.threads.get(2).startsWith("Tail reader-"));
+    AssertJUnit.assertEquals(21, task.getSource().getBytesRead());
+    AssertJUnit.assertEquals(ReadingSource.State.FINISHED, task.getSource().getState());
+    AssertJUnit.assertTrue(scheduler.getSources().isEmpty());
+  }
+
+  @Test
+  public void testBlockingReaderIsRegisteredUntilFinished() throws Exception {
+    // given
+    ReadingScheduler scheduler = new ReadingScheduler(1);
+    final ReadingSource source = scheduler.registerSource("localhost:4560", ReadingScheduler.TYPE_SOCKET);
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(1);
+
+    // when
+    scheduler.executeBlocking(source, new Runnable() {
+      @Override
+      public void run() {
+        try {
+          InputStream in = source.countBytes(new java.io.ByteArrayInputStream(new byte[100]));
+          IOUtils.toByteArray(in);
+          release.await();
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        } finally {
+          done.countDown();
+        }
+      }
+    });
+    Thread.sleep(100);
+    boolean registeredWhileReading = scheduler.getSources().contains(source);
+    release.countDown();
+    done.await(5, TimeUnit.SECONDS);
+    Thread.sleep(100);
+
+    // then
+    AssertJUnit.assertTrue(registeredWhileReading);
+    AssertJUnit.assertEquals(100, source.getBytesRead());
+    AssertJUnit.assertFalse(scheduler.getSources().contains(source));
+  }
+
+  private static void waitForLines(LineImporter importer, int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (importer.lines.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+    AssertJUnit.assertEquals(importer.lines.toString(), count, importer.lines.size());
+  }
+
+  private static void waitForState(ReadingSource source, ReadingSource.State state) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (source.getState() != state && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+  }
+
+  private static void append(File file, String text) throws IOException {
+    FileOutputStream out = new FileOutputStream(file, true);
+    try {
+      out.write(text.getBytes("UTF-8"));
+    } finally {
+      out.close();
+    }
+  }
+
+  private static class LineImporter implements LogImporter {
+
+    private final List<String> lines = new CopyOnWriteArrayList<String>();
+    private final List<String> threads = new CopyOnWriteArrayList<String>();
+
+    @Override
+    public void init(Properties properties) throws InitializationException {
+    }
+
+    @Override
+    public void initParsingContext(ParsingContext parsingContext) {
+    }
+
+    @Override
+    public void importLogs(InputStream in, LogDataCollector dataCollector, ParsingContext parsingContext) {
+      try {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+        String line;
+        while ((line = reader.readLine()) != null) {
+          lines.add(line);
+          threads.add(Thread.currentThread().getName());
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public String getKeyStrokeAccelelator() {
+      return null;
+    }
+
+    @Override
+    public int getMnemonic() {
+      return 0;
+    }
+
+    @Override
+    public Icon getIcon() {
+      return null;
+    }
+
+    @Override
+    public String getName() {
+      return "Lines";
+    }
+
+    @Override
+    public String getDescription() {
+      return "Lines";
+    }
+
+    @Override
+    public String getPluginableId() {
+      return "Lines";
+    }
+
+    @Override
+    public int getApiVersion() {
+      return 1;
+    }
+  }
+}
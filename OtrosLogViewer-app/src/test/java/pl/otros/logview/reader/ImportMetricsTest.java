@@ -0,0 +1,157 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import pl.otros.logview.BufferingLogDataCollectorProxy;
+import pl.otros.logview.gui.ConfKeys;
+import pl.otros.logview.importer.LogImporterUsingParser;
+import pl.otros.logview.parser.ParsingContext;
+import pl.otros.logview.parser.syslog.SyslogParser;
+
+import javax.management.MBeanServer;
+import javax.swing.*;
+import javax.management.ObjectName;
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+import java.util.Set;
+
+public class ImportMetricsTest {
+
+  private static final String LOGS = "<14>1 2014-01-01T12:00:00Z host app - - - first\n"
+      + "not a syslog line\n"
+      + "<14>1 2014-01-01T12:00:01Z host app - - - second\n";
+
+  @AfterMethod
+  public void clearProperty() {
+    System.clearProperty(ReadingSourceJmx.JMX_PROPERTY);
+  }
+
+  @Test
+  public void testMetricsOfParsingImporter() throws Exception {
+    // given
+    ReadingScheduler scheduler = new ReadingScheduler(1);
+    ReadingSource source = scheduler.registerSource("metrics", ReadingScheduler.TYPE_FILE);
+    LogImporterUsingParser importer = new LogImporterUsingParser(new SyslogParser());
+    importer.init(new Properties());
+    ParsingContext parsingContext = new ParsingContext("metrics");
+    importer.initParsingContext(parsingContext);
+    source.attach(parsingContext);
+    ProxyLogDataCollector collector = new ProxyLogDataCollector();
+
+    // when
+    importer.importLogs(new ByteArrayInputStream(LOGS.getBytes("UTF-8")), source.countEvents(collector), parsingContext);
+
+    // then
+    ImportMetrics metrics = source.getMetrics();
+    AssertJUnit.assertEquals(2, collector.getLogData().length);
+    AssertJUnit.assertEquals(2, source.getEventsRead());
+    AssertJUnit.assertEquals(3, metrics.getLinesRead());
+    AssertJUnit.assertEquals(1, metrics.getParseFailures());
+    AssertJUnit.assertEquals(3, metrics.getHistogram(ImportMetrics.Stage.READ).getCount());
+    AssertJUnit.assertEquals(3, metrics.getHistogram(ImportMetrics.Stage.PARSE).getCount());
+    AssertJUnit.assertEquals(2, metrics.getHistogram(ImportMetrics.Stage.STORE).getCount());
+  }
+
+  @Test
+  public void testStoreTimeOfBufferedEventsRecordedWhenInserted() throws Exception {
+    // given
+    ReadingScheduler scheduler = new ReadingScheduler(1);
+    ReadingSource source = scheduler.registerSource("buffered", ReadingScheduler.TYPE_FILE);
+    LogImporterUsingParser importer = new LogImporterUsingParser(new SyslogParser());
+    importer.init(new Properties());
+    ParsingContext parsingContext = new ParsingContext("buffered");
+    importer.initParsingContext(parsingContext);
+    source.attach(parsingContext);
+    BaseConfiguration configuration = new BaseConfiguration();
+    configuration.setProperty(ConfKeys.TAILING_PANEL_PLAY, false);
+    ProxyLogDataCollector collector = new ProxyLogDataCollector();
+    BufferingLogDataCollectorProxy proxy = new BufferingLogDataCollectorProxy(collector, 100, configuration);
+
+    // when
+    importer.importLogs(new ByteArrayInputStream(LOGS.getBytes("UTF-8")), source.countEvents(proxy), parsingContext);
+    long queuedStoreCount = source.getMetrics().getHistogram(ImportMetrics.Stage.STORE).getCount();
+    configuration.setProperty(ConfKeys.TAILING_PANEL_PLAY, true);
+    long deadline = System.currentTimeMillis() + 10000;
+    while (proxy.getUpdateScheduler().getUpdates() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+    SwingUtilities.invokeAndWait(new Runnable() {
+      @Override
+      public void run() {
+      }
+    });
+    proxy.stop();
+
+    // then
+    AssertJUnit.assertEquals(0, queuedStoreCount);
+    AssertJUnit.assertEquals(2, collector.getLogData().length);
+    AssertJUnit.assertEquals(1, proxy.getUpdateScheduler().getUpdates());
+    AssertJUnit.assertEquals(1, source.getMetrics().getHistogram(ImportMetrics.Stage.STORE).getCount());
+  }
+
+  @Test
+  public void testParsingContextWithoutMetrics() throws Exception {
+    // given
+    LogImporterUsingParser importer = new LogImporterUsingParser(new SyslogParser());
+    ParsingContext parsingContext = new ParsingContext("no metrics");
+    ProxyLogDataCollector collector = new ProxyLogDataCollector();
+
+    // when
+    importer.importLogs(new ByteArrayInputStream(LOGS.getBytes("UTF-8")), collector, parsingContext);
+
+    // then
+    AssertJUnit.assertNull(parsingContext.getImportMetrics());
+    AssertJUnit.assertEquals(2, collector.getLogData().length);
+  }
+
+  @Test
+  public void testJmxExport() throws Exception {
+    // given
+    System.setProperty(ReadingSourceJmx.JMX_PROPERTY, "true");
+    ReadingScheduler scheduler = new ReadingScheduler(1);
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName query = new ObjectName("pl.otros.logview:type=ReadingSource,*");
+
+    // when
+    ReadingSource source = scheduler.registerSource("jmx test", ReadingScheduler.TYPE_SOCKET);
+    source.getMetrics().linesRead(5);
+    source.getMetrics().parseFailed(2);
+    Set<ObjectName> registered = server.queryNames(query, null);
+    ObjectName name = null;
+    for (ObjectName objectName : registered) {
+      if ("jmx test".equals(server.getAttribute(objectName, "Name"))) {
+        name = objectName;
+      }
+    }
+    AssertJUnit.assertNotNull(name);
+    Object lines = server.getAttribute(name, "LinesRead");
+    Object failures = server.getAttribute(name, "ParseFailures");
+    Object state = server.getAttribute(name, "State");
+    scheduler.unregisterSource(source);
+
+    // then
+    AssertJUnit.assertEquals(5L, lines);
+    AssertJUnit.assertEquals(2L, failures);
+    AssertJUnit.assertEquals("WAITING", state);
+    AssertJUnit.assertFalse(server.isRegistered(name));
+  }
+}
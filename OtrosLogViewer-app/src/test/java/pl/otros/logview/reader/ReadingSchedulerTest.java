@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.reader;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+public class ReadingSchedulerTest {
+
+  @Test
+  public void testRatesAreChangedOnlyBySampling() throws Exception {
+    // given
+    ReadingScheduler scheduler = new ReadingScheduler(1);
+    ReadingSource source = scheduler.registerSource("test", ReadingScheduler.TYPE_FILE);
+    source.dataRead(1000);
+    Thread.sleep(50);
+
+    // when
+    scheduler.sampleRates();
+    double sampled = source.getBytesPerSecond();
+    source.dataRead(1000);
+    double read = source.getBytesPerSecond();
+
+    // then
+    AssertJUnit.assertTrue(sampled > 0);
+    AssertJUnit.assertEquals(sampled, read);
+  }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.reader;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+import pl.otros.logview.LogData;
+import pl.otros.logview.LogDataCollector;
+import pl.otros.logview.gui.StatusObserver;
+import pl.otros.logview.importer.InitializationException;
+import pl.otros.logview.importer.LogImporter;
+import pl.otros.logview.importer.LogImporterUsingParser;
+import pl.otros.logview.parser.ParsingContext;
+import pl.otros.logview.parser.log4j.Log4jPatternMultilineLogParser;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SocketLogReaderTest {
+
+  @Test
+  public void testManyConnectionsWithLinesSplitBetweenPackets() throws Exception {
+    // given
+    SynchronizedCollector collector = new SynchronizedCollector();
+    SocketLogReader reader = new SocketLogReader(log4jImporter(), collector, new NullStatusObserver(), 0);
+    reader.start();
+    List<Thread> clients = new ArrayList<Thread>();
+    for (int i = 0; i < 5; i++) {
+      final int client = i;
+      final int port = reader.getPort();
+      clients.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            Socket socket = new Socket("localhost", port);
+            OutputStream out = socket.getOutputStream();
+            for (int line = 0; line < 100; line++) {
+              byte[] bytes = String.format("2014-01-01 12:00:00,%03d INFO [client-%d] message %d\n", line, client, line).getBytes("UTF-8");
+              out.write(bytes, 0, 10);
+              out.flush();
+              out.write(bytes, 10, bytes.length - 10);
+            }
+            socket.close();
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      }));
+    }
+
+    // when
+    for (Thread client : clients) {
+      client.start();
+    }
+    for (Thread client : clients) {
+      client.join();
+    }
+    waitFor(collector.count, 500);
+    waitForNoConnections(reader);
+    reader.close();
+
+    // then
+    AssertJUnit.assertEquals(500, collector.count.get());
+    AssertJUnit.assertEquals(5, reader.getAcceptedConnections());
+    AssertJUnit.assertEquals(500, reader.getEventsReceived());
+    AssertJUnit.assertTrue(reader.isClosed());
+  }
+
+  @Test
+  public void testStackTraceSplitBetweenWrites() throws Exception {
+    // given
+    ListCollector collector = new ListCollector();
+    SocketLogReader reader = new SocketLogReader(log4jImporter(), collector, new NullStatusObserver(), 0);
+    reader.start();
+
+    // when
+    Socket socket = new Socket("localhost", reader.getPort());
+    OutputStream out = socket.getOutputStream();
+    out.write("2014-01-01 12:00:00,000 ERROR [main] message failed\njava.lang.IllegalStateException: boom\n".getBytes("UTF-8"));
+    out.flush();
+    Thread.sleep(200);
+    out.write("\tat a.B.c(B.java:1)\n\tat a.B.d(B.java:2)\n".getBytes("UTF-8"));
+    out.flush();
+    Thread.sleep(200);
+    out.write("2014-01-01 12:00:01,000 INFO [main] message next\n".getBytes("UTF-8"));
+    socket.close();
+    waitForNoConnections(reader);
+    reader.close();
+
+    // then
+    List<LogData> events = collector.getEvents();
+    AssertJUnit.assertEquals(2, events.size());
+    AssertJUnit.assertTrue(events.get(0).getMessage(), events.get(0).getMessage().contains("boom"));
+    AssertJUnit.assertTrue(events.get(0).getMessage(), events.get(0).getMessage().contains("a.B.d(B.java:2)"));
+    AssertJUnit.assertEquals("message next", events.get(1).getMessage());
+  }
+
+  @Test
+  public void testBufferedEventIsImportedWhenConnectionIsIdle() throws Exception {
+    // given
+    ListCollector collector = new ListCollector();
+    SocketLogReader reader = new SocketLogReader(log4jImporter(), collector, new NullStatusObserver(), 0);
+    reader.start();
+
+    // when
+    Socket socket = new Socket("localhost", reader.getPort());
+    OutputStream out = socket.getOutputStream();
+    out.write("2014-01-01 12:00:00,000 ERROR [main] message failed\n\tat a.B.c(B.java:1)\n".getBytes("UTF-8"));
+    out.flush();
+    long deadline = System.currentTimeMillis() + 10000;
+    while (collector.getEvents().isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+    List<LogData> events = collector.getEvents();
+    socket.close();
+    reader.close();
+
+    // then
+    AssertJUnit.assertEquals(1, events.size());
+    AssertJUnit.assertTrue(events.get(0).getMessage(), events.get(0).getMessage().contains("a.B.c(B.java:1)"));
+  }
+
+  @Test
+  public void testLineLongerThanWatermarkDoesNotStallConnection() throws Exception {
+    // given
+    ListCollector collector = new ListCollector();
+    SocketLogReader reader = new SocketLogReader(log4jImporter(), collector, new NullStatusObserver(), 0);
+    reader.start();
+    byte[] header = "2014-01-01 12:00:00,000 INFO [main] ".getBytes("UTF-8");
+    byte[] data = new byte[2 * SocketConnection.HIGH_WATERMARK];
+    System.arraycopy(header, 0, data, 0, header.length);
+    Arrays.fill(data, header.length, data.length, (byte) 'x');
+
+    // when
+    Socket socket = new Socket("localhost", reader.getPort());
+    socket.getOutputStream().write(data);
+    socket.close();
+    long deadline = System.currentTimeMillis() + 10000;
+    while (reader.getBytesReceived() < data.length && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+    waitForNoConnections(reader);
+    reader.close();
+
+    // then
+    AssertJUnit.assertEquals(0, reader.getConnectionsCount());
+    AssertJUnit.assertEquals(data.length, reader.getBytesReceived());
+    AssertJUnit.assertEquals(1, collector.getEvents().size());
+  }
+
+  @Test
+  public void testStreamImporterReceivesWholeStream() throws Exception {
+    // given
+    final AtomicLong received = new AtomicLong();
+    StreamImporter importer = new StreamImporter(received);
+    SocketLogReader reader = new SocketLogReader(importer, new SynchronizedCollector(), new NullStatusObserver(), 0);
+    reader.start();
+    byte[] data = new byte[3 * SocketConnection.HIGH_WATERMARK];
+
+    // when
+    Socket socket = new Socket("localhost", reader.getPort());
+    socket.getOutputStream().write(data);
+    socket.close();
+    waitFor(received, data.length);
+    reader.close();
+
+    // then
+    AssertJUnit.assertEquals(data.length, received.get());
+    AssertJUnit.assertEquals(data.length, reader.getBytesReceived());
+  }
+
+  private static void waitFor(AtomicLong counter, long expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (counter.get() < expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+  }
+
+  private static void waitForNoConnections(SocketLogReader reader) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (reader.getConnectionsCount() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+  }
+
+  private static LogImporter log4jImporter() throws InitializationException {
+    Properties p = new Properties();
+    p.put("type", "log4j");
+    p.put("rePattern", "(\\S+ \\S+) +(\\S+) +\\[\\s*(\\S+)\\s*\\] +(.*)");
+    p.put("dateFormat", "yyyy-MM-dd HH:mm:ss,SSS");
+    p.put("TIMESTAMP.group", "1");
+    p.put("LEVEL.group", "2");
+    p.put("THREAD.group", "3");
+    p.put("MESSAGE.group", "4");
+    LogImporterUsingParser importer = new LogImporterUsingParser(new Log4jPatternMultilineLogParser());
+    importer.init(p);
+    return importer;
+  }
+
+  private static class SynchronizedCollector implements LogDataCollector {
+
+    private final AtomicLong count = new AtomicLong();
+
+    @Override
+    public synchronized void add(LogData... logDatas) {
+      for (LogData logData : logDatas) {
+        if (!logData.getMessage().startsWith("message ")) {
+          throw new IllegalStateException("Broken event: " + logData.getMessage());
+        }
+      }
+      count.addAndGet(logDatas.length);
+    }
+
+    @Override
+    public LogData[] getLogData() {
+      return new LogData[0];
+    }
+
+    @Override
+    public int clear() {
+      return 0;
+    }
+  }
+
+  private static class ListCollector implements LogDataCollector {
+
+    private final List<LogData> events = new ArrayList<LogData>();
+
+    @Override
+    public synchronized void add(LogData... logDatas) {
+      events.addAll(Arrays.asList(logDatas));
+    }
+
+    public synchronized List<LogData> getEvents() {
+      return new ArrayList<LogData>(events);
+    }
+
+    @Override
+    public LogData[] getLogData() {
+      return new LogData[0];
+    }
+
+    @Override
+    public int clear() {
+      return 0;
+    }
+  }
+
+  private static class NullStatusObserver implements StatusObserver {
+
+    @Override
+    public void updateStatus(String text) {
+    }
+
+    @Override
+    public void updateStatus(String text, int level) {
+    }
+  }
+
+  private static class StreamImporter implements LogImporter {
+
+    private final AtomicLong received;
+
+    public StreamImporter(AtomicLong received) {
+      this.received = received;
+    }
+
+    @Override
+    public void init(Properties properties) throws InitializationException {
+    }
+
+    @Override
+    public void initParsingContext(ParsingContext parsingContext) {
+    }
+
+    @Override
+    public void importLogs(InputStream in, LogDataCollector dataCollector, ParsingContext parsingContext) {
+      try {
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+          received.addAndGet(read);
+          Thread.sleep(read > 0 ? 0 : 1);
+        }
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public String getKeyStrokeAccelelator() {
+      return null;
+    }
+
+    @Override
+    public int getMnemonic() {
+      return 0;
+    }
+
+    @Override
+    public Icon getIcon() {
+      return null;
+    }
+
+    @Override
+    public String getName() {
+      return "Stream";
+    }
+
+    @Override
+    public String getDescription() {
+      return "Stream";
+    }
+
+    @Override
+    public String getPluginableId() {
+      return "Stream";
+    }
+
+    @Override
+    public int getApiVersion() {
+      return 1;
+    }
+  }
+}
@@ -21,7 +21,10 @@ import org.testng.annotations.Test;
 import org.testng.annotations.BeforeMethod;
 import pl.otros.logview.LogData;
 import pl.otros.logview.LogDataBuilder;
+import pl.otros.logview.store.index.IdSelection;
+import pl.otros.logview.store.index.IndexedField;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -265,4 +268,23 @@ public void prepare() throws Exception {
 
   }
 
+  @Test
+  public void testIndexesFollowAddAndRemove() {
+    // given
+    for (int i = 0; i < 10; i++) {
+      logDataStore.add(new LogDataBuilder().withDate(new Date(i)).withThread("t" + (i % 2)).withClass("a.b.C" + (i % 3)).build());
+    }
+
+    // when
+    logDataStore.remove(0, 2);
+
+    // then
+    IdSelection thread0 = logDataStore.getIndexes().get(IndexedField.THREAD).select(Collections.singleton("t0"));
+    assertEquals(3, thread0.size());
+    assertTrue(thread0.covers(9));
+    IdSelection classes = logDataStore.getIndexes().get(IndexedField.CLASS).selectWithPrefix(Collections.singleton("a.b.C1"));
+    assertEquals(3, classes.size());
+    assertTrue(classes.contains(logDataStore.getLogData(0).getId()));
+  }
+
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+public class FieldIndexTest {
+
+  private FieldIndex index;
+
+  @BeforeMethod
+  public void before() {
+    index = new FieldIndex("class", 5);
+    index.add("a.b.C", 0);
+    index.add("a.b.D", 1);
+    index.add("a.c.E", 2);
+    index.add("a.b.C", 3);
+  }
+
+  @Test
+  public void testSelect() {
+    // when
+    IdSelection selection = index.select(Collections.singleton("a.b.C"));
+
+    // then
+    assertEquals(IdBitmap.of(0, 3), selection.getIds());
+    assertEquals(3, selection.getIndexedUpToId());
+    assertTrue(selection.covers(3));
+    assertFalse(selection.covers(4));
+  }
+
+  @Test
+  public void testSelectWithPrefix() {
+    // when
+    IdSelection selection = index.selectWithPrefix(Arrays.asList("a.b", "x"));
+
+    // then
+    assertEquals(IdBitmap.of(0, 1, 3), selection.getIds());
+  }
+
+  @Test
+  public void testSelectIgnoreCase() {
+    // when
+    IdSelection selection = index.selectIgnoreCase("A.C.e");
+
+    // then
+    assertEquals(IdBitmap.of(2), selection.getIds());
+  }
+
+  @Test
+  public void testRemove() {
+    // when
+    index.remove(1);
+
+    // then
+    assertEquals(0, index.getCount("a.b.D"));
+    assertEquals(2, index.getValues().size());
+  }
+
+  @Test
+  public void testOverflow() {
+    // when
+    for (int i = 0; i < 5; i++) {
+      index.add("x" + i, 10 + i);
+    }
+
+    // then
+    assertFalse(index.isAvailable());
+    assertNull(index.select(Collections.singleton("a.b.C")));
+    assertNull(index.getValues());
+  }
+
+  @Test
+  public void testRemoveAfterOverflow() {
+    // given
+    for (int i = 0; i < 5; i++) {
+      index.add("x" + i, 10 + i);
+    }
+
+    // when
+    String removed = index.remove(1);
+    String removedTwice = index.remove(1);
+
+    // then
+    assertEquals("a.b.D", removed);
+    assertNull(removedTwice);
+    assertEquals("x1", index.remove(11));
+    // values seen first after overflow are not remembered
+    assertNull(index.remove(14));
+  }
+
+  @Test
+  public void testIdCodesFollowLiveEvents() {
+    // given
+    index.clear();
+
+    // when
+    for (int id = 0; id < 100000; id++) {
+      index.add("a.b.C", id);
+      if (id >= 100) {
+        assertEquals("a.b.C", index.remove(id - 100));
+      }
+    }
+
+    // then
+    assertTrue(index.getIdCapacity() < 1000);
+    assertEquals("a.b.C", index.remove(99999));
+    assertEquals("a.b.C", index.remove(99900));
+    assertNull(index.remove(99899));
+  }
+
+  @Test
+  public void testAddOlderThanLiveEvents() {
+    // when
+    index.remove(0);
+    index.add("a.b.X", 0);
+    index.add("x.y.Z", 100);
+
+    // then
+    assertEquals("a.b.X", index.remove(0));
+    assertEquals("a.b.D", index.remove(1));
+    assertEquals("x.y.Z", index.remove(100));
+    assertEquals("a.c.E", index.remove(2));
+  }
+
+  @Test
+  public void testClear() {
+    // when
+    index.clear();
+    index.add("a.b.C", 0);
+
+    // then
+    IdSelection selection = index.select(Collections.singleton("a.b.C"));
+    assertEquals(0, selection.getIndexedUpToId());
+    assertFalse(selection.covers(3));
+    assertNull(index.remove(3));
+  }
+}
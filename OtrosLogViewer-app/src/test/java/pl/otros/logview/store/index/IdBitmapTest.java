@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+public class IdBitmapTest {
+
+  @Test
+  public void testAddContains() {
+    // given
+    IdBitmap bitmap = IdBitmap.of(1, 5, 70000, 1000000);
+
+    // then
+    assertTrue(bitmap.contains(1));
+    assertTrue(bitmap.contains(70000));
+    assertTrue(bitmap.contains(1000000));
+    assertFalse(bitmap.contains(2));
+    assertFalse(bitmap.contains(-1));
+    assertEquals(4, bitmap.cardinality());
+  }
+
+  @Test
+  public void testDenseChunk() {
+    // given
+    IdBitmap bitmap = new IdBitmap();
+
+    // when
+    for (int i = 0; i < 10000; i++) {
+      bitmap.add(i);
+    }
+    for (int i = 0; i < 10000; i += 2) {
+      bitmap.remove(i);
+    }
+
+    // then
+    assertEquals(5000, bitmap.cardinality());
+    assertTrue(bitmap.contains(9999));
+    assertFalse(bitmap.contains(9998));
+    assertEquals(1, bitmap.nextId(0));
+    assertEquals(-1, bitmap.nextId(10000));
+  }
+
+  @Test
+  public void testOrAnd() {
+    // given
+    IdBitmap a = IdBitmap.of(1, 2, 3, 100000);
+    IdBitmap b = IdBitmap.of(3, 4, 200000);
+
+    // when
+    IdBitmap or = new IdBitmap(a);
+    or.or(b);
+    IdBitmap and = new IdBitmap(a);
+    and.and(b);
+
+    // then
+    assertEquals(IdBitmap.of(1, 2, 3, 4, 100000, 200000), or);
+    assertEquals(IdBitmap.of(3), and);
+    assertEquals(4, a.cardinality());
+  }
+
+  @Test
+  public void testRandomOperations() {
+    // given
+    Random random = new Random(1);
+    IdBitmap bitmap = new IdBitmap();
+    TreeSet<Integer> expected = new TreeSet<Integer>();
+
+    // when
+    for (int i = 0; i < 50000; i++) {
+      int id = random.nextInt(300000);
+      if (random.nextInt(3) == 0) {
+        bitmap.remove(id);
+        expected.remove(id);
+      } else {
+        bitmap.add(id);
+        expected.add(id);
+      }
+    }
+
+    // then
+    int[] ids = bitmap.toArray();
+    assertEquals(expected.size(), ids.length);
+    int i = 0;
+    for (Integer id : expected) {
+      assertEquals(id.intValue(), ids[i++]);
+    }
+    assertEquals(expected.ceiling(150000).intValue(), bitmap.nextId(150000));
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+public class MessageIndexerTest {
+
+  @Test
+  public void testFailedEventIsNotExcluded() throws Exception {
+    // given
+    TokenIndex failingIndex = new TokenIndex() {
+      @Override
+      public synchronized void add(int id, String message) {
+        if (id == 1) {
+          throw new IllegalStateException("broken");
+        }
+        super.add(id, message);
+      }
+    };
+    MessageIndexer indexer = new MessageIndexer(100, failingIndex, new TrigramIndex());
+
+    // when
+    indexer.add(0, "connection refused");
+    indexer.add(1, "connection refused");
+    indexer.add(2, "all fine");
+    waitForIndexed(indexer, 2);
+    IdSelection selection = indexer.selectContaining("refused");
+
+    // then
+    assertFalse(selection.excludes(0));
+    assertFalse(selection.excludes(1));
+    assertTrue(selection.excludes(2));
+  }
+
+  @Test
+  public void testPendingQueueIsBounded() throws Exception {
+    // given
+    MessageIndexer indexer = new MessageIndexer(10, new TokenIndex(), new TrigramIndex());
+    int maxPending = 0;
+
+    // when
+    for (int id = 0; id < 5000; id++) {
+      indexer.add(id, "message number " + id);
+      maxPending = Math.max(maxPending, indexer.getPendingCount());
+    }
+    waitForIndexed(indexer, 4999);
+
+    // then
+    assertTrue(maxPending <= 10);
+    assertEquals(4999, indexer.getIndexedUpToId());
+  }
+
+  private static void waitForIndexed(MessageIndexer indexer, int id) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (indexer.getIndexedUpToId() < id && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+}
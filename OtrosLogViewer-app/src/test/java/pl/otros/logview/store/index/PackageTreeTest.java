@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+public class PackageTreeTest {
+
+  @Test
+  public void testCounts() {
+    // given
+    PackageTree tree = new PackageTree();
+
+    // when
+    tree.add("a.b.C");
+    tree.add("a.b.C");
+    tree.add("a.b.D");
+    tree.add("a.E");
+    tree.add("");
+
+    // then
+    assertEquals(4, tree.getCount("a"));
+    assertEquals(3, tree.getCount("a.b"));
+    assertEquals(2, tree.getCount("a.b.C"));
+    assertEquals(0, tree.getCount("a.x"));
+    assertEquals(4, tree.copy().getCount());
+  }
+
+  @Test
+  public void testRemove() {
+    // given
+    PackageTree tree = new PackageTree();
+    tree.add("a.b.C");
+    tree.add("a.b.D");
+
+    // when
+    tree.remove("a.b.C");
+    tree.remove("a.b");
+    tree.remove("x.Y");
+
+    // then
+    assertEquals(1, tree.getCount("a.b"));
+    assertEquals(0, tree.getCount("a.b.C"));
+    PackageTree.Node b = tree.copy().getChildren().iterator().next().getChildren().iterator().next();
+    assertEquals("a.b", b.getFullName());
+    assertEquals(1, b.getChildren().size());
+  }
+
+  @Test
+  public void testCopyIsSorted() {
+    // given
+    PackageTree tree = new PackageTree();
+    tree.add("a.Z");
+    tree.add("a.B");
+    tree.add("a.b.C");
+
+    // when
+    PackageTree.Node a = tree.copy().getChildren().iterator().next();
+
+    // then
+    ArrayList<String> names = new ArrayList<String>();
+    for (PackageTree.Node node : a.getChildren()) {
+      names.add(node.getName());
+    }
+    assertEquals("[B, Z, b]", names.toString());
+    Iterator<PackageTree.Node> iterator = a.getChildren().iterator();
+    assertTrue(iterator.next().isLeaf());
+    iterator.next();
+    assertFalse(iterator.next().isLeaf());
+  }
+}
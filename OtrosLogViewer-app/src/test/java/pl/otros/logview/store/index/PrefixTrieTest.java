@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+public class PrefixTrieTest {
+
+  @Test
+  public void testMatches() {
+    // given
+    PrefixTrie trie = new PrefixTrie(Arrays.asList("com.foo", "org.apache.Log", "com.foo.bar"));
+
+    // then
+    assertTrue(trie.matches("com.foo.Bar"));
+    assertTrue(trie.matches("com.foobar.Bar"));
+    assertTrue(trie.matches("org.apache.Logger"));
+    assertFalse(trie.matches("org.apache.Foo"));
+    assertFalse(trie.matches("com.fo"));
+    assertEquals(3, trie.size());
+  }
+
+  @Test
+  public void testRemove() {
+    // given
+    PrefixTrie trie = new PrefixTrie(Arrays.asList("a.b", "a.b.c"));
+
+    // when
+    boolean removed = trie.remove("a.b");
+
+    // then
+    assertTrue(removed);
+    assertFalse(trie.remove("a"));
+    assertFalse(trie.matches("a.b.D"));
+    assertTrue(trie.matches("a.b.c.D"));
+    assertTrue(trie.contains("a.b.c"));
+    assertFalse(trie.contains("a.b"));
+  }
+
+  @Test
+  public void testEmptyPrefixMatchesEverything() {
+    // given
+    PrefixTrie trie = new PrefixTrie();
+    assertFalse(trie.matches("a"));
+
+    // when
+    trie.add("");
+
+    // then
+    assertTrue(trie.matches("a"));
+    assertTrue(trie.matches(""));
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+public class RegexLiteralsTest {
+
+  @DataProvider(name = "literals")
+  public Object[][] literals() {
+    return new Object[][]{
+        {"Exception", alternatives("exception")},
+        {"connection.*refused", alternatives("connection", "refused")},
+        {"user \\d+ logged", alternatives("user ", " logged")},
+        {"(timeout|refused) on host", alternatives("timeout", " on host", "|", "refused", " on host")},
+        {"a\\.b\\.Cde", alternatives("a.b.cde")},
+        {"errors?", alternatives("error")},
+        {"abc+de", alternatives("abc", "cde")},
+        {"\\Qa.b[c]\\E", alternatives("a.b[c]")},
+        {"(?i)warn(?:ing)?", alternatives("warn")},
+        {"[abc]xyz(?=foo)", alternatives("xyz")},
+    };
+  }
+
+  @Test(dataProvider = "literals")
+  public void testAnalyze(String regex, List<Set<String>> expected) {
+    // expect
+    assertEquals(expected, RegexLiterals.analyze(regex));
+  }
+
+  @DataProvider(name = "unconstrained")
+  public Object[][] unconstrained() {
+    return new Object[][]{
+        {".*"},
+        {"ab"},
+        {"\\d+\\s\\w+"},
+        {"(abc)?def?"},
+        {"abc|x"},
+        {"(?x)a b c"},
+        {"(abc"},
+    };
+  }
+
+  @Test(dataProvider = "unconstrained")
+  public void testUnconstrained(String regex) {
+    // expect
+    assertNull(RegexLiterals.analyze(regex));
+  }
+
+  /**
+   * Literals separated by "|" form alternatives.
+   */
+  private static List<Set<String>> alternatives(String... literals) {
+    List<Set<String>> result = new ArrayList<Set<String>>();
+    Set<String> current = new HashSet<String>();
+    for (String literal : literals) {
+      if (literal.equals("|")) {
+        result.add(current);
+        current = new HashSet<String>();
+      } else {
+        current.add(literal);
+      }
+    }
+    result.add(current);
+    return result;
+  }
+}
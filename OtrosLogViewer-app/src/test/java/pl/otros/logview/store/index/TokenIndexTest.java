@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+public class TokenIndexTest {
+
+  private TokenIndex index;
+
+  @BeforeMethod
+  public void before() {
+    index = new TokenIndex();
+    index.add(0, "Connection to db-server established");
+    index.add(1, "Connection refused, retrying");
+    index.add(2, "User JOHN logged in");
+    index.add(3, "Server stopped");
+  }
+
+  @Test
+  public void testFindWholeWords() {
+    // when
+    IdBitmap candidates = index.findCandidates(" logged in ");
+
+    // then
+    assertEquals(IdBitmap.of(2), candidates);
+  }
+
+  @Test
+  public void testFindPartOfWordIgnoringCase() {
+    // when
+    IdBitmap candidates = index.findCandidates("NECT");
+
+    // then
+    assertEquals(IdBitmap.of(0, 1), candidates);
+  }
+
+  @Test
+  public void testFindEdgeWordsAsPrefixAndSuffix() {
+    // when
+    IdBitmap candidates = index.findCandidates("db-serv");
+
+    // then
+    assertEquals(IdBitmap.of(0), candidates);
+  }
+
+  @Test
+  public void testFindNotExisting() {
+    // when
+    IdBitmap candidates = index.findCandidates("timeout");
+
+    // then
+    assertEquals(0, candidates.cardinality());
+  }
+
+  @Test
+  public void testNoWordsInText() {
+    // expect
+    assertNull(index.findCandidates(" - "));
+  }
+
+  @Test
+  public void testRemoveAll() {
+    // when
+    index.removeAll(IdBitmap.of(0, 1));
+
+    // then
+    assertEquals(0, index.findCandidates("connection").cardinality());
+    assertEquals(IdBitmap.of(3), index.findCandidates("server"));
+  }
+
+  @Test
+  public void testLongWordsAreAlwaysCandidates() {
+    // given
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i <= TokenIndex.MAX_TOKEN_LENGTH; i++) {
+      sb.append('x');
+    }
+    index.add(4, sb.toString());
+
+    // when
+    IdBitmap candidates = index.findCandidates("user");
+
+    // then
+    assertEquals(IdBitmap.of(2, 4), candidates);
+  }
+}
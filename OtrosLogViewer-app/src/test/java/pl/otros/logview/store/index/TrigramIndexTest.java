@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.store.index;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+public class TrigramIndexTest {
+
+  private TrigramIndex index;
+
+  @BeforeMethod
+  public void before() {
+    index = new TrigramIndex();
+    index.add(0, "Connection refused");
+    index.add(1, "Connection timeout");
+    index.add(2, "Read TIMEOUT on socket");
+    index.add(3, "Done");
+  }
+
+  @Test
+  public void testFindCandidates() {
+    // when
+    IdBitmap candidates = index.findCandidates(RegexLiterals.analyze("connection.*timeout"));
+
+    // then
+    assertEquals(IdBitmap.of(1), candidates);
+  }
+
+  @Test
+  public void testFindAlternatives() {
+    // when
+    IdBitmap candidates = index.findCandidates(RegexLiterals.analyze("(refused|timeout on)"));
+
+    // then
+    assertEquals(IdBitmap.of(0, 2), candidates);
+  }
+
+  @Test
+  public void testFindNotExisting() {
+    // when
+    IdBitmap candidates = index.findCandidates(RegexLiterals.analyze("error \\d+"));
+
+    // then
+    assertEquals(0, candidates.cardinality());
+  }
+
+  @Test
+  public void testRemoveAll() {
+    // when
+    index.removeAll(IdBitmap.of(1, 2));
+
+    // then
+    assertEquals(0, index.findCandidates(RegexLiterals.analyze("timeout")).cardinality());
+    assertEquals(IdBitmap.of(0), index.findCandidates(RegexLiterals.analyze("connection")));
+  }
+
+  @Test
+  public void testShortLiteralsGiveNoConstraint() {
+    // expect
+    assertNull(RegexLiterals.analyze("on"));
+  }
+}
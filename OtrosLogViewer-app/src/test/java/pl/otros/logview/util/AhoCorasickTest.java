@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.util;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+public class AhoCorasickTest {
+
+  @Test
+  public void testFindIgnoringCase() {
+    // given
+    AhoCorasick ahoCorasick = new AhoCorasick(Arrays.asList("error", "exception", "null", "ERR"));
+
+    // when
+    BitSet found = ahoCorasick.find("NullPointerException: Err");
+
+    // then
+    BitSet expected = new BitSet();
+    expected.set(1);
+    expected.set(2);
+    expected.set(3);
+    assertEquals(expected, found);
+  }
+
+  @Test
+  public void testOverlappingPatterns() {
+    // given
+    AhoCorasick ahoCorasick = new AhoCorasick(Arrays.asList("she", "he", "hers", "his"));
+
+    // when
+    BitSet found = ahoCorasick.find("ushers");
+
+    // then
+    BitSet expected = new BitSet();
+    expected.set(0);
+    expected.set(1);
+    expected.set(2);
+    assertEquals(expected, found);
+  }
+
+  @Test
+  public void testNonAsciiCharacters() {
+    // given
+    AhoCorasick ahoCorasick = new AhoCorasick(Arrays.asList("\u017c\u00f3\u0142w", "\u0142\u00f3d\u017a"));
+
+    // when
+    BitSet found = ahoCorasick.find("Ma\u0142y \u017b\u00d3\u0141W");
+
+    // then
+    BitSet expected = new BitSet();
+    expected.set(0);
+    assertEquals(expected, found);
+  }
+
+  @Test
+  public void testSameResultAsContains() {
+    // given
+    Random random = new Random(0);
+    String alphabet = "abAB.\u0105";
+    for (int test = 0; test < 200; test++) {
+      List<String> patterns = new ArrayList<String>();
+      for (int i = 0; i < 5; i++) {
+        patterns.add(randomString(random, alphabet, 1 + random.nextInt(4)));
+      }
+      String text = randomString(random, alphabet, random.nextInt(30));
+
+      // when
+      BitSet found = new AhoCorasick(patterns).find(text);
+
+      // then
+      for (int i = 0; i < patterns.size(); i++) {
+        assertEquals(patterns + " in " + text, text.toLowerCase().contains(patterns.get(i).toLowerCase()), found.get(i));
+      }
+    }
+  }
+
+  private String randomString(Random random, String alphabet, int length) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    }
+    return sb.toString();
+  }
+}
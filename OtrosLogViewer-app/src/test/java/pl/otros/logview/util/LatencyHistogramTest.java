@@ -0,0 +1,83 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package pl.otros.logview.util;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    AssertJUnit.assertEquals(0, histogram.getCount());
+    AssertJUnit.assertEquals(0d, histogram.getMeanNanos());
+    AssertJUnit.assertEquals(0, histogram.getPercentileNanos(99));
+  }
+
+  @Test
+  public void testPercentiles() {
+    // given
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    // when
+    for (int i = 0; i < 98; i++) {
+      histogram.record(1000);
+    }
+    histogram.record(1000000);
+    histogram.record(1000000);
+
+    // then
+    AssertJUnit.assertEquals(100, histogram.getCount());
+    AssertJUnit.assertEquals(98000 + 2000000, histogram.getTotalNanos());
+    AssertJUnit.assertEquals(20980d, histogram.getMeanNanos(), 0.001);
+    AssertJUnit.assertEquals(2000, histogram.getPercentileNanos(50));
+    AssertJUnit.assertEquals(2000000, histogram.getPercentileNanos(99));
+    AssertJUnit.assertEquals(2, histogram.getPercentileMillis(99));
+    AssertJUnit.assertEquals(1000000, histogram.getMaxNanos());
+  }
+
+  @Test
+  public void testDurationsAboveLargestBound() {
+    // given
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    // when
+    histogram.record(TimeUnit.SECONDS.toNanos(7));
+
+    // then
+    AssertJUnit.assertEquals(7000, histogram.getPercentileMillis(50));
+    AssertJUnit.assertTrue(histogram.getPercentileMillis(50) > LatencyHistogram.getLargestBoundMillis());
+  }
+
+  @Test
+  public void testReset() {
+    // given
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(1000);
+
+    // when
+    histogram.reset();
+
+    // then
+    AssertJUnit.assertEquals(0, histogram.getCount());
+    AssertJUnit.assertEquals(0, histogram.getMaxNanos());
+    AssertJUnit.assertEquals(0, histogram.getPercentileNanos(100));
+  }
+}
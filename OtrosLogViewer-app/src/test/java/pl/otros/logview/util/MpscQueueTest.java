@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 Krzysztof Otrebski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.otros.logview.util;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+public class MpscQueueTest {
+
+  @Test
+  public void testOfferPoll() {
+    // given
+    MpscQueue<String> queue = new MpscQueue<String>();
+
+    // when
+    queue.offer("a");
+    queue.offer("b");
+
+    // then
+    assertEquals(Arrays.asList("a", "b"), queue.snapshot());
+    assertEquals("a", queue.poll());
+    assertEquals(Arrays.asList("b"), queue.snapshot());
+    assertEquals("b", queue.poll());
+    assertNull(queue.poll());
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testManyProducers() throws InterruptedException {
+    // given
+    final MpscQueue<int[]> queue = new MpscQueue<int[]>();
+    final int producers = 4;
+    final int perProducer = 20000;
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[producers];
+    for (int p = 0; p < producers; p++) {
+      final int producer = p;
+      threads[p] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int i = 0; i < perProducer; i++) {
+            queue.offer(new int[]{producer, i});
+          }
+        }
+      });
+      threads[p].start();
+    }
+
+    // when
+    start.countDown();
+    int[] lastSeen = new int[producers];
+    Arrays.fill(lastSeen, -1);
+    int received = 0;
+    while (received < producers * perProducer) {
+      int[] value = queue.poll();
+      if (value == null) {
+        Thread.yield();
+        continue;
+      }
+      // order of every producer is kept
+      assertEquals(lastSeen[value[0]] + 1, value[1]);
+      lastSeen[value[0]] = value[1];
+      received++;
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    // then
+    assertNull(queue.poll());
+    for (int last : lastSeen) {
+      assertEquals(perProducer - 1, last);
+    }
+  }
+}